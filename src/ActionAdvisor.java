@@ -0,0 +1,336 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Works out which action is best for a pet right now, for the hint in the
+ * interaction menu.
+ *
+ * Every legal action (eating each kind of food owned, playing with each kind
+ * of toy owned, sleeping, going to the toilet and doing nothing) is tried on
+ * a copy of the pet, which is then taken a few days ahead with random events.
+ * An action's value is the pet's average score over those days. The actions
+ * are tried in parallel.
+ *
+ * Items with the same name have the same effect, so a player with hundreds of
+ * items only has as many actions as they have kinds of item. Every action is
+ * tried against the same random days, and the same number of them, so the
+ * differences between them come from the action and not from luck. That
+ * number is worked out before starting: with many actions each gets a share
+ * of a fixed total, so the hint takes about as long whatever the player owns.
+ * If the time limit still runs out, sampling stops there, so the hint never
+ * takes much longer than that.
+ *
+ * Results are kept for each pet state and inventory seen, so asking again
+ * without anything having changed costs nothing. Results cut short by the
+ * time limit are not kept.
+ *
+ */
+public class ActionAdvisor {
+
+    /**
+     * Something the player can do with a pet.
+     */
+    public enum Action {
+        /** Feed the pet. */
+        FEED,
+        /** Play with the pet. */
+        PLAY,
+        /** Put the pet to bed. */
+        SLEEP,
+        /** Let the pet go to the toilet. */
+        TOILET,
+        /** Do nothing. */
+        SKIP
+    }
+
+    /**
+     * How good one action is.
+     */
+    public static final class Advice {
+
+        /**
+         * The action.
+         */
+        private final Action action;
+        /**
+         * Name of the food or toy used, or null.
+         */
+        private final String itemName;
+        /**
+         * The pet's average score per day after the action.
+         */
+        private final double expectedScore;
+
+        /**
+         * Creates some advice.
+         * @param action The action.
+         * @param itemName Name of the food or toy used, or null.
+         * @param expectedScore The pet's average score per day after the action.
+         */
+        Advice(Action action, String itemName, double expectedScore) {
+            this.action = action;
+            this.itemName = itemName;
+            this.expectedScore = expectedScore;
+        }
+
+        /**
+         * Gets the action.
+         * @return The action.
+         */
+        public Action getAction() {
+            return action;
+        }
+
+        /**
+         * Gets the name of the food or toy used.
+         * @return The item's name, or null if the action doesn't use one.
+         */
+        public String getItemName() {
+            return itemName;
+        }
+
+        /**
+         * Gets the pet's average score per day after the action.
+         * @return The expected score.
+         */
+        public double getExpectedScore() {
+            return expectedScore;
+        }
+
+        @Override
+        public String toString() {
+            String text;
+            switch (action) {
+            case FEED:
+                text = "Feed it the " + itemName;
+                break;
+            case PLAY:
+                text = "Play with the " + itemName;
+                break;
+            case SLEEP:
+                text = "Put it to bed";
+                break;
+            case TOILET:
+                text = "Let it go toilet";
+                break;
+            default:
+                text = "Move on";
+            }
+            return text + String.format(" (expected score %.1f)", expectedScore);
+        }
+    }
+
+    /**
+     * Most pet states whose results are kept.
+     */
+    private static final int CACHE_SIZE = 4096;
+    /**
+     * Number of actions that can all have the most random futures; with more
+     * actions, they share that many actions' worth.
+     */
+    private static final int FULL_SAMPLE_ACTIONS = 8;
+
+    /**
+     * Number of days simulated after the action.
+     */
+    private final int days;
+    /**
+     * Most random futures tried for each action.
+     */
+    private final int samples;
+    /**
+     * How long the advisor may take, in nanoseconds.
+     */
+    private final long timeLimit;
+    /**
+     * How much the player gets each day for the pet.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Seed for the random futures.
+     */
+    private final long seed;
+    /**
+     * Decides what the player does about random events in the future.
+     */
+    private final PetEventHandler handler = new AutomatedPetEventHandler();
+    /**
+     * Results already worked out, by pet state and inventory.
+     */
+    private final Map<List<Object>, List<Advice>> cache =
+            new ConcurrentHashMap<List<Object>, List<Advice>>();
+
+    /**
+     * Creates an advisor that looks 3 days ahead with up to 64 random futures
+     * and takes at most about 100 ms.
+     * @param dailyPetAllowance How much the player gets each day for the pet.
+     * @param seed Seed for the random futures.
+     */
+    public ActionAdvisor(int dailyPetAllowance, long seed) {
+        this(3, 64, 100, dailyPetAllowance, seed);
+    }
+
+    /**
+     * Creates an advisor.
+     * @param days Number of days simulated after the action.
+     * @param samples Most random futures tried for each action.
+     * @param timeLimitMillis How long the advisor may take, in milliseconds.
+     * @param dailyPetAllowance How much the player gets each day for the pet.
+     * @param seed Seed for the random futures.
+     * @throws IllegalArgumentException if days or samples is less than one
+     */
+    public ActionAdvisor(int days, int samples, long timeLimitMillis,
+            int dailyPetAllowance, long seed) {
+        if (days < 1 || samples < 1) {
+            throw new IllegalArgumentException("days and samples must be at least one");
+        }
+        this.days = days;
+        this.samples = samples;
+        this.timeLimit = timeLimitMillis * 1000000L;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.seed = seed;
+    }
+
+    /**
+     * Works out how good each action is for a pet, best first.
+     * @param player The player whose pet it is.
+     * @param pet The pet.
+     * @return Advice for each legal action, best first.
+     */
+    public List<Advice> advise(Player player, Pet pet) {
+        Map<String, Food> foods = new LinkedHashMap<String, Food>();
+        for (Food food : player.getFoodStock()) {
+            foods.putIfAbsent(food.getName(), food);
+        }
+        Map<String, Toy> toys = new LinkedHashMap<String, Toy>();
+        for (Toy toy : player.getToyList()) {
+            toys.putIfAbsent(toy.getName(), toy);
+        }
+
+        List<Object> key = Arrays.asList(pet.getSpecies(), pet.getHealth(),
+                pet.getMischievousness(), pet.getHappiness(), pet.getHunger(),
+                pet.getPercentBladderFull(), pet.getFatigue(), pet.getWeightGrams(),
+                pet.getIsSick(), pet.getIsRevivable(), pet.getIsMisbehaving(),
+                pet.getIsDead(), player.getBalance(), foods.keySet(), toys.keySet());
+        List<Advice> advice = cache.get(key);
+        if (advice == null) {
+            AtomicBoolean cutShort = new AtomicBoolean();
+            advice = evaluate(player.getBalance(), pet, foods, toys, cutShort);
+            if (!cutShort.get()) {
+                if (cache.size() >= CACHE_SIZE) {
+                    cache.clear();
+                }
+                cache.put(key, advice);
+            }
+        }
+        return advice;
+    }
+
+    /**
+     * Gets the best action for a pet.
+     * @param player The player whose pet it is.
+     * @param pet The pet.
+     * @return The best action.
+     */
+    public Advice best(Player player, Pet pet) {
+        return advise(player, pet).get(0);
+    }
+
+    /**
+     * Tries every action on copies of a pet.
+     * @param balance The player's balance.
+     * @param pet The pet.
+     * @param foods One of each kind of food owned.
+     * @param toys One of each kind of toy owned.
+     * @param cutShort Set if the time limit ran out before every action had
+     * all its futures tried.
+     * @return Advice for each action, best first.
+     */
+    private List<Advice> evaluate(int balance, Pet pet, Map<String, Food> foods,
+            Map<String, Toy> toys, AtomicBoolean cutShort) {
+        long deadline = System.nanoTime() + timeLimit;
+        List<Advice> candidates = new ArrayList<Advice>();
+        for (String name : foods.keySet()) {
+            candidates.add(new Advice(Action.FEED, name, 0));
+        }
+        for (String name : toys.keySet()) {
+            candidates.add(new Advice(Action.PLAY, name, 0));
+        }
+        candidates.add(new Advice(Action.SLEEP, null, 0));
+        candidates.add(new Advice(Action.TOILET, null, 0));
+        candidates.add(new Advice(Action.SKIP, null, 0));
+        long totalSamples = (long) samples * FULL_SAMPLE_ACTIONS;
+        int samplesEach = (int) Math.max(1, Math.min(samples, totalSamples / candidates.size()));
+
+        List<Advice> advice = new ArrayList<Advice>(candidates.size());
+        candidates.parallelStream()
+            .map(candidate -> {
+                Pet after = new Pet(pet);
+                if (candidate.getAction() == Action.FEED) {
+                    after.feed(foods.get(candidate.getItemName()));
+                } else if (candidate.getAction() == Action.PLAY) {
+                    try {
+                        after.play(new Toy(toys.get(candidate.getItemName())));
+                    } catch (IllegalArgumentException e) {
+                        if (!e.getMessage().equals("durability is zero or negative")) {
+                            throw e;
+                        }
+                        //the toy broke, but the pet still played with it
+                    }
+                } else if (candidate.getAction() == Action.SLEEP) {
+                    after.sleep();
+                } else if (candidate.getAction() == Action.TOILET) {
+                    after.goToilet();
+                }
+                return new Advice(candidate.getAction(), candidate.getItemName(),
+                        expectedScore(balance, after, samplesEach, deadline, cutShort));
+            })
+            .forEachOrdered(advice::add);
+
+        //stable, so ties keep the menu's order
+        Collections.sort(advice, (a, b) -> Double.compare(b.getExpectedScore(),
+                a.getExpectedScore()));
+        return Collections.unmodifiableList(advice);
+    }
+
+    /**
+     * Takes copies of a pet through random futures and averages its score.
+     * At least one future is always tried, however late it is.
+     * @param balance The player's balance.
+     * @param pet The pet after the action.
+     * @param count Number of futures to try.
+     * @param deadline When to stop trying more futures, from System.nanoTime.
+     * @param cutShort Set if the deadline stops it before count futures.
+     * @return The pet's average score per day.
+     */
+    private double expectedScore(int balance, Pet pet, int count, long deadline,
+            AtomicBoolean cutShort) {
+        RandomSource random = RandomSource.fromSeed(seed);
+        long total = 0;
+        int tried = 0;
+        do {
+            RandomSource future = random.derive(tried);
+            Pet copy = new Pet(pet);
+            Player player = new Player(null, balance);
+            for (int day = 0; day < days; day++) {
+                if (!copy.getIsDead()) {
+                    player.earn(dailyPetAllowance);
+                    PetDayActions.newDay(player, copy, future.derive(day), handler);
+                }
+                total += Player.calculatePetScore(copy);
+            }
+            tried++;
+            if (tried < count && System.nanoTime() >= deadline) {
+                cutShort.set(true);
+                break;
+            }
+        } while (tried < count);
+        return total / (double) (tried * days);
+    }
+}
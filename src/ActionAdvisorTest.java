@@ -0,0 +1,93 @@
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the ActionAdvisor class.
+ *
+ */
+public class ActionAdvisorTest {
+
+	private Player player;
+	private Cat cat;
+	private ActionAdvisor advisor;
+
+	@Before
+	public void setUp() throws Exception {
+		player = new Player();
+		player.setName("Harry");
+		cat = new Cat();
+		cat.setName("Fred");
+		player.getPetList().add(cat);
+		String[] species = {cat.getSpecies()};
+		for (int i = 0; i < 300; i++) {
+			Food food = new Food("Food " + (i % 3), "", 1, 10 * (i % 3 + 1));
+			food.setHealthIncrease(species, new String[] {"" + (i % 3)});
+			player.addFood(food);
+			Toy toy = new Toy("Toy " + (i % 2), "", 1, 50);
+			toy.setHappinessIncrease(species, new String[] {"" + (10 * (i % 2))});
+			player.addToy(toy);
+		}
+		advisor = new ActionAdvisor(10, 42);
+	}
+
+	@Test
+	public void testOneAdvicePerKindOfAction() {
+		List<ActionAdvisor.Advice> advice = advisor.advise(player, cat);
+		//3 kinds of food, 2 kinds of toy, sleep, toilet and move on
+		assertEquals(8, advice.size());
+		for (int i = 1; i < advice.size(); i++) {
+			assertTrue(advice.get(i - 1).getExpectedScore() >= advice.get(i).getExpectedScore());
+		}
+	}
+
+	@Test
+	public void testDoesNotChangePet() {
+		int hunger = cat.getHunger();
+		advisor.advise(player, cat);
+		assertEquals(hunger, cat.getHunger());
+		assertEquals(300, player.getFoodStock().size());
+	}
+
+	@Test
+	public void testResultsAreKept() {
+		//a limit long enough that the results are never cut short
+		ActionAdvisor patient = new ActionAdvisor(3, 64, 600000, 10, 42);
+		List<ActionAdvisor.Advice> first = patient.advise(player, cat);
+		assertSame(first, patient.advise(player, cat));
+		cat.sleep();
+		cat.increaseHunger(30);
+		assertNotSame(first, patient.advise(player, cat));
+	}
+
+	@Test
+	public void testResultsCutShortAreNotKept() {
+		ActionAdvisor rushed = new ActionAdvisor(3, 1000000, 0, 10, 42);
+		List<ActionAdvisor.Advice> first = rushed.advise(player, cat);
+		assertEquals(8, first.size());
+		assertNotSame(first, rushed.advise(player, cat));
+	}
+
+	@Test
+	public void testSameSeedSameAdvice() {
+		ActionAdvisor other = new ActionAdvisor(3, 16, 10000, 10, 42);
+		ActionAdvisor same = new ActionAdvisor(3, 16, 10000, 10, 42);
+		List<ActionAdvisor.Advice> a = other.advise(player, cat);
+		List<ActionAdvisor.Advice> b = same.advise(player, cat);
+		for (int i = 0; i < a.size(); i++) {
+			assertEquals(a.get(i).getExpectedScore(), b.get(i).getExpectedScore(), 0);
+		}
+	}
+
+	@Test
+	public void testTimeLimit() {
+		ActionAdvisor slow = new ActionAdvisor(50, 1000000, 100, 10, 1);
+		long start = System.nanoTime();
+		slow.advise(player, cat);
+		assertTrue(System.nanoTime() - start < 1000000000L);
+	}
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Answers random events with a fixed policy, for players without a console.
+ *
+ * The handler has no state so it can be shared between threads.
+ *
+ */
+public class AutomatedPetEventHandler implements PetEventHandler {
+
+    /**
+     * Whether misbehaving pets are disciplined.
+     */
+    private final boolean discipline;
+    /**
+     * Whether sick pets are treated when the player can afford it.
+     */
+    private final boolean treat;
+    /**
+     * Whether dead pets are revived when they can be.
+     */
+    private final boolean revive;
+
+    /**
+     * Creates a handler that disciplines, treats and revives whenever it can.
+     */
+    public AutomatedPetEventHandler() {
+        this(true, true, true);
+    }
+
+    /**
+     * Creates a handler with the policy given.
+     * @param discipline Whether misbehaving pets are disciplined.
+     * @param treat Whether sick pets are treated when the player can afford it.
+     * @param revive Whether dead pets are revived when they can be.
+     */
+    public AutomatedPetEventHandler(boolean discipline, boolean treat, boolean revive) {
+        this.discipline = discipline;
+        this.treat = treat;
+        this.revive = revive;
+    }
+
+    @Override
+    public boolean disciplinePet(Player player, Pet pet) {
+        return discipline;
+    }
+
+    @Override
+    public boolean treatPet(Player player, Pet pet) {
+        return treat && player.getBalance() >= PetDayActions.TREATMENT_COST;
+    }
+
+    @Override
+    public boolean revivePet(Player player, Pet pet) {
+        return revive && pet.getIsRevivable();
+    }
+}
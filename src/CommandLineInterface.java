@@ -1,9 +1,17 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.List;
 
 /**
  * Command line interface for Virtual Pets game.
+ *
+ * Each interface reads from its own InputSource and writes to its own
+ * OutputSink, so several games can run at once, input can come from memory,
+ * and output can be thrown away with NullOutputSink. Output is built up in a
+ * ScreenBuffer and sent in one write each time the user is asked for input.
+ * When the user has typed answers ahead (see TypeAheadInputSource), menus
+ * they have already answered aren't drawn.
  * @author Samuel Pell
  * @author Ollie Chick
  *
@@ -13,30 +21,207 @@ public class CommandLineInterface {
     /**
      * Divider used for splitting up walls of text.
      */
-    private static String divider = "----------/----------";
+    private static final String DIVIDER = "----------/----------";
+    /**
+     * The species to choose from until the game gives its own.
+     */
+    private static final String[] DEFAULT_SPECIES = {"alpaca", "cat", "dog", "goat", "horse",
+        "polar bear"};
+    /**
+     * The choices in the interaction menu.
+     */
+    private static final String INTERACT_MENU = ". What would you like to do?"
+            + "\n1. View pet status\n2. Visit the store"
+            + "\n3. Feed your pet\n4. Play with your pet\n"
+            + "5. Put your pet to bed to sleep\n6. Let the pet go toilet\n7. Move on\n"
+            + "8. Ask for a hint\n>>> ";
+    /**
+     * The choices in the store menu.
+     */
+    private static final String STORE_MENU = "What do you want to do?\n1. View objects for sale"
+            + "\n2. View your items\n3. Exit the store"
+            + "\n4. Suggest what to buy\n5. Search for an item\n>>> ";
+    /**
+     * How many days the store's suggestions plan for.
+     */
+    private static final int SHOPPING_DAYS = 3;
+    /**
+     * How many items the store shows at a time.
+     */
+    private static final int CATALOG_PAGE_SIZE = 20;
+    /**
+     * Most items a store search shows.
+     */
+    private static final int SEARCH_RESULTS = 10;
+    /**
+     * How many best value items the store's suggestions show.
+     */
+    private static final int BEST_VALUE_RESULTS = 3;
+
+    /**
+     * Where the user's input comes from.
+     */
+    private final InputSource in;
+    /**
+     * Where output is built up until the next prompt.
+     */
+    private final ScreenBuffer out;
+    /**
+     * Where the player's actions are published.
+     */
+    private EventBus eventBus = new EventBus();
+    /**
+     * Works out hints for the interaction menu.
+     */
+    private ActionAdvisor advisor = new ActionAdvisor(10, 0);
+    /**
+     * Suggests what to buy in the store; made the first time the store is visited.
+     */
+    private ShoppingOptimizer shoppingOptimizer;
+    /**
+     * The store's items in order; made the first time something is bought.
+     */
+    private StoreCatalog catalog;
+    /**
+     * The foods the catalog was made from.
+     */
+    private HashMap<String, Food> catalogFoods;
+    /**
+     * The toys the catalog was made from.
+     */
+    private HashMap<String, Toy> catalogToys;
+    /**
+     * Finds the catalog's items by word; made with the catalog.
+     */
+    private ItemSearchIndex searchIndex;
+    /**
+     * What each of the catalog's items does for each species; made with the catalog.
+     */
+    private ItemEffectMatrix effects;
+    /**
+     * Works out which of the catalog's items the user typed the name of;
+     * made with the catalog.
+     */
+    private FuzzyMatcher<Integer> itemMatcher;
+    /**
+     * The species to choose from.
+     */
+    private List<String> speciesNames = Arrays.asList(DEFAULT_SPECIES);
+    /**
+     * Works out which species the user typed; made when first needed.
+     */
+    private FuzzyMatcher<String> speciesMatcher;
+    /**
+     * Table of the player's pets drawn when their status is viewed, or null
+     * to only print the pet's status as text.
+     */
+    private StatusDashboard dashboard;
+
+    /**
+     * Creates an interface using the console.
+     */
+    public CommandLineInterface() {
+        this(new TypeAheadInputSource(new StreamInputSource(System.in)),
+                new StreamOutputSink(System.out));
+        boolean ansi = StatusDashboard.isAnsiTerminal();
+        setStatusDashboard(ansi, ansi);
+    }
+
+    /**
+     * Creates an interface.
+     * @param in Where the user's input comes from.
+     * @param out Where output goes.
+     */
+    public CommandLineInterface(InputSource in, OutputSink out) {
+        this.in = in;
+        this.out = new ScreenBuffer(out);
+    }
+
+    /**
+     * Sends the screen so far to the user and reads their answer.
+     * @return The line the user entered.
+     */
+    private String readLine() {
+        if (!in.hasQueued()) {
+            out.flush();
+        }
+        return in.nextLine();
+    }
+
+    /**
+     * Gets whether a menu should be drawn, which it needn't be if the user
+     * has already typed the answer.
+     * @return Whether to draw the menu.
+     */
+    private boolean showMenus() {
+        return !in.hasQueued();
+    }
+
+    /**
+     * Sets whether viewing a pet's status also draws a table of all the
+     * player's pets. The console interface does if it is on a terminal that
+     * understands ANSI escape codes, where the table stays at the top of the
+     * screen and only its changed cells are drawn again.
+     * @param show Whether to draw the table.
+     * @param ansi Whether the terminal understands ANSI escape codes.
+     */
+    public void setStatusDashboard(boolean show, boolean ansi) {
+        if (dashboard != null) {
+            dashboard.close();
+        }
+        dashboard = show ? new StatusDashboard(out, ansi) : null;
+    }
+
+    /**
+     * Sets the event bus the player's actions are published on.
+     * @param newEventBus The game's event bus.
+     */
+    public void setEventBus(EventBus newEventBus) {
+        eventBus = newEventBus;
+    }
+
+    /**
+     * Sets the species the user can choose from, such as the ones in
+     * petData.csv.
+     * @param newSpeciesNames Names of the species, in the order to list them.
+     */
+    public void setSpecies(List<String> newSpeciesNames) {
+        speciesNames = new ArrayList<String>(newSpeciesNames);
+        speciesMatcher = null;
+    }
+
+    /**
+     * Sets the advisor used for hints in the interaction menu.
+     * @param newAdvisor The game's advisor.
+     */
+    public void setAdvisor(ActionAdvisor newAdvisor) {
+        advisor = newAdvisor;
+    }
+
     /**
-     * Scanner used to get user input.
+     * Tells the user something unexpected went wrong and to try again.
      */
-    private static Scanner inputReader = new Scanner(System.in);
+    public void unknownError() {
+        out.println("Unknown error. Please try again.");
+    }
 
     /**
      * Prints out a game header at the beginning of the game.
      */
-    public static void gameHeader() {
-        System.out.println("VirtualPets Assignment - O Chick & S Pell");
+    public void gameHeader() {
+        out.println("VirtualPets Assignment - O Chick & S Pell");
     }
 
     /**
      * Gets the number of days the game is to run for.
      * @return Number of days to run game for.
      */
-    public static int getNumberOfDays() {
+    public int getNumberOfDays() {
         Integer numDays = null;
 
         do {
-            System.out.print("How many days do you want to play for? ");
-            System.out.flush();
-            String userInput = inputReader.nextLine();
+            out.print("How many days do you want to play for? ");
+            String userInput = readLine();
             try {
                 numDays = Integer.parseInt(userInput);
                 if (numDays < 1) {
@@ -45,7 +230,7 @@ public class CommandLineInterface {
                     throw new NumberFormatException();
                 }
             } catch (NumberFormatException exception) {
-                System.out.println("Please enter an integer greater than 0.");
+                out.println("Please enter an integer greater than 0.");
             }
         } while (numDays == null);
 
@@ -57,12 +242,11 @@ public class CommandLineInterface {
      * @param query Query to pose to user.
      * @return Number of required pets or players.
      */
-    public static int getNumberRequired(String query) {
+    public int getNumberRequired(String query) {
         Integer numReq = null;
         do {
-            System.out.print(query);
-            System.out.flush();
-            String userInput = inputReader.nextLine();
+            out.print(query);
+            String userInput = readLine();
             try {
                 numReq = Integer.parseInt(userInput);
                 if (numReq < 1 || numReq > 3) {
@@ -71,7 +255,7 @@ public class CommandLineInterface {
                     throw new NumberFormatException();
                 }
             } catch (NumberFormatException exception) {
-                System.out.println("Please enter an integer between 1 and 3 inclusive.");
+                out.println("Please enter an integer between 1 and 3 inclusive.");
             }
         } while (numReq == null);
 
@@ -79,179 +263,149 @@ public class CommandLineInterface {
     }
 
     /**
-     * Checks if a name is a duplicate.
-     * @param name Name to check for duplication.
-     * @param nameList List of already taken names.
-     * @return Whether or not the name is a duplicate.
-     */
-    private static boolean nameTaken(String name, ArrayList<String> nameList) {
-        boolean found = false;
-        int i = 0;
-
-        while (!found && (i < nameList.size())) {
-            if (nameList.get(i).equals(name)) {
-                found = true;
-            }
-            i++;
-        }
-
-        return found;
-    }
-
-    /**
-     * Get the name of a player or pet.
+     * Get the name of a player or pet, and take it in the registry so no one
+     * else can use it.
      * @param query Query to pose to user.
-     * @param nameList ArrayList of taken names.
+     * @param names Names already taken. If no more names fit in it, the
+     * user is told and asked again, in case other games give theirs back.
      * @return name of player or pet.
      */
-    public static String getName(String query, ArrayList<String> nameList) {
+    public String getName(String query, NameRegistry names) {
         String name = null;
 
-        System.out.print(query);
+        out.print(query);
         do {
-            System.out.flush();
-            name = inputReader.nextLine();
-            if (nameTaken(name, nameList)) { //if name is already taken
-                name = null;
-                System.out.println("Duplicate names are not allowed.");
-                System.out.print(query);
-            } else if (name.equals("") || name.equals("\n")) {
+            name = readLine();
+            if (name.trim().isEmpty()) {
                 name = null;
+            } else {
+                try {
+                    if (!names.reserve(name)) { //if name is already taken
+                        name = null;
+                        out.println("Duplicate names are not allowed.");
+                        out.print(query);
+                    }
+                } catch (IllegalStateException e) { //no more names can be taken
+                    name = null;
+                    out.println("Sorry, no more names can be used right now."
+                            + " Please try again later.");
+                    out.print(query);
+                }
             }
         } while (name == null);
 
-        nameList.add(name);
         return name;
     }
 
-
     /**
      * Creates a pet object based on user input.
+     * The user can enter the species' number or its name, which can be
+     * misspelt or cut short.
      * @return pet of species desired by player.
-     * @throws IOException because it isn't handled at lower levels.
      */
-    public static Pet createPetSpecies() {
-        Pet newPet = new Cat(); //default to a cat
+    public Pet createPetSpecies() {
+        if (speciesMatcher == null) {
+            speciesMatcher = new FuzzyMatcher<String>();
+            for (String species : speciesNames) {
+                speciesMatcher.add(species, species);
+                //each word of a longer name, like "bear" for "polar bear"
+                for (String word : species.split(" ")) {
+                    speciesMatcher.add(word, species);
+                }
+            }
+        }
         String choice;
+        String species;
         //Get pet species
-        System.out.println("1. Alpaca\n2. Cat\n3. Dog\n4. Goat\n5. Horse\n6. Polar bear");
+        if (showMenus()) {
+            out.println(speciesMenu());
+        }
         do {
-            System.out.print("Which pet would you like? ");
-            System.out.flush();
-
-            choice = inputReader.nextLine();
-
-            switch (choice.toLowerCase()) {
-            case "1":
-            case "alpaca":
-            case "aplaca":
-            case "apalca":
-            case "al":
-                newPet = new Alpaca();
-                break;
-
-            case "2":
-            case "cat":
-                newPet = new Cat();
-                break;
-
-            case "3":
-            case "dog":
-                newPet = new Dog();
-                break;
+            out.print("Which pet would you like? ");
 
-            case "4":
-            case "goat":
-                newPet = new Goat();
-                break;
-
-
-            case "5":
-            case "horse":
-            case "hoarse":
-                newPet = new Horse();
-                break;
-
-            case  "6":
-            case "polar bear":
-            case "poler bear":
-            case "polarbear":
-            case "polerbear":
-            case "polar":
-            case "poler":
-            case "bear":
-            case "beer":
-            case "bare":
-                newPet = new PolarBear();
-                break;
-
-            default:
-                System.out.println("\n"
+            choice = readLine();
+            species = null;
+            try {
+                int number = Integer.parseInt(choice.trim());
+                if (number >= 1 && number <= speciesNames.size()) {
+                    species = speciesNames.get(number - 1);
+                }
+            } catch (NumberFormatException e) {
+                species = speciesMatcher.match(choice);
+            }
+            if (species == null) {
+                out.println("\n"
                     + choice
-                    + " is not a valid option. Please enter one of the below choices."
-                    + "\n1. Alpaca\n2. Cat\n3. Dog\n4. Goat\n5. Horse\n6. Polar bear");
-                choice = null;
+                    + " is not a valid option. Please enter one of the below choices.\n"
+                    + speciesMenu());
             }
-        } while (choice == null);
+        } while (species == null);
 
-        return newPet;
+        return newPet(species);
     }
 
     /**
-     * Enumerates the prototypes of food and toy and creates an ordering.
-     * @param foodPrototypes the prototypes of food.
-     * @param toyPrototypes the prototypes of toy.
-     * @return an (ordered) array of Strings of the names of the items.
+     * Gets the list of species to choose from.
+     * @return A numbered line for each species.
      */
-    public static String[] listPrototypes(HashMap<String, Food> foodPrototypes,
-            HashMap<String, Toy> toyPrototypes) {
-        String[] foodNames = foodPrototypes.keySet().toArray(new String[0]);
-        String[] toyNames = toyPrototypes.keySet().toArray(new String[0]);
-        String[] ordering = new String[foodNames.length + toyNames.length];
-        Toy toy;
-        Food food;
-
-        System.out.println("----------- Food -----------");
-        int currentOption = 1;
-        for (int i = 0; i < foodNames.length; i++) {
-            food = foodPrototypes.get(foodNames[i]);
-            System.out.println(currentOption + ". " + food + " Cost: $" + food.getPrice());
-            ordering[i] = foodNames[i];
-            currentOption++;
+    private String speciesMenu() {
+        StringBuilder menu = new StringBuilder();
+        for (int i = 0; i < speciesNames.size(); i++) {
+            String species = speciesNames.get(i);
+            if (i > 0) {
+                menu.append("\n");
+            }
+            menu.append(i + 1).append(". ").append(Character.toUpperCase(species.charAt(0)))
+                    .append(species.substring(1));
         }
+        return menu.toString();
+    }
 
-        System.out.println("----------- Toys -----------");
-        for (int i = 0; i < toyNames.length; i++) {
-            toy = toyPrototypes.get(toyNames[i]);
-            System.out.println(currentOption + ". " + toy + " Cost: $" + toy.getPrice());
-            ordering[i + foodNames.length] = toyNames[i];
-            currentOption++;
+    /**
+     * Creates a pet of a species.
+     * @param species The species.
+     * @return The pet; species without their own class are plain pets.
+     */
+    private static Pet newPet(String species) {
+        switch (species) {
+        case "alpaca":
+            return new Alpaca();
+        case "cat":
+            return new Cat();
+        case "dog":
+            return new Dog();
+        case "goat":
+            return new Goat();
+        case "horse":
+            return new Horse();
+        case "polar bear":
+            return new PolarBear();
+        default:
+            return new Pet(species);
         }
-
-        return ordering;
     }
 
     /**
      * Asks the user if they want to go through the tutorial; if so, does it.
      */
-    public static void tutorial() {
+    public void tutorial() {
         String choiceStr;
         Boolean wantsTutorial = false;
 
         do {
-            System.out.print("Do you want to go through the tutorial? (Y/N) ");
-            choiceStr = inputReader.nextLine();
+            out.print("Do you want to go through the tutorial? (Y/N) ");
+            choiceStr = readLine();
             if (choiceStr.toLowerCase().equals("y")) {
                 wantsTutorial = true;
             } else if (choiceStr.toLowerCase().equals("n")) {
                 wantsTutorial = false;
             } else {
                 choiceStr = null;
-                System.out.print("Sorry, that's not a valid option. ");
+                out.print("Sorry, that's not a valid option. ");
             }
         } while (choiceStr == null);
         if (wantsTutorial) {
-            System.out.println("\nWelcome to Virtual Pets!"
+            out.println("\nWelcome to Virtual Pets!"
                     + "\nThis is a game for 1-3 players."
                     + "\nEach player has 1-3 pets, which can be cats, dogs, goats, "
                         + "alpacas, horses, or polar bears, or a mixture."
@@ -275,24 +429,24 @@ public class CommandLineInterface {
      * Initialises a day.
      * @param dayNumber the number of the current day.
      */
-    public static void newDay(int dayNumber) {
-        System.out.println("=== Day " + dayNumber + " ===");
+    public void newDay(int dayNumber) {
+        out.println("=== Day " + dayNumber + " ===");
     }
 
     /**
      * Initialise a player's turn.
      * @param player the player whose turn it is.
      */
-    public static void newPlayer(Player player) {
+    public void newPlayer(Player player) {
         Boolean allDead = true;
-        System.out.println("--- " + player.getName() + "'s turn ---");
+        out.println("--- " + player.getName() + "'s turn ---");
         for (Pet pet : player.getPetList()) {
             if (!pet.getIsDead()) {
                 allDead = false;
             }
         }
         if (allDead) {
-            System.out.println("Shame on you, " + player.getName() + ", you killed all your pets.");
+            out.println("Shame on you, " + player.getName() + ", you killed all your pets.");
         }
     }
 
@@ -305,34 +459,40 @@ public class CommandLineInterface {
      * @param pet the pet the player is interacting with.
      * @throws Exception if error in code
      */
-    public static void interact(Player player, Pet pet, HashMap<String, Food> foodPrototypes,
+    public void interact(Player player, Pet pet, HashMap<String, Food> foodPrototypes,
             HashMap<String, Toy> toyPrototypes) throws Exception {
         int numOfActions = 2;
+        int petIndex = player.getPetList().indexOf(pet);
         String choice;
         if (pet.getIsDead()) {
             numOfActions = 0;
         }
         while (numOfActions > 0) {
-            System.out.print("Hi " + player.getName() + "! You have "
-            + numOfActions + " turns remaining today with " + pet.getName()
-            + ". What would you like to do?\n1. View pet status\n2. Visit the store"
-            + "\n3. Feed your pet\n4. Play with your pet\n"
-            + "5. Put your pet to bed to sleep\n6. Let the pet go toilet\n7. Move on\n>>> ");
-            choice = inputReader.nextLine();
+            if (showMenus()) {
+                out.print("Hi " + player.getName() + "! You have "
+                + numOfActions + " turns remaining today with " + pet.getName()
+                + INTERACT_MENU);
+            }
+            choice = readLine();
             switch (choice) {
             case("1"):
-                viewPetStatus(pet);
+                if (dashboard != null) {
+                    dashboard.render(player.getSnapshot());
+                }
+                viewPetStatus(player.getSnapshot().getPet(petIndex));
             break;
             case("2"):
-                visitStore(player, foodPrototypes, toyPrototypes);
+                visitStore(player, pet, foodPrototypes, toyPrototypes);
+                player.publishSnapshot();
             break;
             case("3"):
                 try {
                     feedPet(player, pet);
+                    player.publishSnapshot();
                     numOfActions--;
                 } catch (Exception e) {
                     if (e.getMessage().equals("no food to eat")) {
-                        System.out.println("Sorry, you don't have any food to feed your pet.");
+                        out.println("Sorry, you don't have any food to feed your pet.");
                     } else {
                         throw e;
                     }
@@ -341,49 +501,59 @@ public class CommandLineInterface {
             case("4"):
                 try {
                     playWithPet(player, pet);
+                    player.publishSnapshot();
                     numOfActions--;
                 } catch (Exception e) {
                     if (e.getMessage().equals("no toys to play with")) {
-                        System.out.println("Sorry, you don't have any toys to play with.");
+                        out.println("Sorry, you don't have any toys to play with.");
                     } else {
                         throw e;
                     }
                 }
             break;
             case("5"):
-                sleep(pet);
+                sleep(player, pet);
+                player.publishSnapshot(petIndex);
             numOfActions--;
             break;
             case("6"):
-                goToilet(pet);
+                goToilet(player, pet);
+                player.publishSnapshot(petIndex);
             numOfActions--;
             break;
             case("7"):
                 //done with this pet today
                 numOfActions = 0;
             break;
+            case("8"):
+                out.println("Hint: " + advisor.best(player, pet));
+            break;
             default:
-                System.out.println("I'm sorry. That's not a valid option. Please try again.");
+                out.println("I'm sorry. That's not a valid option. Please try again.");
             }
         }
     }
 
     /**
      * The pet goes to the toilet.
+     * @param player The player whose pet it is.
      * @param pet The pet going to the toilet.
      */
-    private static void goToilet(Pet pet) {
+    private void goToilet(Player player, Pet pet) {
         pet.goToilet();
-        System.out.println("Your pet went to the toilet.");
+        eventBus.publish(PetEvent.Type.WENT_TOILET, player, pet, null);
+        out.println("Your pet went to the toilet.");
     }
 
     /**
      * The pet sleeps.
+     * @param player The player whose pet it is.
      * @param pet The pet sleeping.
      */
-    private static void sleep(Pet pet) {
+    private void sleep(Player player, Pet pet) {
         pet.sleep();
-        System.out.println("Your pet slept.");
+        eventBus.publish(PetEvent.Type.SLEPT, player, pet, null);
+        out.println("Your pet slept.");
     }
 
     /**
@@ -392,25 +562,33 @@ public class CommandLineInterface {
      * @param pet The pet playing.
      * @throws Exception If there is an error in the code.
      */
-    private static void playWithPet(Player player, Pet pet) throws Exception {
+    private void playWithPet(Player player, Pet pet) throws Exception {
         String choiceStr;
         int choice;
         Toy toy;
         if (player.getToyList().size() == 0) {
             throw new Exception("no toys to play with");
         }
-        System.out.print("Hi! ");
+        if (showMenus()) {
+            out.print("Hi! ");
+        }
         do {
-            System.out.println("What toy would you like your pet to play with?");
+            boolean show = showMenus();
+            if (show) {
+                out.println("What toy would you like your pet to play with?");
+            }
             int i = 1;
             for (Toy playersToy : player.getToyList()) {
-                System.out.println(i + ". " + playersToy);
+                if (show) {
+                    out.println(i + ". " + playersToy);
+                }
                 i++;
             }
-            System.out.print(">>> ");
-            System.out.flush();
+            if (show) {
+                out.print(">>> ");
+            }
 
-            choiceStr = inputReader.nextLine();
+            choiceStr = readLine();
             try {
                 choice = Integer.parseInt(choiceStr);
             } catch (Exception e) {
@@ -420,17 +598,19 @@ public class CommandLineInterface {
 
             if (choice <= 0 || choice > i - 1) {
                 choiceStr = null;
-                System.out.println("Sorry, that's not a valid option.");
+                out.println("Sorry, that's not a valid option.");
             } else {
                 toy = player.getToyList().get(i - 2);
                 try {
                     pet.play(toy);
+                    eventBus.publish(PetEvent.Type.PLAYED, player, pet, toy);
                 } catch (IllegalArgumentException e) {
                     if (e.getMessage().equals("durability is zero or negative")) {
                         //they've used the toy to the point of destruction
-                        System.out.println(pet.getName() + " broke the "
+                        out.println(pet.getName() + " broke the "
                             + toy.getName() + ".");
                         player.getToyList().remove(i - 2);
+                        eventBus.publish(PetEvent.Type.TOY_BROKEN, player, pet, toy);
                     } else {
                         //unknown error
                         throw e;
@@ -446,25 +626,33 @@ public class CommandLineInterface {
      * @param pet The pet eating.
      * @throws Exception If there is an error in the code.
      */
-    private static void feedPet(Player player, Pet pet) throws Exception {
+    private void feedPet(Player player, Pet pet) throws Exception {
         String choiceStr;
         int choice;
         Food food;
         if (player.getFoodStock().size() == 0) {
             throw new Exception("no food to eat");
         }
-        System.out.print("Hi! ");
+        if (showMenus()) {
+            out.print("Hi! ");
+        }
         do {
-            System.out.println("What food would you like to feed your pet?");
+            boolean show = showMenus();
+            if (show) {
+                out.println("What food would you like to feed your pet?");
+            }
             int i = 1;
             for (Food playersFood : player.getFoodStock()) {
-                System.out.println(i + ". " + playersFood);
+                if (show) {
+                    out.println(i + ". " + playersFood);
+                }
                 i++;
             }
-            System.out.print(">>> ");
-            System.out.flush();
+            if (show) {
+                out.print(">>> ");
+            }
 
-            choiceStr = inputReader.nextLine();
+            choiceStr = readLine();
             try {
                 choice = Integer.parseInt(choiceStr);
             } catch (Exception e) {
@@ -474,11 +662,12 @@ public class CommandLineInterface {
 
             if (choice <= 0 || choice > i - 1) {
                 choiceStr = null;
-                System.out.println("Sorry, that's not a valid option.");
+                out.println("Sorry, that's not a valid option.");
             } else {
                 food = player.getFoodStock().get(i - 2);
                 pet.feed(food);
                 player.getFoodStock().remove(i - 2);
+                eventBus.publish(PetEvent.Type.FED, player, pet, food);
                 }
         } while (choiceStr == null);
     }
@@ -486,52 +675,139 @@ public class CommandLineInterface {
     /**
      * Store loop for player to purchase items from.
      * @param player Player entering the store.
+     * @param pet Pet the player is looking after; searches only show items
+     * that are good for its species.
      * @param foodPrototypes Hash map of the food item prototypes.
      * @param toyPrototypes Hash map of the toy item prototypes.
      * @throws Exception if there is an error in the game,
      * so that what they're buying isn't a food or a toy
      */
-    private static void visitStore(Player player, HashMap<String, Food> foodPrototypes,
+    private void visitStore(Player player, Pet pet, HashMap<String, Food> foodPrototypes,
             HashMap<String, Toy> toyPrototypes) throws Exception {
         Boolean userWantsToStay = true;
         String choice;
 
-        System.out.print("Hello " + player.getName() + ", welcome to the store. ");
+        out.print("Hello " + player.getName() + ", welcome to the store. ");
         while (userWantsToStay) {
-            System.out.print("What do you want to do?\n1. View objects for sale"
-                    + "\n2. View your items\n3. Exit the store"
-                    + "\n>>> ");
-            choice = inputReader.nextLine();
+            if (showMenus()) {
+                out.print(STORE_MENU);
+            }
+            choice = readLine();
             switch (choice) {
             case("1"):
                 userWantsToStay = buyFromStore(player, foodPrototypes, toyPrototypes);
                 break;
             case("2"):
-                printItems(player);
+                printItems(player.getSnapshot());
                 break;
             case("3"):
                 userWantsToStay = false;
                 break;
+            case("4"):
+                if (shoppingOptimizer == null) {
+                    shoppingOptimizer = new ShoppingOptimizer(foodPrototypes, toyPrototypes);
+                }
+                out.println("For the next " + SHOPPING_DAYS + " days you could buy:");
+                out.println(shoppingOptimizer.optimise(player.getBalance(),
+                        player.getPetList(), SHOPPING_DAYS).toString());
+                printBestValue(player, pet, foodPrototypes, toyPrototypes);
+                break;
+            case("5"):
+                searchStore(player, pet, foodPrototypes, toyPrototypes);
+                break;
             default:
-                System.out.println("Sorry, that's not a valid option. Please try again.");
+                out.println("Sorry, that's not a valid option. Please try again.");
             }
 
         }
     }
 
+    /**
+     * Makes the store's catalog and search index if they haven't been made or
+     * the store has been given different prototypes. The prototype maps are
+     * not expected to change once given to the store; the game makes new
+     * ones when it loads the items again.
+     * @param foodPrototypes HashMap of foods.
+     * @param toyPrototypes HashMap of Toys.
+     */
+    private void updateCatalog(HashMap<String, Food> foodPrototypes,
+            HashMap<String, Toy> toyPrototypes) {
+        if (catalog == null || catalogFoods != foodPrototypes || catalogToys != toyPrototypes) {
+            catalogFoods = foodPrototypes;
+            catalogToys = toyPrototypes;
+            catalog = new StoreCatalog(foodPrototypes, toyPrototypes, CATALOG_PAGE_SIZE);
+            effects = new ItemEffectMatrix(catalog);
+            searchIndex = new ItemSearchIndex(catalog, effects);
+            itemMatcher = new FuzzyMatcher<Integer>();
+            for (int number = 1; number <= catalog.size(); number++) {
+                itemMatcher.add(catalog.getItem(number).getName(), number);
+            }
+        }
+    }
+
+    /**
+     * Asks for some words and lists the store's items with them that the
+     * player can afford and are good for their pet, with the numbers to buy
+     * them by.
+     * @param player Player searching.
+     * @param pet Pet the items are for.
+     * @param foodPrototypes HashMap of foods.
+     * @param toyPrototypes HashMap of Toys.
+     */
+    private void searchStore(Player player, Pet pet, HashMap<String, Food> foodPrototypes,
+            HashMap<String, Toy> toyPrototypes) {
+        updateCatalog(foodPrototypes, toyPrototypes);
+        out.print("Search for: ");
+        String query = readLine();
+        List<Integer> found = searchIndex.search(query, pet.getSpecies(),
+                player.getBalance(), SEARCH_RESULTS);
+        if (found.isEmpty()) {
+            out.println("Nothing for " + pet.getName() + " under $" + player.getBalance()
+                    + " matches \"" + query + "\".");
+        } else {
+            for (int number : found) {
+                Item item = catalog.getItem(number);
+                out.println(number + ". " + item + " Cost: $" + item.getPrice());
+            }
+            out.println("Choose 1 to buy one of these by its number.");
+        }
+    }
+
+    /**
+     * Lists the items that give a pet the most for their price that the
+     * player can afford, with the numbers to buy them by.
+     * @param player Player shopping.
+     * @param pet Pet the items are for.
+     * @param foodPrototypes HashMap of foods.
+     * @param toyPrototypes HashMap of Toys.
+     */
+    private void printBestValue(Player player, Pet pet, HashMap<String, Food> foodPrototypes,
+            HashMap<String, Toy> toyPrototypes) {
+        updateCatalog(foodPrototypes, toyPrototypes);
+        List<Integer> best = effects.getBest(pet.getSpecies(), player.getBalance(),
+                BEST_VALUE_RESULTS, ItemEffectMatrix.Order.VALUE_PER_DOLLAR);
+        if (!best.isEmpty()) {
+            out.println("Best value for " + pet.getName() + ":");
+            for (int number : best) {
+                Item item = catalog.getItem(number);
+                out.println(number + ". " + item.getName() + " Cost: $" + item.getPrice());
+            }
+        }
+    }
+
     /**
      * Prints items player has.
-     * @param player Player to print items for.
+     * @param player Snapshot of the player to print items for.
      */
-    private static void printItems(Player player) {
-        if (player.getToyList().size() == 0 && player.getFoodStock().size() == 0) {
-            System.out.println("You have no items.");
+    private void printItems(PlayerSnapshot player) {
+        if (player.getToys().size() == 0 && player.getFoods().size() == 0) {
+            out.println("You have no items.");
         } else {
-            for (Toy toy : player.getToyList()) {
-                System.out.println(toy);
+            for (String toy : player.getToys()) {
+                out.println(toy);
             }
-            for (Food food : player.getFoodStock()) {
-                System.out.println(food);
+            for (String food : player.getFoods()) {
+                out.println(food);
             }
         }
     }
@@ -544,7 +820,7 @@ public class CommandLineInterface {
      * @return A boolean based on whether the user wants to stay in the store.
      * @throws Exception if there is an error
      */
-    private static Boolean buyFromStore(Player player, HashMap<String, Food> foodPrototypes,
+    private Boolean buyFromStore(Player player, HashMap<String, Food> foodPrototypes,
             HashMap<String, Toy> toyPrototypes) throws Exception {
         String choice;
         String type = null;
@@ -553,33 +829,51 @@ public class CommandLineInterface {
         Food purchasedFood = null;
         int maxPossibleChoice;
         int i;
+        updateCatalog(foodPrototypes, toyPrototypes);
+        int page = 0;
 
         do {
-            System.out.println("Hello " + player.getName() + ", you have $"
-                + player.getBalance() + ". What would you like to buy today?");
-            String[] ordering = listPrototypes(foodPrototypes, toyPrototypes);
-            System.out.println(ordering.length + 1 + ". Exit the store");
-
-            System.out.print(">>> ");
-            System.out.flush();
+            if (showMenus()) {
+                out.println("Hello " + player.getName() + ", you have $"
+                    + player.getBalance() + ". What would you like to buy today?");
+                out.print(catalog.getPage(page));
+                out.println(catalog.size() + 1 + ". Exit the store");
+                if (catalog.getNumberOfPages() > 1) {
+                    out.println("Page " + (page + 1) + " of " + catalog.getNumberOfPages()
+                        + ". Enter n for the next page or p for the previous page.");
+                }
+                out.print(">>> ");
+            }
 
-            choice = inputReader.nextLine();
-            maxPossibleChoice = foodPrototypes.size() + toyPrototypes.size() + 1;
-            if (Integer.parseInt(choice) < 1 || Integer.parseInt(choice) > maxPossibleChoice) {
+            choice = readLine();
+            maxPossibleChoice = catalog.size() + 1;
+            if (choice.equalsIgnoreCase("n") || choice.equalsIgnoreCase("p")) {
+                int change = choice.equalsIgnoreCase("n") ? 1 : -1;
+                page = Math.floorMod(page + change, catalog.getNumberOfPages());
                 choice = null;
-                System.out.println("Sorry, that's not a valid option.");
-            } else {
+                continue;
+            }
+            try {
                 i = Integer.parseInt(choice);
-                if (i >= 1 && i <= foodPrototypes.size()) {
+            } catch (NumberFormatException e) {
+                //the item's name, maybe misspelt
+                Integer number = itemMatcher.match(choice);
+                i = number == null ? 0 : number;
+            }
+            if (i < 1 || i > maxPossibleChoice) {
+                choice = null;
+                out.println("Sorry, that's not a valid option.");
+            } else if (i == maxPossibleChoice) {
+                type = "leave";
+            } else {
+                Item item = catalog.getItem(i);
+                purchasedItemName = item.getName();
+                if (item instanceof Food) {
                     type = "food";
-                    purchasedItemName = ordering[i - 1];
-                    purchasedFood = foodPrototypes.get(purchasedItemName);
-                } else if (i > foodPrototypes.size() && i < maxPossibleChoice) {
+                    purchasedFood = (Food) item;
+                } else if (item instanceof Toy) {
                     type = "toy";
-                    purchasedItemName = ordering[i - 1];
-                    purchasedToy = toyPrototypes.get(purchasedItemName);
-                } else if (i == maxPossibleChoice) {
-                    type = "leave";
+                    purchasedToy = new Toy((Toy) item);
                 } else {
                     //error
                     throw new Exception("Error: not a toy or a food");
@@ -592,9 +886,10 @@ public class CommandLineInterface {
             try {
                 player.spend(purchasedToy.getPrice());
                 player.addToy(purchasedToy);
-                System.out.println("You have bought: " + purchasedItemName);
+                eventBus.publish(PetEvent.Type.PURCHASED, player, null, purchasedToy);
+                out.println("You have bought: " + purchasedItemName);
             } catch (IllegalArgumentException e) {
-                System.out.println("Sorry, you don't have enough money for that. You have $"
+                out.println("Sorry, you don't have enough money for that. You have $"
                 		+ player.getBalance() + " and that item costs $"
                         + purchasedToy.getPrice() + ".");
             }
@@ -602,9 +897,10 @@ public class CommandLineInterface {
             try {
                 player.spend(purchasedFood.getPrice());
                 player.addFood(purchasedFood);
-                System.out.println("You have bought: " + purchasedItemName);
+                eventBus.publish(PetEvent.Type.PURCHASED, player, null, purchasedFood);
+                out.println("You have bought: " + purchasedItemName);
             } catch (IllegalArgumentException e) {
-                System.out.println("Sorry, you don't have enough money for that. You have $"
+                out.println("Sorry, you don't have enough money for that. You have $"
                 		+ player.getBalance() + " and that item costs $"
                         + purchasedFood.getPrice() + ".");
             }
@@ -615,11 +911,11 @@ public class CommandLineInterface {
 
     /**
      * Prints out the pet's status.
-     * @param pet The pet whose status is being displayed.
+     * @param pet Snapshot of the pet whose status is being displayed.
      */
-    private static void viewPetStatus(Pet pet) {
-    	System.out.println(divider);
-    	System.out.println("Status of " + pet.getName() + ":\nGender: " + pet.getGender()
+    private void viewPetStatus(PetSnapshot pet) {
+    	out.println(DIVIDER);
+    	out.println("Status of " + pet.getName() + ":\nGender: " + pet.getGender()
     	+ "\nSpecies: " + pet.getSpecies()
     	+ "\nFavourite food: " + pet.getFavouriteFood()
     	+ "\nFavourite toy: " + pet.getFavouriteToy()
@@ -633,7 +929,7 @@ public class CommandLineInterface {
     	+ "\nIs misbehaving: " + pet.getIsMisbehaving()
     	+ "\nIs revivable: " + pet.getIsRevivable()
     	+ "\nIs sick: " + pet.getIsSick());
-    	System.out.println(divider);
+    	out.println(DIVIDER);
     }
 
     /**
@@ -641,21 +937,21 @@ public class CommandLineInterface {
      * @param pet The pet about to misbehave.
      * @return Whether the user chooses to discipline.
      */
-    public static Boolean petMisbehaves(Pet pet) {
+    public Boolean petMisbehaves(Pet pet) {
         String choiceStr;
         Boolean choice = null;
 
-        System.out.print("WARNING! YOUR PET " + pet.getName() + " IS MISBEHAVING! ");
+        out.print("WARNING! YOUR PET " + pet.getName() + " IS MISBEHAVING! ");
         do {
-            System.out.println("DO YOU WANT TO DISCIPLINE? (Y/N)");
-            choiceStr = inputReader.nextLine();
+            out.println("DO YOU WANT TO DISCIPLINE? (Y/N)");
+            choiceStr = readLine();
             if (choiceStr.toLowerCase().equals("y")) {
                 choice = true;
             } else if (choiceStr.toLowerCase().equals("n")) {
                 choice = false;
             } else {
                 choiceStr = null;
-                System.out.print("Sorry, that's not a valid option. ");
+                out.print("Sorry, that's not a valid option. ");
             }
         } while (choiceStr == null);
         return choice;
@@ -668,26 +964,26 @@ public class CommandLineInterface {
      * @param balance The user's current balance.
      * @return Whether or not the user healed them.
      */
-    public static Boolean petSicks(Pet pet, int balance) {
+    public Boolean petSicks(Pet pet, int balance) {
         String choiceStr;
         Boolean choice = null;
-        System.out.print("WARNING! YOUR PET " + pet.getName() + " HAS BECOME SICK! ");
+        out.print("WARNING! YOUR PET " + pet.getName() + " HAS BECOME SICK! ");
         if (balance >= 50) {
             do {
-                System.out.println("DO YOU WANT TO PAY $50 FOR TREATMENT? YOU CURRENTLY HAVE $"
+                out.println("DO YOU WANT TO PAY $50 FOR TREATMENT? YOU CURRENTLY HAVE $"
                 		+ balance + ". (Y/N)");
-                choiceStr = inputReader.nextLine();
+                choiceStr = readLine();
                 if (choiceStr.toLowerCase().equals("y")) {
                     choice = true;
                 } else if (choiceStr.toLowerCase().equals("n")) {
                     choice = false;
                 } else {
                     choiceStr = null;
-                    System.out.print("Sorry, that's not a valid option. ");
+                    out.print("Sorry, that's not a valid option. ");
                 }
             } while (choiceStr == null);
         } else {
-            System.out.println("UNFORTUNATELY, TREATMENT COSTS $50 BUT YOU ONLY HAVE$"
+            out.println("UNFORTUNATELY, TREATMENT COSTS $50 BUT YOU ONLY HAVE$"
             		+ balance + ".");
             choice = false;
         }
@@ -700,26 +996,26 @@ public class CommandLineInterface {
      * @param revivable Whether the pet is revivable.
      * @return Whether  or not the user revived them.
      */
-    public static Boolean petDies(Pet pet, Boolean revivable) {
+    public Boolean petDies(Pet pet, Boolean revivable) {
         String choiceStr;
         Boolean choice = null;
 
-        System.out.print("WARNING! YOUR PET " + pet.getName() + " HAS UNEXPECTEDLY DIED! ");
+        out.print("WARNING! YOUR PET " + pet.getName() + " HAS UNEXPECTEDLY DIED! ");
         if (revivable) {
         do {
-            System.out.println("DO YOU WANT TO REVIVE THEM? (Y/N)");
-            choiceStr = inputReader.nextLine();
+            out.println("DO YOU WANT TO REVIVE THEM? (Y/N)");
+            choiceStr = readLine();
             if (choiceStr.toLowerCase().equals("y")) {
                 choice = true;
             } else if (choiceStr.toLowerCase().equals("n")) {
                 choice = false;
             } else {
                 choiceStr = null;
-                System.out.print("Sorry, that's not a valid option. ");
+                out.print("Sorry, that's not a valid option. ");
             }
         } while (choiceStr == null);
         } else {
-            System.out.println("RIP.");
+            out.println("RIP.");
             choice = false;
         }
         return choice;
@@ -728,8 +1024,12 @@ public class CommandLineInterface {
     /**
      * Tidy up to close gracefully.
      */
-    public static void tearDown() {
-        inputReader.close();
+    public void tearDown() {
+        if (dashboard != null) {
+            dashboard.close();
+        }
+        out.flush();
+        in.close();
     }
 
     /**
@@ -737,26 +1037,26 @@ public class CommandLineInterface {
      * @param playerList A list of players, ranked in descending order of score.
      * @throws Exception If there is an error in the code.
      */
-    public static void postGame(Player[] playerList) throws Exception {
-        System.out.println("That's the end of the game. And the results are in:");
+    public void postGame(Player[] playerList) throws Exception {
+        out.println("That's the end of the game. And the results are in:");
 
         switch (playerList.length) {
             case(1):
-                System.out.println(playerList[0].getName()
+                out.println(playerList[0].getName()
                 		+ " has a score of " + playerList[0].getScore());
                 break;
 
             case(2):
                 if (playerList[0].getScore() == playerList[1].getScore()) {
                     //tie
-                    System.out.println("Joint winner is " + playerList[0].getName()
+                    out.println("Joint winner is " + playerList[0].getName()
                     		+ ", with a score of " + playerList[0].getScore());
-                    System.out.println("Joint winner is " + playerList[1].getName()
+                    out.println("Joint winner is " + playerList[1].getName()
                     		+ ", with a score of " + playerList[1].getScore());
                 } else {
-                    System.out.println("The winner is " + playerList[0].getName()
+                    out.println("The winner is " + playerList[0].getName()
                     		+ ", with a score of " + playerList[0].getScore());
-                    System.out.println("Second place is " + playerList[1].getName()
+                    out.println("Second place is " + playerList[1].getName()
                     		+ ", with a score of " + playerList[1].getScore());
                 }
                 break;
@@ -794,36 +1094,36 @@ public class CommandLineInterface {
                 }
 
                 if (threeWayTie) {
-                    System.out.println("Joint winner is " + winner.getName()
+                    out.println("Joint winner is " + winner.getName()
                     + ", with a score of " + winner.getScore());
-                    System.out.println("Joint winner is " + runnerUp.getName()
+                    out.println("Joint winner is " + runnerUp.getName()
                     + ", with a score of " + runnerUp.getScore());
-                    System.out.println("Joint winner is " + loser.getName()
+                    out.println("Joint winner is " + loser.getName()
                     + ", with a score of " + loser.getScore());
 
                 } else if (lowTie) {
                     //if players 2 and 3 tie
-                    System.out.println("The winner is " + winner.getName()
+                    out.println("The winner is " + winner.getName()
                     + ", with a score of " + winner.getScore());
-                    System.out.println("Joint second place is " + runnerUp.getName()
+                    out.println("Joint second place is " + runnerUp.getName()
                     + ", with a score of " + runnerUp.getScore());
-                    System.out.println("Joint second place is " + loser.getName()
+                    out.println("Joint second place is " + loser.getName()
                     + ", with a score of " + loser.getScore());
                 } else if (highTie) {
                     //if players 1 and 2 tie
-                    System.out.println("Joint winner is " + winner.getName()
+                    out.println("Joint winner is " + winner.getName()
                     + ", with a score of " + winner.getScore());
-                    System.out.println("Joint winner is " + runnerUp.getName()
+                    out.println("Joint winner is " + runnerUp.getName()
                     + ", with a score of " + runnerUp.getScore());
-                    System.out.println("Third place is " + loser.getName()
+                    out.println("Third place is " + loser.getName()
                     + ", with a score of " + loser.getScore());
                 } else {
                 	//no ties
-                	System.out.println("The winner is " + player1.getName()
+                	out.println("The winner is " + player1.getName()
                 	+ ", with a score of " + player1.getScore());
-                	System.out.println("Second place is " + player2.getName()
+                	out.println("Second place is " + player2.getName()
                 	+ ", with a score of " + player2.getScore());
-                	System.out.println("Third place is " + loser.getName()
+                	out.println("Third place is " + loser.getName()
                 	+ ", with a score of " + loser.getScore());
                 }
                 break;
@@ -833,4 +1133,3 @@ public class CommandLineInterface {
     }
 
 }
-
@@ -0,0 +1,244 @@
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Tests for the CommandLineInterface class with input from memory.
+ *
+ */
+public class CommandLineInterfaceTest {
+
+	/**
+	 * Keeps everything written to it.
+	 */
+	private static class RecordingSink implements OutputSink {
+		StringBuilder text = new StringBuilder();
+		int writes = 0;
+
+		@Override
+		public void print(String line) {
+			text.append(line);
+			writes++;
+		}
+
+		@Override
+		public void println(String line) {
+			text.append(line).append('\n');
+			writes++;
+		}
+
+		@Override
+		public void flush() {
+		}
+	}
+
+	/**
+	 * Answers for a one day game with one player and one pet, who sleeps
+	 * twice.
+	 */
+	private static final String[] ONE_DAY = {"n", "1", "1", "Ann", "1", "cat", "Tom", "5", "5"};
+
+	@Test
+	public void testScriptedGame() throws Exception {
+		MemoryInputSource input = new MemoryInputSource(ONE_DAY);
+		RecordingSink output = new RecordingSink();
+		GameEnvironment game = new GameEnvironment(new CommandLineInterface(input, output));
+		game.initialiseNumGenerator(new String[] {"1"});
+		game.play();
+		assertEquals(0, input.remaining());
+		assertTrue(output.text.toString().contains("=== Day 1 ==="));
+		assertTrue(output.text.toString().contains("Ann has a score of"));
+		assertEquals("Ann", game.getLeaderboard()[0].getName());
+	}
+
+	@Test
+	public void testStatusTable() throws Exception {
+		RecordingSink output = new RecordingSink();
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("1", "5", "1", "5"), output);
+		cli.setStatusDashboard(true, true);
+		Player player = new Player();
+		player.setName("Ann");
+		Pet pet = new Cat();
+		pet.setName("Tom");
+		pet.increaseFatigue(60); //so sleeping changes a cell
+		player.getPetList().add(pet);
+		player.publishSnapshot();
+		cli.interact(player, pet, new HashMap<String, Food>(), new HashMap<String, Toy>());
+		cli.tearDown();
+		String text = output.text.toString();
+		//drawn in full once; the second view only changes the cells that differ
+		int first = text.indexOf("Mischief");
+		assertTrue(first >= 0);
+		assertEquals(-1, text.indexOf("Mischief", first + 1));
+		assertEquals(1, text.split("\u001b\\[2J", -1).length - 1);
+		assertTrue(text.contains("\u001b7\u001b[2;"));
+		assertTrue(text.contains("Favourite food: "));
+		//the whole screen scrolls again at the end
+		assertTrue(text.contains("\u001b[r\u001b[999;1H"));
+	}
+
+	@Test
+	public void testPlainStatusTable() throws Exception {
+		RecordingSink output = new RecordingSink();
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("1", "5", "5"), output);
+		cli.setStatusDashboard(true, false);
+		Player player = new Player();
+		player.setName("Ann");
+		Pet pet = new Cat();
+		pet.setName("Tom");
+		player.getPetList().add(pet);
+		player.publishSnapshot();
+		cli.interact(player, pet, new HashMap<String, Food>(), new HashMap<String, Toy>());
+		cli.tearDown();
+		assertTrue(output.text.toString().contains("Mischief"));
+		assertFalse(output.text.toString().contains("\u001b"));
+	}
+
+	@Test
+	public void testGamesRunTogether() throws Exception {
+		Thread[] threads = new Thread[4];
+		GameEnvironment[] games = new GameEnvironment[threads.length];
+		for (int i = 0; i < threads.length; i++) {
+			games[i] = new GameEnvironment(new CommandLineInterface(
+					new MemoryInputSource(ONE_DAY), NullOutputSink.INSTANCE));
+			games[i].initialiseNumGenerator(new String[] {"1"});
+			GameEnvironment game = games[i];
+			threads[i] = new Thread(() -> {
+				try {
+					game.play();
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			});
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			assertEquals(games[0].getLeaderboard()[0].getScore(),
+					games[i].getLeaderboard()[0].getScore(), 0);
+		}
+	}
+
+	@Test
+	public void testInvalidAnswersAreAskedAgain() {
+		RecordingSink output = new RecordingSink();
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("zero", "0", "2"), output);
+		assertEquals(2, cli.getNumberRequired("How many? "));
+		assertTrue(output.text.toString().contains("Please enter an integer between 1 and 3"));
+	}
+
+	@Test
+	public void testOneWritePerPrompt() {
+		RecordingSink output = new RecordingSink();
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("x", "n", "cow", "2"), output);
+		cli.gameHeader();
+		cli.tutorial();
+		//the header and each prompt, with the message about the bad answer
+		assertEquals(2, output.writes);
+		assertEquals("cat", cli.createPetSpecies().getSpecies());
+		assertEquals(4, output.writes);
+	}
+
+	@Test
+	public void testDuplicateNames() {
+		NameRegistry names = new NameRegistry();
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("Ann", " ann ", "", "Bob"), NullOutputSink.INSTANCE);
+		assertEquals("Ann", cli.getName("Name: ", names));
+		assertEquals("Bob", cli.getName("Name: ", names));
+		assertTrue(names.isTaken("bob"));
+	}
+
+	@Test
+	public void testGamesShareNames() throws Exception {
+		NameRegistry names = new NameRegistry();
+		names.reserve("Tom");
+		GameEnvironment game = new GameEnvironment(new CommandLineInterface(
+				new MemoryInputSource("n", "1", "1", "Ann", "1", "cat", "Tom", "Tim", "5", "5"),
+				NullOutputSink.INSTANCE));
+		game.setNameRegistry(names);
+		game.initialiseNumGenerator(new String[] {"1"});
+		game.play();
+		//the game's names are given back when it finishes
+		assertFalse(names.isTaken("Ann"));
+		assertTrue(names.isTaken("Tom"));
+	}
+
+	@Test
+	public void testFullRegistry() {
+		NameRegistry names = new NameRegistry(1);
+		names.reserve("Tom");
+		RecordingSink output = new RecordingSink();
+		CommandLineInterface cli = new CommandLineInterface(new MemoryInputSource("Ann"), output);
+		try {
+			cli.getName("Name: ", names);
+			fail("Took a name in a full registry.");
+		} catch (NoSuchElementException e) {
+			//asked again, and there were no more answers
+		}
+		assertTrue(output.text.toString().contains("no more names can be used"));
+	}
+
+	@Test
+	public void testNamesGivenBackWhenSetupStops() throws Exception {
+		NameRegistry names = new NameRegistry();
+		GameEnvironment game = new GameEnvironment(new CommandLineInterface(
+				new MemoryInputSource("n", "1", "1", "Ann", "1"), NullOutputSink.INSTANCE));
+		game.setNameRegistry(names);
+		game.initialiseNumGenerator(new String[] {"1"});
+		try {
+			game.play();
+			fail("Played a game with too few answers.");
+		} catch (NoSuchElementException e) {
+			//the answers ran out while choosing a pet
+		}
+		assertFalse(names.isTaken("Ann"));
+	}
+
+	@Test
+	public void testSpeciesTypos() {
+		CommandLineInterface cli = new CommandLineInterface(
+				new MemoryInputSource("hoarse", "aplaca", "beer", "po", "6", "cow", "DOG"),
+				NullOutputSink.INSTANCE);
+		assertEquals("horse", cli.createPetSpecies().getSpecies());
+		assertEquals("alpaca", cli.createPetSpecies().getSpecies());
+		assertEquals("polar bear", cli.createPetSpecies().getSpecies());
+		assertEquals("polar bear", cli.createPetSpecies().getSpecies());
+		assertEquals("polar bear", cli.createPetSpecies().getSpecies());
+		assertEquals("dog", cli.createPetSpecies().getSpecies());
+	}
+
+	@Test
+	public void testBuyByName() throws Exception {
+		RecordingSink output = new RecordingSink();
+		GameEnvironment game = new GameEnvironment(new CommandLineInterface(
+				new MemoryInputSource("n", "1", "1", "Ann", "1", "cat", "Tom",
+						"2", "1", "cat biscuts", "3", "5", "5"), output));
+		game.initialiseNumGenerator(new String[] {"1"});
+		game.play();
+		assertTrue(output.text.toString().contains("You have bought: Cat biscuits"));
+	}
+
+	@Test
+	public void testScreenBuffer() {
+		RecordingSink output = new RecordingSink();
+		ScreenBuffer screen = new ScreenBuffer(output);
+		screen.print("a");
+		screen.println("b");
+		assertEquals(0, output.writes);
+		screen.flush();
+		screen.flush();
+		assertEquals(1, output.writes);
+		assertEquals("ab" + System.lineSeparator(), output.text.toString());
+		ScreenBuffer discarded = new ScreenBuffer(NullOutputSink.INSTANCE);
+		discarded.println("lost");
+		assertEquals(0, discarded.length());
+	}
+}
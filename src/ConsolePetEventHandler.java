@@ -0,0 +1,34 @@
+/**
+ * Asks the player at the console what to do when a random event happens.
+ *
+ */
+public class ConsolePetEventHandler implements PetEventHandler {
+
+    /**
+     * The interface used to ask the player.
+     */
+    private final CommandLineInterface cli;
+
+    /**
+     * Creates a handler that asks through an interface.
+     * @param cli The interface used to ask the player.
+     */
+    public ConsolePetEventHandler(CommandLineInterface cli) {
+        this.cli = cli;
+    }
+
+    @Override
+    public boolean disciplinePet(Player player, Pet pet) {
+        return cli.petMisbehaves(pet);
+    }
+
+    @Override
+    public boolean treatPet(Player player, Pet pet) {
+        return cli.petSicks(pet, player.getBalance());
+    }
+
+    @Override
+    public boolean revivePet(Player player, Pet pet) {
+        return cli.petDies(pet, pet.getIsRevivable());
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes events from the game to listeners without making the game wait.
+ *
+ * Each subscription has its own bounded queue and its own thread, which
+ * hands events to the listener. Publishing only puts the event on the queue
+ * of each interested subscription. When a queue is full the subscription's
+ * overflow policy decides whether the event is dropped or the publisher
+ * waits; only subscriptions that ask to block can slow the game down.
+ *
+ * Publishing an event that nobody has subscribed to costs one check and
+ * doesn't create the event.
+ *
+ */
+public class EventBus {
+
+    /**
+     * What to do when a subscription's queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Throw away the new event. */
+        DROP_NEWEST,
+        /** Throw away the oldest waiting event to make room for the new one. */
+        DROP_OLDEST,
+        /** Wait until there is room. This makes the publisher wait. */
+        BLOCK
+    }
+
+    /**
+     * Every open subscription.
+     */
+    private final CopyOnWriteArrayList<Subscription> subscriptions =
+            new CopyOnWriteArrayList<Subscription>();
+    /**
+     * Bit mask of the event types that at least one subscription wants.
+     */
+    private volatile int subscribedTypes;
+
+    /**
+     * Subscribes a listener to some types of event.
+     * @param types Types of event the listener receives.
+     * @param listener The listener.
+     * @param capacity Most events that can be waiting for the listener.
+     * @param policy What to do when the queue is full.
+     * @return The subscription, which must be closed when no longer needed.
+     */
+    public Subscription subscribe(EnumSet<PetEvent.Type> types, PetEventListener listener,
+            int capacity, OverflowPolicy policy) {
+        Subscription subscription = new Subscription(types, listener, capacity, policy);
+        subscriptions.add(subscription);
+        updateSubscribedTypes();
+        subscription.dispatcher.start();
+        return subscription;
+    }
+
+    /**
+     * Subscribes a listener to every type of event, dropping new events when
+     * its queue is full.
+     * @param listener The listener.
+     * @param capacity Most events that can be waiting for the listener.
+     * @return The subscription.
+     */
+    public Subscription subscribe(PetEventListener listener, int capacity) {
+        return subscribe(EnumSet.allOf(PetEvent.Type.class), listener, capacity,
+                OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Gets whether anyone is subscribed to a type of event.
+     * @param type The event type.
+     * @return Whether it has subscribers.
+     */
+    public boolean hasSubscribers(PetEvent.Type type) {
+        return (subscribedTypes & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Publishes an event, if anyone is subscribed to its type.
+     * @param type What happened.
+     * @param player The player it happened to.
+     * @param pet The pet it happened to, or null.
+     * @param item The item involved, or null.
+     */
+    public void publish(PetEvent.Type type, Player player, Pet pet, Item item) {
+        if (hasSubscribers(type)) {
+            publish(new PetEvent(type, player, pet, item));
+        }
+    }
+
+    /**
+     * Publishes an event to every subscription that wants its type.
+     * @param event The event.
+     */
+    public void publish(PetEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.types.contains(event.getType())) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Recalculates which event types have subscribers.
+     */
+    private synchronized void updateSubscribedTypes() {
+        int mask = 0;
+        for (Subscription subscription : subscriptions) {
+            for (PetEvent.Type type : subscription.types) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        subscribedTypes = mask;
+    }
+
+    /**
+     * One listener's subscription to the bus.
+     */
+    public class Subscription implements AutoCloseable {
+
+        /**
+         * Types of event the listener receives.
+         */
+        private final EnumSet<PetEvent.Type> types;
+        /**
+         * The listener.
+         */
+        private final PetEventListener listener;
+        /**
+         * Events waiting for the listener.
+         */
+        private final ArrayBlockingQueue<PetEvent> queue;
+        /**
+         * What to do when the queue is full.
+         */
+        private final OverflowPolicy policy;
+        /**
+         * Thread that passes events to the listener.
+         */
+        private final Thread dispatcher;
+        /**
+         * Number of events thrown away because the queue was full.
+         */
+        private final AtomicLong dropped = new AtomicLong();
+        /**
+         * Whether the subscription is still open.
+         */
+        private volatile boolean open = true;
+
+        /**
+         * Creates a subscription.
+         * @param types Types of event the listener receives.
+         * @param listener The listener.
+         * @param capacity Most events that can be waiting.
+         * @param policy What to do when the queue is full.
+         */
+        private Subscription(EnumSet<PetEvent.Type> types, PetEventListener listener,
+                int capacity, OverflowPolicy policy) {
+            this.types = EnumSet.copyOf(types);
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<PetEvent>(capacity);
+            this.policy = policy;
+            this.dispatcher = new Thread(this::dispatch, "event-bus-" + listener);
+            this.dispatcher.setDaemon(true);
+        }
+
+        /**
+         * Gets the number of events thrown away because the queue was full.
+         * @return Number of dropped events.
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Puts an event on the queue, following the overflow policy if it is full.
+         * @param event The event.
+         */
+        private void offer(PetEvent event) {
+            if (!open) {
+                return;
+            }
+            switch (policy) {
+            case DROP_NEWEST:
+                if (!queue.offer(event)) {
+                    dropped.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown overflow policy " + policy);
+            }
+        }
+
+        /**
+         * Passes events to the listener until the subscription is closed and
+         * the queue is empty.
+         */
+        private void dispatch() {
+            while (open || !queue.isEmpty()) {
+                try {
+                    PetEvent event = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        listener.onEvent(event);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    //a broken listener mustn't stop the others getting events
+                    System.err.println("Error in event listener: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Stops new events reaching the listener, and waits for the events
+         * already queued to be passed on.
+         */
+        @Override
+        public void close() {
+            open = false;
+            subscriptions.remove(this);
+            updateSubscribedTypes();
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
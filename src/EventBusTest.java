@@ -0,0 +1,134 @@
+import static org.junit.Assert.*;
+
+import java.util.EnumSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the EventBus class.
+ *
+ */
+public class EventBusTest {
+
+	private EventBus eventBus;
+	private Player player;
+	private Cat cat;
+	private CopyOnWriteArrayList<PetEvent> received;
+
+	@Before
+	public void setUp() throws Exception {
+		eventBus = new EventBus();
+		player = new Player();
+		player.setName("Harry");
+		cat = new Cat();
+		cat.setName("Fred");
+		received = new CopyOnWriteArrayList<PetEvent>();
+	}
+
+	@Test
+	public void testOnlySubscribedTypes() {
+		EventBus.Subscription subscription = eventBus.subscribe(EnumSet.of(PetEvent.Type.FED),
+				received::add, 10, EventBus.OverflowPolicy.BLOCK);
+		assertTrue(eventBus.hasSubscribers(PetEvent.Type.FED));
+		assertFalse(eventBus.hasSubscribers(PetEvent.Type.SLEPT));
+
+		eventBus.publish(PetEvent.Type.SLEPT, player, cat, null);
+		eventBus.publish(PetEvent.Type.FED, player, cat, null);
+		subscription.close();
+
+		assertEquals(1, received.size());
+		assertEquals(PetEvent.Type.FED, received.get(0).getType());
+		assertEquals("Fred", received.get(0).getPet().getName());
+		assertFalse(eventBus.hasSubscribers(PetEvent.Type.FED));
+	}
+
+	@Test
+	public void testEventsKeepStateAtTheTime() {
+		EventBus.Subscription subscription = eventBus.subscribe(received::add, 10);
+		Food food = new Food("Fish", "", 7, 1);
+		int hunger = cat.getHunger();
+		eventBus.publish(PetEvent.Type.PURCHASED, player, cat, food);
+		//the game carries on before the listener gets to the event
+		cat.increaseHunger(50);
+		player.spend(7);
+		food.setName("Old fish");
+		subscription.close();
+
+		PetEvent event = received.get(0);
+		assertEquals(hunger, event.getPet().getHunger());
+		assertEquals("Harry", event.getPlayerName());
+		assertEquals(player.getBalance() + 7, event.getPlayerBalance());
+		assertEquals("Fish", event.getItemName());
+		assertEquals(7, event.getItemPrice());
+	}
+
+	@Test
+	public void testDropWhenFull() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		EventBus.Subscription subscription = eventBus.subscribe(event -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {}
+			received.add(event);
+		}, 2);
+
+		eventBus.publish(PetEvent.Type.SLEPT, player, cat, null);
+		assertTrue(started.await(5, TimeUnit.SECONDS)); //the listener is now stuck on the first event
+		for (int i = 0; i < 5; i++) {
+			eventBus.publish(PetEvent.Type.SLEPT, player, cat, null);
+		}
+		assertEquals(3, subscription.getDropped());
+
+		release.countDown();
+		subscription.close();
+		assertEquals(3, received.size());
+	}
+
+	@Test
+	public void testBlockDeliversEverything() {
+		EventBus.Subscription subscription = eventBus.subscribe(EnumSet.allOf(PetEvent.Type.class),
+				received::add, 1, EventBus.OverflowPolicy.BLOCK);
+		for (int i = 0; i < 100; i++) {
+			eventBus.publish(PetEvent.Type.PLAYED, player, cat, null);
+		}
+		subscription.close();
+		assertEquals(100, received.size());
+		assertEquals(0, subscription.getDropped());
+	}
+
+	@Test
+	public void testDayEventsShowTheChange() {
+		EventBus.Subscription subscription = eventBus.subscribe(received::add, 10);
+		PetEventHandler handler = new AutomatedPetEventHandler(true, false, false);
+		RandomSource random = RandomSource.fromSeed(1);
+
+		PetDayActions.resolveSickness(player, cat, handler, eventBus);
+		PetDayActions.checkDeath(player, cat, 0, random, handler, eventBus);
+		subscription.close();
+
+		assertEquals(PetEvent.Type.SICK, received.get(0).getType());
+		assertTrue(received.get(0).getPet().getIsSick());
+		assertEquals(PetEvent.Type.DIED, received.get(1).getType());
+		assertTrue(received.get(1).getPet().getIsDead());
+	}
+
+	@Test
+	public void testTreatedEventShowsPayment() {
+		EventBus.Subscription subscription = eventBus.subscribe(received::add, 10);
+		player.earn(80);
+		int balance = player.getBalance();
+		PetDayActions.resolveSickness(player, cat, new AutomatedPetEventHandler(), eventBus);
+		subscription.close();
+
+		assertEquals(PetEvent.Type.TREATED, received.get(0).getType());
+		assertEquals(balance - PetDayActions.TREATMENT_COST, received.get(0).getPlayerBalance());
+		assertFalse(received.get(0).getPet().getIsSick());
+	}
+
+}
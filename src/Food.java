@@ -1,4 +1,6 @@
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * Food class implementation for Virtual Pets.
@@ -50,6 +52,14 @@ public class Food extends Item {
         }
     }
 
+    /**
+     * Gets the species this food has a health increase for.
+     * @return Names of the species.
+     */
+    public Set<String> getKnownSpecies() {
+        return Collections.unmodifiableSet(this.healthIncrease.keySet());
+    }
+
     /**
      * Gets portion size for the food.
      * @return Portion size.
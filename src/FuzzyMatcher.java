@@ -0,0 +1,220 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Works out which of a set of names the user meant when they typed something
+ * that may be misspelt or cut short, such as "hoarse" for "horse", "aplaca"
+ * for "alpaca" or "dog r" for "Dog roll".
+ *
+ * Names are compared with case and extra spaces ignored. What was typed is
+ * matched, in this order, to a name that is the same, to the only thing the
+ * names starting with it belong to, and to the closest name by edit distance
+ * (the number of letters added, removed or changed), if it is close enough
+ * for its length. Names are kept in a BK-tree, which only compares what was
+ * typed with the names whose distance from others could still be in range,
+ * so a match takes microseconds even for thousands of names.
+ *
+ * If more than one thing is equally close, nothing is matched rather than
+ * guessing.
+ *
+ * @param <T> What the names belong to.
+ */
+public class FuzzyMatcher<T> {
+
+    /**
+     * Shortest text that is matched as the start of a name.
+     */
+    private static final int MIN_PREFIX = 2;
+    /**
+     * Most letters that can be wrong in a match, however long it is.
+     */
+    private static final int MAX_DISTANCE = 3;
+
+    /**
+     * A name in the BK-tree.
+     * @param <T> What the name belongs to.
+     */
+    private static final class Node<T> {
+
+        /**
+         * The name, normalised.
+         */
+        private final String name;
+        /**
+         * What the name belongs to.
+         */
+        private T value;
+        /**
+         * Names under this one, by their distance from it.
+         */
+        private final HashMap<Integer, Node<T>> children = new HashMap<Integer, Node<T>>();
+
+        /**
+         * Creates a node.
+         * @param name The name, normalised.
+         * @param value What the name belongs to.
+         */
+        Node(String name, T value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Top of the BK-tree, or null if there are no names.
+     */
+    private Node<T> root;
+    /**
+     * Every name, sorted, for matching the starts of names.
+     */
+    private final TreeMap<String, T> names = new TreeMap<String, T>();
+
+    /**
+     * Creates a matcher with no names.
+     */
+    public FuzzyMatcher() {
+    }
+
+    /**
+     * Adds a name, or changes what it belongs to if it is already there.
+     * More than one name can belong to the same thing, such as "polar bear"
+     * and "bear".
+     * @param name The name.
+     * @param value What it belongs to.
+     * @throws IllegalArgumentException if the name is blank
+     */
+    public void add(String name, T value) {
+        String key = normalise(name);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        names.put(key, value);
+        if (root == null) {
+            root = new Node<T>(key, value);
+            return;
+        }
+        Node<T> node = root;
+        while (true) {
+            int distance = distance(key, node.name);
+            if (distance == 0) {
+                node.value = value;
+                return;
+            }
+            Node<T> child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node<T>(key, value));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Gets the number of names.
+     * @return Number of names.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Finds what some typed text most likely means.
+     * @param text What was typed.
+     * @return What the matching name belongs to, or null if no name is close
+     * enough or more than one thing is equally close.
+     */
+    public T match(String text) {
+        String key = normalise(text);
+        if (key.isEmpty()) {
+            return null;
+        }
+        if (names.containsKey(key)) {
+            return names.get(key);
+        }
+
+        //the start of names that all belong to the same thing
+        if (key.length() >= MIN_PREFIX) {
+            T found = null;
+            boolean any = false;
+            for (Map.Entry<String, T> entry
+                    : names.subMap(key, key + Character.MAX_VALUE).entrySet()) {
+                if (any && !Objects.equals(found, entry.getValue())) {
+                    found = null;
+                    break;
+                }
+                found = entry.getValue();
+                any = true;
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+
+        //the closest name within range, from the BK-tree
+        int limit = Math.min(MAX_DISTANCE, Math.max(1, key.length() / 2));
+        int bestDistance = limit + 1;
+        T best = null;
+        boolean tied = false;
+        ArrayDeque<Node<T>> toVisit = new ArrayDeque<Node<T>>();
+        if (root != null) {
+            toVisit.push(root);
+        }
+        while (!toVisit.isEmpty()) {
+            Node<T> node = toVisit.pop();
+            int distance = distance(key, node.name);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = node.value;
+                tied = false;
+            } else if (distance == bestDistance && !Objects.equals(best, node.value)) {
+                tied = true;
+            }
+            for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= limit) {
+                    toVisit.push(child.getValue());
+                }
+            }
+        }
+        return tied ? null : best;
+    }
+
+    /**
+     * Puts text in the form names are compared in: lower case, with no
+     * spaces at the ends and single spaces between words.
+     * @param text The text.
+     * @return The normalised text.
+     */
+    static String normalise(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the edit distance between two strings: the fewest letters that
+     * must be added, removed or changed to turn one into the other.
+     * @param a One string.
+     * @param b The other string.
+     * @return The distance.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int change = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(change, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
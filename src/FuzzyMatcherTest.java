@@ -0,0 +1,60 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the FuzzyMatcher class.
+ *
+ */
+public class FuzzyMatcherTest {
+
+	@Test
+	public void testDistance() {
+		assertEquals(0, FuzzyMatcher.distance("horse", "horse"));
+		assertEquals(1, FuzzyMatcher.distance("hoarse", "horse"));
+		assertEquals(2, FuzzyMatcher.distance("aplaca", "alpaca"));
+		assertEquals(3, FuzzyMatcher.distance("", "cat"));
+		assertEquals("polar bear", FuzzyMatcher.normalise("  Polar   BEAR "));
+	}
+
+	@Test
+	public void testMatch() {
+		FuzzyMatcher<String> matcher = new FuzzyMatcher<String>();
+		for (String species : new String[] {"alpaca", "cat", "dog", "goat", "horse"}) {
+			matcher.add(species, species);
+		}
+		matcher.add("polar bear", "polar bear");
+		matcher.add("bear", "polar bear");
+		assertEquals(7, matcher.size());
+
+		assertEquals("cat", matcher.match("Cat"));
+		assertEquals("horse", matcher.match("hoarse"));
+		assertEquals("alpaca", matcher.match("apalca"));
+		assertEquals("alpaca", matcher.match("al"));
+		assertEquals("polar bear", matcher.match("poler  bear"));
+		assertEquals("polar bear", matcher.match("bare"));
+		assertNull(matcher.match("cow"));
+		assertNull(matcher.match("elephant"));
+		assertNull(matcher.match(""));
+		//one away from both "cat" and "goat"
+		assertNull(matcher.match("gat"));
+	}
+
+	@Test
+	public void testManyNames() {
+		FuzzyMatcher<Integer> matcher = new FuzzyMatcher<Integer>();
+		for (int i = 0; i < 20000; i++) {
+			matcher.add("item " + Integer.toString(i * 7919, 36), i);
+		}
+		assertEquals(20000, matcher.size());
+		for (int i = 0; i < 20000; i += 97) {
+			String name = "item " + Integer.toString(i * 7919, 36);
+			assertEquals(Integer.valueOf(i), matcher.match(name));
+			assertEquals(Integer.valueOf(i), matcher.match(name.toUpperCase() + " "));
+		}
+		//a new name can be matched as soon as it is added
+		assertNull(matcher.match("squeaky bone"));
+		matcher.add("Squeaky bone", -1);
+		assertEquals(Integer.valueOf(-1), matcher.match("squeeky bone"));
+	}
+}
@@ -2,8 +2,12 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Random;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -23,7 +27,12 @@ public class GameEnvironment {
      */
     private Player[] playerList;
     /**
-     * The list of names used so far. This is used to avoid duplicate names.
+     * The names in use. This is used to avoid duplicate names, and can be
+     * shared by games so names are unique across all of them.
+     */
+    private NameRegistry nameRegistry = new NameRegistry();
+    /**
+     * The names this game has taken, given back when it finishes.
      */
     private ArrayList<String> nameList = new ArrayList<String>();
     /**
@@ -47,12 +56,53 @@ public class GameEnvironment {
     /**
      * How much each player gets per pet per day, in dollars.
      */
-    private int dailyPetAllowance;
+    private int dailyPetAllowance = 10;
+    /**
+     * The random number generator for the game as a whole. The streams for
+     * each player and pet are derived from this one.
+     */
+    private RandomSource randomNumGen;
+    /**
+     * Maps each pet to its own random number stream, used for random events.
+     * Random events include misbehaving, being sick, and dying.
+     */
+    private IdentityHashMap<Pet, RandomSource> petRandomStreams =
+            new IdentityHashMap<Pet, RandomSource>();
+    /**
+     * Where changes to players and pets are published.
+     */
+    private EventBus eventBus = new EventBus();
+    /**
+     * Told when the game moves on to a new phase.
+     */
+    private GamePhaseListener phaseListener = phase -> { };
+    /**
+     * The interface the game is played through.
+     */
+    private final CommandLineInterface cli;
+    /**
+     * Decides what happens on random events during the interactive game.
+     */
+    private final PetEventHandler eventHandler;
+
     /**
-     * The random number generated, used for random events. Random events
-     * include misbehaving, being sick, and dying.
+     * Creates a game played at the console.
      */
-    private Random randomNumGen;
+    public GameEnvironment() {
+        this(new CommandLineInterface());
+    }
+
+    /**
+     * Creates a game played through an interface, which can read from and
+     * write to anywhere.
+     *
+     * @param cli
+     *            The interface.
+     */
+    public GameEnvironment(CommandLineInterface cli) {
+        this.cli = cli;
+        eventHandler = new ConsolePetEventHandler(cli);
+    }
 
     /**
      * Sets the name for a new player.
@@ -62,9 +112,11 @@ public class GameEnvironment {
      */
     private void setPlayerName(Player newPlayer) {
         try {
-            newPlayer.setName(CommandLineInterface.getName("Player name: ", nameList));
+            String name = cli.getName("Player name: ", nameRegistry);
+            nameList.add(name);
+            newPlayer.setName(name);
         } catch (IllegalArgumentException exception) {
-            System.out.println("Unknown error. Please try again.");
+            cli.unknownError();
         }
     }
 
@@ -213,6 +265,26 @@ public class GameEnvironment {
         return formatted;
     }
 
+    /**
+     * Gets the species pets can be, from the file petData.csv.
+     *
+     * @return Names of the species, sorted, so their menu numbers don't
+     *         depend on the order of the file.
+     */
+    public List<String> getSpeciesNames() {
+        ArrayList<String> data = getDataFromFile("petData.csv");
+        data.remove(0); // the headings
+        List<String> species = new ArrayList<String>();
+        for (String line : data) {
+            String name = line.split(",")[0].trim();
+            if (!name.isEmpty()) {
+                species.add(name);
+            }
+        }
+        species.sort(null);
+        return species;
+    }
+
     /**
      * Generates all food prototypes for game from the file foodData.csv.
      */
@@ -279,12 +351,14 @@ public class GameEnvironment {
      * @return Pet player has made.
      */
     private Pet createPet() {
-        Pet newPet = CommandLineInterface.createPetSpecies();
+        Pet newPet = cli.createPetSpecies();
 
         try {
-            newPet.setName(CommandLineInterface.getName("Pet name: ", nameList));
+            String name = cli.getName("Pet name: ", nameRegistry);
+            nameList.add(name);
+            newPet.setName(name);
         } catch (IllegalArgumentException exception) {
-            System.out.println("Unknown error. Please try again.");
+            cli.unknownError();
         }
 
         Boolean genderDecider = randomNumGen.nextBoolean();
@@ -305,7 +379,7 @@ public class GameEnvironment {
     private Player createPlayer() {
         Player newPlayer = new Player();
         setPlayerName(newPlayer);
-        int numPets = CommandLineInterface.getNumberRequired("Hi "
+        int numPets = cli.getNumberRequired("Hi "
                 + newPlayer.getName()
                 + "! How many pets do you want? ");
 
@@ -327,42 +401,115 @@ public class GameEnvironment {
      *             Pet creation side effect
      */
     private void setup() throws IOException {
-        CommandLineInterface.gameHeader();
-        CommandLineInterface.tutorial();
-        numberOfDays = CommandLineInterface.getNumberOfDays();
+        phaseListener.phaseStarted("setup");
+        cli.setEventBus(eventBus);
+        cli.setSpecies(getSpeciesNames());
+        cli.gameHeader();
+        cli.tutorial();
+        numberOfDays = cli.getNumberOfDays();
         dayNumber = 1;
-        int numPlayers = CommandLineInterface.getNumberRequired("How many players? ");
+        int numPlayers = cli.getNumberRequired("How many players? ");
         playerList = new Player[numPlayers];
 
         for (int i = 0; i < numPlayers; i++) {
             playerList[i] = createPlayer();
         }
 
+        phaseListener.phaseStarted("catalog");
         generateToyPrototypes();
         generateFoodPrototypes();
+        assignRandomStreams();
+    }
+
+    /**
+     * Gives each pet its own random number stream.
+     *
+     * The stream for a pet is derived from its player's stream, which is
+     * derived from the game's stream, so every pet gets the same numbers for
+     * a given seed whatever order the pets are processed in.
+     */
+    private void assignRandomStreams() {
+        petRandomStreams.clear();
+        for (int i = 0; i < playerList.length; i++) {
+            RandomSource playerStream = randomNumGen.derive(i);
+            ArrayList<Pet> petList = playerList[i].getPetList();
+            for (int j = 0; j < petList.size(); j++) {
+                petRandomStreams.put(petList.get(j), playerStream.derive(j));
+            }
+        }
+    }
+
+    /**
+     * Gets the random number stream belonging to a pet.
+     *
+     * @param pet
+     *            Pet to get the stream of.
+     * @return The pet's random number stream.
+     */
+    protected RandomSource getPetRandomStream(Pet pet) {
+        return petRandomStreams.get(pet);
     }
 
     /**
      * Tears down the game.
      */
     private void tearDown() {
-        CommandLineInterface.tearDown();
+        cli.tearDown();
     }
 
     /**
      * Sets up random number generator for testing.
      *
      * @param args
-     *            Only argument is a seed of type long for the generator.
+     *            First argument is a seed of type long for the generator. The
+     *            optional second argument is the kind of generator to use,
+     *            either "splittable" (the default) or "xoshiro".
      */
     public void initialiseNumGenerator(String[] args) {
-        if (args.length == 1) {
-            randomNumGen = new Random(Long.parseLong(args[0]));
+        long seed;
+        if (args.length >= 1) {
+            seed = Long.parseLong(args[0]);
+        } else {
+            seed = new SplittableRandom().nextLong();
+        }
+
+        if (args.length >= 2) {
+            randomNumGen = RandomSource.fromSeed(args[1], seed);
         } else {
-            randomNumGen = new Random();
+            randomNumGen = RandomSource.fromSeed(seed);
         }
     }
 
+    /**
+     * Sets the registry of names in use, so that games sharing it can't
+     * use the same names while they are running.
+     *
+     * @param registry
+     *            The registry.
+     */
+    public void setNameRegistry(NameRegistry registry) {
+        nameRegistry = registry;
+    }
+
+    /**
+     * Sets what is told when the game moves on to a new phase.
+     *
+     * @param listener
+     *            The listener.
+     */
+    public void setPhaseListener(GamePhaseListener listener) {
+        phaseListener = listener;
+    }
+
+    /**
+     * Gets the event bus that changes to players and pets are published on.
+     *
+     * @return The event bus.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
     /**
      * Method to return a list of food prototypes - for testing purposes.
      *
@@ -385,11 +532,12 @@ public class GameEnvironment {
      * @throws Exception if error in code
      */
     private void postGame() throws Exception {
+        phaseListener.phaseStarted("post-game");
         for (int i = 0; i < playerList.length; i++) {
             playerList[i].calculateScore();
         }
         Player[] rankedPlayers = rankPlayers();
-        CommandLineInterface.postGame(rankedPlayers);
+        cli.postGame(rankedPlayers);
     }
 
     /**
@@ -398,12 +546,16 @@ public class GameEnvironment {
      */
     private void gameLoop() throws Exception {
         dailyPetAllowance = 10;
+        //the advisor gets its own stream so hints can't give away the game's rolls
+        cli.setAdvisor(new ActionAdvisor(dailyPetAllowance,
+                randomNumGen.derive(-1).getSeed()));
 
         while (dayNumber <= numberOfDays) {
-            CommandLineInterface.newDay(dayNumber);
+            phaseListener.phaseStarted("day " + dayNumber);
+            cli.newDay(dayNumber);
 
             for (Player player : playerList) {
-                CommandLineInterface.newPlayer(player);
+                cli.newPlayer(player);
                 int numOfAlivePets = 0;
                 for (Pet pet : player.getPetList()) { // count up all the alive
                     // pets
@@ -416,10 +568,12 @@ public class GameEnvironment {
                 for (Pet pet : player.getPetList()) {
                     if (!pet.getIsDead()) { // if the pet isn't dead
                         newDayPetActions(player, pet);
-                        CommandLineInterface.interact(player, pet, foodPrototypes, toyPrototypes);
+                        player.publishSnapshot();
+                        cli.interact(player, pet, foodPrototypes, toyPrototypes);
                     }
                 }
                 player.calculateScore();
+                player.publishSnapshot();
             }
 
             dayNumber++;
@@ -439,79 +593,100 @@ public class GameEnvironment {
      *            the pet the player is about to interact with.
      */
     private void newDayPetActions(Player player, Pet pet) {
-        Boolean disciplined;
-        Boolean treated;
-        Boolean revived;
-
-        pet.increaseFatigue(30);
-        pet.increaseHappiness(-10);
-        pet.increaseHunger(30);
-        pet.increaseMischievousness(5);
-
-        // If fatigue is especially high, reduce health.
-        int fatigue = pet.getFatigue();
-        if (fatigue > 80) {
-            pet.increaseHealth(-10);
-        } else if (fatigue > 90) {
-            pet.increaseHealth(-25);
-        } else if (fatigue == 100) {
-            pet.increaseHealth(-50);
-        }
+        PetDayActions.newDay(player, pet, petRandomStreams.get(pet), eventHandler, eventBus);
+    }
 
-        /*
-         * Check if misbehaving
-         */
-        // create random number between 0 and 99
-        int randomNumber = randomNumGen.nextInt(100);
-        int wellness = (pet.getHappiness() * 3
-                + pet.getHealth()
-                + (100 - pet.getMischievousness()) * 5
-                + (100 - pet.getHunger())) / 10;
-        if (wellness < 25 && randomNumber < 75
-                || wellness < 50 && randomNumber < 50
-                || wellness < 75 && randomNumber < 25) {
-            disciplined = CommandLineInterface.petMisbehaves(pet);
-            if (disciplined) {
-                pet.discipline();
-            } else {
-                pet.misbehave();
+    /**
+     * Runs days for automated players, who don't interact with their pets.
+     *
+     * Each day every player is paid their allowance, every live pet goes
+     * through its start of day actions with random events decided by the
+     * handler, and every player's score is updated. With more than one
+     * thread the pets are split between threads by a ParallelDayExecutor,
+     * which gives the same result as running on one thread.
+     *
+     * @param days
+     *            Number of days to run.
+     * @param handler
+     *            Decides what happens on random events.
+     * @param threads
+     *            Number of threads to use.
+     */
+    public void runAutomatedDays(int days, PetEventHandler handler, int threads) {
+        if (threads > 1) {
+            ParallelDayExecutor executor = new ParallelDayExecutor(playerList,
+                    petRandomStreams, handler, eventBus, dailyPetAllowance, threads);
+            executor.runDays(days);
+            dayNumber += days;
+        } else {
+            for (int day = 0; day < days; day++) {
+                runAutomatedDay(handler);
+                dayNumber++;
             }
         }
+    }
 
-        /*
-         * Check if sick
-         */
-        // create random number between 0 and 99
-        randomNumber = randomNumGen.nextInt(100);
-        int health = pet.getHealth();
-        if (pet.getIsSick()
-                || health < 5
-                || health < 25 && randomNumber < 75
-                || health < 50 && randomNumber < 50
-                || health < 75 && randomNumber < 25) {
-            treated = CommandLineInterface.petSicks(pet, player.getBalance());
-            if (treated) {
-                pet.treat();
-                player.spend(50);
-            } else {
-                pet.beSick();
-            }
+    /**
+     * Creates an actor for each player, for the hosted game. Each actor owns
+     * its player and their pets from then on.
+     *
+     * @param threads
+     *            Number of threads to run the actors on.
+     * @param handler
+     *            Decides what happens on random events.
+     * @param mailboxCapacity
+     *            Most commands that can be waiting for each actor.
+     * @param listener
+     *            Told when actors finish commands and days.
+     * @return The actor system, with one actor per player in player order.
+     */
+    public PlayerActorSystem startActors(int threads, PetEventHandler handler,
+            int mailboxCapacity, PlayerActorListener listener) {
+        PlayerActorSystem actorSystem = new PlayerActorSystem(threads, foodPrototypes,
+                toyPrototypes, handler, eventBus,
+                dailyPetAllowance, mailboxCapacity);
+        for (int i = 0; i < playerList.length; i++) {
+            actorSystem.spawn(playerList[i], randomNumGen.derive(i), listener);
         }
+        return actorSystem;
+    }
+
+    /**
+     * Ends the current day of the hosted game and tells every actor.
+     *
+     * @param actorSystem
+     *            The actors created by startActors.
+     */
+    public void endHostedDay(PlayerActorSystem actorSystem) {
+        dayNumber++;
+        actorSystem.endDay();
+    }
+
+    /**
+     * Runs a single day for automated players on the current thread.
+     *
+     * @param handler
+     *            Decides what happens on random events.
+     */
+    private void runAutomatedDay(PetEventHandler handler) {
+        for (Player player : playerList) {
+            int numOfAlivePets = 0;
+            for (Pet pet : player.getPetList()) {
+                if (!pet.getIsDead()) {
+                    numOfAlivePets++;
+                }
+            }
+            player.earn(dailyPetAllowance * numOfAlivePets);
 
-        /*
-         * Check if dead
-         */
-        // create random number between 0 and 99
-        randomNumber = randomNumGen.nextInt(100);
-        if (pet.getIsSick() && pet.getHappiness() < 50 || health < 5 || randomNumber < 2) {
-            revived = CommandLineInterface.petDies(pet, pet.getIsRevivable());
-            if (revived) {
-                pet.revive();
-            } else {
-                pet.die();
+            for (Pet pet : player.getPetList()) {
+                if (!pet.getIsDead()) {
+                    PetDayActions.newDay(player, pet, petRandomStreams.get(pet), handler,
+                            eventBus);
+                }
             }
+            player.calculateScore();
+            player.publishSnapshot();
         }
-
     }
 
     /**
@@ -537,6 +712,21 @@ public class GameEnvironment {
         return rankedArray;
     }
 
+    /**
+     * Gets the leaderboard from the players' published snapshots, so it can be
+     * read from any thread while the game is running.
+     *
+     * @return Snapshots of the players in descending order of score.
+     */
+    public PlayerSnapshot[] getLeaderboard() {
+        PlayerSnapshot[] leaderboard = new PlayerSnapshot[playerList.length];
+        for (int i = 0; i < playerList.length; i++) {
+            leaderboard[i] = playerList[i].getSnapshot();
+        }
+        Arrays.sort(leaderboard, (a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return leaderboard;
+    }
+
     /**
      * Method purely for testing purposes. Overwrites existing playerList with
      * its own array of players.
@@ -546,6 +736,41 @@ public class GameEnvironment {
      */
     protected void addPlayers(Player[] playerArray) {
         playerList = playerArray;
+        if (randomNumGen != null) {
+            assignRandomStreams();
+        }
+    }
+
+    /**
+     * Plays a whole game through the game's interface: setup, every day, and
+     * the results. The random number generator must be set up first. However
+     * the game ends, the interface is closed, the game's names are given back
+     * and the "finished" phase is started.
+     *
+     * @throws IOException
+     *             When a file has an issue.
+     * @throws NoSuchElementException
+     *             When the input runs out before the game is over.
+     */
+    public void play() throws IOException {
+        try {
+            setup();
+            try {
+                gameLoop();
+                postGame();
+            } catch (NoSuchElementException e) {
+                throw e;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        } finally {
+            tearDown();
+            for (String name : nameList) {
+                nameRegistry.release(name);
+            }
+            nameList.clear();
+            phaseListener.phaseStarted("finished");
+        }
     }
 
     /**
@@ -560,15 +785,10 @@ public class GameEnvironment {
         GameEnvironment mainGame = new GameEnvironment();
 
         mainGame.initialiseNumGenerator(args);
-        mainGame.setup();
         try {
-            mainGame.gameLoop();
-            mainGame.postGame();
-        } catch (Exception e) {
-            e.printStackTrace();
+            mainGame.play();
+        } catch (NoSuchElementException e) {
+            //the input was closed, so no one is left to play
         }
-
-        mainGame.tearDown();
-
     }
 }
@@ -0,0 +1,15 @@
+/**
+ * Told when a game moves on to a new phase, such as setup or a new day, so
+ * the phases can be timed.
+ *
+ */
+public interface GamePhaseListener {
+
+    /**
+     * Called as a phase starts. The last phase is "finished", once the game
+     * has been torn down.
+     * @param phase Name of the phase: "setup", "catalog", "day 1", "day 2" and
+     * so on, "post-game" or "finished".
+     */
+    void phaseStarted(String phase);
+}
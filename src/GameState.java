@@ -0,0 +1,241 @@
+/**
+ * A copy of the whole game that never changes, for working out what would
+ * happen if the players did something.
+ *
+ * Every action returns a new GameState and leaves this one as it was. The
+ * new state shares everything that didn't change with the old one: acting
+ * on one pet copies that pet and O(log n) tree nodes, not the other pets,
+ * names, species or item tables. Forking is therefore free, and thousands
+ * of what-if branches can be kept from the same starting point.
+ *
+ */
+public final class GameState {
+
+    /**
+     * State of each player.
+     */
+    private final PersistentVector<PlayerState> players;
+
+    /**
+     * Creates a game state.
+     * @param players State of each player.
+     */
+    private GameState(PersistentVector<PlayerState> players) {
+        this.players = players;
+    }
+
+    /**
+     * Copies the state of the players given. This is the only step that copies
+     * every pet; everything after that only copies what changes.
+     * @param playerList The players.
+     * @return The game state.
+     */
+    public static GameState capture(Player[] playerList) {
+        PersistentVector<PlayerState> players = PersistentVector.empty();
+        for (Player player : playerList) {
+            players = players.append(PlayerState.of(player));
+        }
+        return new GameState(players);
+    }
+
+    /**
+     * Makes a branch of this state. As states never change this costs nothing;
+     * it is here to make what-if code easier to read.
+     * @return A state to act on.
+     */
+    public GameState fork() {
+        return this;
+    }
+
+    /**
+     * Gets the number of players.
+     * @return Number of players.
+     */
+    public int getNumberOfPlayers() {
+        return players.size();
+    }
+
+    /**
+     * Gets the state of a player.
+     * @param playerIndex Index of the player.
+     * @return The player's state.
+     */
+    public PlayerState getPlayer(int playerIndex) {
+        return players.get(playerIndex);
+    }
+
+    /**
+     * Gets one of a player's pets. The pet must not be changed.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @return The pet.
+     */
+    public Pet getPet(int playerIndex, int petIndex) {
+        return players.get(playerIndex).getPets().get(petIndex);
+    }
+
+    /**
+     * Makes a state where a pet has eaten one of its player's foods.
+     * The food is removed by moving the last food into its place.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @param foodIndex Index of the food.
+     * @return The new state.
+     */
+    public GameState feed(int playerIndex, int petIndex, int foodIndex) {
+        PlayerState player = players.get(playerIndex);
+        Food food = player.getFoodStock().get(foodIndex);
+        Pet pet = new Pet(player.getPets().get(petIndex));
+        pet.feed(food);
+        player = player.withPets(player.getPets().set(petIndex, pet))
+                .withFoodStock(player.getFoodStock().swapRemove(foodIndex));
+        return new GameState(players.set(playerIndex, player));
+    }
+
+    /**
+     * Makes a state where a pet has played with one of its player's toys.
+     * A broken toy is removed by moving the last toy into its place.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @param toyIndex Index of the toy.
+     * @return The new state.
+     */
+    public GameState play(int playerIndex, int petIndex, int toyIndex) {
+        PlayerState player = players.get(playerIndex);
+        Toy toy = new Toy(player.getToyList().get(toyIndex));
+        Pet pet = new Pet(player.getPets().get(petIndex));
+        PersistentVector<Toy> toys;
+        try {
+            pet.play(toy);
+            toys = player.getToyList().set(toyIndex, toy);
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage().equals("durability is zero or negative")) {
+                toys = player.getToyList().swapRemove(toyIndex);
+            } else {
+                throw e;
+            }
+        }
+        player = player.withPets(player.getPets().set(petIndex, pet)).withToyList(toys);
+        return new GameState(players.set(playerIndex, player));
+    }
+
+    /**
+     * Makes a state where a pet has slept.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @return The new state.
+     */
+    public GameState sleep(int playerIndex, int petIndex) {
+        PlayerState player = players.get(playerIndex);
+        Pet pet = new Pet(player.getPets().get(petIndex));
+        pet.sleep();
+        return new GameState(players.set(playerIndex,
+                player.withPets(player.getPets().set(petIndex, pet))));
+    }
+
+    /**
+     * Makes a state where a pet has gone to the toilet.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @return The new state.
+     */
+    public GameState goToilet(int playerIndex, int petIndex) {
+        PlayerState player = players.get(playerIndex);
+        Pet pet = new Pet(player.getPets().get(petIndex));
+        pet.goToilet();
+        return new GameState(players.set(playerIndex,
+                player.withPets(player.getPets().set(petIndex, pet))));
+    }
+
+    /**
+     * Makes a state where a player has bought a food.
+     * @param playerIndex Index of the player.
+     * @param food The food bought.
+     * @return The new state.
+     * @throws IllegalArgumentException if the player can't afford it
+     */
+    public GameState buy(int playerIndex, Food food) {
+        PlayerState player = players.get(playerIndex);
+        player = player.withBalance(balanceAfterSpending(player, food.getPrice()))
+                .withFoodStock(player.getFoodStock().append(food));
+        return new GameState(players.set(playerIndex, player));
+    }
+
+    /**
+     * Makes a state where a player has bought a toy.
+     * @param playerIndex Index of the player.
+     * @param toy The toy bought.
+     * @return The new state.
+     * @throws IllegalArgumentException if the player can't afford it
+     */
+    public GameState buy(int playerIndex, Toy toy) {
+        PlayerState player = players.get(playerIndex);
+        player = player.withBalance(balanceAfterSpending(player, toy.getPrice()))
+                .withToyList(player.getToyList().append(new Toy(toy)));
+        return new GameState(players.set(playerIndex, player));
+    }
+
+    /**
+     * Works out a player's balance after spending some money.
+     * @param player The player.
+     * @param amountSpent Amount spent.
+     * @return The new balance.
+     * @throws IllegalArgumentException if the player can't afford it
+     */
+    private static int balanceAfterSpending(PlayerState player, int amountSpent) {
+        if (player.getBalance() < amountSpent) {
+            throw new IllegalArgumentException("Can't spend more than you have.");
+        }
+        return player.getBalance() - amountSpent;
+    }
+
+    /**
+     * Makes a state where a day has passed, the same way as
+     * GameEnvironment.runAutomatedDays: each player is paid, each live pet
+     * goes through its start of day actions, and each player is scored.
+     * @param dailyPetAllowance How much each player gets per live pet.
+     * @param handler Decides what happens on random events.
+     * @param random Random number stream for this day. Each pet's stream is
+     * derived from it by player index and then pet index, so different days
+     * must be given different streams.
+     * @return The new state.
+     */
+    public GameState advanceDay(int dailyPetAllowance, PetEventHandler handler,
+            RandomSource random) {
+        PersistentVector<PlayerState> newPlayers = players;
+        for (int p = 0; p < players.size(); p++) {
+            PlayerState state = players.get(p);
+            PersistentVector<Pet> pets = state.getPets();
+
+            int numOfAlivePets = 0;
+            for (Pet pet : pets) {
+                if (!pet.getIsDead()) {
+                    numOfAlivePets++;
+                }
+            }
+            //a stand-in for the player, so the day's rules can spend their money
+            Player player = new Player(state.getName(),
+                    state.getBalance() + dailyPetAllowance * numOfAlivePets);
+
+            RandomSource playerStream = random.derive(p);
+            int score = 0;
+            for (int i = 0; i < pets.size(); i++) {
+                Pet pet = pets.get(i);
+                if (!pet.getIsDead()) {
+                    pet = new Pet(pet);
+                    PetDayActions.newDay(player, pet, playerStream.derive(i), handler);
+                    pets = pets.set(i, pet);
+                }
+                score += Player.calculatePetScore(pet);
+            }
+
+            double newScore = state.getScore();
+            if (pets.size() > 0) {
+                newScore += score / pets.size();
+            }
+            newPlayers = newPlayers.set(p,
+                    state.withPets(pets).withBalanceAndScore(player.getBalance(), newScore));
+        }
+        return new GameState(newPlayers);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Measures how much it costs to fork a GameState and act on the fork,
+ * compared with copying the whole game each time.
+ *
+ * Usage: java GameStateBenchmark [number of players] [pets per player] [branches]
+ *
+ */
+public class GameStateBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of players, pets per player and branches, all optional.
+     */
+    public static void main(String[] args) {
+        int numPlayers = 4;
+        int numPets = 250;
+        int branches = 200000;
+        if (args.length >= 1) {
+            numPlayers = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            numPets = Integer.parseInt(args[1]);
+        }
+        if (args.length >= 3) {
+            branches = Integer.parseInt(args[2]);
+        }
+
+        Player[] players = new Player[numPlayers];
+        for (int p = 0; p < numPlayers; p++) {
+            players[p] = new Player();
+            players[p].setName("Player " + p);
+            for (int i = 0; i < numPets; i++) {
+                Pet pet = new Cat();
+                pet.setName("Pet " + i);
+                players[p].getPetList().add(pet);
+            }
+        }
+        GameState root = GameState.capture(players);
+        RandomSource random = RandomSource.fromSeed(1);
+
+        //warm up, so the times below aren't mostly the JIT
+        long check = 0;
+        for (int i = 0; i < 20000; i++) {
+            check += branch(root, i % numPlayers, i % numPets).getPlayer(0).getBalance();
+            check += GameState.capture(players).getNumberOfPlayers();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < branches; i++) {
+            check += root.fork().getNumberOfPlayers();
+        }
+        long forkTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < branches; i++) {
+            GameState state = branch(root, random.nextInt(numPlayers), random.nextInt(numPets));
+            check += state.getPlayer(0).getBalance();
+        }
+        long branchTime = System.nanoTime() - start;
+
+        int captures = Math.max(1, branches / 100);
+        start = System.nanoTime();
+        for (int i = 0; i < captures; i++) {
+            check += GameState.capture(players).getNumberOfPlayers();
+        }
+        long captureTime = System.nanoTime() - start;
+
+        System.out.println(numPlayers + " players, " + numPets + " pets each");
+        System.out.printf("fork: %.1f ns%n", forkTime / (double) branches);
+        System.out.printf("fork + sleep + toilet: %.1f ns%n", branchTime / (double) branches);
+        System.out.printf("full copy: %.1f ns%n", captureTime / (double) captures);
+        System.out.println("(check " + check + ")");
+    }
+
+    /**
+     * Forks a state and has one pet sleep and go to the toilet.
+     * @param root The state to fork.
+     * @param playerIndex Index of the player.
+     * @param petIndex Index of the pet.
+     * @return The new state.
+     */
+    private static GameState branch(GameState root, int playerIndex, int petIndex) {
+        return root.fork().sleep(playerIndex, petIndex).goToilet(playerIndex, petIndex);
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the GameState and PlayerState classes.
+ *
+ */
+public class GameStateTest {
+
+	private Player player;
+	private Cat cat;
+	private Dog dog;
+	private GameState state;
+
+	@Before
+	public void setUp() throws Exception {
+		player = new Player();
+		player.setName("Harry");
+		cat = new Cat();
+		cat.setName("Fred");
+		dog = new Dog();
+		dog.setName("Rex");
+		player.getPetList().add(cat);
+		player.getPetList().add(dog);
+		String[] species = {cat.getSpecies(), dog.getSpecies()};
+		String[] values = {"20", "10"};
+		Toy ball = new Toy("Ball", "a bouncy ball", 5, 10);
+		ball.setHappinessIncrease(species, values);
+		Food carrot = new Food("Carrot", "a carrot", 5, 10);
+		carrot.setHealthIncrease(species, values);
+		player.addToy(ball);
+		player.addFood(carrot);
+		state = GameState.capture(new Player[] {player});
+	}
+
+	@Test
+	public void testCaptureCopies() {
+		cat.increaseHealth(-30);
+		assertEquals(100, state.getPet(0, 0).getHealth());
+		assertNotSame(cat, state.getPet(0, 0));
+	}
+
+	@Test
+	public void testForksDoNotChangeEachOther() {
+		GameState slept = state.fork().sleep(0, 1);
+		GameState fed = state.fork().feed(0, 0, 0);
+
+		assertEquals(1, state.getPlayer(0).getFoodStock().size());
+		assertEquals(0, fed.getPlayer(0).getFoodStock().size());
+		assertEquals(1, slept.getPlayer(0).getFoodStock().size());
+		assertSame(state.getPet(0, 0), slept.getPet(0, 0));
+		assertSame(state.getPet(0, 1), fed.getPet(0, 1));
+		assertNotSame(state.getPet(0, 1), slept.getPet(0, 1));
+		assertEquals(cat.getHunger(), state.getPet(0, 0).getHunger());
+	}
+
+	@Test
+	public void testPlayDoesNotWearOriginalToy() {
+		GameState played = state.play(0, 0, 0);
+		assertEquals(player.getToyList().get(0).getDurability(),
+				state.getPlayer(0).getToyList().get(0).getDurability());
+		assertTrue(played.getPlayer(0).getToyList().get(0).getDurability()
+				< state.getPlayer(0).getToyList().get(0).getDurability());
+	}
+
+	@Test
+	public void testBuy() {
+		GameState bought = state.buy(0, new Toy("Ball", "a bouncy ball", 95, 10));
+		assertEquals(5, bought.getPlayer(0).getBalance());
+		assertEquals(2, bought.getPlayer(0).getToyList().size());
+		try {
+			bought.buy(0, new Toy("Ball", "a bouncy ball", 95, 10));
+			fail("Bought a toy that can't be afforded.");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testAdvanceDayMatchesPlayer() {
+		RandomSource random = RandomSource.fromSeed(5);
+		GameState next = state.advanceDay(10, new AutomatedPetEventHandler(), random);
+
+		RandomSource playerStream = random.derive(0);
+		player.earn(20);
+		PetDayActions.newDay(player, cat, playerStream.derive(0), new AutomatedPetEventHandler());
+		PetDayActions.newDay(player, dog, playerStream.derive(1), new AutomatedPetEventHandler());
+		player.calculateScore();
+
+		assertEquals(player.getBalance(), next.getPlayer(0).getBalance());
+		assertEquals(player.getScore(), next.getPlayer(0).getScore(), 0);
+		assertEquals(cat.getHealth(), next.getPet(0, 0).getHealth());
+		assertEquals(dog.getHunger(), next.getPet(0, 1).getHunger());
+	}
+
+	@Test
+	public void testAdvanceDayScripted() {
+		//nothing misbehaves, gets sick or dies
+		ScriptedRandomSource random = new ScriptedRandomSource();
+		random.setStreamValues(new int[] {99, 99, 99}, 0, 0);
+		random.setStreamValues(new int[] {99, 99, 99}, 0, 1);
+		GameState next = state.advanceDay(10, new AutomatedPetEventHandler(), random);
+
+		assertEquals(cat.getHunger() + 30, next.getPet(0, 0).getHunger());
+		assertEquals(dog.getFatigue() + 30, next.getPet(0, 1).getFatigue());
+		assertFalse(next.getPet(0, 0).getIsMisbehaving());
+		assertFalse(next.getPet(0, 1).getIsSick());
+	}
+
+}
@@ -0,0 +1,286 @@
+/**
+ * Moves a pet that nobody is looking after many days ahead, doing work for
+ * the days something happens rather than for every day.
+ *
+ * On a day where no random event happens (the handler isn't asked to
+ * discipline, treat or revive), all that changes is the daily decay from
+ * PetDayActions.applyDailyDecay, which doesn't depend on luck. So from any
+ * state there is one path the pet follows until the next event, and the
+ * chance of getting through each day on it without an event can be worked
+ * out from the rules: the day's rules are run once for each range of rolls
+ * they tell apart (as in MarkovOutcomeSolver) to see which ranges lead to an
+ * event. The day of the next event is then picked straight from those
+ * chances with one random number, by inverting the chance of no event so
+ * far. The days in between are skipped, adding up their allowance and score.
+ *
+ * Once the decay stops changing anything (every stat it touches is at 0 or
+ * 100), the chance of a quiet day stays the same, so the number of quiet days
+ * left is a geometric number worked out in one go. On the event day itself
+ * the rolls are picked at random from those that lead to an event, and the
+ * real rules are run with them. A dead pet stays dead, so the rest of its
+ * days are skipped at once.
+ *
+ * The results have the same chances as running PetDayActions.newDay every
+ * day, but use the random numbers differently, so a seed doesn't give the
+ * same game as the day by day rules.
+ *
+ */
+public final class IdleFastForward {
+
+    /**
+     * What happened while moving a pet ahead.
+     */
+    public static final class Result {
+
+        /**
+         * Days the rules were run for.
+         */
+        private final int daysSimulated;
+        /**
+         * Days skipped over.
+         */
+        private final int daysSkipped;
+        /**
+         * The pet's scores for each day, added up.
+         */
+        private final long totalScore;
+
+        /**
+         * Creates a result.
+         * @param daysSimulated Days the rules were run for.
+         * @param daysSkipped Days skipped over.
+         * @param totalScore The pet's scores for each day, added up.
+         */
+        Result(int daysSimulated, int daysSkipped, long totalScore) {
+            this.daysSimulated = daysSimulated;
+            this.daysSkipped = daysSkipped;
+            this.totalScore = totalScore;
+        }
+
+        /**
+         * Gets the number of days the rules were run for.
+         * @return Days simulated.
+         */
+        public int getDaysSimulated() {
+            return daysSimulated;
+        }
+
+        /**
+         * Gets the number of days skipped over.
+         * @return Days skipped.
+         */
+        public int getDaysSkipped() {
+            return daysSkipped;
+        }
+
+        /**
+         * Gets the pet's scores for each day, added up. For a player with
+         * only this pet, this is what Player.calculateScore would have added.
+         * @return Total score.
+         */
+        public long getTotalScore() {
+            return totalScore;
+        }
+    }
+
+    /**
+     * Handler used to see whether a day has an event. Counts the times it is
+     * asked and always says no.
+     */
+    private static final class EventCounter implements PetEventHandler {
+
+        /**
+         * Times asked.
+         */
+        private int events;
+
+        @Override
+        public boolean disciplinePet(Player player, Pet pet) {
+            events++;
+            return false;
+        }
+
+        @Override
+        public boolean treatPet(Player player, Pet pet) {
+            events++;
+            return false;
+        }
+
+        @Override
+        public boolean revivePet(Player player, Pet pet) {
+            events++;
+            return false;
+        }
+    }
+
+    /**
+     * A number that can be rolled for misbehaving and sickness, for each range
+     * the rules tell apart.
+     */
+    private static final int[] EVENT_ROLLS = {0, 25, 50, 75};
+    /**
+     * A number that can be rolled for death, for each range the rules tell apart.
+     */
+    private static final int[] DEATH_ROLLS = {0, 2};
+    /**
+     * Chance of each death roll.
+     */
+    private static final double[] DEATH_CHANCES = {0.02, 0.98};
+
+    /**
+     * Not used; all methods are static.
+     */
+    private IdleFastForward() {
+    }
+
+    /**
+     * Moves a pet ahead some days with nobody looking after it. The player is
+     * paid each day the pet is alive, as in GameEnvironment.runAutomatedDays.
+     * @param player The player who owns the pet; pays for treatment.
+     * @param pet The pet. It is changed to how it is at the end.
+     * @param days Number of days.
+     * @param dailyPetAllowance How much the player gets each day the pet is alive.
+     * @param randomNumGen Where random numbers come from.
+     * @param handler Decides what happens on random events.
+     * @return What happened.
+     * @throws IllegalArgumentException if days is negative
+     */
+    public static Result advance(Player player, Pet pet, int days, int dailyPetAllowance,
+            RandomSource randomNumGen, PetEventHandler handler) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days can't be negative");
+        }
+        int simulated = 0;
+        int skipped = 0;
+        long totalScore = 0;
+        int remaining = days;
+        boolean[] eventful = new boolean[EVENT_ROLLS.length * EVENT_ROLLS.length
+                * DEATH_ROLLS.length];
+        ScriptedRandomSource rolls = new ScriptedRandomSource();
+
+        while (remaining > 0) {
+            if (pet.getIsDead()) {
+                //dead pets score nothing and earn nothing
+                skipped += remaining;
+                break;
+            }
+
+            //follow the quiet path until the chance of no event so far drops below u
+            double u = 1.0 - (randomNumGen.nextLong() >>> 11) * 0x1.0p-53; //in (0, 1]
+            double noEventYet = 1;
+            while (remaining > 0) {
+                double quiet = quietChance(player, pet, eventful);
+                Pet decayed = new Pet(pet);
+                PetDayActions.applyDailyDecay(decayed);
+                boolean fixed = sameState(pet, decayed);
+
+                if (fixed && quiet > 0) {
+                    //the chance stays the same from now on: skip a geometric number of days
+                    int quietDays;
+                    if (quiet >= 1) {
+                        quietDays = remaining;
+                    } else {
+                        double more = Math.floor(Math.log(u / noEventYet) / Math.log(quiet));
+                        quietDays = (int) Math.max(0, Math.min(remaining, more));
+                    }
+                    player.earn(dailyPetAllowance * quietDays);
+                    totalScore += (long) Player.calculatePetScore(pet) * quietDays;
+                    skipped += quietDays;
+                    remaining -= quietDays;
+                    break;
+                }
+                if (noEventYet * quiet < u) {
+                    break; //the event is today
+                }
+                noEventYet *= quiet;
+                player.earn(dailyPetAllowance);
+                PetDayActions.applyDailyDecay(pet);
+                totalScore += Player.calculatePetScore(pet);
+                skipped++;
+                remaining--;
+            }
+            if (remaining == 0) {
+                break;
+            }
+
+            //today has an event: pick rolls that lead to one and run the real rules
+            int misbehaveRoll;
+            int sickRoll;
+            int deathRoll;
+            do {
+                misbehaveRoll = randomNumGen.nextInt(100);
+                sickRoll = randomNumGen.nextInt(100);
+                deathRoll = randomNumGen.nextInt(100);
+            } while (!eventful[rollClass(misbehaveRoll, sickRoll, deathRoll)]);
+            rolls.setValues(misbehaveRoll, sickRoll, deathRoll);
+            player.earn(dailyPetAllowance);
+            PetDayActions.newDay(player, pet, rolls, handler);
+            totalScore += Player.calculatePetScore(pet);
+            simulated++;
+            remaining--;
+        }
+        return new Result(simulated, skipped, totalScore);
+    }
+
+    /**
+     * Works out the chance that a day starting from a pet's state has no
+     * event, and which ranges of rolls have one.
+     * @param player The player, so the rules have someone to pay for things.
+     * @param pet The pet at the start of the day. It isn't changed.
+     * @param eventful Filled in with whether each range of rolls has an event.
+     * @return Chance of no event.
+     */
+    private static double quietChance(Player player, Pet pet, boolean[] eventful) {
+        EventCounter counter = new EventCounter();
+        ScriptedRandomSource rolls = new ScriptedRandomSource();
+        Player scratch = new Player(null, player.getBalance());
+        double quiet = 0;
+        for (int m = 0; m < EVENT_ROLLS.length; m++) {
+            for (int s = 0; s < EVENT_ROLLS.length; s++) {
+                for (int d = 0; d < DEATH_ROLLS.length; d++) {
+                    counter.events = 0;
+                    rolls.setValues(EVENT_ROLLS[m], EVENT_ROLLS[s], DEATH_ROLLS[d]);
+                    PetDayActions.newDay(scratch, new Pet(pet), rolls, counter);
+                    boolean event = counter.events > 0;
+                    eventful[rollClass(EVENT_ROLLS[m], EVENT_ROLLS[s], DEATH_ROLLS[d])] = event;
+                    if (!event) {
+                        quiet += DEATH_CHANCES[d] / (EVENT_ROLLS.length * EVENT_ROLLS.length);
+                    }
+                }
+            }
+        }
+        return quiet;
+    }
+
+    /**
+     * Gets which range each of a day's rolls is in.
+     * @param misbehaveRoll The roll for misbehaving.
+     * @param sickRoll The roll for sickness.
+     * @param deathRoll The roll for death.
+     * @return Index of the ranges.
+     */
+    private static int rollClass(int misbehaveRoll, int sickRoll, int deathRoll) {
+        return ((misbehaveRoll / 25) * EVENT_ROLLS.length + sickRoll / 25) * DEATH_ROLLS.length
+                + (deathRoll < 2 ? 0 : 1);
+    }
+
+    /**
+     * Gets whether two pets have the same stats and flags.
+     * @param a A pet.
+     * @param b Another pet.
+     * @return Whether they are the same.
+     */
+    private static boolean sameState(Pet a, Pet b) {
+        return a.getHealth() == b.getHealth()
+                && a.getMischievousness() == b.getMischievousness()
+                && a.getHappiness() == b.getHappiness()
+                && a.getHunger() == b.getHunger()
+                && a.getPercentBladderFull() == b.getPercentBladderFull()
+                && a.getFatigue() == b.getFatigue()
+                && a.getWeightGrams() == b.getWeightGrams()
+                && a.getIsSick().equals(b.getIsSick())
+                && a.getIsRevivable().equals(b.getIsRevivable())
+                && a.getIsMisbehaving().equals(b.getIsMisbehaving())
+                && a.getIsDead().equals(b.getIsDead());
+    }
+}
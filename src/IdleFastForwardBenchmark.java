@@ -0,0 +1,60 @@
+/**
+ * Compares moving idle pets ahead with IdleFastForward against running the
+ * rules every day.
+ *
+ * Usage: java IdleFastForwardBenchmark [days] [runs]
+ *
+ */
+public class IdleFastForwardBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of days and runs, both optional.
+     */
+    public static void main(String[] args) {
+        int days = 100000;
+        int runs = 1000;
+        if (args.length >= 1) {
+            days = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            runs = Integer.parseInt(args[1]);
+        }
+        PetEventHandler handler = new AutomatedPetEventHandler();
+        Pet template = new Cat();
+        RandomSource random = RandomSource.fromSeed(1);
+
+        long start = System.nanoTime();
+        double fastScore = 0;
+        long simulated = 0;
+        for (int run = 0; run < runs; run++) {
+            IdleFastForward.Result result = IdleFastForward.advance(new Player(),
+                    new Pet(template), days, 10, random.derive(run), handler);
+            fastScore += result.getTotalScore();
+            simulated += result.getDaysSimulated();
+        }
+        long fastTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double slowScore = 0;
+        for (int run = 0; run < runs; run++) {
+            RandomSource stream = random.derive(run);
+            Pet pet = new Pet(template);
+            Player player = new Player();
+            for (int day = 0; day < days; day++) {
+                if (!pet.getIsDead()) {
+                    player.earn(10);
+                    PetDayActions.newDay(player, pet, stream, handler);
+                }
+                slowScore += Player.calculatePetScore(pet);
+            }
+        }
+        long slowTime = System.nanoTime() - start;
+
+        System.out.println(runs + " runs of " + days + " days");
+        System.out.printf("fast forward: mean score %.1f, %.1f days simulated per run in %.1f ms%n",
+                fastScore / runs, simulated / (double) runs, fastTime / 1e6);
+        System.out.printf("day by day: mean score %.1f in %.1f ms%n",
+                slowScore / runs, slowTime / 1e6);
+    }
+}
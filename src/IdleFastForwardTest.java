@@ -0,0 +1,79 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the IdleFastForward class.
+ *
+ */
+public class IdleFastForwardTest {
+
+	@Test
+	public void testMatchesExactSolver() {
+		int days = 10;
+		PetEventHandler handler = new AutomatedPetEventHandler();
+		MarkovOutcomeSolver solver = new MarkovOutcomeSolver(handler, 10, 1000, 1);
+		MarkovOutcomeSolver.Outcome outcome = solver.solve(new Cat(), new Player().getBalance(), days);
+
+		RandomSource random = RandomSource.fromSeed(5);
+		int runs = 20000;
+		int alive = 0;
+		int sick = 0;
+		double score = 0;
+		Pet template = new Cat();
+		for (int run = 0; run < runs; run++) {
+			Pet pet = new Pet(template);
+			Player player = new Player();
+			IdleFastForward.Result result = IdleFastForward.advance(player, pet, days, 10,
+					random.derive(run), handler);
+			assertEquals(days, result.getDaysSimulated() + result.getDaysSkipped());
+			alive += pet.getIsDead() ? 0 : 1;
+			sick += pet.getIsSick() ? 1 : 0;
+			score += result.getTotalScore();
+		}
+		assertEquals(outcome.getSurvival(), alive / (double) runs, 0.02);
+		assertEquals(outcome.getSickness(), sick / (double) runs, 0.02);
+		assertEquals(outcome.getExpectedScore(), score / runs,
+				Math.abs(outcome.getExpectedScore()) * 0.02 + 1);
+	}
+
+	@Test
+	public void testQuietDaysAreSkipped() {
+		//without revival a healthy pet has quiet days until its stats run down
+		Pet pet = new Dog();
+		Player player = new Player();
+		IdleFastForward.Result result = IdleFastForward.advance(player, pet, 1000000, 10,
+				RandomSource.fromSeed(3), new AutomatedPetEventHandler(true, true, false));
+		assertTrue(pet.getIsDead());
+		assertEquals(1000000, result.getDaysSimulated() + result.getDaysSkipped());
+		assertTrue(result.getDaysSimulated() < 50);
+	}
+
+	@Test
+	public void testAllowanceMatchesDaysAlive() {
+		Pet pet = new Goat();
+		Player player = new Player();
+		int balance = player.getBalance();
+		//an empty handler never treats, so the balance only goes up
+		IdleFastForward.Result result = IdleFastForward.advance(player, pet, 3, 10,
+				RandomSource.fromSeed(8), new AutomatedPetEventHandler(false, false, false));
+		if (!pet.getIsDead()) {
+			assertEquals(balance + 30, player.getBalance());
+		}
+		assertEquals(3, result.getDaysSimulated() + result.getDaysSkipped());
+	}
+
+	@Test
+	public void testZeroDays() {
+		Pet pet = new Cat();
+		IdleFastForward.Result result = IdleFastForward.advance(new Player(), pet, 0, 10,
+				RandomSource.fromSeed(1), new AutomatedPetEventHandler());
+		assertEquals(0, result.getTotalScore());
+		assertEquals(100, pet.getHealth());
+		try {
+			IdleFastForward.advance(new Player(), pet, -1, 10, RandomSource.fromSeed(1),
+					new AutomatedPetEventHandler());
+			fail("Moved a pet back in time.");
+		} catch (IllegalArgumentException e) {}
+	}
+}
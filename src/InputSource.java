@@ -0,0 +1,29 @@
+/**
+ * Where a game's typed input comes from, one line at a time.
+ *
+ */
+public interface InputSource {
+
+    /**
+     * Gets the next line, waiting for it if needed.
+     * @return The line, without the line ending.
+     * @throws java.util.NoSuchElementException if there is no more input
+     */
+    String nextLine();
+
+    /**
+     * Gets whether the next line is already waiting, so asking for it won't
+     * wait for the user. Menus the user has already answered don't need to
+     * be shown.
+     * @return Whether a line is waiting.
+     */
+    default boolean hasQueued() {
+        return false;
+    }
+
+    /**
+     * Stops reading. Does nothing unless the source has something to close.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,505 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * How much each item in the store helps each species, worked out once so
+ * the store, the search and the suggestions can share it.
+ *
+ * A food's effect on a species is the health and happiness it gives when
+ * eaten, which is its health increase times one more than its portion size,
+ * as in Pet.feed. A toy's effect is the happiness it gives each time it is
+ * played with. A toy's value is its effect times its durability, which is
+ * what a pet that wears it down by one each time gets from it; a food's value
+ * is its effect.
+ *
+ * The matrix is kept both by species (the items each species knows, in
+ * catalog order) and by item (the species each item knows), each as one
+ * run of a shared array, so either can be read straight off.
+ *
+ * For each species the items that help it are also sorted by price, with a
+ * sparse table over each Order, so the best N items under a price are found
+ * with a binary search for the price and then N steps of a small heap: about
+ * O(log n + N log N) for n items.
+ *
+ */
+public class ItemEffectMatrix {
+
+    /**
+     * What "best" means when picking items.
+     */
+    public enum Order {
+        /**
+         * The most health or happiness from one use.
+         */
+        EFFECT,
+        /**
+         * The most value for each dollar of the price.
+         */
+        VALUE_PER_DOLLAR
+    }
+
+    /**
+     * The items that help one species, sorted by price, ready for queries.
+     */
+    private static final class Ranking {
+
+        /**
+         * Price of each item, lowest first.
+         */
+        private final int[] prices;
+        /**
+         * Catalog number of each item.
+         */
+        private final int[] numbers;
+        /**
+         * How good each item is in each Order; higher is better.
+         */
+        private final double[][] keys;
+        /**
+         * For each Order, a sparse table: tables[order][level][i] is the best
+         * item from i to i + 2^level - 1.
+         */
+        private final int[][][] tables;
+
+        /**
+         * Sorts some items by price and builds their sparse tables.
+         * @param numbers Catalog numbers of the items.
+         * @param prices Prices of the items.
+         * @param keys How good each item is in each Order.
+         */
+        Ranking(int[] numbers, int[] prices, double[][] keys) {
+            int size = numbers.length;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> prices[a] != prices[b]
+                    ? Integer.compare(prices[a], prices[b])
+                    : Integer.compare(numbers[a], numbers[b]));
+            this.prices = new int[size];
+            this.numbers = new int[size];
+            this.keys = new double[keys.length][size];
+            for (int i = 0; i < size; i++) {
+                this.prices[i] = prices[order[i]];
+                this.numbers[i] = numbers[order[i]];
+                for (int k = 0; k < keys.length; k++) {
+                    this.keys[k][i] = keys[k][order[i]];
+                }
+            }
+
+            int levels = 1;
+            while ((1 << levels) <= size) {
+                levels++;
+            }
+            tables = new int[keys.length][levels][];
+            for (int k = 0; k < keys.length; k++) {
+                tables[k][0] = new int[size];
+                for (int i = 0; i < size; i++) {
+                    tables[k][0][i] = i;
+                }
+                for (int level = 1; level < levels; level++) {
+                    int half = 1 << (level - 1);
+                    int[] below = tables[k][level - 1];
+                    int[] table = new int[size - (1 << level) + 1];
+                    for (int i = 0; i < table.length; i++) {
+                        table[i] = better(k, below[i], below[i + half]);
+                    }
+                    tables[k][level] = table;
+                }
+            }
+        }
+
+        /**
+         * Picks the better of two items; the lower catalog number wins a tie.
+         * @param order The Order's ordinal.
+         * @param a One item's position.
+         * @param b The other item's position.
+         * @return The better item's position.
+         */
+        int better(int order, int a, int b) {
+            double keyA = keys[order][a];
+            double keyB = keys[order][b];
+            if (keyA != keyB) {
+                return keyA > keyB ? a : b;
+            }
+            return numbers[a] < numbers[b] ? a : b;
+        }
+
+        /**
+         * Finds the best item in a range of positions.
+         * @param order The Order's ordinal.
+         * @param from First position.
+         * @param to Last position, included.
+         * @return The best item's position.
+         */
+        int best(int order, int from, int to) {
+            int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+            return better(order, tables[order][level][from],
+                    tables[order][level][to - (1 << level) + 1]);
+        }
+
+        /**
+         * Gets the number of items costing no more than a price.
+         * @param maxPrice The price.
+         * @return Number of items; they are the first ones.
+         */
+        int countUpTo(int maxPrice) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] <= maxPrice) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The catalog the items come from.
+     */
+    private final StoreCatalog catalog;
+    /**
+     * Every species any item knows, sorted.
+     */
+    private final String[] species;
+    /**
+     * Row of each species.
+     */
+    private final HashMap<String, Integer> speciesRows = new HashMap<String, Integer>();
+    /**
+     * Where each species' entries start in rowItems and rowEffects; one more
+     * than the number of species long.
+     */
+    private final int[] rowStarts;
+    /**
+     * Catalog number of each entry, by species, in catalog order.
+     */
+    private final int[] rowItems;
+    /**
+     * Effect of each entry, by species.
+     */
+    private final int[] rowEffects;
+    /**
+     * Where each item's entries start in columnSpecies and columnEffects, by
+     * catalog number less one; one more than the number of items long.
+     */
+    private final int[] columnStarts;
+    /**
+     * Row of each entry's species, by item.
+     */
+    private final int[] columnSpecies;
+    /**
+     * Effect of each entry, by item.
+     */
+    private final int[] columnEffects;
+    /**
+     * The items that help each species, by row.
+     */
+    private final Ranking[] rankings;
+
+    /**
+     * Works out the effects of every item in a catalog.
+     * @param catalog The catalog.
+     */
+    public ItemEffectMatrix(StoreCatalog catalog) {
+        this.catalog = catalog;
+        int items = catalog.size();
+
+        //the species, and how many entries each has
+        TreeSet<String> allSpecies = new TreeSet<String>();
+        int entries = 0;
+        for (int number = 1; number <= items; number++) {
+            allSpecies.addAll(knownSpecies(catalog.getItem(number)));
+            entries += knownSpecies(catalog.getItem(number)).size();
+        }
+        species = allSpecies.toArray(new String[0]);
+        for (int row = 0; row < species.length; row++) {
+            speciesRows.put(species[row], row);
+        }
+
+        //by item first, as that is the order the catalog gives them in
+        columnStarts = new int[items + 1];
+        columnSpecies = new int[entries];
+        columnEffects = new int[entries];
+        int[] rowSizes = new int[species.length];
+        int at = 0;
+        for (int number = 1; number <= items; number++) {
+            Item item = catalog.getItem(number);
+            columnStarts[number - 1] = at;
+            List<String> itemSpecies = new ArrayList<String>(knownSpecies(item));
+            Collections.sort(itemSpecies);
+            for (String name : itemSpecies) {
+                int row = speciesRows.get(name);
+                columnSpecies[at] = row;
+                columnEffects[at] = effectOf(item, name);
+                rowSizes[row]++;
+                at++;
+            }
+        }
+        columnStarts[items] = at;
+
+        //then turn it around to get them by species
+        rowStarts = new int[species.length + 1];
+        for (int row = 0; row < species.length; row++) {
+            rowStarts[row + 1] = rowStarts[row] + rowSizes[row];
+        }
+        rowItems = new int[entries];
+        rowEffects = new int[entries];
+        int[] next = Arrays.copyOf(rowStarts, species.length);
+        for (int number = 1; number <= items; number++) {
+            for (int entry = columnStarts[number - 1]; entry < columnStarts[number]; entry++) {
+                int row = columnSpecies[entry];
+                rowItems[next[row]] = number;
+                rowEffects[next[row]] = columnEffects[entry];
+                next[row]++;
+            }
+        }
+
+        rankings = new Ranking[species.length];
+        for (int row = 0; row < species.length; row++) {
+            rankings[row] = rank(row);
+        }
+    }
+
+    /**
+     * Gets the species an item knows.
+     * @param item A Food or Toy.
+     * @return The species.
+     */
+    private static Set<String> knownSpecies(Item item) {
+        if (item instanceof Food) {
+            return ((Food) item).getKnownSpecies();
+        } else if (item instanceof Toy) {
+            return ((Toy) item).getKnownSpecies();
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Gets an item's effect on a species it knows.
+     * @param item A Food or Toy.
+     * @param name The species.
+     * @return The effect.
+     */
+    private static int effectOf(Item item, String name) {
+        if (item instanceof Food) {
+            Food food = (Food) item;
+            return food.getHealthIncrease(name) * (1 + food.getPortionSize());
+        }
+        return ((Toy) item).getHappinessIncrease(name);
+    }
+
+    /**
+     * Gets an item's value from its effect.
+     * @param item A Food or Toy.
+     * @param effect Its effect.
+     * @return The value.
+     */
+    private static long valueOf(Item item, int effect) {
+        if (item instanceof Toy) {
+            return (long) effect * ((Toy) item).getDurability();
+        }
+        return effect;
+    }
+
+    /**
+     * Sorts the items that help a species for queries.
+     * @param row The species' row.
+     * @return The items, ready for queries.
+     */
+    private Ranking rank(int row) {
+        int size = 0;
+        for (int entry = rowStarts[row]; entry < rowStarts[row + 1]; entry++) {
+            if (rowEffects[entry] > 0) {
+                size++;
+            }
+        }
+        int[] numbers = new int[size];
+        int[] prices = new int[size];
+        double[][] keys = new double[Order.values().length][size];
+        int i = 0;
+        for (int entry = rowStarts[row]; entry < rowStarts[row + 1]; entry++) {
+            if (rowEffects[entry] > 0) {
+                Item item = catalog.getItem(rowItems[entry]);
+                numbers[i] = rowItems[entry];
+                prices[i] = item.getPrice();
+                keys[Order.EFFECT.ordinal()][i] = rowEffects[entry];
+                keys[Order.VALUE_PER_DOLLAR.ordinal()][i] =
+                        (double) valueOf(item, rowEffects[entry]) / item.getPrice();
+                i++;
+            }
+        }
+        return new Ranking(numbers, prices, keys);
+    }
+
+    /**
+     * Gets the catalog the matrix was made from.
+     * @return The catalog.
+     */
+    public StoreCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Gets every species that any item knows.
+     * @return The species, sorted.
+     */
+    public List<String> getSpecies() {
+        return Collections.unmodifiableList(Arrays.asList(species));
+    }
+
+    /**
+     * Gets the number of item and species pairs with an effect.
+     * @return Number of entries.
+     */
+    public int getNumberOfEntries() {
+        return rowItems.length;
+    }
+
+    /**
+     * Gets whether an item knows a species.
+     * @param name The species.
+     * @param number The item's catalog number.
+     * @return Whether there is an effect.
+     */
+    public boolean hasEffect(String name, int number) {
+        return find(name, number) >= 0;
+    }
+
+    /**
+     * Gets whether an item makes a species healthier or happier.
+     * @param name The species.
+     * @param number The item's catalog number.
+     * @return Whether its effect is more than zero; false if it doesn't know
+     * the species.
+     */
+    public boolean isGoodFor(String name, int number) {
+        int entry = find(name, number);
+        return entry >= 0 && rowEffects[entry] > 0;
+    }
+
+    /**
+     * Gets an item's effect on a species.
+     * @param name The species.
+     * @param number The item's catalog number.
+     * @return The effect.
+     * @throws IllegalArgumentException if the item doesn't know the species
+     */
+    public int getEffect(String name, int number) {
+        int entry = find(name, number);
+        if (entry < 0) {
+            throw new IllegalArgumentException("Species " + name
+                    + " is not known to item number " + number);
+        }
+        return rowEffects[entry];
+    }
+
+    /**
+     * Gets an item's value for a species: its effect, times its durability
+     * for a toy.
+     * @param name The species.
+     * @param number The item's catalog number.
+     * @return The value.
+     * @throws IllegalArgumentException if the item doesn't know the species
+     */
+    public long getValue(String name, int number) {
+        return valueOf(catalog.getItem(number), getEffect(name, number));
+    }
+
+    /**
+     * Gets the items that know a species.
+     * @param name The species.
+     * @return Catalog numbers of the items, lowest first.
+     */
+    public List<Integer> getItemsFor(String name) {
+        Integer row = speciesRows.get(name);
+        List<Integer> items = new ArrayList<Integer>();
+        if (row != null) {
+            for (int entry = rowStarts[row]; entry < rowStarts[row + 1]; entry++) {
+                items.add(rowItems[entry]);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Gets the species an item knows.
+     * @param number The item's catalog number.
+     * @return The species, sorted.
+     * @throws IllegalArgumentException if there is no item with that number
+     */
+    public List<String> getSpeciesFor(int number) {
+        catalog.getItem(number);
+        List<String> names = new ArrayList<String>();
+        for (int entry = columnStarts[number - 1]; entry < columnStarts[number]; entry++) {
+            names.add(species[columnSpecies[entry]]);
+        }
+        return names;
+    }
+
+    /**
+     * Finds the best items for a species that cost no more than a price,
+     * such as the three best toys for a polar bear under $20.
+     * @param name The species.
+     * @param maxPrice Most an item can cost.
+     * @param limit Most items to give back.
+     * @param order What makes an item better than another.
+     * @return Catalog numbers of items with an effect more than zero, best
+     * first, with lower numbers first when items are as good as each other.
+     */
+    public List<Integer> getBest(String name, int maxPrice, int limit, Order order) {
+        List<Integer> best = new ArrayList<Integer>();
+        Integer row = speciesRows.get(name);
+        if (row == null) {
+            return best;
+        }
+        Ranking ranking = rankings[row];
+        int count = ranking.countUpTo(maxPrice);
+        if (count == 0 || limit < 1) {
+            return best;
+        }
+        int k = order.ordinal();
+        //each range is {from, to, best position}; the heap gives the best range's best item
+        PriorityQueue<int[]> ranges = new PriorityQueue<int[]>((a, b) ->
+                a[2] == b[2] ? 0 : ranking.better(k, a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[] {0, count - 1, ranking.best(k, 0, count - 1)});
+        while (best.size() < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int at = range[2];
+            best.add(ranking.numbers[at]);
+            if (range[0] < at) {
+                ranges.add(new int[] {range[0], at - 1, ranking.best(k, range[0], at - 1)});
+            }
+            if (at < range[1]) {
+                ranges.add(new int[] {at + 1, range[1], ranking.best(k, at + 1, range[1])});
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the entry for a species and an item.
+     * @param name The species.
+     * @param number The item's catalog number.
+     * @return Where the entry is in rowItems and rowEffects, or -1 if there
+     * isn't one.
+     */
+    private int find(String name, int number) {
+        Integer row = speciesRows.get(name);
+        if (row == null) {
+            return -1;
+        }
+        int entry = Arrays.binarySearch(rowItems, rowStarts[row], rowStarts[row + 1], number);
+        return entry < 0 ? -1 : entry;
+    }
+}
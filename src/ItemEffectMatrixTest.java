@@ -0,0 +1,118 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the ItemEffectMatrix class.
+ *
+ */
+public class ItemEffectMatrixTest {
+
+	@Test
+	public void testEffects() {
+		Map<String, Food> foods = new HashMap<String, Food>();
+		Food fish = new Food("Fish", "fresh fish", 10, 2);
+		fish.setHealthIncrease(new String[] {"cat", "polar bear"}, new String[] {"5", "-1"});
+		foods.put("Fish", fish);
+		Map<String, Toy> toys = new HashMap<String, Toy>();
+		Toy ice = new Toy("Ice block", "cold", 20, 50);
+		ice.setHappinessIncrease(new String[] {"polar bear"}, new String[] {"30"});
+		toys.put("Ice block", ice);
+		ItemEffectMatrix matrix = new ItemEffectMatrix(new StoreCatalog(foods, toys, 20));
+
+		assertEquals(Arrays.asList("cat", "polar bear"), matrix.getSpecies());
+		assertEquals(3, matrix.getNumberOfEntries());
+		assertEquals(15, matrix.getEffect("cat", 1));
+		assertEquals(-3, matrix.getEffect("polar bear", 1));
+		assertEquals(30, matrix.getEffect("polar bear", 2));
+		assertEquals(1500, matrix.getValue("polar bear", 2));
+		assertTrue(matrix.hasEffect("polar bear", 1));
+		assertFalse(matrix.isGoodFor("polar bear", 1));
+		assertFalse(matrix.hasEffect("cat", 2));
+		assertFalse(matrix.isGoodFor("dog", 1));
+		assertEquals(Arrays.asList(1, 2), matrix.getItemsFor("polar bear"));
+		assertEquals(Arrays.asList("cat", "polar bear"), matrix.getSpeciesFor(1));
+		try {
+			matrix.getEffect("cat", 2);
+			fail("Got an effect the toy doesn't have.");
+		} catch (IllegalArgumentException e) {}
+
+		assertEquals(Arrays.asList(2),
+				matrix.getBest("polar bear", 20, 5, ItemEffectMatrix.Order.EFFECT));
+		assertEquals(Arrays.asList(),
+				matrix.getBest("polar bear", 19, 5, ItemEffectMatrix.Order.EFFECT));
+		assertEquals(Arrays.asList(),
+				matrix.getBest("goat", 100, 5, ItemEffectMatrix.Order.EFFECT));
+	}
+
+	@Test
+	public void testBestMatchesSorting() {
+		Random random = new Random(7);
+		String[] species = {"cat", "dog", "goat"};
+		Map<String, Food> foods = new HashMap<String, Food>();
+		Map<String, Toy> toys = new HashMap<String, Toy>();
+		for (int i = 0; i < 300; i++) {
+			String[] increases = new String[species.length];
+			for (int s = 0; s < species.length; s++) {
+				increases[s] = Integer.toString(random.nextInt(21) - 5);
+			}
+			String name = "Item " + i;
+			if (i % 2 == 0) {
+				Food food = new Food(name, "food", 1 + random.nextInt(30), 1 + random.nextInt(4));
+				food.setHealthIncrease(species, increases);
+				foods.put(name, food);
+			} else {
+				Toy toy = new Toy(name, "toy", 1 + random.nextInt(30), 1 + random.nextInt(40));
+				toy.setHappinessIncrease(species, increases);
+				toys.put(name, toy);
+			}
+		}
+		StoreCatalog catalog = new StoreCatalog(foods, toys, 20);
+		ItemEffectMatrix matrix = new ItemEffectMatrix(catalog);
+
+		for (String name : species) {
+			for (int maxPrice : new int[] {0, 1, 7, 15, 30}) {
+				for (ItemEffectMatrix.Order order : ItemEffectMatrix.Order.values()) {
+					List<Integer> expected = new ArrayList<Integer>();
+					for (int number = 1; number <= catalog.size(); number++) {
+						if (catalog.getItem(number).getPrice() <= maxPrice
+								&& matrix.isGoodFor(name, number)) {
+							expected.add(number);
+						}
+					}
+					expected.sort((a, b) -> {
+						int compare = Double.compare(key(matrix, name, b, order),
+								key(matrix, name, a, order));
+						return compare != 0 ? compare : Integer.compare(a, b);
+					});
+					List<Integer> best = matrix.getBest(name, maxPrice, 12, order);
+					assertEquals(expected.subList(0, Math.min(12, expected.size())), best);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Works out how good an item is the slow way.
+	 * @param matrix The matrix.
+	 * @param name The species.
+	 * @param number The item's catalog number.
+	 * @param order What makes an item better.
+	 * @return Higher for better items.
+	 */
+	private static double key(ItemEffectMatrix matrix, String name, int number,
+			ItemEffectMatrix.Order order) {
+		if (order == ItemEffectMatrix.Order.EFFECT) {
+			return matrix.getEffect(name, number);
+		}
+		return (double) matrix.getValue(name, number)
+				/ matrix.getCatalog().getItem(number).getPrice();
+	}
+}
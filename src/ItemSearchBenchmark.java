@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times searches of a large store with ItemSearchIndex against going
+ * through every item's name and description.
+ *
+ * Usage: java ItemSearchBenchmark [items] [queries]
+ *
+ */
+public class ItemSearchBenchmark {
+
+    /**
+     * Words item names and descriptions are made from.
+     */
+    private static final String[] WORDS = {"fish", "ball", "hay", "bone", "crunchy", "red",
+        "squeaky", "fresh", "rubber", "seed", "mouse", "rope", "treat", "soft", "carrot"};
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of items and queries, both optional.
+     */
+    public static void main(String[] args) {
+        int items = 1000000;
+        int queries = 1000;
+        if (args.length >= 1) {
+            items = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            queries = Integer.parseInt(args[1]);
+        }
+        Random random = new Random(1);
+        HashMap<String, Food> foods = new HashMap<String, Food>();
+        String[] species = {"dog"};
+        for (int i = 0; i < items; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + i;
+            Food food = new Food(name, WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)], 1 + random.nextInt(100), 1);
+            food.setHealthIncrease(species, new String[] {Integer.toString(random.nextInt(3))});
+            foods.put(name, food);
+        }
+        StoreCatalog catalog = new StoreCatalog(foods, new HashMap<String, Toy>(), 20);
+
+        long start = System.nanoTime();
+        ItemSearchIndex index = new ItemSearchIndex(catalog);
+        long buildTime = System.nanoTime() - start;
+
+        String[] queryText = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            queryText[i] = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)].substring(0, 3) + " "
+                    + random.nextInt(items);
+        }
+
+        start = System.nanoTime();
+        long found = 0;
+        for (String query : queryText) {
+            found += index.search(query, "dog", 50, 10).size();
+        }
+        long indexTime = System.nanoTime() - start;
+
+        int scanned = Math.max(1, queries / 100);
+        start = System.nanoTime();
+        long scanFound = 0;
+        for (int q = 0; q < scanned; q++) {
+            scanFound += scan(catalog, queryText[q], 50, 10).size();
+        }
+        long scanTime = System.nanoTime() - start;
+
+        System.out.println(items + " items, " + index.getNumberOfWords() + " words");
+        System.out.printf("index built in %.1f ms%n", buildTime / 1e6);
+        System.out.printf("index: %d queries, %d found, %.4f ms per query%n", queries, found,
+                indexTime / 1e6 / queries);
+        System.out.printf("scan: %d queries, %d found, %.4f ms per query%n", scanned, scanFound,
+                scanTime / 1e6 / scanned);
+    }
+
+    /**
+     * Searches by going through every item, like a store without an index.
+     * @param catalog The store.
+     * @param query The words to find; each can be the start of a word.
+     * @param maxPrice Most an item can cost.
+     * @param limit Most items to give back.
+     * @return Catalog numbers of the items.
+     */
+    private static List<Integer> scan(StoreCatalog catalog, String query, int maxPrice,
+            int limit) {
+        String[] queryWords = ItemSearchIndex.tokenise(query);
+        List<Integer> found = new ArrayList<Integer>();
+        for (int number = 1; number <= catalog.size() && found.size() < limit; number++) {
+            Food food = (Food) catalog.getItem(number);
+            if (food.getPrice() > maxPrice || food.getHealthIncrease("dog") <= 0) {
+                continue;
+            }
+            String[] itemWords = ItemSearchIndex.tokenise(food.getName() + " "
+                    + food.getDescription());
+            boolean all = true;
+            for (String word : queryWords) {
+                boolean any = false;
+                for (String itemWord : itemWords) {
+                    any |= itemWord.startsWith(word);
+                }
+                all &= any;
+            }
+            if (all) {
+                found.add(number);
+            }
+        }
+        return found;
+    }
+}
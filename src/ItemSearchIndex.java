@@ -0,0 +1,281 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Finds store items by the words in their names and descriptions, such as
+ * "fish", "ball" or "hay".
+ *
+ * The index is built once from a StoreCatalog and refers to items by their
+ * catalog numbers, so results can be bought with the same numbers. Every
+ * word used is kept in a sorted list, and the words starting with some
+ * letters are next to each other in it, so they are found by a binary
+ * search and make a range of word numbers. For each word there is a list of
+ * the items using it, and for each item a sorted list of its word numbers.
+ *
+ * Every word of a query is treated as the start of a word, so "bis" finds
+ * "biscuits". The query word with the fewest items is looked up, and its
+ * items are checked against the other words and the filters, so a query
+ * costs about as much as the rarest word's items.
+ *
+ */
+public class ItemSearchIndex {
+
+    /**
+     * The catalog indexed.
+     */
+    private final StoreCatalog catalog;
+    /**
+     * What each item does for each species.
+     */
+    private final ItemEffectMatrix effects;
+    /**
+     * Every word used, sorted.
+     */
+    private final String[] words;
+    /**
+     * The catalog numbers of the items using each word, in order.
+     */
+    private final int[][] postings;
+    /**
+     * Total items for words before each word, so the items for a range of
+     * words can be counted straight away.
+     */
+    private final long[] postingTotals;
+    /**
+     * The word numbers each item uses, sorted, by catalog number less one.
+     */
+    private final int[][] itemWords;
+
+    /**
+     * Builds an index of a catalog.
+     * @param catalog The catalog.
+     */
+    public ItemSearchIndex(StoreCatalog catalog) {
+        this(catalog, new ItemEffectMatrix(catalog));
+    }
+
+    /**
+     * Builds an index of a catalog, sharing a matrix of its effects.
+     * @param catalog The catalog.
+     * @param effects What the catalog's items do for each species.
+     */
+    public ItemSearchIndex(StoreCatalog catalog, ItemEffectMatrix effects) {
+        this.catalog = catalog;
+        this.effects = effects;
+        //find every word and which items use it
+        HashMap<String, List<Integer>> itemsByWord = new HashMap<String, List<Integer>>();
+        String[][] wordsOfItem = new String[catalog.size()][];
+        for (int number = 1; number <= catalog.size(); number++) {
+            Item item = catalog.getItem(number);
+            String[] itemWordList = new TreeSet<String>(Arrays.asList(
+                    tokenise(item.getName() + " " + item.getDescription()))).toArray(new String[0]);
+            wordsOfItem[number - 1] = itemWordList;
+            for (String word : itemWordList) {
+                itemsByWord.computeIfAbsent(word, w -> new ArrayList<Integer>()).add(number);
+            }
+        }
+
+        words = itemsByWord.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        HashMap<String, Integer> wordNumbers = new HashMap<String, Integer>();
+        postings = new int[words.length][];
+        postingTotals = new long[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            wordNumbers.put(words[i], i);
+            List<Integer> items = itemsByWord.get(words[i]);
+            postings[i] = new int[items.size()];
+            for (int j = 0; j < items.size(); j++) {
+                postings[i][j] = items.get(j);
+            }
+            postingTotals[i + 1] = postingTotals[i] + items.size();
+        }
+
+        itemWords = new int[catalog.size()][];
+        for (int i = 0; i < catalog.size(); i++) {
+            itemWords[i] = new int[wordsOfItem[i].length];
+            for (int j = 0; j < wordsOfItem[i].length; j++) {
+                itemWords[i][j] = wordNumbers.get(wordsOfItem[i][j]);
+            }
+            Arrays.sort(itemWords[i]);
+        }
+    }
+
+    /**
+     * Splits text into lower case words of letters and digits.
+     * @param text The text.
+     * @return The words.
+     */
+    static String[] tokenise(String text) {
+        String[] parts = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<String>(parts.length);
+        for (String part : parts) {
+            if (!part.isEmpty()) {
+                tokens.add(part);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the catalog this index was built from.
+     * @return The catalog.
+     */
+    public StoreCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Gets the number of different words in the index.
+     * @return Number of words.
+     */
+    public int getNumberOfWords() {
+        return words.length;
+    }
+
+    /**
+     * Gets words starting with some letters, for finishing what the user is
+     * typing.
+     * @param prefix The start of the word.
+     * @param limit Most words to give back.
+     * @return The words, in alphabetical order.
+     */
+    public List<String> complete(String prefix, int limit) {
+        prefix = prefix.toLowerCase(Locale.ROOT);
+        int start = lowerBound(prefix);
+        int end = upperBound(prefix, start);
+        List<String> completions = new ArrayList<String>();
+        for (int i = start; i < end && completions.size() < limit; i++) {
+            completions.add(words[i]);
+        }
+        return completions;
+    }
+
+    /**
+     * Finds items with every word of a query.
+     * @param query The words to find; each can be the start of a word.
+     * @param limit Most items to give back.
+     * @return Catalog numbers of the items, lowest first.
+     */
+    public List<Integer> search(String query, int limit) {
+        return search(query, null, Integer.MAX_VALUE, limit);
+    }
+
+    /**
+     * Finds items with every word of a query that are good for a species and
+     * cost no more than a price.
+     * @param query The words to find; each can be the start of a word.
+     * @param species Only give items that increase this species' health
+     * (food) or happiness (toys); null for any item.
+     * @param maxPrice Most an item can cost.
+     * @param limit Most items to give back.
+     * @return Catalog numbers of the items, lowest first.
+     */
+    public List<Integer> search(String query, String species, int maxPrice, int limit) {
+        String[] queryWords = tokenise(query);
+        List<Integer> found = new ArrayList<Integer>();
+        if (queryWords.length == 0 || limit < 1) {
+            return found;
+        }
+        //the range of word numbers for each query word; look up the smallest
+        int[] starts = new int[queryWords.length];
+        int[] ends = new int[queryWords.length];
+        int rarest = 0;
+        for (int i = 0; i < queryWords.length; i++) {
+            starts[i] = lowerBound(queryWords[i]);
+            ends[i] = upperBound(queryWords[i], starts[i]);
+            if (starts[i] == ends[i]) {
+                return found;
+            }
+            if (postingTotals[ends[i]] - postingTotals[starts[i]]
+                    < postingTotals[ends[rarest]] - postingTotals[starts[rarest]]) {
+                rarest = i;
+            }
+        }
+
+        //an item can be in the lists of several words with the same start
+        boolean oneWord = ends[rarest] - starts[rarest] == 1;
+        for (int word = starts[rarest]; word < ends[rarest]; word++) {
+            for (int number : postings[word]) {
+                if (oneWord && found.size() >= limit) {
+                    return found;
+                }
+                if (matches(number, starts, ends, rarest, species, maxPrice)) {
+                    found.add(number);
+                }
+            }
+        }
+        if (!oneWord) {
+            found = new ArrayList<Integer>(new TreeSet<Integer>(found));
+            if (found.size() > limit) {
+                found = new ArrayList<Integer>(found.subList(0, limit));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks an item against the other query words and the filters.
+     * @param number The item's catalog number.
+     * @param starts First word number for each query word.
+     * @param ends Word number after the last for each query word.
+     * @param skip The query word already known to match.
+     * @param species Species the item must be good for, or null.
+     * @param maxPrice Most the item can cost.
+     * @return Whether the item matches.
+     */
+    private boolean matches(int number, int[] starts, int[] ends, int skip, String species,
+            int maxPrice) {
+        Item item = catalog.getItem(number);
+        if (item.getPrice() > maxPrice) {
+            return false;
+        }
+        int[] wordsOfItem = itemWords[number - 1];
+        for (int i = 0; i < starts.length; i++) {
+            if (i == skip) {
+                continue;
+            }
+            int at = Arrays.binarySearch(wordsOfItem, starts[i]);
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (at == wordsOfItem.length || wordsOfItem[at] >= ends[i]) {
+                return false;
+            }
+        }
+        return species == null || effects.isGoodFor(species, number);
+    }
+
+    /**
+     * Finds the first word not before some letters.
+     * @param prefix The letters.
+     * @return Its word number.
+     */
+    private int lowerBound(String prefix) {
+        int at = Arrays.binarySearch(words, prefix);
+        return at < 0 ? -at - 1 : at;
+    }
+
+    /**
+     * Finds the first word after the ones starting with some letters.
+     * @param prefix The letters.
+     * @param start The first word starting with them, or where it would be.
+     * @return The word number after the last one starting with them.
+     */
+    private int upperBound(String prefix, int start) {
+        int low = start;
+        int high = words.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (words[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
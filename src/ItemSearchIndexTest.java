@@ -0,0 +1,84 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for the ItemSearchIndex class.
+ *
+ */
+public class ItemSearchIndexTest {
+
+	/**
+	 * Makes a small store: Apple (1), Dog Biscuits (2), Fish (3), Ball (4),
+	 * Squeaky Bone (5).
+	 * @return Index of the store.
+	 */
+	private ItemSearchIndex smallStore() {
+		Map<String, Food> foods = new HashMap<String, Food>();
+		Food apple = new Food("Apple", "A crunchy red fruit", 2, 1);
+		apple.setHealthIncrease(new String[] {"horse", "dog"}, new String[] {"5", "0"});
+		foods.put("Apple", apple);
+		Food biscuits = new Food("Dog Biscuits", "Crunchy biscuits, dogs love them", 4, 2);
+		biscuits.setHealthIncrease(new String[] {"dog"}, new String[] {"6"});
+		foods.put("Dog Biscuits", biscuits);
+		Food fish = new Food("Fish", "Fresh fish", 8, 2);
+		fish.setHealthIncrease(new String[] {"cat"}, new String[] {"7"});
+		foods.put("Fish", fish);
+		Map<String, Toy> toys = new HashMap<String, Toy>();
+		Toy ball = new Toy("Ball", "A red bouncy ball", 5, 10);
+		ball.setHappinessIncrease(new String[] {"dog", "cat"}, new String[] {"4", "3"});
+		toys.put("Ball", ball);
+		Toy bone = new Toy("Squeaky Bone", "A rubber bone for dogs", 3, 20);
+		bone.setHappinessIncrease(new String[] {"dog"}, new String[] {"8"});
+		toys.put("Squeaky Bone", bone);
+		return new ItemSearchIndex(new StoreCatalog(foods, toys, 20));
+	}
+
+	@Test
+	public void testWordsAndPrefixes() {
+		ItemSearchIndex index = smallStore();
+		assertEquals(Arrays.asList(1, 2), index.search("crunchy", 10));
+		assertEquals(Arrays.asList(1, 2), index.search("CRUN", 10));
+		assertEquals(Arrays.asList(1, 4), index.search("red", 10));
+		assertEquals(Arrays.asList(4), index.search("red b", 10));
+		assertEquals(Arrays.asList(2, 5), index.search("dog", 10));
+		assertEquals(Arrays.asList(2), index.search("dog", 1));
+		assertEquals(Arrays.asList(), index.search("cheese", 10));
+		assertEquals(Arrays.asList(), index.search("  ", 10));
+		assertEquals(Arrays.asList("ball", "biscuits", "bone", "bouncy"), index.complete("b", 5));
+		assertEquals(Arrays.asList("bone", "bouncy"), index.complete("Bo", 2));
+	}
+
+	@Test
+	public void testFilters() {
+		ItemSearchIndex index = smallStore();
+		assertEquals(Arrays.asList(2), index.search("crunchy", "dog", 100, 10));
+		assertEquals(Arrays.asList(1), index.search("crunchy", "horse", 100, 10));
+		assertEquals(Arrays.asList(), index.search("crunchy", "dog", 3, 10));
+		assertEquals(Arrays.asList(4), index.search("a", "cat", 100, 10));
+		assertEquals(Arrays.asList(1, 4, 5), index.search("a", null, 5, 10));
+	}
+
+	@Test
+	public void testLargeCatalog() {
+		Map<String, Food> foods = new HashMap<String, Food>();
+		String[] colours = {"red", "green", "blue", "yellow"};
+		for (int i = 0; i < 100000; i++) {
+			String name = String.format("Food %06d", i);
+			foods.put(name, new Food(name, colours[i % 4] + " snack number" + i, 1 + i % 50, 1));
+		}
+		ItemSearchIndex index = new ItemSearchIndex(
+				new StoreCatalog(foods, new HashMap<String, Toy>(), 20));
+		List<Integer> found = index.search("blue number123", 100);
+		//number123, number1230 to number1239, number12300 to number12399
+		assertEquals(Arrays.asList(1231, 1235, 1239, 12303), found.subList(0, 4));
+		assertEquals(28, found.size());
+		assertEquals(Arrays.asList(42), index.search("food 000041", 10));
+		assertEquals(Arrays.asList(), index.search("green number2", null, 0, 10));
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Compares the Markov outcome solver with working out the same survival
+ * chance by sampling.
+ *
+ * Usage: java MarkovOutcomeBenchmark [days] [sampled runs] [bucket size]
+ *
+ */
+public class MarkovOutcomeBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of days, sampled runs and bucket size, all optional.
+     */
+    public static void main(String[] args) {
+        int days = 20;
+        int runs = 1000000;
+        int bucketSize = 1;
+        if (args.length >= 1) {
+            days = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            runs = Integer.parseInt(args[1]);
+        }
+        if (args.length >= 3) {
+            bucketSize = Integer.parseInt(args[2]);
+        }
+        PetEventHandler handler = new AutomatedPetEventHandler();
+        Pet template = new Cat();
+
+        long start = System.nanoTime();
+        MarkovOutcomeSolver solver = new MarkovOutcomeSolver(handler, 10, 10000, bucketSize);
+        MarkovOutcomeSolver.Outcome outcome = solver.solve(template, 100, days);
+        long solveTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        RandomSource random = RandomSource.fromSeed(1);
+        int alive = 0;
+        for (int run = 0; run < runs; run++) {
+            RandomSource stream = random.derive(run);
+            Pet pet = new Pet(template);
+            Player player = new Player();
+            for (int day = 0; day < days && !pet.getIsDead(); day++) {
+                player.earn(10);
+                PetDayActions.newDay(player, pet, stream, handler);
+            }
+            alive += pet.getIsDead() ? 0 : 1;
+        }
+        long sampleTime = System.nanoTime() - start;
+
+        System.out.println(days + " days, bucket size " + bucketSize + ", "
+                + outcome.getNumberOfStates() + " states");
+        System.out.printf("solver: survival %.6f, expected score %.2f in %.1f ms%n",
+                outcome.getSurvival(), outcome.getExpectedScore(), solveTime / 1e6);
+        System.out.printf("%d sampled runs: survival %.6f in %.1f ms%n",
+                runs, alive / (double) runs, sampleTime / 1e6);
+    }
+}
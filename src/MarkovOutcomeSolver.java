@@ -0,0 +1,455 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Works out exactly how likely a pet is to survive, be sick, and how much
+ * it should score after some days of automated play, without sampling.
+ *
+ * Each day PetDayActions.newDay takes three numbers from 0 to 99: one for
+ * misbehaving, one for sickness and one for death. The rules only compare
+ * them against 25, 50 and 75 (misbehaving and sickness) and 2 (death), so
+ * there are only 4 x 4 x 2 different days a pet can have, each with a known
+ * chance. Running the real rules once for each of them, with the numbers
+ * scripted, gives every state the pet can be in the next day and how likely
+ * it is. A state is the pet's stats and flags plus the player's balance,
+ * which decides whether the pet can be treated. Weight isn't changed by the
+ * day's rules, so it stays whatever it started as.
+ *
+ * Every state the pet can reach is found first, and the chances of moving
+ * between them are kept as a sparse matrix, stored by the state moved to.
+ * The chance of being in each state is then pushed through the matrix once
+ * per day. Each state's new chance only depends on the old chances, so the
+ * states are worked out in parallel, and the answer is the same every time.
+ *
+ * If there are too many states, stats can be rounded to a bucket size; this
+ * gives an approximate answer from far fewer states. A bucket size of 1
+ * gives the exact answer.
+ *
+ * The pet is treated as its player's only pet, so the player is paid one
+ * pet's allowance each day it is alive, as in GameEnvironment.runAutomatedDays.
+ *
+ */
+public class MarkovOutcomeSolver {
+
+    /**
+     * What a pet's days add up to.
+     */
+    public static final class Outcome {
+
+        /**
+         * Number of days.
+         */
+        private final int days;
+        /**
+         * Number of states the pet could be in.
+         */
+        private final int numberOfStates;
+        /**
+         * Chance the pet is alive at the end.
+         */
+        private final double survival;
+        /**
+         * Chance the pet is sick at the end.
+         */
+        private final double sickness;
+        /**
+         * Expected pet score on each day.
+         */
+        private final double[] dailyScore;
+        /**
+         * Chance of each pet score on the last day.
+         */
+        private final Map<Integer, Double> finalScores;
+
+        /**
+         * Creates an outcome.
+         * @param days Number of days.
+         * @param numberOfStates Number of states the pet could be in.
+         * @param survival Chance the pet is alive at the end.
+         * @param sickness Chance the pet is sick at the end.
+         * @param dailyScore Expected pet score on each day.
+         * @param finalScores Chance of each pet score on the last day.
+         */
+        Outcome(int days, int numberOfStates, double survival, double sickness,
+                double[] dailyScore, Map<Integer, Double> finalScores) {
+            this.days = days;
+            this.numberOfStates = numberOfStates;
+            this.survival = survival;
+            this.sickness = sickness;
+            this.dailyScore = dailyScore;
+            this.finalScores = Collections.unmodifiableMap(finalScores);
+        }
+
+        /**
+         * Gets the number of days.
+         * @return Number of days.
+         */
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * Gets the number of states the pet could be in.
+         * @return Number of states.
+         */
+        public int getNumberOfStates() {
+            return numberOfStates;
+        }
+
+        /**
+         * Gets the chance the pet is alive at the end.
+         * @return Chance of survival.
+         */
+        public double getSurvival() {
+            return survival;
+        }
+
+        /**
+         * Gets the chance the pet is sick at the end.
+         * @return Chance of sickness.
+         */
+        public double getSickness() {
+            return sickness;
+        }
+
+        /**
+         * Gets the expected pet score on a day.
+         * @param day The day, from 1 to the number of days.
+         * @return Expected score that day.
+         */
+        public double getDailyScore(int day) {
+            return dailyScore[day - 1];
+        }
+
+        /**
+         * Gets the expected player score at the end, which is the pet's scores
+         * for each day added up.
+         * @return Expected score.
+         */
+        public double getExpectedScore() {
+            double total = 0;
+            for (double score : dailyScore) {
+                total += score;
+            }
+            return total;
+        }
+
+        /**
+         * Gets the chance of each pet score on the last day.
+         * @return Chance of each score, lowest score first.
+         */
+        public Map<Integer, Double> getFinalScores() {
+            return finalScores;
+        }
+    }
+
+    /**
+     * A number that can be rolled for misbehaving and sickness, for each range
+     * the rules tell apart.
+     */
+    private static final int[] EVENT_ROLLS = {0, 25, 50, 75};
+    /**
+     * Chance of each of EVENT_ROLLS.
+     */
+    private static final double[] EVENT_CHANCES = {0.25, 0.25, 0.25, 0.25};
+    /**
+     * A number that can be rolled for death, for each range the rules tell apart.
+     */
+    private static final int[] DEATH_ROLLS = {0, 2};
+    /**
+     * Chance of each of DEATH_ROLLS.
+     */
+    private static final double[] DEATH_CHANCES = {0.02, 0.98};
+    /**
+     * Bits used for each stat in a state.
+     */
+    private static final int STAT_BITS = 7;
+    /**
+     * Largest balance a state can hold.
+     */
+    private static final int MAX_BALANCE_CAP = (1 << 17) - 1;
+
+    /**
+     * Decides what the player does about random events.
+     */
+    private final PetEventHandler handler;
+    /**
+     * How much the player gets each day for the pet.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Balances above this are counted as this.
+     */
+    private final int balanceCap;
+    /**
+     * Stats are rounded to a multiple of this.
+     */
+    private final int bucketSize;
+
+    /**
+     * Creates a solver.
+     * @param handler Decides what the player does about random events. It must
+     * only look at the player and pet it is given.
+     * @param dailyPetAllowance How much the player gets each day for the pet.
+     * @param balanceCap Balances above this are counted as this, which keeps
+     * the number of states down. The answer is exact as long as the balance
+     * never goes above the cap, or the handler doesn't look at the balance.
+     * @param bucketSize Stats are rounded to a multiple of this; 1 for exact.
+     * @throws IllegalArgumentException if the cap or bucket size is out of range
+     */
+    public MarkovOutcomeSolver(PetEventHandler handler, int dailyPetAllowance,
+            int balanceCap, int bucketSize) {
+        if (balanceCap < 0 || balanceCap > MAX_BALANCE_CAP) {
+            throw new IllegalArgumentException("balance cap must be between 0 and "
+                    + MAX_BALANCE_CAP);
+        }
+        if (bucketSize < 1 || bucketSize > 100) {
+            throw new IllegalArgumentException("bucket size must be between 1 and 100");
+        }
+        this.handler = handler;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.balanceCap = balanceCap;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Works out what a pet's days add up to.
+     * @param pet The pet at the start. It isn't changed.
+     * @param balance The player's balance at the start.
+     * @param days Number of days.
+     * @return The outcome.
+     * @throws IllegalArgumentException if days is less than one
+     */
+    public Outcome solve(Pet pet, int balance, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least one");
+        }
+        Pet template = new Pet(pet);
+
+        //find every state reachable in time, and the chances of moving between them
+        Map<Long, Integer> index = new HashMap<Long, Integer>();
+        List<Long> states = new ArrayList<Long>();
+        List<Integer> scores = new ArrayList<Integer>();
+        List<int[]> targets = new ArrayList<int[]>();
+        List<double[]> chances = new ArrayList<double[]>();
+        long start = encode(template, balance);
+        index.put(start, 0);
+        states.add(start);
+        scores.add(Player.calculatePetScore(decode(template, start)));
+
+        ScriptedRandomSource rolls = new ScriptedRandomSource();
+        int levelStart = 0;
+        for (int day = 0; day < days; day++) {
+            int levelEnd = states.size();
+            for (int s = levelStart; s < levelEnd; s++) {
+                Map<Integer, Double> next = new TreeMap<Integer, Double>();
+                long state = states.get(s);
+                if (isDead(state)) {
+                    next.put(s, 1.0);
+                } else {
+                    for (int m = 0; m < EVENT_ROLLS.length; m++) {
+                        for (int k = 0; k < EVENT_ROLLS.length; k++) {
+                            for (int d = 0; d < DEATH_ROLLS.length; d++) {
+                                Pet copy = decode(template, state);
+                                Player player = new Player(null, Math.min(balanceCap,
+                                        balanceOf(state) + dailyPetAllowance));
+                                rolls.setValues(EVENT_ROLLS[m], EVENT_ROLLS[k], DEATH_ROLLS[d]);
+                                PetDayActions.newDay(player, copy, rolls, handler);
+
+                                long after = encode(copy, player.getBalance());
+                                Integer target = index.get(after);
+                                if (target == null) {
+                                    target = states.size();
+                                    index.put(after, target);
+                                    states.add(after);
+                                    scores.add(Player.calculatePetScore(decode(template, after)));
+                                }
+                                next.merge(target, EVENT_CHANCES[m] * EVENT_CHANCES[k]
+                                        * DEATH_CHANCES[d], Double::sum);
+                            }
+                        }
+                    }
+                }
+                int[] to = new int[next.size()];
+                double[] chance = new double[next.size()];
+                int i = 0;
+                for (Map.Entry<Integer, Double> entry : next.entrySet()) {
+                    to[i] = entry.getKey();
+                    chance[i] = entry.getValue();
+                    i++;
+                }
+                targets.add(to);
+                chances.add(chance);
+            }
+            levelStart = levelEnd;
+        }
+
+        //store the matrix by the state moved to, so each row can be summed on its own
+        int n = states.size();
+        int[] rowStart = new int[n + 1];
+        for (int[] to : targets) {
+            for (int t : to) {
+                rowStart[t + 1]++;
+            }
+        }
+        for (int t = 0; t < n; t++) {
+            rowStart[t + 1] += rowStart[t];
+        }
+        int[] fill = rowStart.clone();
+        int[] from = new int[rowStart[n]];
+        double[] chance = new double[rowStart[n]];
+        for (int s = 0; s < targets.size(); s++) {
+            int[] to = targets.get(s);
+            double[] c = chances.get(s);
+            for (int i = 0; i < to.length; i++) {
+                from[fill[to[i]]] = s;
+                chance[fill[to[i]]] = c[i];
+                fill[to[i]]++;
+            }
+        }
+
+        double[] current = new double[n];
+        double[] next = new double[n];
+        current[0] = 1;
+        double[] dailyScore = new double[days];
+        for (int day = 0; day < days; day++) {
+            final double[] before = current;
+            final double[] after = next;
+            IntStream.range(0, n).parallel().forEach(t -> {
+                double total = 0;
+                for (int e = rowStart[t]; e < rowStart[t + 1]; e++) {
+                    total += chance[e] * before[from[e]];
+                }
+                after[t] = total;
+            });
+            double score = 0;
+            for (int s = 0; s < n; s++) {
+                score += after[s] * scores.get(s);
+            }
+            dailyScore[day] = score;
+            next = before;
+            current = after;
+        }
+
+        double survival = 0;
+        double sickness = 0;
+        Map<Integer, Double> finalScores = new TreeMap<Integer, Double>();
+        for (int s = 0; s < n; s++) {
+            if (current[s] == 0) {
+                continue;
+            }
+            long state = states.get(s);
+            if (!isDead(state)) {
+                survival += current[s];
+            }
+            if (isSick(state)) {
+                sickness += current[s];
+            }
+            finalScores.merge(scores.get(s), current[s], Double::sum);
+        }
+        return new Outcome(days, n, survival, sickness, dailyScore, finalScores);
+    }
+
+    /**
+     * Packs a pet's stats and flags and a balance into a number.
+     * @param pet The pet.
+     * @param balance The player's balance.
+     * @return The state.
+     */
+    private long encode(Pet pet, int balance) {
+        long state = 0;
+        state = (state << STAT_BITS) | bucket(pet.getHealth());
+        state = (state << STAT_BITS) | bucket(pet.getMischievousness());
+        state = (state << STAT_BITS) | bucket(pet.getHappiness());
+        state = (state << STAT_BITS) | bucket(pet.getHunger());
+        state = (state << STAT_BITS) | bucket(pet.getPercentBladderFull());
+        state = (state << STAT_BITS) | bucket(pet.getFatigue());
+        state = (state << 1) | (pet.getIsSick() ? 1 : 0);
+        state = (state << 1) | (pet.getIsRevivable() ? 1 : 0);
+        state = (state << 1) | (pet.getIsMisbehaving() ? 1 : 0);
+        state = (state << 1) | (pet.getIsDead() ? 1 : 0);
+        if (pet.getIsDead()) {
+            return state << 17; //money no longer matters
+        }
+        return (state << 17) | Math.max(0, Math.min(balance, balanceCap));
+    }
+
+    /**
+     * Rounds a stat to the nearest bucket.
+     * @param stat The stat.
+     * @return The rounded stat.
+     */
+    private int bucket(int stat) {
+        if (bucketSize == 1) {
+            return stat;
+        }
+        return Math.min(100, (stat + bucketSize / 2) / bucketSize * bucketSize);
+    }
+
+    /**
+     * Makes a pet in a state.
+     * @param template The pet at the start, for everything not in the state.
+     * @param state The state.
+     * @return A new pet in the state.
+     */
+    private static Pet decode(Pet template, long state) {
+        Pet pet = new Pet(template);
+        long bits = state >>> 17;
+        pet.setIsMisbehaving((bits >>> 1 & 1) == 1);
+        pet.setIsRevivable((bits >>> 2 & 1) == 1);
+        pet.setIsSick((bits >>> 3 & 1) == 1);
+        bits >>>= 4;
+        pet.increaseFatigue(stat(bits, 0) - pet.getFatigue());
+        pet.increasePercentBladderFull(stat(bits, 1) - pet.getPercentBladderFull());
+        pet.increaseHunger(stat(bits, 2) - pet.getHunger());
+        pet.increaseHappiness(stat(bits, 3) - pet.getHappiness());
+        pet.increaseMischievousness(stat(bits, 4) - pet.getMischievousness());
+        pet.increaseHealth(stat(bits, 5) - pet.getHealth());
+        if ((state >>> 17 & 1) == 1) {
+            pet.die();
+        }
+        return pet;
+    }
+
+    /**
+     * Gets one stat out of the packed stats.
+     * @param bits The packed stats, last stat lowest.
+     * @param fromEnd How many stats from the end it is.
+     * @return The stat.
+     */
+    private static int stat(long bits, int fromEnd) {
+        return (int) (bits >>> (fromEnd * STAT_BITS) & ((1 << STAT_BITS) - 1));
+    }
+
+    /**
+     * Gets whether the pet is dead in a state.
+     * @param state The state.
+     * @return Whether the pet is dead.
+     */
+    private static boolean isDead(long state) {
+        return (state >>> 17 & 1) == 1;
+    }
+
+    /**
+     * Gets whether the pet is sick in a state.
+     * @param state The state.
+     * @return Whether the pet is sick.
+     */
+    private static boolean isSick(long state) {
+        return (state >>> 20 & 1) == 1;
+    }
+
+    /**
+     * Gets the player's balance in a state.
+     * @param state The state.
+     * @return The balance.
+     */
+    private static int balanceOf(long state) {
+        return (int) (state & MAX_BALANCE_CAP);
+    }
+}
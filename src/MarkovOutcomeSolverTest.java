@@ -0,0 +1,117 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the MarkovOutcomeSolver and ScriptedRandomSource classes.
+ *
+ */
+public class MarkovOutcomeSolverTest {
+
+	@Test
+	public void testScriptedRandomSource() {
+		ScriptedRandomSource random = new ScriptedRandomSource(3, 99);
+		assertEquals(3, random.nextInt(10));
+		try {
+			random.nextInt(50);
+			fail("Gave back a number past the bound.");
+		} catch (IllegalArgumentException e) {}
+		assertEquals(99, random.nextInt(100));
+		assertEquals(2, random.getNumberUsed());
+		try {
+			random.nextInt(100);
+			fail("Gave back a number that wasn't scripted.");
+		} catch (IllegalStateException e) {}
+	}
+
+	@Test
+	public void testDerivedScriptedStreams() {
+		ScriptedRandomSource random = new ScriptedRandomSource(1, 2);
+		random.setStreamValues(new int[] {7, 8}, 0);
+		random.setStreamValues(new int[] {5}, 0, 1);
+		assertEquals(1, random.nextInt(10));
+
+		//the same id gives the same numbers, however many the parent has used
+		RandomSource first = random.derive(0);
+		assertEquals(7, first.nextInt(10));
+		assertEquals(8, first.nextInt(10));
+		assertEquals(7, random.derive(0).nextInt(10));
+		assertEquals(5, first.derive(1).nextInt(10));
+		assertEquals(2, random.nextInt(10));
+		try {
+			random.derive(3).nextInt(10);
+			fail("Gave back a number that wasn't scripted.");
+		} catch (IllegalStateException e) {}
+		try {
+			random.getSeed();
+			fail("Gave back a seed for a script.");
+		} catch (UnsupportedOperationException e) {}
+	}
+
+	@Test
+	public void testChancesAddUp() {
+		MarkovOutcomeSolver solver = new MarkovOutcomeSolver(new AutomatedPetEventHandler(),
+				10, 1000, 1);
+		MarkovOutcomeSolver.Outcome outcome = solver.solve(new Cat(), 100, 6);
+		double total = 0;
+		for (double chance : outcome.getFinalScores().values()) {
+			total += chance;
+		}
+		assertEquals(1, total, 1e-9);
+		assertTrue(outcome.getSurvival() > 0 && outcome.getSurvival() <= 1);
+		assertTrue(outcome.getSickness() >= 0 && outcome.getSickness() <= 1);
+	}
+
+	@Test
+	public void testOneDayDeathChance() {
+		//a healthy pet only dies on a roll below 2, and without revival that is it
+		MarkovOutcomeSolver solver = new MarkovOutcomeSolver(
+				new AutomatedPetEventHandler(true, true, false), 10, 1000, 1);
+		assertEquals(0.98, solver.solve(new Dog(), 100, 1).getSurvival(), 1e-12);
+	}
+
+	@Test
+	public void testMatchesSampling() {
+		int days = 8;
+		PetEventHandler handler = new AutomatedPetEventHandler(false, true, false);
+		MarkovOutcomeSolver solver = new MarkovOutcomeSolver(handler, 10, 1000, 1);
+		MarkovOutcomeSolver.Outcome outcome = solver.solve(new Goat(), 100, days);
+
+		RandomSource random = RandomSource.fromSeed(11);
+		int runs = 20000;
+		int alive = 0;
+		int sick = 0;
+		double score = 0;
+		Pet template = new Goat();
+		for (int run = 0; run < runs; run++) {
+			RandomSource stream = random.derive(run);
+			Pet pet = new Pet(template);
+			Player player = new Player();
+			for (int day = 0; day < days; day++) {
+				if (!pet.getIsDead()) {
+					player.earn(10);
+					PetDayActions.newDay(player, pet, stream, handler);
+				}
+				score += Player.calculatePetScore(pet);
+			}
+			alive += pet.getIsDead() ? 0 : 1;
+			sick += pet.getIsSick() ? 1 : 0;
+		}
+		assertEquals(outcome.getSurvival(), alive / (double) runs, 0.02);
+		assertEquals(outcome.getSickness(), sick / (double) runs, 0.02);
+		assertEquals(outcome.getExpectedScore(), score / runs,
+				Math.abs(outcome.getExpectedScore()) * 0.02 + 1);
+	}
+
+	@Test
+	public void testBucketsUseFewerStates() {
+		PetEventHandler handler = new AutomatedPetEventHandler();
+		MarkovOutcomeSolver exact = new MarkovOutcomeSolver(handler, 10, 1000, 1);
+		MarkovOutcomeSolver rough = new MarkovOutcomeSolver(handler, 10, 1000, 10);
+		MarkovOutcomeSolver.Outcome a = exact.solve(new Cat(), 100, 10);
+		MarkovOutcomeSolver.Outcome b = rough.solve(new Cat(), 100, 10);
+		assertTrue(b.getNumberOfStates() <= a.getNumberOfStates());
+		assertEquals(a.getSurvival(), b.getSurvival(), 0.1);
+	}
+
+}
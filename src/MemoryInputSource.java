@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Gives input lines from memory, for running games without anyone typing.
+ *
+ */
+public class MemoryInputSource implements InputSource {
+
+    /**
+     * The lines.
+     */
+    private final List<String> lines;
+    /**
+     * Index of the next line.
+     */
+    private int next;
+
+    /**
+     * Creates a source that gives some lines in order.
+     * @param lines The lines.
+     */
+    public MemoryInputSource(String... lines) {
+        this(Arrays.asList(lines));
+    }
+
+    /**
+     * Creates a source that gives some lines in order.
+     * @param lines The lines. They are copied.
+     */
+    public MemoryInputSource(List<String> lines) {
+        this.lines = new ArrayList<String>(lines);
+    }
+
+    @Override
+    public String nextLine() {
+        if (next >= lines.size()) {
+            throw new NoSuchElementException("No line found");
+        }
+        return lines.get(next++);
+    }
+
+    /**
+     * Gets the number of lines not read yet.
+     * @return Lines left.
+     */
+    public int remaining() {
+        return lines.size() - next;
+    }
+}
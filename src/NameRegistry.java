@@ -0,0 +1,142 @@
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The names of players and pets that are in use, so no two are the same.
+ *
+ * Names are compared with case and extra spaces ignored, so "Rex" and
+ * " rex " are the same name. They are kept in a concurrent hash set, so
+ * checking, taking and giving back a name each cost O(1) and are safe for
+ * any number of games at once to share one registry, such as on a server.
+ * Taking a name is a single step: if two games try to take the same name at
+ * the same time, only one gets it.
+ *
+ * A registry can be given a most number of names it will hold, so its memory
+ * stays within a known size however long it runs.
+ *
+ */
+public class NameRegistry {
+
+    /**
+     * The names in use, normalised.
+     */
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    /**
+     * Most names that can be in use at once.
+     */
+    private final int capacity;
+    /**
+     * Names in use plus names being taken right now; never more than
+     * capacity for long.
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /**
+     * Creates a registry with no limit on the number of names.
+     */
+    public NameRegistry() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a registry that holds at most some number of names.
+     * @param capacity Most names that can be in use at once.
+     * @throws IllegalArgumentException if capacity is less than one
+     */
+    public NameRegistry(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least one");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Puts a name in the form names are compared in: lower case, with no
+     * spaces at the ends and single spaces between words.
+     * @param name The name.
+     * @return The normalised name.
+     */
+    public static String normalise(String name) {
+        StringBuilder normal = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normal.length() > 0;
+            } else {
+                if (space) {
+                    normal.append(' ');
+                    space = false;
+                }
+                normal.append(c);
+            }
+        }
+        return normal.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Takes a name if no one else has it.
+     * @param name The name.
+     * @return Whether the name was taken; false if it was already in use.
+     * @throws IllegalArgumentException if the name is blank
+     * @throws IllegalStateException if the registry is full
+     */
+    public boolean reserve(String name) {
+        String key = normalise(name);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        if (reserved.incrementAndGet() > capacity) {
+            reserved.decrementAndGet();
+            if (names.contains(key)) {
+                return false;
+            }
+            throw new IllegalStateException("No more than " + capacity + " names can be used");
+        }
+        if (!names.add(key)) {
+            reserved.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives a name back so it can be used again.
+     * @param name The name.
+     * @return Whether the name was in use.
+     */
+    public boolean release(String name) {
+        if (names.remove(normalise(name))) {
+            reserved.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a name is in use.
+     * @param name The name.
+     * @return Whether it is in use.
+     */
+    public boolean isTaken(String name) {
+        return names.contains(normalise(name));
+    }
+
+    /**
+     * Gets the number of names in use.
+     * @return Number of names.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Gets the most names that can be in use at once.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
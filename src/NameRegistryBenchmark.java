@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+
+/**
+ * Times taking names in a NameRegistry from several threads, and compares
+ * checking names against the list the game used to scan.
+ *
+ * Usage: java NameRegistryBenchmark [names] [threads]
+ *
+ */
+public class NameRegistryBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of names and threads, both optional.
+     * @throws InterruptedException if interrupted waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = 10000000;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        if (args.length >= 1) {
+            count = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            threadCount = Integer.parseInt(args[1]);
+        }
+        NameRegistry names = new NameRegistry(count);
+        int total = count;
+        int perThread = (count + threadCount - 1) / threadCount;
+        Thread[] threads = new Thread[threadCount];
+        long start = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            int from = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = from; i < Math.min(total, from + perThread); i++) {
+                    names.reserve("Pet " + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long reserveTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int taken = 0;
+        for (int i = 0; i < 1000000; i++) {
+            if (names.isTaken("pet " + (i * 7L % (2L * count)))) {
+                taken++;
+            }
+        }
+        long checkTime = System.nanoTime() - start;
+
+        //the old way, on a list small enough to finish
+        ArrayList<String> list = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            list.add("Pet " + i);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            list.contains("Pet " + (i * 97));
+        }
+        long scanTime = System.nanoTime() - start;
+
+        System.out.println(names.size() + " names reserved by " + threadCount + " threads");
+        System.out.printf("reserve: %.1f ms, %.0f ns per name%n", reserveTime / 1e6,
+                reserveTime / (double) count);
+        System.out.printf("registry check: %d of 1000000 taken, %.0f ns per check%n", taken,
+                checkTime / 1e6);
+        System.out.printf("list scan of 100000 names: %.0f ns per check%n", scanTime / 1e3);
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for the NameRegistry class.
+ *
+ */
+public class NameRegistryTest {
+
+	@Test
+	public void testReserveAndRelease() {
+		NameRegistry names = new NameRegistry();
+		assertTrue(names.reserve("Rex"));
+		assertFalse(names.reserve(" rEX "));
+		assertTrue(names.isTaken("REX"));
+		assertTrue(names.reserve("Polar  Bob"));
+		assertTrue(names.isTaken("polar bob"));
+		assertEquals(2, names.size());
+		assertTrue(names.release("rex"));
+		assertFalse(names.release("rex"));
+		assertFalse(names.isTaken("Rex"));
+		assertTrue(names.reserve("Rex"));
+		try {
+			names.reserve("   ");
+			fail("Reserved a blank name.");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testCapacity() {
+		NameRegistry names = new NameRegistry(2);
+		assertTrue(names.reserve("a"));
+		assertTrue(names.reserve("b"));
+		assertFalse(names.reserve("A"));
+		try {
+			names.reserve("c");
+			fail("Reserved more names than the capacity.");
+		} catch (IllegalStateException e) {}
+		names.release("a");
+		assertTrue(names.reserve("c"));
+		assertEquals(2, names.size());
+	}
+
+	@Test
+	public void testOnlyOneThreadGetsEachName() throws InterruptedException {
+		NameRegistry names = new NameRegistry();
+		AtomicInteger taken = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++) {
+					if (names.reserve("pet " + i)) {
+						taken.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(10000, taken.get());
+		assertEquals(10000, names.size());
+	}
+}
@@ -0,0 +1,394 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps pets in order of how much they need looking after, so the neediest
+ * can be found without going through every pet.
+ *
+ * Pets are ordered by Pet.getWellness, lowest first, in a binary heap that
+ * knows where each pet is, plus one heap per species. The index listens to
+ * its pets, so whenever a pet changes it is moved up or down the heaps in
+ * O(log n) time. Dead pets don't need looking after, so they are dropped
+ * from the index when they die and can't be added.
+ *
+ * Finding the k neediest pets takes O(k log k) time, and finding every pet
+ * below a wellness takes time in proportion to how many there are, however
+ * many pets the index holds.
+ *
+ * An index is not thread safe. Pets tell it about changes on whichever
+ * thread changes them, so an index and the pets in it must only be used by
+ * one thread at a time, such as the one running a player's actor. When pets
+ * are run on several threads, as by ParallelDayExecutor, don't attach an
+ * index to pets on different threads.
+ *
+ */
+public class NeedyPetIndex implements PetListener {
+
+    /**
+     * Where a pet is in the index.
+     */
+    private static final class Entry {
+
+        /**
+         * The pet.
+         */
+        private final Pet pet;
+        /**
+         * The pet's species heap.
+         */
+        private final Heap speciesHeap;
+        /**
+         * The pet's wellness when it was last put in place.
+         */
+        private int wellness;
+        /**
+         * Where the pet is in the heap of all pets, then in its species heap.
+         */
+        private final int[] positions = new int[2];
+
+        /**
+         * Creates an entry.
+         * @param pet The pet.
+         * @param speciesHeap The pet's species heap.
+         */
+        Entry(Pet pet, Heap speciesHeap) {
+            this.pet = pet;
+            this.speciesHeap = speciesHeap;
+            wellness = pet.getWellness();
+        }
+    }
+
+    /**
+     * A binary min-heap of entries by wellness that keeps each entry's
+     * position up to date, so entries can be moved or taken out.
+     */
+    private static final class Heap {
+
+        /**
+         * Which of an entry's positions this heap uses.
+         */
+        private final int which;
+        /**
+         * The entries, with each one's children at 2i + 1 and 2i + 2.
+         */
+        private Entry[] entries = new Entry[16];
+        /**
+         * Number of entries.
+         */
+        private int size;
+
+        /**
+         * Creates an empty heap.
+         * @param which Which of an entry's positions this heap uses.
+         */
+        Heap(int which) {
+            this.which = which;
+        }
+
+        /**
+         * Adds an entry.
+         * @param entry The entry.
+         */
+        void add(Entry entry) {
+            if (size == entries.length) {
+                Entry[] bigger = new Entry[size * 2];
+                System.arraycopy(entries, 0, bigger, 0, size);
+                entries = bigger;
+            }
+            place(entry, size);
+            size++;
+            siftUp(size - 1);
+        }
+
+        /**
+         * Takes an entry out.
+         * @param entry The entry.
+         */
+        void remove(Entry entry) {
+            int index = entry.positions[which];
+            size--;
+            Entry last = entries[size];
+            entries[size] = null;
+            if (index < size) {
+                place(last, index);
+                fix(index);
+            }
+        }
+
+        /**
+         * Moves the entry at an index to where its wellness belongs.
+         * @param index Index of the entry.
+         */
+        void fix(int index) {
+            if (index > 0 && entries[index].wellness < entries[(index - 1) / 2].wellness) {
+                siftUp(index);
+            } else {
+                siftDown(index);
+            }
+        }
+
+        /**
+         * Moves an entry up until its parent is no higher.
+         * @param index Index of the entry.
+         */
+        private void siftUp(int index) {
+            Entry entry = entries[index];
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (entries[parent].wellness <= entry.wellness) {
+                    break;
+                }
+                place(entries[parent], index);
+                index = parent;
+            }
+            place(entry, index);
+        }
+
+        /**
+         * Moves an entry down until its children are no lower.
+         * @param index Index of the entry.
+         */
+        private void siftDown(int index) {
+            Entry entry = entries[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && entries[child + 1].wellness < entries[child].wellness) {
+                    child++;
+                }
+                if (entries[child].wellness >= entry.wellness) {
+                    break;
+                }
+                place(entries[child], index);
+                index = child;
+            }
+            place(entry, index);
+        }
+
+        /**
+         * Puts an entry at an index and records where it is.
+         * @param entry The entry.
+         * @param index The index.
+         */
+        private void place(Entry entry, int index) {
+            entries[index] = entry;
+            entry.positions[which] = index;
+        }
+
+        /**
+         * Gets the entries with the lowest wellness, lowest first. Only looks
+         * at the children of entries already taken.
+         * @param k How many to get.
+         * @return The pets.
+         */
+        List<Pet> lowest(int k) {
+            List<Pet> pets = new ArrayList<Pet>(Math.min(k, size));
+            PriorityQueue<Integer> frontier = new PriorityQueue<Integer>(
+                    (a, b) -> Integer.compare(entries[a].wellness, entries[b].wellness));
+            if (size > 0) {
+                frontier.add(0);
+            }
+            while (pets.size() < k && !frontier.isEmpty()) {
+                int index = frontier.poll();
+                pets.add(entries[index].pet);
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    frontier.add(child);
+                }
+            }
+            return pets;
+        }
+
+        /**
+         * Gets every entry with wellness below a threshold, by going down the
+         * heap only as far as the entries are below it.
+         * @param threshold The wellness.
+         * @return The pets, in no particular order.
+         */
+        List<Pet> below(int threshold) {
+            List<Pet> pets = new ArrayList<Pet>();
+            int[] stack = new int[32];
+            int top = 0;
+            if (size > 0) {
+                stack[top++] = 0;
+            }
+            while (top > 0) {
+                int index = stack[--top];
+                if (entries[index].wellness >= threshold) {
+                    continue;
+                }
+                pets.add(entries[index].pet);
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (top == stack.length) {
+                        int[] bigger = new int[top * 2];
+                        System.arraycopy(stack, 0, bigger, 0, top);
+                        stack = bigger;
+                    }
+                    stack[top++] = child;
+                }
+            }
+            return pets;
+        }
+    }
+
+    /**
+     * Every pet in the index.
+     */
+    private final Heap all = new Heap(0);
+    /**
+     * The pets of each species, mapped from the species name.
+     */
+    private final HashMap<String, Heap> bySpecies = new HashMap<String, Heap>();
+    /**
+     * Each pet's entry. Pets are told apart by identity, not by name.
+     */
+    private final IdentityHashMap<Pet, Entry> entries = new IdentityHashMap<Pet, Entry>();
+
+    /**
+     * Creates an empty index.
+     */
+    public NeedyPetIndex() {
+    }
+
+    /**
+     * Creates an index of some pets.
+     * @param pets The pets.
+     */
+    public NeedyPetIndex(Collection<Pet> pets) {
+        for (Pet pet : pets) {
+            add(pet);
+        }
+    }
+
+    /**
+     * Adds a pet, unless it is dead or already in the index. From now on the
+     * index keeps up with the pet's changes.
+     * @param pet The pet.
+     * @return Whether the pet was added.
+     */
+    public boolean add(Pet pet) {
+        if (pet.getIsDead() || entries.containsKey(pet)) {
+            return false;
+        }
+        Heap speciesHeap = bySpecies.get(pet.getSpecies());
+        if (speciesHeap == null) {
+            speciesHeap = new Heap(1);
+            bySpecies.put(pet.getSpecies(), speciesHeap);
+        }
+        Entry entry = new Entry(pet, speciesHeap);
+        entries.put(pet, entry);
+        all.add(entry);
+        speciesHeap.add(entry);
+        pet.addListener(this);
+        return true;
+    }
+
+    /**
+     * Takes a pet out, if it is in the index.
+     * @param pet The pet.
+     * @return Whether the pet was in the index.
+     */
+    public boolean remove(Pet pet) {
+        Entry entry = entries.remove(pet);
+        if (entry == null) {
+            return false;
+        }
+        all.remove(entry);
+        entry.speciesHeap.remove(entry);
+        pet.removeListener(this);
+        return true;
+    }
+
+    /**
+     * Gets whether a pet is in the index.
+     * @param pet The pet.
+     * @return Whether it is in the index.
+     */
+    public boolean contains(Pet pet) {
+        return entries.containsKey(pet);
+    }
+
+    /**
+     * Gets the number of pets in the index.
+     * @return Number of pets.
+     */
+    public int size() {
+        return all.size;
+    }
+
+    /**
+     * Gets the neediest pet.
+     * @return The pet with the lowest wellness, or null if there are none.
+     */
+    public Pet getNeediest() {
+        return all.size == 0 ? null : all.entries[0].pet;
+    }
+
+    /**
+     * Gets the neediest pets.
+     * @param k How many to get.
+     * @return Up to k pets, neediest first.
+     */
+    public List<Pet> getNeediest(int k) {
+        return all.lowest(k);
+    }
+
+    /**
+     * Gets the neediest pets of a species.
+     * @param species The species.
+     * @param k How many to get.
+     * @return Up to k pets, neediest first.
+     */
+    public List<Pet> getNeediest(String species, int k) {
+        Heap heap = bySpecies.get(species);
+        return heap == null ? new ArrayList<Pet>() : heap.lowest(k);
+    }
+
+    /**
+     * Gets every pet with wellness below a threshold.
+     * @param threshold The wellness.
+     * @return The pets, in no particular order.
+     */
+    public List<Pet> getBelow(int threshold) {
+        return all.below(threshold);
+    }
+
+    /**
+     * Gets every pet of a species with wellness below a threshold.
+     * @param species The species.
+     * @param threshold The wellness.
+     * @return The pets, in no particular order.
+     */
+    public List<Pet> getBelow(String species, int threshold) {
+        Heap heap = bySpecies.get(species);
+        return heap == null ? new ArrayList<Pet>() : heap.below(threshold);
+    }
+
+    /**
+     * Moves a pet to where its new wellness belongs, or takes it out if it
+     * has died.
+     * @param pet The pet that changed.
+     */
+    @Override
+    public void petChanged(Pet pet) {
+        Entry entry = entries.get(pet);
+        if (entry == null) {
+            return;
+        }
+        if (pet.getIsDead()) {
+            remove(pet);
+            return;
+        }
+        int wellness = pet.getWellness();
+        if (wellness != entry.wellness) {
+            entry.wellness = wellness;
+            all.fix(entry.positions[0]);
+            entry.speciesHeap.fix(entry.positions[1]);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the NeedyPetIndex class.
+ *
+ */
+public class NeedyPetIndexTest {
+
+	/**
+	 * Makes pets of a few species with different stats.
+	 */
+	private List<Pet> makePets(int count, RandomSource random) {
+		Pet[] templates = {new Cat(), new Dog(), new Goat()};
+		List<Pet> pets = new ArrayList<Pet>();
+		for (int i = 0; i < count; i++) {
+			Pet pet = new Pet(templates[i % templates.length]);
+			pet.increaseHappiness(-random.nextInt(100));
+			pet.increaseHealth(-random.nextInt(100));
+			pet.increaseHunger(random.nextInt(100));
+			pet.increaseMischievousness(random.nextInt(100));
+			pets.add(pet);
+		}
+		return pets;
+	}
+
+	/**
+	 * Gets the wellness of each pet, sorted.
+	 */
+	private List<Integer> wellness(List<Pet> pets) {
+		List<Integer> values = new ArrayList<Integer>();
+		for (Pet pet : pets) {
+			values.add(pet.getWellness());
+		}
+		Collections.sort(values);
+		return values;
+	}
+
+	@Test
+	public void testMatchesScan() {
+		RandomSource random = RandomSource.fromSeed(4);
+		List<Pet> pets = makePets(500, random);
+		NeedyPetIndex index = new NeedyPetIndex(pets);
+		assertEquals(500, index.size());
+
+		//change the pets behind the index's back; it should keep up
+		for (int i = 0; i < 2000; i++) {
+			Pet pet = pets.get(random.nextInt(pets.size()));
+			pet.increaseHappiness(random.nextInt(61) - 30);
+			pet.increaseMischievousness(random.nextInt(61) - 30);
+		}
+
+		List<Integer> all = wellness(pets);
+		assertEquals(all.subList(0, 10), wellness(index.getNeediest(10)));
+		assertEquals(all.get(0).intValue(), index.getNeediest().getWellness());
+		List<Pet> neediest = index.getNeediest(10);
+		for (int i = 1; i < neediest.size(); i++) {
+			assertTrue(neediest.get(i - 1).getWellness() <= neediest.get(i).getWellness());
+		}
+
+		int below = 0;
+		List<Pet> dogs = new ArrayList<Pet>();
+		for (Pet pet : pets) {
+			below += pet.getWellness() < 40 ? 1 : 0;
+			if (pet.getSpecies().equals("dog")) {
+				dogs.add(pet);
+			}
+		}
+		assertEquals(below, index.getBelow(40).size());
+		for (Pet pet : index.getBelow(40)) {
+			assertTrue(pet.getWellness() < 40);
+		}
+		assertEquals(wellness(dogs).subList(0, 5), wellness(index.getNeediest("dog", 5)));
+		for (Pet pet : index.getBelow("dog", 50)) {
+			assertEquals("dog", pet.getSpecies());
+			assertTrue(pet.getWellness() < 50);
+		}
+		assertTrue(index.getNeediest("dragon", 5).isEmpty());
+	}
+
+	@Test
+	public void testRemoveAndDeath() {
+		List<Pet> pets = makePets(20, RandomSource.fromSeed(9));
+		NeedyPetIndex index = new NeedyPetIndex(pets);
+		Pet neediest = index.getNeediest();
+		neediest.die();
+		assertFalse(index.contains(neediest));
+		assertFalse(index.add(neediest));
+		assertEquals(19, index.size());
+
+		Pet other = index.getNeediest();
+		assertTrue(index.remove(other));
+		assertFalse(index.remove(other));
+		other.increaseHealth(-100); //no longer listened to
+		assertEquals(18, index.size());
+		assertEquals(18, index.getNeediest(100).size());
+	}
+}
@@ -0,0 +1,29 @@
+/**
+ * Throws all output away, for games run at full speed with nobody watching.
+ *
+ */
+public final class NullOutputSink implements OutputSink {
+
+    /**
+     * The only null sink; it has no state, so one is enough.
+     */
+    public static final NullOutputSink INSTANCE = new NullOutputSink();
+
+    /**
+     * Use INSTANCE.
+     */
+    private NullOutputSink() {
+    }
+
+    @Override
+    public void print(String text) {
+    }
+
+    @Override
+    public void println(String text) {
+    }
+
+    @Override
+    public void flush() {
+    }
+}
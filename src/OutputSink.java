@@ -0,0 +1,23 @@
+/**
+ * Where a game's text output goes.
+ *
+ */
+public interface OutputSink {
+
+    /**
+     * Writes some text.
+     * @param text The text.
+     */
+    void print(String text);
+
+    /**
+     * Writes some text and ends the line.
+     * @param text The text.
+     */
+    void println(String text);
+
+    /**
+     * Makes sure everything written so far has been sent on.
+     */
+    void flush();
+}
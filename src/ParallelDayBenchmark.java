@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+
+/**
+ * Times automated days for a large number of pets on different numbers of threads.
+ *
+ * Usage: java ParallelDayBenchmark [number of pets] [number of days]
+ *
+ */
+public class ParallelDayBenchmark {
+
+    /**
+     * Number of players the pets are shared between.
+     */
+    private static final int NUM_PLAYERS = 1000;
+
+    /**
+     * Creates a seeded game where the players own the number of pets given.
+     * @param numPets Total number of pets.
+     * @return The game.
+     */
+    private static GameEnvironment createGame(int numPets) {
+        GameEnvironment game = new GameEnvironment();
+        game.initialiseNumGenerator(new String[] {"2017"});
+        Player[] players = new Player[NUM_PLAYERS];
+        for (int i = 0; i < NUM_PLAYERS; i++) {
+            players[i] = new Player();
+            players[i].setName("Player " + i);
+        }
+        for (int i = 0; i < numPets; i++) {
+            ArrayList<Pet> petList = players[i % NUM_PLAYERS].getPetList();
+            Pet pet = new Dog();
+            pet.setName("Pet " + i);
+            petList.add(pet);
+        }
+        game.addPlayers(players);
+        return game;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of pets and number of days, both optional.
+     */
+    public static void main(String[] args) {
+        int numPets = 1000000;
+        int days = 10;
+        if (args.length >= 1) {
+            numPets = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            days = Integer.parseInt(args[1]);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        System.out.println(numPets + " pets, " + days + " days, " + cores + " cores");
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            GameEnvironment game = createGame(numPets);
+            long start = System.nanoTime();
+            game.runAutomatedDays(days, new AutomatedPetEventHandler(), threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (threads == 1) {
+                baseline = seconds;
+            }
+            System.out.printf("%2d threads: %.3f s, %.0f pet-days/s, speedup %.2f%n",
+                    threads, seconds, numPets * (double) days / seconds, baseline / seconds);
+        }
+    }
+}
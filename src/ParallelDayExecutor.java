@@ -0,0 +1,337 @@
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs days for automated players with the pets split across threads.
+ *
+ * Each day is run in phases, and every thread waits at a Phaser before
+ * moving on to the next phase:
+ * 1. Pay each player their allowance (split by player).
+ * 2. Daily decay, misbehaving and the sickness roll for each pet (split by pet).
+ * 3. Treat or make sick the pets that rolled sick (split by player, in pet
+ *    order, because treatment spends the player's money).
+ * 4. Check whether each pet dies (split by pet).
+ * 5. Update each player's score and publish their snapshot (split by player).
+ *
+ * Every pet uses its own random number stream and the steps are the same as
+ * PetDayActions.newDay, so the result is the same as running on one thread.
+ *
+ */
+public class ParallelDayExecutor {
+
+    /**
+     * The players whose pets are being run.
+     */
+    private final Player[] players;
+    /**
+     * Every pet of every player, in player then pet order.
+     */
+    private final Pet[] pets;
+    /**
+     * The owner of each pet in pets.
+     */
+    private final Player[] owners;
+    /**
+     * The random number stream of each pet in pets.
+     */
+    private final RandomSource[] streams;
+    /**
+     * The index in pets of each player's first pet, plus one extra entry
+     * for the end of the last player's pets.
+     */
+    private final int[] firstPetOfPlayer;
+    /**
+     * Whether each pet was alive at the start of today.
+     */
+    private final boolean[] aliveToday;
+    /**
+     * Whether each pet rolled sick today.
+     */
+    private final boolean[] sickToday;
+    /**
+     * Each pet's health before treatment today.
+     */
+    private final int[] healthToday;
+    /**
+     * Decides what happens on random events.
+     */
+    private final PetEventHandler handler;
+    /**
+     * Where random events are published, or null for nowhere.
+     */
+    private final EventBus eventBus;
+    /**
+     * How much each player gets per pet per day, in dollars.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Creates an executor for the players given.
+     * @param players Players whose pets are run. Their pet lists must not change
+     * while the executor is in use.
+     * @param petRandomStreams Maps each pet to its random number stream.
+     * @param handler Decides what happens on random events. Must be safe to call
+     * from many threads.
+     * @param dailyPetAllowance How much each player gets per live pet per day.
+     * @param threads Number of worker threads.
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public ParallelDayExecutor(Player[] players, Map<Pet, RandomSource> petRandomStreams,
+            PetEventHandler handler, int dailyPetAllowance, int threads) {
+        this(players, petRandomStreams, handler, null, dailyPetAllowance, threads);
+    }
+
+    /**
+     * Creates an executor for the players given that publishes random events.
+     * @param players Players whose pets are run. Their pet lists must not change
+     * while the executor is in use.
+     * @param petRandomStreams Maps each pet to its random number stream.
+     * @param handler Decides what happens on random events. Must be safe to call
+     * from many threads.
+     * @param eventBus Where random events are published, from the worker
+     * threads, or null for nowhere.
+     * @param dailyPetAllowance How much each player gets per live pet per day.
+     * @param threads Number of worker threads.
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public ParallelDayExecutor(Player[] players, Map<Pet, RandomSource> petRandomStreams,
+            PetEventHandler handler, EventBus eventBus, int dailyPetAllowance, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread.");
+        }
+        this.players = players;
+        this.handler = handler;
+        this.eventBus = eventBus;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.threads = threads;
+
+        int numPets = 0;
+        for (Player player : players) {
+            numPets += player.getPetList().size();
+        }
+        pets = new Pet[numPets];
+        owners = new Player[numPets];
+        streams = new RandomSource[numPets];
+        firstPetOfPlayer = new int[players.length + 1];
+        aliveToday = new boolean[numPets];
+        sickToday = new boolean[numPets];
+        healthToday = new int[numPets];
+
+        int i = 0;
+        for (int p = 0; p < players.length; p++) {
+            firstPetOfPlayer[p] = i;
+            for (Pet pet : players[p].getPetList()) {
+                pets[i] = pet;
+                owners[i] = players[p];
+                streams[i] = petRandomStreams.get(pet);
+                i++;
+            }
+        }
+        firstPetOfPlayer[players.length] = i;
+    }
+
+    /**
+     * Runs a number of days, returning when they are all finished.
+     * @param days Number of days to run.
+     * @throws RuntimeException if a worker thread fails
+     */
+    public void runDays(int days) {
+        Phaser dayPhaser = new Phaser(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        ArrayList<Thread> workers = new ArrayList<Thread>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(new Worker(t, days, dayPhaser, failure),
+                    "day-worker-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dayPhaser.forceTermination();
+                throw new RuntimeException("Interrupted while running days", e);
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException("Error while running days", failure.get());
+        }
+    }
+
+    /**
+     * Gets the start of a worker's share of a range.
+     * @param worker The worker's number.
+     * @param size Size of the range being shared.
+     * @return Index of the worker's first element.
+     */
+    private int shardStart(int worker, int size) {
+        return (int) ((long) size * worker / threads);
+    }
+
+    /**
+     * Pays the players in a range their allowance.
+     * @param from First player.
+     * @param to One past the last player.
+     */
+    private void payAllowance(int from, int to) {
+        for (int p = from; p < to; p++) {
+            int numOfAlivePets = 0;
+            for (int i = firstPetOfPlayer[p]; i < firstPetOfPlayer[p + 1]; i++) {
+                if (!pets[i].getIsDead()) {
+                    numOfAlivePets++;
+                }
+            }
+            players[p].earn(dailyPetAllowance * numOfAlivePets);
+        }
+    }
+
+    /**
+     * Runs the steps of the day that only touch each pet, up to the sickness roll.
+     * @param from First pet.
+     * @param to One past the last pet.
+     */
+    private void startPetDays(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Pet pet = pets[i];
+            aliveToday[i] = !pet.getIsDead();
+            if (aliveToday[i]) {
+                PetDayActions.applyDailyDecay(pet);
+                PetDayActions.checkMisbehaving(owners[i], pet, streams[i], handler, eventBus);
+                healthToday[i] = pet.getHealth();
+                sickToday[i] = PetDayActions.rollSickness(pet, streams[i]);
+            }
+        }
+    }
+
+    /**
+     * Treats or makes sick the pets of the players in a range, in pet order.
+     * @param from First player.
+     * @param to One past the last player.
+     */
+    private void resolveSickness(int from, int to) {
+        for (int p = from; p < to; p++) {
+            for (int i = firstPetOfPlayer[p]; i < firstPetOfPlayer[p + 1]; i++) {
+                if (aliveToday[i] && sickToday[i]) {
+                    PetDayActions.resolveSickness(players[p], pets[i], handler, eventBus);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether the pets in a range die.
+     * @param from First pet.
+     * @param to One past the last pet.
+     */
+    private void finishPetDays(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (aliveToday[i]) {
+                PetDayActions.checkDeath(owners[i], pets[i], healthToday[i], streams[i], handler,
+                        eventBus);
+            }
+        }
+    }
+
+    /**
+     * Updates the scores of the players in a range and publishes their snapshots.
+     * @param from First player.
+     * @param to One past the last player.
+     */
+    private void calculateScores(int from, int to) {
+        for (int p = from; p < to; p++) {
+            players[p].calculateScore();
+            players[p].publishSnapshot();
+        }
+    }
+
+    /**
+     * One worker thread, which runs its share of every phase of every day.
+     */
+    private class Worker implements Runnable {
+
+        /**
+         * The worker's number.
+         */
+        private final int worker;
+        /**
+         * Number of days to run.
+         */
+        private final int days;
+        /**
+         * Barrier between phases.
+         */
+        private final Phaser dayPhaser;
+        /**
+         * The first error thrown by any worker.
+         */
+        private final AtomicReference<Throwable> failure;
+
+        /**
+         * Creates a worker.
+         * @param worker The worker's number.
+         * @param days Number of days to run.
+         * @param dayPhaser Barrier between phases.
+         * @param failure Where to record an error.
+         */
+        Worker(int worker, int days, Phaser dayPhaser, AtomicReference<Throwable> failure) {
+            this.worker = worker;
+            this.days = days;
+            this.dayPhaser = dayPhaser;
+            this.failure = failure;
+        }
+
+        /**
+         * Waits for every other worker to finish the current phase.
+         * @return Whether to carry on, false if another worker failed.
+         */
+        private boolean awaitPhase() {
+            return dayPhaser.arriveAndAwaitAdvance() >= 0;
+        }
+
+        @Override
+        public void run() {
+            int playerFrom = shardStart(worker, players.length);
+            int playerTo = shardStart(worker + 1, players.length);
+            int petFrom = shardStart(worker, pets.length);
+            int petTo = shardStart(worker + 1, pets.length);
+
+            try {
+                for (int day = 0; day < days; day++) {
+                    payAllowance(playerFrom, playerTo);
+                    if (!awaitPhase()) {
+                        return;
+                    }
+                    startPetDays(petFrom, petTo);
+                    if (!awaitPhase()) {
+                        return;
+                    }
+                    resolveSickness(playerFrom, playerTo);
+                    if (!awaitPhase()) {
+                        return;
+                    }
+                    finishPetDays(petFrom, petTo);
+                    if (!awaitPhase()) {
+                        return;
+                    }
+                    calculateScores(playerFrom, playerTo);
+                    if (!awaitPhase()) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                dayPhaser.forceTermination();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ * Tests that running days in parallel gives the same result as running them in sequence.
+ *
+ */
+public class ParallelDayExecutorTest {
+
+	private int numPlayers = 5;
+	private int petsPerPlayer = 40;
+	private int days = 30;
+
+	/**
+	 * Creates a game with a seeded random number generator and players that own lots of pets.
+	 */
+	private GameEnvironment createGame(long seed) {
+		GameEnvironment game = new GameEnvironment();
+		game.initialiseNumGenerator(new String[] {Long.toString(seed)});
+		Player[] players = new Player[numPlayers];
+		for (int i = 0; i < numPlayers; i++) {
+			players[i] = new Player();
+			players[i].setName("Player " + i);
+			ArrayList<Pet> petList = players[i].getPetList();
+			for (int j = 0; j < petsPerPlayer; j++) {
+				Pet pet;
+				switch (j % 3) {
+				case 0:
+					pet = new Cat();
+					break;
+				case 1:
+					pet = new Horse();
+					break;
+				default:
+					pet = new PolarBear();
+					break;
+				}
+				pet.setName("Pet " + i + "-" + j);
+				petList.add(pet);
+			}
+		}
+		game.addPlayers(players);
+		return game;
+	}
+
+	private void assertSameGame(Player[] expected, Player[] actual) {
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getScore(), actual[i].getScore(), 0);
+			assertEquals(expected[i].getBalance(), actual[i].getBalance());
+			for (int j = 0; j < expected[i].getPetList().size(); j++) {
+				Pet expectedPet = expected[i].getPetList().get(j);
+				Pet actualPet = actual[i].getPetList().get(j);
+				assertEquals(expectedPet.getHealth(), actualPet.getHealth());
+				assertEquals(expectedPet.getHappiness(), actualPet.getHappiness());
+				assertEquals(expectedPet.getMischievousness(), actualPet.getMischievousness());
+				assertEquals(expectedPet.getIsSick(), actualPet.getIsSick());
+				assertEquals(expectedPet.getIsDead(), actualPet.getIsDead());
+				assertEquals(expectedPet.getIsRevivable(), actualPet.getIsRevivable());
+			}
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSequential() {
+		GameEnvironment sequential = createGame(99);
+		GameEnvironment parallel = createGame(99);
+
+		sequential.runAutomatedDays(days, new AutomatedPetEventHandler(), 1);
+		parallel.runAutomatedDays(days, new AutomatedPetEventHandler(), 4);
+
+		assertSameGame(sequential.rankPlayers(), parallel.rankPlayers());
+	}
+
+	@Test
+	public void testThreadCountDoesNotMatter() {
+		GameEnvironment twoThreads = createGame(7);
+		GameEnvironment sevenThreads = createGame(7);
+
+		twoThreads.runAutomatedDays(days, new AutomatedPetEventHandler(true, false, true), 2);
+		sevenThreads.runAutomatedDays(days, new AutomatedPetEventHandler(true, false, true), 7);
+
+		assertSameGame(twoThreads.rankPlayers(), sevenThreads.rankPlayers());
+	}
+
+	@Test
+	public void testBadThreadCount() {
+		try {
+			new ParallelDayExecutor(new Player[0], null, new AutomatedPetEventHandler(), 10, 0);
+			fail("Accepts 0 threads.");
+		} catch (IllegalArgumentException e) {}
+	}
+
+}
@@ -0,0 +1,273 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list that never changes; "changing" it makes a new list.
+ *
+ * The elements are kept in a tree where each node has up to 32 children.
+ * A change only copies the nodes on the path from the root to the element,
+ * so it costs O(log32 n) and the new list shares every other node with the
+ * old one. This makes it cheap to keep lots of slightly different versions
+ * of a large list.
+ *
+ * @param <T> Type of the elements.
+ */
+public final class PersistentVector<T> implements Iterable<T> {
+
+    /**
+     * Number of bits of the index used at each level of the tree.
+     */
+    private static final int BITS = 5;
+    /**
+     * Used to get the bits of the index for one level.
+     */
+    private static final int MASK = (1 << BITS) - 1;
+    /**
+     * A node with no children.
+     */
+    private static final Object[] EMPTY_NODE = new Object[0];
+    /**
+     * The empty list.
+     */
+    private static final PersistentVector<Object> EMPTY =
+            new PersistentVector<Object>(0, 0, EMPTY_NODE);
+
+    /**
+     * Number of elements.
+     */
+    private final int size;
+    /**
+     * How far the index is shifted to get the child of the root.
+     * Zero when the root holds the elements themselves.
+     */
+    private final int shift;
+    /**
+     * Root of the tree.
+     */
+    private final Object[] root;
+
+    /**
+     * Creates a list from its parts.
+     * @param size Number of elements.
+     * @param shift Shift for the root.
+     * @param root Root of the tree.
+     */
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Gets the empty list.
+     * @param <T> Type of the elements.
+     * @return The empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * Makes a list holding the elements given, in order.
+     * @param elements Elements of the list.
+     * @param <T> Type of the elements.
+     * @return The list.
+     */
+    public static <T> PersistentVector<T> of(Iterable<? extends T> elements) {
+        PersistentVector<T> vector = empty();
+        for (T element : elements) {
+            vector = vector.append(element);
+        }
+        return vector;
+    }
+
+    /**
+     * Gets the number of elements.
+     * @return Size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether the list has no elements.
+     * @return Whether the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets an element.
+     * @param index Index of the element.
+     * @return The element.
+     * @throws IndexOutOfBoundsException if there is no such element
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (T) node[index & MASK];
+    }
+
+    /**
+     * Makes a new list with one element replaced.
+     * @param index Index of the element.
+     * @param value The new element.
+     * @return The new list.
+     * @throws IndexOutOfBoundsException if there is no such element
+     */
+    public PersistentVector<T> set(int index, T value) {
+        checkIndex(index);
+        return new PersistentVector<T>(size, shift, set(shift, root, index, value));
+    }
+
+    /**
+     * Makes a new list with an element added to the end.
+     * @param value The new element.
+     * @return The new list.
+     */
+    public PersistentVector<T> append(T value) {
+        Object[] newRoot = root;
+        int newShift = shift;
+        if (size == 1 << (shift + BITS)) { //the tree is full, so add a level
+            newRoot = new Object[] {root};
+            newShift += BITS;
+        }
+        return new PersistentVector<T>(size + 1, newShift, append(newShift, newRoot, size, value));
+    }
+
+    /**
+     * Makes a new list without the last element.
+     * @return The new list.
+     * @throws NoSuchElementException if the list is empty
+     */
+    public PersistentVector<T> removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException("List is empty");
+        }
+        if (size == 1) {
+            return empty();
+        }
+        Object[] newRoot = removeLast(shift, root, size - 1);
+        int newShift = shift;
+        if (newShift > 0 && newRoot.length == 1) { //the root has one child, so drop a level
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<T>(size - 1, newShift, newRoot);
+    }
+
+    /**
+     * Makes a new list without one element, by moving the last element into
+     * its place. The order of the list is not kept, but this only costs
+     * O(log32 n).
+     * @param index Index of the element to remove.
+     * @return The new list.
+     * @throws IndexOutOfBoundsException if there is no such element
+     */
+    public PersistentVector<T> swapRemove(int index) {
+        checkIndex(index);
+        PersistentVector<T> shorter = removeLast();
+        if (index == size - 1) {
+            return shorter;
+        }
+        return shorter.set(index, get(size - 1));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * Checks an index is inside the list.
+     * @param index Index to check.
+     * @throws IndexOutOfBoundsException if it isn't
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Copies the path to an element, replacing the element.
+     * @param level Shift for this node.
+     * @param node The node.
+     * @param index Index of the element.
+     * @param value The new element.
+     * @return Copy of the node.
+     */
+    private static Object[] set(int level, Object[] node, int index, Object value) {
+        Object[] copy = node.clone();
+        int child = (index >>> level) & MASK;
+        if (level == 0) {
+            copy[child] = value;
+        } else {
+            copy[child] = set(level - BITS, (Object[]) node[child], index, value);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the path to the end of the list, adding an element.
+     * @param level Shift for this node.
+     * @param node The node.
+     * @param index Index of the new element.
+     * @param value The new element.
+     * @return Copy of the node.
+     */
+    private static Object[] append(int level, Object[] node, int index, Object value) {
+        int child = (index >>> level) & MASK;
+        Object[] copy = Arrays.copyOf(node, Math.max(node.length, child + 1));
+        if (level == 0) {
+            copy[child] = value;
+        } else {
+            Object[] childNode = child < node.length ? (Object[]) node[child] : EMPTY_NODE;
+            copy[child] = append(level - BITS, childNode, index, value);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the path to the last element, removing it.
+     * @param level Shift for this node.
+     * @param node The node.
+     * @param index Index of the last element.
+     * @return Copy of the node, or null if the node is left empty.
+     */
+    private static Object[] removeLast(int level, Object[] node, int index) {
+        int child = (index >>> level) & MASK;
+        if (level == 0) {
+            return child == 0 ? null : Arrays.copyOf(node, child);
+        }
+        Object[] newChild = removeLast(level - BITS, (Object[]) node[child], index);
+        if (newChild == null) {
+            return child == 0 ? null : Arrays.copyOf(node, child);
+        }
+        Object[] copy = node.clone();
+        copy[child] = newChild;
+        return copy;
+    }
+}
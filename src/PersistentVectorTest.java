@@ -0,0 +1,86 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the PersistentVector class.
+ *
+ */
+public class PersistentVectorTest {
+
+	@Test
+	public void testAppendAndGet() {
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		for (int i = 0; i < 5000; i++) {
+			vector = vector.append(i);
+		}
+		assertEquals(5000, vector.size());
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(i, (int) vector.get(i));
+		}
+	}
+
+	@Test
+	public void testOldVersionsDoNotChange() {
+		PersistentVector<Integer> before = PersistentVector.of(Collections.nCopies(100, 1));
+		PersistentVector<Integer> after = before.set(50, 2).append(3).swapRemove(0);
+
+		assertEquals(100, before.size());
+		for (int value : before) {
+			assertEquals(1, value);
+		}
+		assertEquals(100, after.size());
+		assertEquals(3, (int) after.get(0));
+		assertEquals(2, (int) after.get(50));
+	}
+
+	@Test
+	public void testMatchesArrayList() {
+		Random random = new Random(1);
+		ArrayList<Integer> list = new ArrayList<Integer>();
+		PersistentVector<Integer> vector = PersistentVector.empty();
+		for (int step = 0; step < 20000; step++) {
+			int choice = random.nextInt(10);
+			if (choice < 5 || list.isEmpty()) {
+				list.add(step);
+				vector = vector.append(step);
+			} else if (choice < 7) {
+				int index = random.nextInt(list.size());
+				list.set(index, -step);
+				vector = vector.set(index, -step);
+			} else if (choice < 8) {
+				list.remove(list.size() - 1);
+				vector = vector.removeLast();
+			} else {
+				int index = random.nextInt(list.size());
+				list.set(index, list.get(list.size() - 1));
+				list.remove(list.size() - 1);
+				vector = vector.swapRemove(index);
+			}
+			assertEquals(list.size(), vector.size());
+		}
+		int i = 0;
+		for (int value : vector) {
+			assertEquals((int) list.get(i++), value);
+		}
+	}
+
+	@Test
+	public void testBadIndex() {
+		PersistentVector<String> vector = PersistentVector.<String>empty().append("a");
+		try {
+			vector.get(1);
+			fail("Got an element past the end.");
+		} catch (IndexOutOfBoundsException e) {}
+		try {
+			vector.removeLast().removeLast();
+			fail("Removed from an empty list.");
+		} catch (NoSuchElementException e) {}
+	}
+
+}
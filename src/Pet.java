@@ -1,9 +1,12 @@
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * A class for pets.
@@ -13,6 +16,18 @@ import java.io.Reader;
  */
 public class Pet {
 
+    /**
+     * Number of grams in a kilogram. Weights are kept in whole grams so that
+     * they add up the same way on every machine.
+     */
+    public static final int GRAMS_PER_KG = 1000;
+
+    /**
+     * Lines of each data file read so far, mapped from the file name.
+     */
+    private static HashMap<String, ArrayList<String>> fileCache =
+            new HashMap<String, ArrayList<String>>();
+
     /**
      * Name of the pet.
      */
@@ -64,7 +79,7 @@ public class Pet {
     /**
      * The pet's weight.
      */
-    private double weight; // in kg
+    private int weight; // in grams
 
     /**
      * Whether or not the pet is sick.
@@ -88,7 +103,7 @@ public class Pet {
      * The pet will be initialised to this weight,
      * and return to this weight when it goes toilet.
      */
-    private double defaultWeight;
+    private int defaultWeight; // in grams
     /**
      * The pet's bladder size.
      */
@@ -103,6 +118,10 @@ public class Pet {
      * The harsher they are, the quicker toys they play with break.
      */
     private int harshness;
+    /**
+     * Listeners told when the pet's stats or flags change, or null if there are none.
+     */
+    private ArrayList<PetListener> listeners;
 
     /**
      * Constructs pet and sets initial values.
@@ -120,8 +139,8 @@ public class Pet {
             isRevivable = true;
             isMisbehaving = false;
             isDead = false;
-            weight = Double.parseDouble(
-                    getDatumFromFile("petData.csv", "defaultWeight", species));
+            weight = (int) Math.round(Double.parseDouble(
+                    getDatumFromFile("petData.csv", "defaultWeight", species)) * GRAMS_PER_KG);
             bladderSize = Integer.parseInt(
                     getDatumFromFile("petData.csv", "bladderSize", species));
             fatigueIncrease = Integer.parseInt(
@@ -133,6 +152,35 @@ public class Pet {
             defaultWeight = weight;
     }
 
+    /**
+     * Constructs a pet with the same state as another pet.
+     * Strings are shared rather than copied and no data files are read,
+     * so this is cheap.
+     * @param other The pet to copy.
+     */
+    public Pet(Pet other) {
+            name = other.name;
+            gender = other.gender;
+            species = other.species;
+            favouriteFood = other.favouriteFood;
+            favouriteToy = other.favouriteToy;
+            health = other.health;
+            mischievousness = other.mischievousness;
+            happiness = other.happiness;
+            hunger = other.hunger;
+            percentBladderFull = other.percentBladderFull;
+            fatigue = other.fatigue;
+            weight = other.weight;
+            isSick = other.isSick;
+            isRevivable = other.isRevivable;
+            isMisbehaving = other.isMisbehaving;
+            isDead = other.isDead;
+            defaultWeight = other.defaultWeight;
+            bladderSize = other.bladderSize;
+            fatigueIncrease = other.fatigueIncrease;
+            harshness = other.harshness;
+    }
+
     // Getters
     /**
      * Gets the name of the pet.
@@ -213,18 +261,53 @@ public class Pet {
     }
     /**
      * Gets the weight of the pet.
-     * @return Pet weight.
+     * @return Pet weight, in kg.
      */
     public double getWeight() {
+        return weight / (double) GRAMS_PER_KG;
+    }
+    /**
+     * Gets the weight of the pet in grams.
+     * @return Pet weight, in grams.
+     */
+    public int getWeightGrams() {
         return weight;
     }
     /**
      * Gets the default weight of the pet.
-     * @return Pet's default weight.
+     * @return Pet's default weight, in kg.
      */
     public double getDefaultWeight() {
+        return defaultWeight / (double) GRAMS_PER_KG;
+    }
+    /**
+     * Gets the default weight of the pet in grams.
+     * @return Pet's default weight, in grams.
+     */
+    public int getDefaultWeightGrams() {
         return defaultWeight;
     }
+    /**
+     * Gets the pet's bladder size.
+     * @return Pet's bladder size.
+     */
+    public int getBladderSize() {
+        return bladderSize;
+    }
+    /**
+     * Gets how tired the pet gets when it plays.
+     * @return Pet's fatigue increase.
+     */
+    public int getFatigueIncrease() {
+        return fatigueIncrease;
+    }
+    /**
+     * Gets how much durability a toy loses when the pet plays with it.
+     * @return Pet's harshness.
+     */
+    public int getHarshness() {
+        return harshness;
+    }
     /**
      * Gets whether the pet is sick.
      * @return Whether the pet is sick.
@@ -254,6 +337,19 @@ public class Pet {
         return isDead;
     }
 
+    /**
+     * Gets how well the pet is overall, out of 100, from its happiness,
+     * health, mischievousness and hunger. The lower it is, the more likely
+     * the pet is to misbehave.
+     * @return Pet's wellness.
+     */
+    public int getWellness() {
+        return (happiness * 3
+                + health
+                + (100 - mischievousness) * 5
+                + (100 - hunger)) / 10;
+    }
+
     // Setters
 
     /**
@@ -304,6 +400,7 @@ public class Pet {
      */
     public void setIsSick(Boolean isSick) {
         this.isSick = isSick;
+        notifyListeners();
     }
 
     /**
@@ -312,6 +409,7 @@ public class Pet {
      */
     public void setIsRevivable(Boolean isRevivable) {
         this.isRevivable = isRevivable;
+        notifyListeners();
     }
 
     /**
@@ -320,6 +418,7 @@ public class Pet {
      */
     public void setIsMisbehaving(Boolean isMisbehaving) {
         this.isMisbehaving = isMisbehaving;
+        notifyListeners();
     }
 
     // Increasers - like setters, but increase value rather than setting it
@@ -330,6 +429,7 @@ public class Pet {
      */
     public void increaseHealth(int increase) {
         health = increaseValue(increase, health);
+        notifyListeners();
     }
 
     /**
@@ -338,6 +438,7 @@ public class Pet {
      */
     public void increaseMischievousness(int increase) {
         mischievousness = increaseValue(increase, mischievousness);
+        notifyListeners();
     }
 
     /**
@@ -346,6 +447,7 @@ public class Pet {
      */
     public void increaseHappiness(int increase) {
         happiness = increaseValue(increase, happiness);
+        notifyListeners();
     }
 
     /**
@@ -354,6 +456,7 @@ public class Pet {
      */
     public void increaseHunger(int increase) {
         hunger = increaseValue(increase, hunger);
+        notifyListeners();
     }
 
     /**
@@ -362,6 +465,7 @@ public class Pet {
      */
     public void increasePercentBladderFull(int increase) {
         percentBladderFull = increaseValue(increase, percentBladderFull);
+        notifyListeners();
     }
 
     /**
@@ -370,19 +474,30 @@ public class Pet {
      */
     public void increaseFatigue(int increase) {
         fatigue = increaseValue(increase, fatigue);
+        notifyListeners();
     }
 
     /**
      * Increase the pet's weight.
-     * @param increase How much the pet's weight increases.
+     * @param increase How much the pet's weight increases, in kg.
+     * It is rounded to the nearest gram.
      */
     public void increaseWeight(double increase) {
-        double newWeight = weight + increase;
-        if (newWeight < 1e-6) {
+        increaseWeightGrams((int) Math.round(increase * GRAMS_PER_KG));
+    }
+
+    /**
+     * Increase the pet's weight.
+     * @param increase How much the pet's weight increases, in grams.
+     */
+    public void increaseWeightGrams(int increase) {
+        int newWeight = weight + increase;
+        if (newWeight <= 0) {
             throw new IllegalArgumentException("negative or 0 weight");
         } else {
             weight = newWeight;
         }
+        notifyListeners();
     }
 
     //doing functions
@@ -420,7 +535,7 @@ public class Pet {
      */
     public void goToilet() {
         increasePercentBladderFull(-100);
-        increaseWeight(defaultWeight - getWeight());
+        increaseWeightGrams(defaultWeight - weight);
         }
 
     /**
@@ -436,7 +551,7 @@ public class Pet {
         int portionSize = food.getPortionSize();
         int healthIncrease = food.getHealthIncrease(species);
         increaseHunger(-portionSize);
-        increaseWeight(portionSize);
+        increaseWeightGrams(portionSize * GRAMS_PER_KG);
         increasePercentBladderFull(portionSize / bladderSize + 1);
         increaseHappiness(healthIncrease * portionSize);
         increaseHealth(healthIncrease);
@@ -457,6 +572,7 @@ public class Pet {
         isMisbehaving = false;
         increaseHappiness(-5);
         mischievousness = 0;
+        notifyListeners();
     }
 
     /**
@@ -465,6 +581,7 @@ public class Pet {
     public void beSick() {
         increaseHappiness(-10);
         isSick = true;
+        notifyListeners();
     }
 
     /**
@@ -484,6 +601,7 @@ public class Pet {
      */
     public void revive() {
         isRevivable = false;
+        notifyListeners();
     }
 
     /**
@@ -491,10 +609,47 @@ public class Pet {
      */
     public void die() {
         isDead = true;
+        notifyListeners();
     }
 
 
 
+    /**
+     * Adds a listener to be told whenever the pet's stats or flags change.
+     * Copies of the pet don't get the listener.
+     * @param listener The listener.
+     */
+    public void addListener(PetListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<PetListener>(1);
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener The listener.
+     */
+    public void removeListener(PetListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Tells the listeners that the pet has changed.
+     */
+    private void notifyListeners() {
+        if (listeners != null) {
+            //backwards, so a listener can remove itself
+            for (int i = listeners.size() - 1; i >= 0; i--) {
+                if (i < listeners.size()) {
+                    listeners.get(i).petChanged(this);
+                }
+            }
+        }
+    }
+
     /**
      * @return String representation of the pet
      */
@@ -517,26 +672,9 @@ public class Pet {
         String typeOfItem = null;
 
         try {
-            Reader inputFile;
-            try { //Runs if running class directly
-                String topDir = System.getProperty("user.dir");
-                if (topDir.endsWith("bin")) { //from cmdln
-                    fileName = "../src/" + fileName;
-                } else { //from eclipse
-                    fileName = "src/" + fileName;
-                }
-                inputFile = new FileReader(fileName);
-            } catch (FileNotFoundException e) { //if running from jar file.
-                fileName = "/" + fileName;
-                InputStream stream = this.getClass().getResourceAsStream(fileName);
-                inputFile = new InputStreamReader(stream);
-            }
-            BufferedReader bufferReader = new BufferedReader(inputFile);
-
-            String line;
             int i = 0;
 
-            while ((line = bufferReader.readLine()) != null) {
+            for (String line : getLinesFromFile(fileName)) {
                 switch (i) {
                     case 0: break; //description line
                     case 1:
@@ -561,10 +699,6 @@ public class Pet {
                 i++;
             }
 
-            //when done close both reader and file
-            bufferReader.close();
-            inputFile.close();
-
         } catch (Exception e) {
             System.err.println("Error while reading file line by line: " + e.getMessage());
         }
@@ -576,6 +710,51 @@ public class Pet {
         }
     }
 
+    /**
+     * Gets every line of a data file. Each file is only read once; after that
+     * the lines are taken from a cache, so creating lots of pets is cheap.
+     * @param fileName File to read from
+     * @return Lines of the file
+     * @throws IOException if the file can't be read
+     */
+    private static synchronized ArrayList<String> getLinesFromFile(String fileName)
+            throws IOException {
+        ArrayList<String> lines = fileCache.get(fileName);
+        if (lines != null) {
+            return lines;
+        }
+
+        Reader inputFile;
+        String path;
+        try { //Runs if running class directly
+            String topDir = System.getProperty("user.dir");
+            if (topDir.endsWith("bin")) { //from cmdln
+                path = "../src/" + fileName;
+            } else { //from eclipse
+                path = "src/" + fileName;
+            }
+            inputFile = new FileReader(path);
+        } catch (FileNotFoundException e) { //if running from jar file.
+            path = "/" + fileName;
+            InputStream stream = Pet.class.getResourceAsStream(path);
+            inputFile = new InputStreamReader(stream);
+        }
+        BufferedReader bufferReader = new BufferedReader(inputFile);
+
+        lines = new ArrayList<String>();
+        String line;
+        while ((line = bufferReader.readLine()) != null) {
+            lines.add(line);
+        }
+
+        //when done close both reader and file
+        bufferReader.close();
+        inputFile.close();
+
+        fileCache.put(fileName, lines);
+        return lines;
+    }
+
     /**
      * This is a private function called by the increasers to make sure they stay within 0-100.
      * @param increase How much to increase the value by.
@@ -0,0 +1,222 @@
+/**
+ * The rules for what happens to a pet at the start of each day.
+ *
+ * The day is split into steps so that the parallel day executor can run the
+ * steps that only touch one pet on many threads, and the step that spends
+ * the player's money (treatment) one player at a time. Running the steps in
+ * order with newDay gives exactly the same result.
+ *
+ * The steps that take an event bus publish what the handler decided once it
+ * has been done to the pet and player, so the copies in each event show the
+ * pet disciplined, sick, treated and paid for, or dead.
+ *
+ */
+public final class PetDayActions {
+
+    /**
+     * How much it costs to treat a sick pet, in dollars.
+     */
+    public static final int TREATMENT_COST = 50;
+
+    /**
+     * Not used; all methods are static.
+     */
+    private PetDayActions() {
+    }
+
+    /**
+     * Runs all of the start of day steps for one pet.
+     * @param player The player who owns the pet.
+     * @param pet The pet starting a new day.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides what happens on random events.
+     */
+    public static void newDay(Player player, Pet pet, RandomSource randomNumGen,
+            PetEventHandler handler) {
+        newDay(player, pet, randomNumGen, handler, null);
+    }
+
+    /**
+     * Runs all of the start of day steps for one pet and publishes the
+     * random events.
+     * @param player The player who owns the pet.
+     * @param pet The pet starting a new day.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides what happens on random events.
+     * @param eventBus Where random events are published, or null for nowhere.
+     */
+    public static void newDay(Player player, Pet pet, RandomSource randomNumGen,
+            PetEventHandler handler, EventBus eventBus) {
+        applyDailyDecay(pet);
+        checkMisbehaving(player, pet, randomNumGen, handler, eventBus);
+        int health = pet.getHealth();
+        if (rollSickness(pet, randomNumGen)) {
+            resolveSickness(player, pet, handler, eventBus);
+        }
+        checkDeath(player, pet, health, randomNumGen, handler, eventBus);
+    }
+
+    /**
+     * Increases the pet's fatigue, decreases its happiness, increases its
+     * hunger, and increases its mischievousness. If the pet is very tired,
+     * it decreases its health.
+     * @param pet The pet starting a new day.
+     */
+    public static void applyDailyDecay(Pet pet) {
+        pet.increaseFatigue(30);
+        pet.increaseHappiness(-10);
+        pet.increaseHunger(30);
+        pet.increaseMischievousness(5);
+
+        // If fatigue is especially high, reduce health.
+        int fatigue = pet.getFatigue();
+        if (fatigue > 80) {
+            pet.increaseHealth(-10);
+        } else if (fatigue > 90) {
+            pet.increaseHealth(-25);
+        } else if (fatigue == 100) {
+            pet.increaseHealth(-50);
+        }
+    }
+
+    /**
+     * Checks if the pet misbehaves, and if so lets the handler decide whether
+     * to discipline it.
+     * @param player The player who owns the pet.
+     * @param pet The pet.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides whether to discipline the pet.
+     */
+    public static void checkMisbehaving(Player player, Pet pet, RandomSource randomNumGen,
+            PetEventHandler handler) {
+        checkMisbehaving(player, pet, randomNumGen, handler, null);
+    }
+
+    /**
+     * Checks if the pet misbehaves, and if so lets the handler decide whether
+     * to discipline it, and publishes what happened.
+     * @param player The player who owns the pet.
+     * @param pet The pet.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides whether to discipline the pet.
+     * @param eventBus Where DISCIPLINED or MISBEHAVED is published, or null
+     * for nowhere.
+     */
+    public static void checkMisbehaving(Player player, Pet pet, RandomSource randomNumGen,
+            PetEventHandler handler, EventBus eventBus) {
+        // create random number between 0 and 99
+        int randomNumber = randomNumGen.nextInt(100);
+        int wellness = pet.getWellness();
+        if (wellness < 25 && randomNumber < 75
+                || wellness < 50 && randomNumber < 50
+                || wellness < 75 && randomNumber < 25) {
+            if (handler.disciplinePet(player, pet)) {
+                pet.discipline();
+                publish(eventBus, PetEvent.Type.DISCIPLINED, player, pet);
+            } else {
+                pet.misbehave();
+                publish(eventBus, PetEvent.Type.MISBEHAVED, player, pet);
+            }
+        }
+    }
+
+    /**
+     * Checks if the pet is sick today. Doesn't change the pet.
+     * @param pet The pet.
+     * @param randomNumGen The pet's random number stream.
+     * @return Whether the pet is sick.
+     */
+    public static boolean rollSickness(Pet pet, RandomSource randomNumGen) {
+        // create random number between 0 and 99
+        int randomNumber = randomNumGen.nextInt(100);
+        int health = pet.getHealth();
+        return pet.getIsSick()
+                || health < 5
+                || health < 25 && randomNumber < 75
+                || health < 50 && randomNumber < 50
+                || health < 75 && randomNumber < 25;
+    }
+
+    /**
+     * Lets the handler decide whether to treat a sick pet, and treats it or
+     * makes it sick.
+     * @param player The player who owns the pet, and pays for treatment.
+     * @param pet The sick pet.
+     * @param handler Decides whether to treat the pet.
+     */
+    public static void resolveSickness(Player player, Pet pet, PetEventHandler handler) {
+        resolveSickness(player, pet, handler, null);
+    }
+
+    /**
+     * Lets the handler decide whether to treat a sick pet, treats it or
+     * makes it sick, and publishes what happened.
+     * @param player The player who owns the pet, and pays for treatment.
+     * @param pet The sick pet.
+     * @param handler Decides whether to treat the pet.
+     * @param eventBus Where TREATED or SICK is published, or null for nowhere.
+     */
+    public static void resolveSickness(Player player, Pet pet, PetEventHandler handler,
+            EventBus eventBus) {
+        if (handler.treatPet(player, pet)) {
+            pet.treat();
+            player.spend(TREATMENT_COST);
+            publish(eventBus, PetEvent.Type.TREATED, player, pet);
+        } else {
+            pet.beSick();
+            publish(eventBus, PetEvent.Type.SICK, player, pet);
+        }
+    }
+
+    /**
+     * Checks if the pet dies, and if so lets the handler decide whether to
+     * revive it.
+     * @param player The player who owns the pet.
+     * @param pet The pet.
+     * @param health The pet's health before it was treated today.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides whether to revive the pet.
+     */
+    public static void checkDeath(Player player, Pet pet, int health,
+            RandomSource randomNumGen, PetEventHandler handler) {
+        checkDeath(player, pet, health, randomNumGen, handler, null);
+    }
+
+    /**
+     * Checks if the pet dies, and if so lets the handler decide whether to
+     * revive it, and publishes what happened.
+     * @param player The player who owns the pet.
+     * @param pet The pet.
+     * @param health The pet's health before it was treated today.
+     * @param randomNumGen The pet's random number stream.
+     * @param handler Decides whether to revive the pet.
+     * @param eventBus Where REVIVED or DIED is published, or null for nowhere.
+     */
+    public static void checkDeath(Player player, Pet pet, int health,
+            RandomSource randomNumGen, PetEventHandler handler, EventBus eventBus) {
+        // create random number between 0 and 99
+        int randomNumber = randomNumGen.nextInt(100);
+        if (pet.getIsSick() && pet.getHappiness() < 50 || health < 5 || randomNumber < 2) {
+            if (handler.revivePet(player, pet)) {
+                pet.revive();
+                publish(eventBus, PetEvent.Type.REVIVED, player, pet);
+            } else {
+                pet.die();
+                publish(eventBus, PetEvent.Type.DIED, player, pet);
+            }
+        }
+    }
+
+    /**
+     * Publishes a random event, if there is somewhere to publish it.
+     * @param eventBus Where to publish it, or null for nowhere.
+     * @param type What happened.
+     * @param player The pet's owner.
+     * @param pet The pet.
+     */
+    private static void publish(EventBus eventBus, PetEvent.Type type, Player player, Pet pet) {
+        if (eventBus != null) {
+            eventBus.publish(type, player, pet, null);
+        }
+    }
+}
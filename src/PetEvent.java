@@ -0,0 +1,159 @@
+/**
+ * Something that happened to a player or one of their pets.
+ *
+ * An event holds copies of what the player, pet and item were like when it
+ * happened, not the objects themselves, so listeners on other threads see
+ * the state at the time of the event and can read it without locking, even
+ * while the game carries on changing the pet.
+ *
+ */
+public class PetEvent {
+
+    /**
+     * The kinds of event.
+     */
+    public enum Type {
+        /** A pet ate some food. */
+        FED,
+        /** A pet played with a toy. */
+        PLAYED,
+        /** A pet broke a toy. */
+        TOY_BROKEN,
+        /** A pet slept. */
+        SLEPT,
+        /** A pet went to the toilet. */
+        WENT_TOILET,
+        /** A pet misbehaved and wasn't disciplined. */
+        MISBEHAVED,
+        /** A misbehaving pet was disciplined. */
+        DISCIPLINED,
+        /** A pet got sick and wasn't treated. */
+        SICK,
+        /** A sick pet was treated. */
+        TREATED,
+        /** A pet died. */
+        DIED,
+        /** A pet died and was revived. */
+        REVIVED,
+        /** A player bought an item. */
+        PURCHASED
+    }
+
+    /**
+     * What happened.
+     */
+    private final Type type;
+    /**
+     * Name of the player it happened to.
+     */
+    private final String playerName;
+    /**
+     * The player's balance when it happened.
+     */
+    private final int playerBalance;
+    /**
+     * The pet it happened to as it was then, or null if it didn't happen to
+     * a pet.
+     */
+    private final PetSnapshot pet;
+    /**
+     * Name of the item involved, or null if there wasn't one.
+     */
+    private final String itemName;
+    /**
+     * Price of the item involved, or 0 if there wasn't one.
+     */
+    private final int itemPrice;
+    /**
+     * When it happened, from System.currentTimeMillis.
+     */
+    private final long time;
+
+    /**
+     * Creates an event, copying what is needed from the player, pet and item
+     * as they are now.
+     * @param type What happened.
+     * @param player The player it happened to.
+     * @param pet The pet it happened to, or null.
+     * @param item The item involved, or null.
+     */
+    public PetEvent(Type type, Player player, Pet pet, Item item) {
+        this.type = type;
+        this.playerName = player.getName();
+        this.playerBalance = player.getBalance();
+        this.pet = pet == null ? null : new PetSnapshot(pet);
+        this.itemName = item == null ? null : item.getName();
+        this.itemPrice = item == null ? 0 : item.getPrice();
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets what happened.
+     * @return Event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the name of the player it happened to.
+     * @return The player's name.
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Gets the player's balance when it happened.
+     * @return The balance.
+     */
+    public int getPlayerBalance() {
+        return playerBalance;
+    }
+
+    /**
+     * Gets the pet it happened to, as it was then.
+     * @return Snapshot of the pet, or null.
+     */
+    public PetSnapshot getPet() {
+        return pet;
+    }
+
+    /**
+     * Gets the name of the item involved.
+     * @return The item's name, or null.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * Gets the price of the item involved.
+     * @return The item's price, or 0 if there wasn't an item.
+     */
+    public int getItemPrice() {
+        return itemPrice;
+    }
+
+    /**
+     * Gets when it happened.
+     * @return Time from System.currentTimeMillis.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return String representation of the event.
+     */
+    public String toString() {
+        String s = type + ": " + playerName;
+        if (pet != null) {
+            s += ", " + pet.getName();
+        }
+        if (itemName != null) {
+            s += ", " + itemName;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Decides what happens when a random event happens to a pet.
+ *
+ * The console version asks the player; the automated version answers
+ * straight away so that games can be run without anyone at the keyboard.
+ *
+ */
+public interface PetEventHandler {
+
+    /**
+     * Called when a pet misbehaves.
+     * @param player The player who owns the pet.
+     * @param pet The pet misbehaving.
+     * @return Whether the pet is disciplined.
+     */
+    boolean disciplinePet(Player player, Pet pet);
+
+    /**
+     * Called when a pet is sick.
+     * @param player The player who owns the pet.
+     * @param pet The pet that is sick.
+     * @return Whether the player pays $50 to treat the pet.
+     * Must be false if the player has less than $50.
+     */
+    boolean treatPet(Player player, Pet pet);
+
+    /**
+     * Called when a pet dies.
+     * @param player The player who owns the pet.
+     * @param pet The pet dying.
+     * @return Whether the pet is revived. Must be false if the pet isn't revivable.
+     */
+    boolean revivePet(Player player, Pet pet);
+}
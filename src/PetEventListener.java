@@ -0,0 +1,12 @@
+/**
+ * Receives events from an EventBus.
+ *
+ */
+public interface PetEventListener {
+
+    /**
+     * Called on the subscription's own thread for each event it receives.
+     * @param event The event.
+     */
+    void onEvent(PetEvent event);
+}
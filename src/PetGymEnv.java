@@ -0,0 +1,284 @@
+/**
+ * A game with one pet, stepped one day at a time, for training programs that
+ * learn to look after pets.
+ *
+ * Each step the player does one action with the pet, then a new day starts
+ * with the same rules as GameEnvironment.runAutomatedDays: the player is paid
+ * if the pet is alive, PetDayActions.newDay runs, and the pet is scored. The
+ * reward for the step is what Player.calculateScore adds to the player's score
+ * for the day. The game is over when the pet dies or the last day is reached.
+ *
+ * The player has an endless supply of one food and one toy. Random numbers
+ * come from a XoshiroRandomSource seeded with the seed given to reset, so the
+ * same seed and actions always give the same game.
+ *
+ * An observation is OBSERVATION_SIZE floats, laid out as:
+ * health, happiness, hunger, fatigue, mischievousness and percent bladder full
+ * divided by 100; weight difference from normal over normal weight; 1 or 0 for
+ * sick, misbehaving, revivable and dead; balance divided by 100; and the
+ * fraction of days gone.
+ *
+ */
+public class PetGymEnv {
+
+    /**
+     * Action: do nothing.
+     */
+    public static final int SKIP = 0;
+    /**
+     * Action: feed the pet.
+     */
+    public static final int FEED = 1;
+    /**
+     * Action: play with the pet.
+     */
+    public static final int PLAY = 2;
+    /**
+     * Action: put the pet to bed.
+     */
+    public static final int SLEEP = 3;
+    /**
+     * Action: let the pet go to the toilet.
+     */
+    public static final int TOILET = 4;
+    /**
+     * Number of different actions.
+     */
+    public static final int NUMBER_OF_ACTIONS = 5;
+    /**
+     * Number of floats in an observation.
+     */
+    public static final int OBSERVATION_SIZE = 13;
+
+    /**
+     * What happens after a step.
+     */
+    public static final class StepResult {
+
+        /**
+         * The observation after the step.
+         */
+        private final float[] observation;
+        /**
+         * The reward for the step.
+         */
+        private final double reward;
+        /**
+         * Whether the game is over.
+         */
+        private final boolean done;
+
+        /**
+         * Creates a step result.
+         * @param observation The observation after the step.
+         * @param reward The reward for the step.
+         * @param done Whether the game is over.
+         */
+        StepResult(float[] observation, double reward, boolean done) {
+            this.observation = observation;
+            this.reward = reward;
+            this.done = done;
+        }
+
+        /**
+         * Gets the observation after the step.
+         * @return The observation.
+         */
+        public float[] getObservation() {
+            return observation;
+        }
+
+        /**
+         * Gets the reward for the step.
+         * @return The reward.
+         */
+        public double getReward() {
+            return reward;
+        }
+
+        /**
+         * Gets whether the game is over.
+         * @return Whether the game is over.
+         */
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    /**
+     * The pet each game starts with.
+     */
+    private final Pet template;
+    /**
+     * The food the player feeds the pet.
+     */
+    private final Food food;
+    /**
+     * The toy the player plays with the pet with.
+     */
+    private final Toy toy;
+    /**
+     * Number of days in a game.
+     */
+    private final int maxDays;
+    /**
+     * How much the player gets each day for the pet.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Decides what happens on random events.
+     */
+    private final PetEventHandler handler;
+
+    /**
+     * The player.
+     */
+    private Player player;
+    /**
+     * The pet.
+     */
+    private Pet pet;
+    /**
+     * Where random numbers come from.
+     */
+    private RandomSource random;
+    /**
+     * Number of days gone.
+     */
+    private int day;
+
+    /**
+     * Creates an environment.
+     * @param template The pet each game starts with. It isn't changed.
+     * @param food The food the player feeds the pet.
+     * @param toy The toy the player plays with the pet with.
+     * @param maxDays Number of days in a game.
+     * @param dailyPetAllowance How much the player gets each day for the pet.
+     * @param handler Decides what happens on random events.
+     * @throws IllegalArgumentException if maxDays is less than one
+     */
+    public PetGymEnv(Pet template, Food food, Toy toy, int maxDays, int dailyPetAllowance,
+            PetEventHandler handler) {
+        if (maxDays < 1) {
+            throw new IllegalArgumentException("maxDays must be at least one");
+        }
+        this.template = new Pet(template);
+        this.food = food;
+        this.toy = toy;
+        this.maxDays = maxDays;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.handler = handler;
+    }
+
+    /**
+     * Starts a new game.
+     * @param seed Seed for the game's random numbers.
+     * @return The first observation.
+     */
+    public float[] reset(long seed) {
+        player = new Player();
+        pet = new Pet(template);
+        player.getPetList().add(pet);
+        random = new XoshiroRandomSource(seed);
+        day = 0;
+        float[] observation = new float[OBSERVATION_SIZE];
+        observe(observation, 0);
+        return observation;
+    }
+
+    /**
+     * Does an action and starts the next day.
+     * @param action One of SKIP, FEED, PLAY, SLEEP and TOILET.
+     * @return The observation, reward and whether the game is over.
+     * @throws IllegalArgumentException if the action isn't known
+     * @throws IllegalStateException if the game hasn't started or is over
+     */
+    public StepResult step(int action) {
+        if (pet == null || isDone()) {
+            throw new IllegalStateException("Call reset to start a new game");
+        }
+        switch (action) {
+        case SKIP:
+            break;
+        case FEED:
+            pet.feed(food);
+            break;
+        case PLAY:
+            try {
+                pet.play(new Toy(toy));
+            } catch (IllegalArgumentException e) {
+                if (!e.getMessage().equals("durability is zero or negative")) {
+                    throw e;
+                }
+                //the toy broke, and the player has another
+            }
+            break;
+        case SLEEP:
+            pet.sleep();
+            break;
+        case TOILET:
+            pet.goToilet();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+
+        if (!pet.getIsDead()) {
+            player.earn(dailyPetAllowance);
+            PetDayActions.newDay(player, pet, random, handler);
+        }
+        double scoreBefore = player.getScore();
+        player.calculateScore();
+        day++;
+
+        float[] observation = new float[OBSERVATION_SIZE];
+        observe(observation, 0);
+        return new StepResult(observation, player.getScore() - scoreBefore, isDone());
+    }
+
+    /**
+     * Gets whether the game is over.
+     * @return Whether the pet is dead or the last day has been reached.
+     */
+    public boolean isDone() {
+        return pet.getIsDead() || day >= maxDays;
+    }
+
+    /**
+     * Gets the pet.
+     * @return The pet.
+     */
+    public Pet getPet() {
+        return pet;
+    }
+
+    /**
+     * Gets the player.
+     * @return The player.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Writes the current observation into an array.
+     * @param out Where to write it.
+     * @param offset Index of the first float.
+     */
+    public void observe(float[] out, int offset) {
+        out[offset] = pet.getHealth() / 100f;
+        out[offset + 1] = pet.getHappiness() / 100f;
+        out[offset + 2] = pet.getHunger() / 100f;
+        out[offset + 3] = pet.getFatigue() / 100f;
+        out[offset + 4] = pet.getMischievousness() / 100f;
+        out[offset + 5] = pet.getPercentBladderFull() / 100f;
+        out[offset + 6] = (pet.getWeightGrams() - pet.getDefaultWeightGrams())
+                / (float) pet.getDefaultWeightGrams();
+        out[offset + 7] = pet.getIsSick() ? 1 : 0;
+        out[offset + 8] = pet.getIsMisbehaving() ? 1 : 0;
+        out[offset + 9] = pet.getIsRevivable() ? 1 : 0;
+        out[offset + 10] = pet.getIsDead() ? 1 : 0;
+        out[offset + 11] = player.getBalance() / 100f;
+        out[offset + 12] = day / (float) maxDays;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Told when a pet's stats or flags change, so things built from pets can be
+ * kept up to date without looking at every pet again.
+ *
+ */
+public interface PetListener {
+
+    /**
+     * Called after a pet's stats or flags change. A single action, like
+     * feeding, can call this more than once.
+     * @param pet The pet that changed.
+     */
+    void petChanged(Pet pet);
+}
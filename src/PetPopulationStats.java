@@ -0,0 +1,419 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Keeps totals about a group of pets, like a player's pets, up to date as
+ * the pets change, so questions about them don't need to go through every
+ * pet.
+ *
+ * For all the pets and for each species it keeps the number of pets, the
+ * total of each Stat, the number that are sick, dead and misbehaving, and a
+ * Fenwick tree over the values 0 to 100 of each Stat, so the number of pets
+ * with a stat in a range can be found in O(log 100) time. The object listens
+ * to its pets and only applies what changed, so each change costs the same
+ * however many pets there are.
+ *
+ * The totals are not thread safe. Pets tell them about changes on whichever
+ * thread changes them, so the totals and the pets in them must only be used
+ * by one thread at a time, such as the one running a player's actor. When
+ * pets are run on several threads, as by ParallelDayExecutor, don't attach
+ * the totals to pets on different threads.
+ *
+ */
+public class PetPopulationStats implements PetListener {
+
+    /**
+     * The stats that are totalled.
+     */
+    public enum Stat {
+        /**
+         * Pet.getHealth.
+         */
+        HEALTH,
+        /**
+         * Pet.getHappiness.
+         */
+        HAPPINESS,
+        /**
+         * Pet.getHunger.
+         */
+        HUNGER;
+
+        /**
+         * Gets this stat of a pet.
+         * @param pet The pet.
+         * @return The stat, from 0 to 100.
+         */
+        int of(Pet pet) {
+            switch (this) {
+            case HEALTH:
+                return pet.getHealth();
+            case HAPPINESS:
+                return pet.getHappiness();
+            default:
+                return pet.getHunger();
+            }
+        }
+    }
+
+    /**
+     * Every stat, kept so values() doesn't copy them on every change.
+     */
+    private static final Stat[] ALL_STATS = Stat.values();
+    /**
+     * Number of stats.
+     */
+    private static final int STATS = ALL_STATS.length;
+    /**
+     * Where the sick flag goes in a pet's values.
+     */
+    private static final int SICK = STATS;
+    /**
+     * Where the dead flag goes in a pet's values.
+     */
+    private static final int DEAD = STATS + 1;
+    /**
+     * Where the misbehaving flag goes in a pet's values.
+     */
+    private static final int MISBEHAVING = STATS + 2;
+
+    /**
+     * Totals for a group of pets.
+     */
+    private static final class Group {
+
+        /**
+         * Number of pets.
+         */
+        private int count;
+        /**
+         * Total of each stat.
+         */
+        private final long[] sums = new long[STATS];
+        /**
+         * Number of pets with each flag, by SICK, DEAD and MISBEHAVING less STATS.
+         */
+        private final int[] flags = new int[3];
+        /**
+         * Fenwick tree of how many pets have each value of each stat. Value v
+         * is at index v + 1.
+         */
+        private final int[][] trees = new int[STATS][102];
+
+        /**
+         * Adds or takes away a pet's values.
+         * @param values The pet's values.
+         * @param sign 1 to add, -1 to take away.
+         */
+        void apply(int[] values, int sign) {
+            count += sign;
+            for (int stat = 0; stat < STATS; stat++) {
+                sums[stat] += sign * values[stat];
+                for (int i = values[stat] + 1; i < trees[stat].length; i += i & -i) {
+                    trees[stat][i] += sign;
+                }
+            }
+            for (int flag = 0; flag < flags.length; flag++) {
+                flags[flag] += sign * values[STATS + flag];
+            }
+        }
+
+        /**
+         * Counts the pets with a stat at or below a value.
+         * @param stat The stat.
+         * @param value The value, from -1 to 100.
+         * @return Number of pets.
+         */
+        int countUpTo(int stat, int value) {
+            int total = 0;
+            for (int i = value + 1; i > 0; i -= i & -i) {
+                total += trees[stat][i];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Every pet.
+     */
+    private final Group all = new Group();
+    /**
+     * The pets of each species, mapped from the species name.
+     */
+    private final HashMap<String, Group> bySpecies = new HashMap<String, Group>();
+    /**
+     * Each pet's values when they were last added to the totals.
+     */
+    private final IdentityHashMap<Pet, int[]> values = new IdentityHashMap<Pet, int[]>();
+    /**
+     * Where a changed pet's values are worked out, so changes don't make
+     * new arrays.
+     */
+    private final int[] scratch = new int[STATS + 3];
+
+    /**
+     * Creates totals with no pets.
+     */
+    public PetPopulationStats() {
+    }
+
+    /**
+     * Creates totals for some pets, such as Player.getPetList.
+     * @param pets The pets.
+     */
+    public PetPopulationStats(Collection<Pet> pets) {
+        for (Pet pet : pets) {
+            add(pet);
+        }
+    }
+
+    /**
+     * Adds a pet, unless it is already included. From now on its changes are
+     * kept up with.
+     * @param pet The pet.
+     * @return Whether the pet was added.
+     */
+    public boolean add(Pet pet) {
+        if (values.containsKey(pet)) {
+            return false;
+        }
+        int[] petValues = valuesOf(pet);
+        values.put(pet, petValues);
+        all.apply(petValues, 1);
+        groupOf(pet.getSpecies()).apply(petValues, 1);
+        pet.addListener(this);
+        return true;
+    }
+
+    /**
+     * Takes a pet out, if it is included.
+     * @param pet The pet.
+     * @return Whether the pet was included.
+     */
+    public boolean remove(Pet pet) {
+        int[] petValues = values.remove(pet);
+        if (petValues == null) {
+            return false;
+        }
+        all.apply(petValues, -1);
+        groupOf(pet.getSpecies()).apply(petValues, -1);
+        pet.removeListener(this);
+        return true;
+    }
+
+    /**
+     * Applies a pet's changes to the totals.
+     * @param pet The pet that changed.
+     */
+    @Override
+    public void petChanged(Pet pet) {
+        int[] oldValues = values.get(pet);
+        if (oldValues == null) {
+            return;
+        }
+        fillValues(pet, scratch);
+        if (Arrays.equals(oldValues, scratch)) {
+            return;
+        }
+        Group group = groupOf(pet.getSpecies());
+        all.apply(oldValues, -1);
+        group.apply(oldValues, -1);
+        System.arraycopy(scratch, 0, oldValues, 0, scratch.length);
+        all.apply(oldValues, 1);
+        group.apply(oldValues, 1);
+    }
+
+    /**
+     * Gets the number of pets.
+     * @return Number of pets.
+     */
+    public int size() {
+        return all.count;
+    }
+
+    /**
+     * Gets the number of pets of a species.
+     * @param species The species.
+     * @return Number of pets.
+     */
+    public int size(String species) {
+        Group group = bySpecies.get(species);
+        return group == null ? 0 : group.count;
+    }
+
+    /**
+     * Gets the average of a stat over every pet.
+     * @param stat The stat.
+     * @return The average, or 0 if there are no pets.
+     */
+    public double getAverage(Stat stat) {
+        return average(all, stat);
+    }
+
+    /**
+     * Gets the average of a stat over the pets of a species.
+     * @param species The species.
+     * @param stat The stat.
+     * @return The average, or 0 if there are no pets of the species.
+     */
+    public double getAverage(String species, Stat stat) {
+        return average(bySpecies.get(species), stat);
+    }
+
+    /**
+     * Gets the number of sick pets.
+     * @return Number of sick pets.
+     */
+    public int getSickCount() {
+        return all.flags[SICK - STATS];
+    }
+
+    /**
+     * Gets the number of sick pets of a species.
+     * @param species The species.
+     * @return Number of sick pets.
+     */
+    public int getSickCount(String species) {
+        return flagCount(species, SICK);
+    }
+
+    /**
+     * Gets the number of dead pets.
+     * @return Number of dead pets.
+     */
+    public int getDeadCount() {
+        return all.flags[DEAD - STATS];
+    }
+
+    /**
+     * Gets the number of dead pets of a species.
+     * @param species The species.
+     * @return Number of dead pets.
+     */
+    public int getDeadCount(String species) {
+        return flagCount(species, DEAD);
+    }
+
+    /**
+     * Gets the number of misbehaving pets.
+     * @return Number of misbehaving pets.
+     */
+    public int getMisbehavingCount() {
+        return all.flags[MISBEHAVING - STATS];
+    }
+
+    /**
+     * Gets the number of misbehaving pets of a species.
+     * @param species The species.
+     * @return Number of misbehaving pets.
+     */
+    public int getMisbehavingCount(String species) {
+        return flagCount(species, MISBEHAVING);
+    }
+
+    /**
+     * Counts the pets with a stat in a range, such as health 40 to 60.
+     * @param stat The stat.
+     * @param low The lowest value, included.
+     * @param high The highest value, included.
+     * @return Number of pets.
+     */
+    public int countInRange(Stat stat, int low, int high) {
+        return countInRange(all, stat, low, high);
+    }
+
+    /**
+     * Counts the pets of a species with a stat in a range.
+     * @param species The species.
+     * @param stat The stat.
+     * @param low The lowest value, included.
+     * @param high The highest value, included.
+     * @return Number of pets.
+     */
+    public int countInRange(String species, Stat stat, int low, int high) {
+        return countInRange(bySpecies.get(species), stat, low, high);
+    }
+
+    /**
+     * Counts the pets in a group with a stat in a range.
+     * @param group The group, or null for none.
+     * @param stat The stat.
+     * @param low The lowest value, included.
+     * @param high The highest value, included.
+     * @return Number of pets.
+     */
+    private static int countInRange(Group group, Stat stat, int low, int high) {
+        low = Math.max(low, 0);
+        high = Math.min(high, 100);
+        if (group == null || low > high) {
+            return 0;
+        }
+        return group.countUpTo(stat.ordinal(), high) - group.countUpTo(stat.ordinal(), low - 1);
+    }
+
+    /**
+     * Gets the average of a stat in a group.
+     * @param group The group, or null for none.
+     * @param stat The stat.
+     * @return The average, or 0 if there are no pets.
+     */
+    private static double average(Group group, Stat stat) {
+        if (group == null || group.count == 0) {
+            return 0;
+        }
+        return group.sums[stat.ordinal()] / (double) group.count;
+    }
+
+    /**
+     * Gets the number of pets of a species with a flag.
+     * @param species The species.
+     * @param flag SICK, DEAD or MISBEHAVING.
+     * @return Number of pets.
+     */
+    private int flagCount(String species, int flag) {
+        Group group = bySpecies.get(species);
+        return group == null ? 0 : group.flags[flag - STATS];
+    }
+
+    /**
+     * Gets the group for a species, making it if needed.
+     * @param species The species.
+     * @return The group.
+     */
+    private Group groupOf(String species) {
+        Group group = bySpecies.get(species);
+        if (group == null) {
+            group = new Group();
+            bySpecies.put(species, group);
+        }
+        return group;
+    }
+
+    /**
+     * Gets the values of a pet that go into the totals.
+     * @param pet The pet.
+     * @return Each stat, then 1 or 0 for sick, dead and misbehaving.
+     */
+    private static int[] valuesOf(Pet pet) {
+        int[] petValues = new int[STATS + 3];
+        fillValues(pet, petValues);
+        return petValues;
+    }
+
+    /**
+     * Puts the values of a pet that go into the totals in an array.
+     * @param pet The pet.
+     * @param petValues Where the values go: each stat, then 1 or 0 for sick,
+     * dead and misbehaving.
+     */
+    private static void fillValues(Pet pet, int[] petValues) {
+        for (Stat stat : ALL_STATS) {
+            petValues[stat.ordinal()] = stat.of(pet);
+        }
+        petValues[SICK] = pet.getIsSick() ? 1 : 0;
+        petValues[DEAD] = pet.getIsDead() ? 1 : 0;
+        petValues[MISBEHAVING] = pet.getIsMisbehaving() ? 1 : 0;
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the PetPopulationStats class.
+ *
+ */
+public class PetPopulationStatsTest {
+
+	@Test
+	public void testMatchesScan() {
+		RandomSource random = RandomSource.fromSeed(6);
+		Pet[] templates = {new Cat(), new Dog(), new Goat()};
+		List<Pet> pets = new ArrayList<Pet>();
+		for (int i = 0; i < 300; i++) {
+			pets.add(new Pet(templates[i % templates.length]));
+		}
+		PetPopulationStats stats = new PetPopulationStats(pets);
+
+		for (int i = 0; i < 3000; i++) {
+			Pet pet = pets.get(random.nextInt(pets.size()));
+			switch (random.nextInt(5)) {
+			case 0:
+				pet.increaseHealth(random.nextInt(81) - 40);
+				break;
+			case 1:
+				pet.increaseHunger(random.nextInt(81) - 40);
+				break;
+			case 2:
+				pet.beSick();
+				break;
+			case 3:
+				pet.misbehave();
+				break;
+			default:
+				pet.treat();
+			}
+		}
+		pets.get(0).die();
+
+		long health = 0;
+		int inRange = 0;
+		int sick = 0;
+		int misbehaving = 0;
+		int dogs = 0;
+		int sickDogs = 0;
+		long dogHunger = 0;
+		for (Pet pet : pets) {
+			health += pet.getHealth();
+			inRange += pet.getHealth() >= 40 && pet.getHealth() <= 60 ? 1 : 0;
+			sick += pet.getIsSick() ? 1 : 0;
+			misbehaving += pet.getIsMisbehaving() ? 1 : 0;
+			if (pet.getSpecies().equals("dog")) {
+				dogs++;
+				sickDogs += pet.getIsSick() ? 1 : 0;
+				dogHunger += pet.getHunger();
+			}
+		}
+		assertEquals(300, stats.size());
+		assertEquals(health / 300.0, stats.getAverage(PetPopulationStats.Stat.HEALTH), 1e-9);
+		assertEquals(inRange, stats.countInRange(PetPopulationStats.Stat.HEALTH, 40, 60));
+		assertEquals(300, stats.countInRange(PetPopulationStats.Stat.HEALTH, -5, 500));
+		assertEquals(sick, stats.getSickCount());
+		assertEquals(misbehaving, stats.getMisbehavingCount());
+		assertEquals(1, stats.getDeadCount());
+		assertEquals(dogs, stats.size("dog"));
+		assertEquals(sickDogs, stats.getSickCount("dog"));
+		assertEquals(dogHunger / (double) dogs,
+				stats.getAverage("dog", PetPopulationStats.Stat.HUNGER), 1e-9);
+		assertEquals(0, stats.size("dragon"));
+		assertEquals(0, stats.getAverage("dragon", PetPopulationStats.Stat.HEALTH), 0);
+	}
+
+	@Test
+	public void testRemove() {
+		Pet cat = new Cat();
+		PetPopulationStats stats = new PetPopulationStats();
+		assertTrue(stats.add(cat));
+		assertFalse(stats.add(cat));
+		cat.beSick();
+		assertEquals(1, stats.getSickCount("cat"));
+		assertTrue(stats.remove(cat));
+		assertEquals(0, stats.size());
+		assertEquals(0, stats.getSickCount());
+		cat.increaseHealth(-50);
+		assertEquals(0, stats.countInRange(PetPopulationStats.Stat.HEALTH, 0, 100));
+	}
+}
@@ -0,0 +1,218 @@
+/**
+ * An unchanging copy of a pet's state at one moment.
+ *
+ * Snapshots are safe to read from any thread without locking; they never
+ * change after they are made.
+ *
+ */
+public final class PetSnapshot {
+
+    /**
+     * Name of the pet.
+     */
+    private final String name;
+    /**
+     * The gender of the pet.
+     */
+    private final String gender;
+    /**
+     * The species of the pet.
+     */
+    private final String species;
+    /**
+     * The pet's favourite food.
+     */
+    private final String favouriteFood;
+    /**
+     * The pet's favourite toy.
+     */
+    private final String favouriteToy;
+    /**
+     * The pet's health, on a scale of 0-100.
+     */
+    private final int health;
+    /**
+     * The pet's mischievousness, on a scale of 0-100.
+     */
+    private final int mischievousness;
+    /**
+     * The pet's happiness, on a scale of 0-100.
+     */
+    private final int happiness;
+    /**
+     * The pet's hunger, on a scale of 0-100.
+     */
+    private final int hunger;
+    /**
+     * How full the pet's bladder is, on a scale of 0-100.
+     */
+    private final int percentBladderFull;
+    /**
+     * The pet's fatigue, on a scale of 0-100.
+     */
+    private final int fatigue;
+    /**
+     * The pet's weight, in grams.
+     */
+    private final int weight;
+    /**
+     * Whether or not the pet is sick.
+     */
+    private final boolean isSick;
+    /**
+     * Whether or not the pet is revivable.
+     */
+    private final boolean isRevivable;
+    /**
+     * Whether or not the pet is misbehaving.
+     */
+    private final boolean isMisbehaving;
+    /**
+     * Whether or not the pet is dead.
+     */
+    private final boolean isDead;
+
+    /**
+     * Takes a snapshot of a pet. The pet mustn't be changed while this runs.
+     * @param pet Pet to take a snapshot of.
+     */
+    public PetSnapshot(Pet pet) {
+        name = pet.getName();
+        gender = pet.getGender();
+        species = pet.getSpecies();
+        favouriteFood = pet.getFavouriteFood();
+        favouriteToy = pet.getFavouriteToy();
+        health = pet.getHealth();
+        mischievousness = pet.getMischievousness();
+        happiness = pet.getHappiness();
+        hunger = pet.getHunger();
+        percentBladderFull = pet.getPercentBladderFull();
+        fatigue = pet.getFatigue();
+        weight = pet.getWeightGrams();
+        isSick = pet.getIsSick();
+        isRevivable = pet.getIsRevivable();
+        isMisbehaving = pet.getIsMisbehaving();
+        isDead = pet.getIsDead();
+    }
+
+    /**
+     * Gets the name of the pet.
+     * @return Pet name.
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * Gets the gender of the pet.
+     * @return Pet gender.
+     */
+    public String getGender() {
+        return gender;
+    }
+    /**
+     * Gets the species of the pet.
+     * @return Pet species.
+     */
+    public String getSpecies() {
+        return species;
+    }
+    /**
+     * Gets the favourite food of the pet.
+     * @return Pet's favourite food.
+     */
+    public String getFavouriteFood() {
+        return favouriteFood;
+    }
+    /**
+     * Gets the favourite toy of the pet.
+     * @return Pet's favourite toy.
+     */
+    public String getFavouriteToy() {
+        return favouriteToy;
+    }
+    /**
+     * Gets the health of the pet.
+     * @return Pet health.
+     */
+    public int getHealth() {
+        return health;
+    }
+    /**
+     * Gets the mischievousness of the pet.
+     * @return Pet mischievousness.
+     */
+    public int getMischievousness() {
+        return mischievousness;
+    }
+    /**
+     * Gets the happiness of the pet.
+     * @return Pet happiness.
+     */
+    public int getHappiness() {
+        return happiness;
+    }
+    /**
+     * Gets the hunger of the pet.
+     * @return Pet hunger.
+     */
+    public int getHunger() {
+        return hunger;
+    }
+    /**
+     * Gets how full the pet's bladder is.
+     * @return How full the pet's bladder is.
+     */
+    public int getPercentBladderFull() {
+        return percentBladderFull;
+    }
+    /**
+     * Gets the fatigue of the pet.
+     * @return Pet fatigue.
+     */
+    public int getFatigue() {
+        return fatigue;
+    }
+    /**
+     * Gets the weight of the pet.
+     * @return Pet weight, in kg.
+     */
+    public double getWeight() {
+        return weight / (double) Pet.GRAMS_PER_KG;
+    }
+
+    /**
+     * Gets the weight of the pet in grams.
+     * @return Pet weight, in grams.
+     */
+    public int getWeightGrams() {
+        return weight;
+    }
+    /**
+     * Gets whether the pet is sick.
+     * @return Whether the pet is sick.
+     */
+    public boolean getIsSick() {
+        return isSick;
+    }
+    /**
+     * Gets whether the pet is revivable.
+     * @return Whether the pet is revivable.
+     */
+    public boolean getIsRevivable() {
+        return isRevivable;
+    }
+    /**
+     * Gets whether the pet is misbehaving.
+     * @return Whether the pet is misbehaving.
+     */
+    public boolean getIsMisbehaving() {
+        return isMisbehaving;
+    }
+    /**
+     * Gets whether the pet is dead.
+     * @return Whether the pet is dead.
+     */
+    public boolean getIsDead() {
+        return isDead;
+    }
+}
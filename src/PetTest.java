@@ -312,6 +312,22 @@ public class PetTest {
 		myPet.increaseWeight(5000);
 		assertEquals(myPet.getWeight(), 5008.01, delta);
 	}
+
+	@Test
+	public void testWeightGrams() {
+		assertEquals(4000, myPet.getWeightGrams());
+		assertEquals(4000, myPet.getDefaultWeightGrams());
+		//0.1 + 0.2 isn't 0.3 in doubles, but is in grams
+		myPet.increaseWeight(0.1);
+		myPet.increaseWeight(0.2);
+		assertEquals(4300, myPet.getWeightGrams());
+		myPet.increaseWeightGrams(-300);
+		assertEquals(myPet.getDefaultWeightGrams(), myPet.getWeightGrams());
+		try {
+			myPet.increaseWeightGrams(-4000);
+			fail("Accepts 0 weight.");
+		} catch (IllegalArgumentException e) {}
+	}
 	
 
 	@Test
@@ -612,4 +628,31 @@ public class PetTest {
 		assertTrue(myCat.getIsDead());
 	}
 
+
+	@Test
+	public void testGetWellness() {
+		Cat cat = new Cat();
+		assertEquals(100, cat.getWellness());
+		cat.increaseHappiness(-50);
+		cat.increaseMischievousness(20);
+		cat.increaseHunger(40);
+		//(50 * 3 + 100 + 80 * 5 + 60) / 10
+		assertEquals(71, cat.getWellness());
+	}
+
+	@Test
+	public void testListeners() {
+		int[] calls = new int[1];
+		PetListener listener = pet -> calls[0]++;
+		myCat.addListener(listener);
+		myCat.increaseHealth(-10);
+		myCat.die();
+		assertEquals(2, calls[0]);
+		new Pet(myCat).increaseHealth(-10);
+		assertEquals(2, calls[0]);
+		myCat.removeListener(listener);
+		myCat.increaseHealth(-10);
+		assertEquals(2, calls[0]);
+	}
+
 }
@@ -32,13 +32,33 @@ public class Player implements Comparable<Player> {
      * The players score.
      */
     private double score;
+    /**
+     * The last published snapshot of the player's state, or null if none has
+     * been yet. Readers on other threads use this rather than the player
+     * itself.
+     */
+    private volatile PlayerSnapshot snapshot;
 
     /**
      * Initalises player.
      * Gives them a starting balance of $100, and initialises the arrays.
      */
     public Player() {
-        balance = 100;
+        this(null, 100);
+        publishSnapshot();
+    }
+
+    /**
+     * Initialises a player with a name and balance but no pets or items.
+     * Used when working out what-if games, such as from a GameState, which
+     * make many players that are never read from other threads, so no
+     * snapshot is made until getSnapshot is first called.
+     * @param name The player's name.
+     * @param balance The player's balance.
+     */
+    Player(String name, int balance) {
+        this.name = name;
+        this.balance = balance;
         petList = new ArrayList<Pet>();
         foodStock = new ArrayList<Food>();
         toyList = new ArrayList<Toy>();
@@ -88,6 +108,43 @@ public class Player implements Comparable<Player> {
         return score;
     }
 
+    /**
+     * Returns the last published snapshot of the player's state.
+     * Safe to call from any thread. A what-if player that has never been
+     * published gets its first snapshot now, on the calling thread.
+     * @return The player's snapshot.
+     */
+    public PlayerSnapshot getSnapshot() {
+        PlayerSnapshot current = snapshot;
+        if (current == null) {
+            current = PlayerSnapshot.of(this);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Publishes a snapshot of all of the player's state.
+     * Should be called by whoever changes the player once they have finished.
+     */
+    public void publishSnapshot() {
+        snapshot = PlayerSnapshot.of(this);
+    }
+
+    /**
+     * Publishes a snapshot where only one pet, the name, the balance and the
+     * score have changed since the last snapshot.
+     * @param petIndex Index of the pet that changed.
+     */
+    public void publishSnapshot(int petIndex) {
+        PlayerSnapshot current = snapshot;
+        if (current == null || current.getNumberOfPets() != petList.size()) {
+            publishSnapshot();
+        } else {
+            snapshot = current.withPet(this, petIndex);
+        }
+    }
+
     /**
      * Sets the name of an player.
      * @param name the name of the player
@@ -135,6 +192,20 @@ public class Player implements Comparable<Player> {
      */
     public void calculateScore() {
         int score = 0;
+
+        for (Pet currentPet: petList) {
+            score += calculatePetScore(currentPet);
+        }
+
+        this.score += (score / petList.size());
+    }
+
+    /**
+     * Calculates how many points a pet is worth today.
+     * @param currentPet The pet to score.
+     * @return The pet's score.
+     */
+    public static int calculatePetScore(Pet currentPet) {
         int petScore;
         int happiness;
         int fatigue;
@@ -147,50 +218,46 @@ public class Player implements Comparable<Player> {
         boolean sick;
         boolean dead;
 
-        for (Pet currentPet: petList) {
-            petScore = 0;
+        petScore = 0;
 
-            happiness = currentPet.getHappiness();
-            fatigue = currentPet.getFatigue();
-            health = currentPet.getHealth();
-            mischeviousness = currentPet.getMischievousness();
-            hunger = currentPet.getHunger();
-            percentBladderFull = currentPet.getPercentBladderFull();
-            misbehaving = currentPet.getIsMisbehaving();
-            sick = currentPet.getIsSick();
-            dead = currentPet.getIsDead();
-            //how different the pet's weight is to normal
-            weightDifferential = Math.abs(currentPet.getWeight()
-                    - currentPet.getDefaultWeight());
-
-            //make bad attributes the inverse of what they were
-            fatigue = 100 - fatigue;
-            mischeviousness = 100 - mischeviousness;
-            percentBladderFull = 100 - percentBladderFull;
-            hunger = 100 - hunger;
-            //penalise for fat and skinny animals
-            weightDifferential = 100 - weightDifferential;
-
-            petScore += (happiness + fatigue + mischeviousness
-                    + hunger + percentBladderFull
-                    + weightDifferential + health);
-
-            if (sick) {
-                petScore -= 150;
-            }
+        happiness = currentPet.getHappiness();
+        fatigue = currentPet.getFatigue();
+        health = currentPet.getHealth();
+        mischeviousness = currentPet.getMischievousness();
+        hunger = currentPet.getHunger();
+        percentBladderFull = currentPet.getPercentBladderFull();
+        misbehaving = currentPet.getIsMisbehaving();
+        sick = currentPet.getIsSick();
+        dead = currentPet.getIsDead();
+        //how different the pet's weight is to normal
+        weightDifferential = Math.abs(currentPet.getWeightGrams()
+                - currentPet.getDefaultWeightGrams()) / (double) Pet.GRAMS_PER_KG;
 
-            if (misbehaving) {
-                petScore -= 50;
-            }
+        //make bad attributes the inverse of what they were
+        fatigue = 100 - fatigue;
+        mischeviousness = 100 - mischeviousness;
+        percentBladderFull = 100 - percentBladderFull;
+        hunger = 100 - hunger;
+        //penalise for fat and skinny animals
+        weightDifferential = 100 - weightDifferential;
 
-            if (dead) { //if the pet is dead player doesn't get any points for it.
-                petScore = 0;
-            }
+        petScore += (happiness + fatigue + mischeviousness
+                + hunger + percentBladderFull
+                + weightDifferential + health);
 
-            score += petScore;
+        if (sick) {
+            petScore -= 150;
         }
 
-        this.score += (score / petList.size());
+        if (misbehaving) {
+            petScore -= 50;
+        }
+
+        if (dead) { //if the pet is dead player doesn't get any points for it.
+            petScore = 0;
+        }
+
+        return petScore;
     }
 
     /**
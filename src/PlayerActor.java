@@ -0,0 +1,437 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns one player and their pets, and changes them only in response to
+ * commands taken from its mailbox.
+ *
+ * Only one thread at a time runs an actor, so the player and pets need no
+ * locks. Commands are queued in a bounded mailbox; when it is full tell
+ * returns false, so a client sending too many commands is pushed back
+ * rather than using up memory. The end of a day is counted separately from
+ * the mailbox so it is never refused. Each command is marked with the day it
+ * was sent on, and the actor only ends a day once the commands sent before
+ * it have been handled, so commands and day ends happen in the order they
+ * were sent and each pet's actions count against the right day. A command
+ * that only reaches the mailbox after its day has already been ended, which
+ * can happen if it is sent while the day is being ended, fails.
+ *
+ * The first day starts when the actor first runs, which it is scheduled to
+ * do when it is created.
+ *
+ * The player and pets must not be read from other threads while the actor
+ * is running; other threads read the snapshot the actor publishes after
+ * every command instead.
+ *
+ */
+public class PlayerActor implements Runnable {
+
+    /**
+     * Most commands handled each time the actor runs, so that one busy actor
+     * doesn't hold a thread for too long.
+     */
+    private static final int BATCH_SIZE = 64;
+    /**
+     * How many actions each pet gets each day.
+     */
+    private static final int ACTIONS_PER_DAY = 2;
+
+    /**
+     * A command and the day it was sent on.
+     */
+    private static final class Letter {
+
+        /**
+         * The command.
+         */
+        private final PlayerCommand command;
+        /**
+         * The day the command was sent on.
+         */
+        private final int day;
+
+        /**
+         * Creates a letter.
+         * @param command The command.
+         * @param day The day the command was sent on.
+         */
+        Letter(PlayerCommand command, int day) {
+            this.command = command;
+            this.day = day;
+        }
+    }
+
+    /**
+     * The player this actor owns.
+     */
+    private final Player player;
+    /**
+     * Random number stream of each of the player's pets.
+     */
+    private final RandomSource[] petStreams;
+    /**
+     * Actions each pet has left today.
+     */
+    private final int[] actionsLeft;
+    /**
+     * HashMap of all foods, mapping name to prototype.
+     */
+    private final HashMap<String, Food> foodPrototypes;
+    /**
+     * HashMap of all toys, mapping name to prototype.
+     */
+    private final HashMap<String, Toy> toyPrototypes;
+    /**
+     * Decides what happens on random events.
+     */
+    private final PetEventHandler handler;
+    /**
+     * Where changes to the player and pets are published.
+     */
+    private final EventBus eventBus;
+    /**
+     * How much the player gets per pet per day, in dollars.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Commands waiting to be handled.
+     */
+    private final ArrayBlockingQueue<Letter> mailbox;
+    /**
+     * Number of days ended so far; commands sent now are for the day after.
+     */
+    private final AtomicInteger endedDays = new AtomicInteger();
+    /**
+     * Whether the actor is waiting to run or running.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * Runs the actor.
+     */
+    private final Executor executor;
+    /**
+     * Told when commands and days are finished.
+     */
+    private final PlayerActorListener listener;
+    /**
+     * The current day number; 0 until the first day has started.
+     */
+    private volatile int dayNumber;
+
+    /**
+     * Creates an actor and schedules it to start the player's first day.
+     * @param player The player the actor owns.
+     * @param playerStream The player's random number stream; each pet's stream
+     * is derived from it by the pet's index.
+     * @param foodPrototypes HashMap of all foods.
+     * @param toyPrototypes HashMap of all toys.
+     * @param handler Decides what happens on random events.
+     * @param eventBus Where changes to the player and pets are published.
+     * @param dailyPetAllowance How much the player gets per live pet per day.
+     * @param mailboxCapacity Most commands that can be waiting at once.
+     * @param executor Runs the actor.
+     * @param listener Told when commands and days are finished.
+     */
+    public PlayerActor(Player player, RandomSource playerStream,
+            HashMap<String, Food> foodPrototypes, HashMap<String, Toy> toyPrototypes,
+            PetEventHandler handler, EventBus eventBus, int dailyPetAllowance,
+            int mailboxCapacity, Executor executor, PlayerActorListener listener) {
+        this.player = player;
+        this.foodPrototypes = foodPrototypes;
+        this.toyPrototypes = toyPrototypes;
+        this.handler = handler;
+        this.eventBus = eventBus;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.mailbox = new ArrayBlockingQueue<Letter>(mailboxCapacity);
+        this.executor = executor;
+        this.listener = listener;
+
+        int numPets = player.getPetList().size();
+        petStreams = new RandomSource[numPets];
+        for (int i = 0; i < numPets; i++) {
+            petStreams[i] = playerStream.derive(i);
+        }
+        actionsLeft = new int[numPets];
+        //every field is set, so the actor can run; its first run starts the day
+        schedule();
+    }
+
+    /**
+     * Gets the last snapshot of the player's state. Safe to call from any thread.
+     * @return The player's snapshot.
+     */
+    public PlayerSnapshot getSnapshot() {
+        return player.getSnapshot();
+    }
+
+    /**
+     * Gets the player this actor owns. Only safe to read while the actor is idle.
+     * @return The player.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Sends a command without waiting.
+     * @param command Command to send.
+     * @return Whether the command was queued; false if the mailbox is full.
+     */
+    public boolean tell(PlayerCommand command) {
+        if (!mailbox.offer(new Letter(command, endedDays.get() + 1))) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Sends a command, waiting for space in the mailbox if it is full.
+     * @param command Command to send.
+     * @param timeout How long to wait.
+     * @param unit Unit of timeout.
+     * @return Whether the command was queued before the timeout.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tell(PlayerCommand command, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (!mailbox.offer(new Letter(command, endedDays.get() + 1), timeout, unit)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Ends the current day. This never blocks and is never refused.
+     */
+    public void endDay() {
+        endedDays.incrementAndGet();
+        schedule();
+    }
+
+    /**
+     * Gets whether the actor has nothing left to do.
+     * @return Whether the actor is idle.
+     */
+    public boolean isIdle() {
+        return !scheduled.get() && mailbox.isEmpty() && !hasDaysToEnd();
+    }
+
+    /**
+     * Gets the number of commands waiting.
+     * @return Number of commands in the mailbox.
+     */
+    public int getMailboxSize() {
+        return mailbox.size();
+    }
+
+    /**
+     * Makes sure the actor will run, unless it is already waiting to.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Gets whether days have been ended that the actor hasn't finished yet.
+     * @return Whether there are days to end.
+     */
+    private boolean hasDaysToEnd() {
+        return dayNumber < endedDays.get() + 1;
+    }
+
+    /**
+     * Starts the first day if needed, then handles up to BATCH_SIZE commands
+     * in order, ending each day once the commands sent before its end are
+     * done. Days ended after the last waiting command are ended too.
+     */
+    @Override
+    public void run() {
+        try {
+            if (dayNumber == 0) {
+                dayNumber = 1;
+                startDay();
+                player.publishSnapshot();
+            }
+
+            Letter letter;
+            int handled = 0;
+            while (handled < BATCH_SIZE && (letter = mailbox.peek()) != null) {
+                if (letter.day > dayNumber) {
+                    finishDay(); //the day ended before this command was sent
+                    continue;
+                }
+                mailbox.poll();
+                handle(letter);
+                handled++;
+            }
+            if (mailbox.isEmpty()) {
+                while (hasDaysToEnd()) {
+                    finishDay();
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!mailbox.isEmpty() || hasDaysToEnd()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Carries out a command if its day is still going, publishes the
+     * snapshot, and tells the listener, even if carrying it out fails.
+     * @param letter The command and the day it was sent on.
+     */
+    private void handle(Letter letter) {
+        PlayerCommand command = letter.command;
+        boolean succeeded = false;
+        try {
+            succeeded = letter.day == dayNumber && handle(command);
+            if (succeeded) {
+                if (command.getType() == PlayerCommand.Type.SLEEP
+                        || command.getType() == PlayerCommand.Type.TOILET) {
+                    player.publishSnapshot(command.getPetIndex());
+                } else {
+                    player.publishSnapshot();
+                }
+            }
+        } finally {
+            listener.commandDone(this, command, succeeded);
+        }
+    }
+
+    /**
+     * Scores the day that is ending and starts the next one.
+     */
+    private void finishDay() {
+        player.calculateScore();
+        dayNumber++;
+        startDay();
+        player.publishSnapshot();
+        listener.dayDone(this, dayNumber);
+    }
+
+    /**
+     * Pays the player their allowance and runs each live pet's start of day actions.
+     */
+    private void startDay() {
+        ArrayList<Pet> petList = player.getPetList();
+        int numOfAlivePets = 0;
+        for (Pet pet : petList) {
+            if (!pet.getIsDead()) {
+                numOfAlivePets++;
+            }
+        }
+        player.earn(dailyPetAllowance * numOfAlivePets);
+
+        for (int i = 0; i < petList.size(); i++) {
+            Pet pet = petList.get(i);
+            if (!pet.getIsDead()) {
+                PetDayActions.newDay(player, pet, petStreams[i], handler, eventBus);
+            }
+            actionsLeft[i] = ACTIONS_PER_DAY;
+        }
+    }
+
+    /**
+     * Carries out a command.
+     * @param command Command to carry out.
+     * @return Whether the command did anything.
+     */
+    private boolean handle(PlayerCommand command) {
+        if (command.getType() == PlayerCommand.Type.BUY) {
+            return buy(command.getItemName());
+        }
+
+        int petIndex = command.getPetIndex();
+        if (petIndex < 0 || petIndex >= actionsLeft.length || actionsLeft[petIndex] == 0) {
+            return false;
+        }
+        Pet pet = player.getPetList().get(petIndex);
+        if (pet.getIsDead()) {
+            return false;
+        }
+
+        int itemIndex = command.getItemIndex();
+        switch (command.getType()) {
+        case FEED:
+            if (itemIndex < 0 || itemIndex >= player.getFoodStock().size()) {
+                return false;
+            }
+            Food food = player.getFoodStock().remove(itemIndex);
+            pet.feed(food);
+            eventBus.publish(PetEvent.Type.FED, player, pet, food);
+            break;
+        case PLAY:
+            if (itemIndex < 0 || itemIndex >= player.getToyList().size()) {
+                return false;
+            }
+            Toy toy = player.getToyList().get(itemIndex);
+            try {
+                pet.play(toy);
+                eventBus.publish(PetEvent.Type.PLAYED, player, pet, toy);
+            } catch (IllegalArgumentException e) {
+                if (e.getMessage().equals("durability is zero or negative")) {
+                    player.getToyList().remove(itemIndex);
+                    eventBus.publish(PetEvent.Type.TOY_BROKEN, player, pet, toy);
+                } else {
+                    throw e;
+                }
+            }
+            break;
+        case SLEEP:
+            pet.sleep();
+            eventBus.publish(PetEvent.Type.SLEPT, player, pet, null);
+            break;
+        case TOILET:
+            pet.goToilet();
+            eventBus.publish(PetEvent.Type.WENT_TOILET, player, pet, null);
+            break;
+        default:
+            return false;
+        }
+        actionsLeft[petIndex]--;
+        return true;
+    }
+
+    /**
+     * Buys a food or toy from the store.
+     * @param itemName Name of the item.
+     * @return Whether the item was bought.
+     */
+    private boolean buy(String itemName) {
+        Food food = foodPrototypes.get(itemName);
+        Toy toy = toyPrototypes.get(itemName);
+        int price;
+        if (food != null) {
+            price = food.getPrice();
+        } else if (toy != null) {
+            price = toy.getPrice();
+        } else {
+            return false;
+        }
+
+        if (player.getBalance() < price) {
+            return false;
+        }
+        player.spend(price);
+        if (food != null) {
+            player.addFood(food);
+            eventBus.publish(PetEvent.Type.PURCHASED, player, null, food);
+        } else {
+            Toy boughtToy = new Toy(toy);
+            player.addToy(boughtToy);
+            eventBus.publish(PetEvent.Type.PURCHASED, player, null, boughtToy);
+        }
+        return true;
+    }
+}
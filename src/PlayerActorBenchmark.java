@@ -0,0 +1,172 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures command throughput and latency for a large number of player actors.
+ *
+ * Client threads send a mix of commands to random actors while the clock ends
+ * a day at regular intervals. Commands refused because a mailbox was full are
+ * counted separately.
+ *
+ * Usage: java PlayerActorBenchmark [number of actors] [commands per client] [client threads]
+ *
+ */
+public class PlayerActorBenchmark {
+
+    /**
+     * Records how long each command waited before it was finished.
+     */
+    private static class LatencyRecorder implements PlayerActorListener {
+
+        /**
+         * Latency of each finished command, in nanoseconds.
+         */
+        private final long[] latencies;
+        /**
+         * Number of latencies recorded.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+        /**
+         * Number of commands that did nothing.
+         */
+        private final AtomicLong failed = new AtomicLong();
+
+        /**
+         * Creates a recorder.
+         * @param capacity Most latencies that can be recorded.
+         */
+        LatencyRecorder(int capacity) {
+            latencies = new long[capacity];
+        }
+
+        @Override
+        public void commandDone(PlayerActor actor, PlayerCommand command, boolean succeeded) {
+            int i = count.getAndIncrement();
+            if (i < latencies.length) {
+                latencies[i] = System.nanoTime() - command.getCreatedAt();
+            }
+            if (!succeeded) {
+                failed.incrementAndGet();
+            }
+        }
+
+        /**
+         * Gets a percentile of the recorded latencies.
+         * @param sorted Sorted latencies.
+         * @param percentile Percentile wanted, 0-100.
+         * @return Latency in microseconds.
+         */
+        static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int i = (int) Math.min(sorted.length - 1, sorted.length * percentile / 100);
+            return sorted[i] / 1000.0;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of actors, commands per client and client threads, all optional.
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numActors = 100000;
+        int commandsPerClient = 1000000;
+        int clients = 2;
+        if (args.length >= 1) {
+            numActors = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            commandsPerClient = Integer.parseInt(args[1]);
+        }
+        if (args.length >= 3) {
+            clients = Integer.parseInt(args[2]);
+        }
+
+        GameEnvironment game = new GameEnvironment();
+        game.initialiseNumGenerator(new String[] {"2017"});
+        game.generateFoodPrototypes();
+        game.generateToyPrototypes();
+        Player[] players = new Player[numActors];
+        for (int i = 0; i < numActors; i++) {
+            players[i] = new Player();
+            players[i].setName("Player " + i);
+            Pet pet = new Goat();
+            pet.setName("Pet " + i);
+            players[i].getPetList().add(pet);
+        }
+        game.addPlayers(players);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        LatencyRecorder recorder = new LatencyRecorder(clients * commandsPerClient);
+        PlayerActorSystem actorSystem = game.startActors(threads,
+                new AutomatedPetEventHandler(), 32, recorder);
+        List<PlayerActor> actors = actorSystem.getActors();
+        AtomicLong refused = new AtomicLong();
+
+        Thread[] clientThreads = new Thread[clients];
+        final int perClient = commandsPerClient;
+        for (int c = 0; c < clients; c++) {
+            final RandomSource random = RandomSource.fromSeed(c);
+            clientThreads[c] = new Thread(() -> {
+                for (int i = 0; i < perClient; i++) {
+                    PlayerActor actor = actors.get(random.nextInt(actors.size()));
+                    PlayerCommand command;
+                    switch (random.nextInt(4)) {
+                    case 0:
+                        command = PlayerCommand.buy("Lettuce");
+                        break;
+                    case 1:
+                        command = PlayerCommand.feed(0, 0);
+                        break;
+                    case 2:
+                        command = PlayerCommand.sleep(0);
+                        break;
+                    default:
+                        command = PlayerCommand.toilet(0);
+                        break;
+                    }
+                    if (!actor.tell(command)) {
+                        refused.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread client : clientThreads) {
+            client.start();
+        }
+        int days = 0;
+        boolean clientsRunning = true;
+        while (clientsRunning) {
+            clientsRunning = false;
+            for (Thread client : clientThreads) {
+                client.join(100);
+                clientsRunning |= client.isAlive();
+            }
+            game.endHostedDay(actorSystem);
+            days++;
+        }
+        actorSystem.awaitIdle(5, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        actorSystem.shutdown();
+
+        int recorded = Math.min(recorder.count.get(), recorder.latencies.length);
+        long[] sorted = Arrays.copyOf(recorder.latencies, recorded);
+        Arrays.sort(sorted);
+        System.out.println(numActors + " actors, " + threads + " threads, "
+                + clients + " clients, " + days + " days");
+        System.out.printf("handled %d commands in %.3f s: %.0f commands/s%n",
+                recorder.count.get(), seconds, recorder.count.get() / seconds);
+        System.out.println("refused (mailbox full): " + refused.get()
+                + ", did nothing: " + recorder.failed.get());
+        System.out.printf("latency us: p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                LatencyRecorder.percentile(sorted, 50), LatencyRecorder.percentile(sorted, 99),
+                LatencyRecorder.percentile(sorted, 99.9), LatencyRecorder.percentile(sorted, 100));
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Told when a PlayerActor finishes a command or a day.
+ *
+ * Listeners are called on the actor's thread, so they should return quickly.
+ *
+ */
+public interface PlayerActorListener {
+
+    /**
+     * Called when an actor has processed a command.
+     * @param actor The actor.
+     * @param command The command processed.
+     * @param succeeded Whether the command did anything. A command fails if the
+     * pet or item doesn't exist, the pet has no actions left today, or the
+     * player can't afford what they are buying.
+     */
+    void commandDone(PlayerActor actor, PlayerCommand command, boolean succeeded);
+
+    /**
+     * Called when an actor has finished a day and started the next one.
+     * @param actor The actor.
+     * @param dayNumber The number of the day that has just started.
+     */
+    default void dayDone(PlayerActor actor, int dayNumber) {
+    }
+}
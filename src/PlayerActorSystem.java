@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A group of PlayerActors that share a pool of threads.
+ *
+ * There are far fewer threads than actors; an actor only takes a thread
+ * while it has work to do.
+ *
+ */
+public class PlayerActorSystem {
+
+    /**
+     * Runs the actors.
+     */
+    private final ExecutorService executor;
+    /**
+     * Every actor in the system.
+     */
+    private final ArrayList<PlayerActor> actors = new ArrayList<PlayerActor>();
+    /**
+     * HashMap of all foods, mapping name to prototype.
+     */
+    private final HashMap<String, Food> foodPrototypes;
+    /**
+     * HashMap of all toys, mapping name to prototype.
+     */
+    private final HashMap<String, Toy> toyPrototypes;
+    /**
+     * Decides what happens on random events. Shared by every actor.
+     */
+    private final PetEventHandler handler;
+    /**
+     * Where the actors publish changes to their players and pets.
+     */
+    private final EventBus eventBus;
+    /**
+     * How much each player gets per pet per day, in dollars.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Most commands that can be waiting for each actor.
+     */
+    private final int mailboxCapacity;
+
+    /**
+     * Creates an actor system.
+     * @param threads Number of threads to run actors on.
+     * @param foodPrototypes HashMap of all foods.
+     * @param toyPrototypes HashMap of all toys.
+     * @param handler Decides what happens on random events. Must be safe to
+     * call from many threads.
+     * @param eventBus Where the actors publish changes to their players and pets.
+     * @param dailyPetAllowance How much each player gets per live pet per day.
+     * @param mailboxCapacity Most commands that can be waiting for each actor.
+     */
+    public PlayerActorSystem(int threads, HashMap<String, Food> foodPrototypes,
+            HashMap<String, Toy> toyPrototypes, PetEventHandler handler, EventBus eventBus,
+            int dailyPetAllowance, int mailboxCapacity) {
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.foodPrototypes = foodPrototypes;
+        this.toyPrototypes = toyPrototypes;
+        this.handler = handler;
+        this.eventBus = eventBus;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    /**
+     * Creates an actor for a player. Must not be called at the same time as endDay.
+     * @param player The player.
+     * @param playerStream The player's random number stream.
+     * @param listener Told when the actor finishes commands and days.
+     * @return The new actor.
+     */
+    public PlayerActor spawn(Player player, RandomSource playerStream,
+            PlayerActorListener listener) {
+        PlayerActor actor = new PlayerActor(player, playerStream, foodPrototypes,
+                toyPrototypes, handler, eventBus, dailyPetAllowance, mailboxCapacity,
+                executor, listener);
+        actors.add(actor);
+        return actor;
+    }
+
+    /**
+     * Gets every actor in the system.
+     * @return List of actors.
+     */
+    public List<PlayerActor> getActors() {
+        return actors;
+    }
+
+    /**
+     * Ends the day for every actor. Each actor is only told the day has ended,
+     * which never blocks, so this takes no locks.
+     */
+    public void endDay() {
+        for (PlayerActor actor : actors) {
+            actor.endDay();
+        }
+    }
+
+    /**
+     * Waits until every actor has nothing left to do.
+     * @param timeout How long to wait.
+     * @param unit Unit of timeout.
+     * @return Whether every actor became idle before the timeout.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (PlayerActor actor : actors) {
+            while (!actor.isIdle()) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the threads once every actor has finished its current work.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,166 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the PlayerActor class.
+ *
+ */
+public class PlayerActorTest {
+
+	private GameEnvironment catalog;
+	private Player player;
+	private Cat cat;
+	private ArrayList<Boolean> results;
+	private PlayerActorListener listener;
+
+	@Before
+	public void setUp() throws Exception {
+		catalog = new GameEnvironment();
+		catalog.generateFoodPrototypes();
+		catalog.generateToyPrototypes();
+		player = new Player();
+		player.setName("Harry");
+		cat = new Cat();
+		cat.setName("Fred");
+		player.getPetList().add(cat);
+		results = new ArrayList<Boolean>();
+		listener = new PlayerActorListener() {
+			public void commandDone(PlayerActor actor, PlayerCommand command, boolean succeeded) {
+				results.add(succeeded);
+			}
+		};
+	}
+
+	private PlayerActor createActor(Executor executor, int mailboxCapacity) {
+		return new PlayerActor(player, RandomSource.fromSeed(1), catalog.getFoodPrototypes(),
+				catalog.getToyPrototypes(), new AutomatedPetEventHandler(), new EventBus(), 10,
+				mailboxCapacity, executor, listener);
+	}
+
+	@Test
+	public void testCommands() {
+		PlayerActor actor = createActor(Runnable::run, 10);
+		int balance = player.getBalance();
+
+		assertTrue(actor.tell(PlayerCommand.buy("Canned fish")));
+		assertEquals(balance - 6, player.getBalance());
+		assertEquals(1, player.getFoodStock().size());
+
+		assertTrue(actor.tell(PlayerCommand.feed(0, 0)));
+		assertTrue(player.getFoodStock().isEmpty());
+		assertTrue(actor.tell(PlayerCommand.sleep(0)));
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		assertTrue(actor.tell(PlayerCommand.buy("Dragon fruit")));
+		assertTrue(actor.tell(PlayerCommand.play(3, 0)));
+
+		//the toilet fails as the cat only gets two actions a day
+		assertArrayEquals(new Boolean[] {true, true, true, false, false, false},
+				results.toArray(new Boolean[0]));
+
+		actor.endDay();
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		assertTrue(results.get(results.size() - 1));
+		assertTrue(actor.isIdle());
+	}
+
+	@Test
+	public void testBackpressure() {
+		ArrayList<Runnable> waiting = new ArrayList<Runnable>();
+		PlayerActor actor = createActor(waiting::add, 2);
+
+		assertTrue(actor.tell(PlayerCommand.sleep(0)));
+		assertTrue(actor.tell(PlayerCommand.sleep(0)));
+		assertFalse(actor.tell(PlayerCommand.sleep(0)));
+		assertEquals(2, actor.getMailboxSize());
+		assertEquals(1, waiting.size());
+
+		//day ends are never refused, even with a full mailbox
+		actor.endDay();
+		assertFalse(actor.isIdle());
+
+		waiting.remove(0).run();
+		assertEquals(0, actor.getMailboxSize());
+		assertTrue(actor.isIdle());
+	}
+
+	@Test
+	public void testCommandsKeepTheirDay() {
+		ArrayList<Runnable> waiting = new ArrayList<Runnable>();
+		PlayerActor actor = createActor(waiting::add, 10);
+
+		//both of today's actions are sent before the day ends, and one after
+		assertTrue(actor.tell(PlayerCommand.sleep(0)));
+		assertTrue(actor.tell(PlayerCommand.sleep(0)));
+		actor.endDay();
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		waiting.remove(0).run();
+
+		assertArrayEquals(new Boolean[] {true, true, true, true, false},
+				results.toArray(new Boolean[0]));
+		assertTrue(actor.isIdle());
+	}
+
+	@Test
+	public void testFailedCommandIsReported() {
+		EventBus brokenBus = new EventBus() {
+			@Override
+			public void publish(PetEvent.Type type, Player player, Pet pet, Item item) {
+				if (type == PetEvent.Type.SLEPT) {
+					throw new IllegalStateException("bus down");
+				}
+			}
+		};
+		PlayerActor actor = new PlayerActor(player, RandomSource.fromSeed(1),
+				catalog.getFoodPrototypes(), catalog.getToyPrototypes(),
+				new AutomatedPetEventHandler(), brokenBus, 10, 10, Runnable::run, listener);
+		try {
+			actor.tell(PlayerCommand.sleep(0));
+			fail("The failure wasn't passed on.");
+		} catch (IllegalStateException e) {}
+		assertArrayEquals(new Boolean[] {false}, results.toArray(new Boolean[0]));
+
+		//the actor carries on
+		assertTrue(actor.tell(PlayerCommand.toilet(0)));
+		assertTrue(results.get(1));
+		assertTrue(actor.isIdle());
+	}
+
+	@Test
+	public void testFirstDayStartsOnActor() {
+		ArrayList<Runnable> waiting = new ArrayList<Runnable>();
+		int balance = player.getBalance();
+		PlayerActor actor = createActor(waiting::add, 10);
+		//nothing has happened on the caller's thread
+		assertEquals(balance, player.getBalance());
+		assertEquals(1, waiting.size());
+		waiting.remove(0).run();
+		assertEquals(balance + 10, player.getBalance());
+		assertTrue(actor.isIdle());
+	}
+
+	@Test
+	public void testActorSystem() throws InterruptedException {
+		catalog.addPlayers(new Player[] {player});
+		catalog.initialiseNumGenerator(new String[] {"3"});
+		PlayerActorSystem actorSystem = catalog.startActors(2, new AutomatedPetEventHandler(), 16, listener);
+		PlayerActor actor = actorSystem.getActors().get(0);
+		int balance = player.getBalance();
+
+		actor.tell(PlayerCommand.sleep(0), 1, TimeUnit.SECONDS);
+		catalog.endHostedDay(actorSystem);
+		assertTrue(actorSystem.awaitIdle(10, TimeUnit.SECONDS));
+		actorSystem.shutdown();
+
+		assertTrue(player.getScore() > 0);
+		assertTrue(player.getBalance() >= balance);
+	}
+
+}
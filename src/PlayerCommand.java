@@ -0,0 +1,155 @@
+/**
+ * A command sent to a PlayerActor.
+ *
+ * Pets and items are picked by their index in the player's pet list, food
+ * stock or toy list, the same way the player picks them from the menus.
+ *
+ */
+public class PlayerCommand {
+
+    /**
+     * The kinds of command.
+     */
+    public enum Type {
+        /** Feed a pet one of the player's foods. */
+        FEED,
+        /** Play with a pet using one of the player's toys. */
+        PLAY,
+        /** Buy an item from the store. */
+        BUY,
+        /** Put a pet to bed. */
+        SLEEP,
+        /** Let a pet go to the toilet. */
+        TOILET
+    }
+
+    /**
+     * What the command does.
+     */
+    private final Type type;
+    /**
+     * Index of the pet the command is for, or -1 if it isn't for a pet.
+     */
+    private final int petIndex;
+    /**
+     * Index of the food or toy used, or -1 if no item is used.
+     */
+    private final int itemIndex;
+    /**
+     * Name of the item being bought, or null if nothing is bought.
+     */
+    private final String itemName;
+    /**
+     * When the command was created, from System.nanoTime.
+     */
+    private final long createdAt;
+
+    /**
+     * Creates a command.
+     * @param type What the command does.
+     * @param petIndex Index of the pet, or -1.
+     * @param itemIndex Index of the item, or -1.
+     * @param itemName Name of the item being bought, or null.
+     */
+    private PlayerCommand(Type type, int petIndex, int itemIndex, String itemName) {
+        this.type = type;
+        this.petIndex = petIndex;
+        this.itemIndex = itemIndex;
+        this.itemName = itemName;
+        this.createdAt = System.nanoTime();
+    }
+
+    /**
+     * Creates a command to feed a pet.
+     * @param petIndex Index of the pet.
+     * @param foodIndex Index of the food in the player's food stock.
+     * @return The command.
+     */
+    public static PlayerCommand feed(int petIndex, int foodIndex) {
+        return new PlayerCommand(Type.FEED, petIndex, foodIndex, null);
+    }
+
+    /**
+     * Creates a command to play with a pet.
+     * @param petIndex Index of the pet.
+     * @param toyIndex Index of the toy in the player's toy list.
+     * @return The command.
+     */
+    public static PlayerCommand play(int petIndex, int toyIndex) {
+        return new PlayerCommand(Type.PLAY, petIndex, toyIndex, null);
+    }
+
+    /**
+     * Creates a command to buy an item from the store.
+     * @param itemName Name of the food or toy.
+     * @return The command.
+     */
+    public static PlayerCommand buy(String itemName) {
+        return new PlayerCommand(Type.BUY, -1, -1, itemName);
+    }
+
+    /**
+     * Creates a command to put a pet to bed.
+     * @param petIndex Index of the pet.
+     * @return The command.
+     */
+    public static PlayerCommand sleep(int petIndex) {
+        return new PlayerCommand(Type.SLEEP, petIndex, -1, null);
+    }
+
+    /**
+     * Creates a command to let a pet go to the toilet.
+     * @param petIndex Index of the pet.
+     * @return The command.
+     */
+    public static PlayerCommand toilet(int petIndex) {
+        return new PlayerCommand(Type.TOILET, petIndex, -1, null);
+    }
+
+    /**
+     * Gets what the command does.
+     * @return Command type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the index of the pet the command is for.
+     * @return Pet index, or -1.
+     */
+    public int getPetIndex() {
+        return petIndex;
+    }
+
+    /**
+     * Gets the index of the food or toy used.
+     * @return Item index, or -1.
+     */
+    public int getItemIndex() {
+        return itemIndex;
+    }
+
+    /**
+     * Gets the name of the item being bought.
+     * @return Item name, or null.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * Gets when the command was created.
+     * @return Creation time from System.nanoTime.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return String representation of the command.
+     */
+    public String toString() {
+        return type + " pet " + petIndex + " item " + (itemName != null ? itemName : itemIndex);
+    }
+}
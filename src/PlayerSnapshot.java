@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An unchanging copy of a player's state at one moment.
+ *
+ * A new snapshot is published after every action. When only one pet has
+ * changed, the new snapshot shares the snapshots of every other pet with
+ * the old one, so only the changed pet is copied.
+ *
+ */
+public final class PlayerSnapshot {
+
+    /**
+     * The name of the player.
+     */
+    private final String name;
+    /**
+     * The player's balance, in dollars ($).
+     */
+    private final int balance;
+    /**
+     * The player's score.
+     */
+    private final double score;
+    /**
+     * Snapshots of the player's pets, in pet list order.
+     */
+    private final PetSnapshot[] pets;
+    /**
+     * Description of each of the player's toys.
+     */
+    private final List<String> toys;
+    /**
+     * Description of each of the player's foods.
+     */
+    private final List<String> foods;
+
+    /**
+     * Creates a snapshot from its parts.
+     * @param name The player's name.
+     * @param balance The player's balance.
+     * @param score The player's score.
+     * @param pets Snapshots of the pets. Not copied, so must not be changed.
+     * @param toys Descriptions of the toys. Not copied, so must not be changed.
+     * @param foods Descriptions of the foods. Not copied, so must not be changed.
+     */
+    private PlayerSnapshot(String name, int balance, double score, PetSnapshot[] pets,
+            List<String> toys, List<String> foods) {
+        this.name = name;
+        this.balance = balance;
+        this.score = score;
+        this.pets = pets;
+        this.toys = toys;
+        this.foods = foods;
+    }
+
+    /**
+     * Takes a snapshot of all of a player's state. The player mustn't be
+     * changed while this runs.
+     * @param player Player to take a snapshot of.
+     * @return The snapshot.
+     */
+    public static PlayerSnapshot of(Player player) {
+        ArrayList<Pet> petList = player.getPetList();
+        PetSnapshot[] pets = new PetSnapshot[petList.size()];
+        for (int i = 0; i < pets.length; i++) {
+            pets[i] = new PetSnapshot(petList.get(i));
+        }
+        return new PlayerSnapshot(player.getName(), player.getBalance(), player.getScore(),
+                pets, describeItems(player.getToyList()), describeItems(player.getFoodStock()));
+    }
+
+    /**
+     * Makes an unchangeable list of descriptions of items.
+     * @param items Items to describe.
+     * @return Descriptions.
+     */
+    private static List<String> describeItems(List<? extends Item> items) {
+        String[] descriptions = new String[items.size()];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = items.get(i).toString();
+        }
+        return Collections.unmodifiableList(Arrays.asList(descriptions));
+    }
+
+    /**
+     * Makes a new snapshot where one pet and the player's name, balance and
+     * score have changed, sharing everything else with this one.
+     * @param player The player, to read the name, balance and score from.
+     * @param petIndex Index of the pet that changed.
+     * @return The new snapshot.
+     */
+    public PlayerSnapshot withPet(Player player, int petIndex) {
+        PetSnapshot[] newPets = pets.clone();
+        newPets[petIndex] = new PetSnapshot(player.getPetList().get(petIndex));
+        return new PlayerSnapshot(player.getName(), player.getBalance(), player.getScore(),
+                newPets, toys, foods);
+    }
+
+    /**
+     * Gets the name of the player.
+     * @return The player's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the player's balance.
+     * @return The player's balance.
+     */
+    public int getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the player's score.
+     * @return The player's score.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of pets the player has.
+     * @return Number of pets.
+     */
+    public int getNumberOfPets() {
+        return pets.length;
+    }
+
+    /**
+     * Gets the snapshot of one of the player's pets.
+     * @param index Index of the pet in the player's pet list.
+     * @return The pet's snapshot.
+     */
+    public PetSnapshot getPet(int index) {
+        return pets[index];
+    }
+
+    /**
+     * Gets descriptions of the player's toys.
+     * @return Unchangeable list of descriptions.
+     */
+    public List<String> getToys() {
+        return toys;
+    }
+
+    /**
+     * Gets descriptions of the player's foods.
+     * @return Unchangeable list of descriptions.
+     */
+    public List<String> getFoods() {
+        return foods;
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the PlayerSnapshot and PetSnapshot classes.
+ *
+ */
+public class PlayerSnapshotTest {
+
+	private Player player;
+	private Cat cat;
+	private Dog dog;
+
+	@Before
+	public void setUp() throws Exception {
+		player = new Player();
+		player.setName("Harry");
+		cat = new Cat();
+		cat.setName("Fred");
+		dog = new Dog();
+		dog.setName("Rex");
+		player.getPetList().add(cat);
+		player.getPetList().add(dog);
+		player.publishSnapshot();
+	}
+
+	@Test
+	public void testSnapshotDoesNotChange() {
+		PlayerSnapshot snapshot = player.getSnapshot();
+		cat.increaseHealth(-30);
+		player.spend(10);
+
+		assertEquals(100, snapshot.getPet(0).getHealth());
+		assertEquals(100, snapshot.getBalance());
+		assertEquals("Fred", snapshot.getPet(0).getName());
+
+		player.publishSnapshot(0);
+		assertEquals(70, player.getSnapshot().getPet(0).getHealth());
+		assertEquals(90, player.getSnapshot().getBalance());
+	}
+
+	@Test
+	public void testUnchangedPetsAreShared() {
+		PlayerSnapshot before = player.getSnapshot();
+		dog.sleep();
+		player.publishSnapshot(1);
+		PlayerSnapshot after = player.getSnapshot();
+
+		assertSame(before.getPet(0), after.getPet(0));
+		assertNotSame(before.getPet(1), after.getPet(1));
+		assertSame(before.getToys(), after.getToys());
+	}
+
+	@Test
+	public void testNewPetPublishesEverything() {
+		player.getPetList().add(new Goat());
+		player.publishSnapshot(0);
+		assertEquals(3, player.getSnapshot().getNumberOfPets());
+	}
+
+	@Test
+	public void testItems() {
+		Toy ball = new Toy("Ball", "a bouncy ball", 5, 10);
+		player.addToy(ball);
+		player.publishSnapshot();
+		assertEquals(1, player.getSnapshot().getToys().size());
+		assertEquals(ball.toString(), player.getSnapshot().getToys().get(0));
+		assertTrue(player.getSnapshot().getFoods().isEmpty());
+
+		try {
+			player.getSnapshot().getToys().clear();
+			fail("Snapshot can be changed.");
+		} catch (UnsupportedOperationException e) {}
+	}
+
+	@Test
+	public void testLeaderboard() {
+		Player loser = new Player();
+		loser.setName("Rex");
+		Alpaca sickPet = new Alpaca();
+		sickPet.beSick();
+		loser.getPetList().add(sickPet);
+
+		GameEnvironment game = new GameEnvironment();
+		game.initialiseNumGenerator(new String[] {"1"});
+		game.addPlayers(new Player[] {loser, player});
+		player.calculateScore();
+		loser.calculateScore();
+		player.publishSnapshot();
+		loser.publishSnapshot();
+
+		PlayerSnapshot[] leaderboard = game.getLeaderboard();
+		assertEquals("Harry", leaderboard[0].getName());
+		assertEquals("Rex", leaderboard[1].getName());
+	}
+
+	@Test
+	public void testWhatIfPlayerSnapshot() {
+		Player scratch = new Player("Ann", 40);
+		assertEquals("Ann", scratch.getSnapshot().getName());
+		assertEquals(40, scratch.getSnapshot().getBalance());
+		scratch.getPetList().add(new Cat());
+		scratch.publishSnapshot(0);
+		assertEquals(1, scratch.getSnapshot().getNumberOfPets());
+
+		Player other = new Player("Bob", 10);
+		other.getPetList().add(new Dog());
+		other.publishSnapshot(0); //nothing published yet
+		assertEquals(1, other.getSnapshot().getNumberOfPets());
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * One player's part of a GameState. Never changes once made.
+ *
+ * The pets and toys held here are private copies that are never changed;
+ * GameState copies a pet or toy before changing it. Callers must not change
+ * the pets or toys they get from here.
+ *
+ */
+public final class PlayerState {
+
+    /**
+     * The name of the player.
+     */
+    private final String name;
+    /**
+     * The player's balance, in dollars ($).
+     */
+    private final int balance;
+    /**
+     * The player's score.
+     */
+    private final double score;
+    /**
+     * The player's pets.
+     */
+    private final PersistentVector<Pet> pets;
+    /**
+     * The player's food.
+     */
+    private final PersistentVector<Food> foodStock;
+    /**
+     * The player's toys.
+     */
+    private final PersistentVector<Toy> toyList;
+
+    /**
+     * Creates a player state from its parts.
+     * @param name The player's name.
+     * @param balance The player's balance.
+     * @param score The player's score.
+     * @param pets The player's pets.
+     * @param foodStock The player's food.
+     * @param toyList The player's toys.
+     */
+    PlayerState(String name, int balance, double score, PersistentVector<Pet> pets,
+            PersistentVector<Food> foodStock, PersistentVector<Toy> toyList) {
+        this.name = name;
+        this.balance = balance;
+        this.score = score;
+        this.pets = pets;
+        this.foodStock = foodStock;
+        this.toyList = toyList;
+    }
+
+    /**
+     * Copies the state of a player. The pets and toys are copied; the food
+     * is shared, as food never changes.
+     * @param player The player.
+     * @return The player's state.
+     */
+    public static PlayerState of(Player player) {
+        PersistentVector<Pet> pets = PersistentVector.empty();
+        for (Pet pet : player.getPetList()) {
+            pets = pets.append(new Pet(pet));
+        }
+        PersistentVector<Toy> toys = PersistentVector.empty();
+        for (Toy toy : player.getToyList()) {
+            toys = toys.append(new Toy(toy));
+        }
+        return new PlayerState(player.getName(), player.getBalance(), player.getScore(),
+                pets, PersistentVector.of(player.getFoodStock()), toys);
+    }
+
+    /**
+     * Gets the name of the player.
+     * @return The player's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the player's balance.
+     * @return The player's balance.
+     */
+    public int getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the player's score.
+     * @return The player's score.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the player's pets. The pets must not be changed.
+     * @return The player's pets.
+     */
+    public PersistentVector<Pet> getPets() {
+        return pets;
+    }
+
+    /**
+     * Gets the player's food.
+     * @return The player's food.
+     */
+    public PersistentVector<Food> getFoodStock() {
+        return foodStock;
+    }
+
+    /**
+     * Gets the player's toys. The toys must not be changed.
+     * @return The player's toys.
+     */
+    public PersistentVector<Toy> getToyList() {
+        return toyList;
+    }
+
+    /**
+     * Makes a copy with a different balance.
+     * @param newBalance The new balance.
+     * @return The new state.
+     */
+    PlayerState withBalance(int newBalance) {
+        return new PlayerState(name, newBalance, score, pets, foodStock, toyList);
+    }
+
+    /**
+     * Makes a copy with a different balance and score.
+     * @param newBalance The new balance.
+     * @param newScore The new score.
+     * @return The new state.
+     */
+    PlayerState withBalanceAndScore(int newBalance, double newScore) {
+        return new PlayerState(name, newBalance, newScore, pets, foodStock, toyList);
+    }
+
+    /**
+     * Makes a copy with different pets.
+     * @param newPets The new pets.
+     * @return The new state.
+     */
+    PlayerState withPets(PersistentVector<Pet> newPets) {
+        return new PlayerState(name, balance, score, newPets, foodStock, toyList);
+    }
+
+    /**
+     * Makes a copy with different food.
+     * @param newFoodStock The new food.
+     * @return The new state.
+     */
+    PlayerState withFoodStock(PersistentVector<Food> newFoodStock) {
+        return new PlayerState(name, balance, score, pets, newFoodStock, toyList);
+    }
+
+    /**
+     * Makes a copy with different toys.
+     * @param newToyList The new toys.
+     * @return The new state.
+     */
+    PlayerState withToyList(PersistentVector<Toy> newToyList) {
+        return new PlayerState(name, balance, score, pets, foodStock, newToyList);
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Source of random numbers for the game engine.
+ *
+ * Unlike java.util.Random a RandomSource is not synchronised, so each one
+ * should only be used by one thread at a time. Independent streams are made
+ * with derive, which depends only on the seed of this source and the stream
+ * id given, not on how many numbers have been taken from this source. This
+ * means a stream for a player or a pet is the same no matter what order the
+ * players and pets are processed in.
+ *
+ */
+public interface RandomSource {
+
+    /**
+     * Gets a random integer between 0 (inclusive) and bound (exclusive).
+     * @param bound Upper bound of the number. Must be greater than 0.
+     * @return Random integer.
+     * @throws IllegalArgumentException if bound is not greater than 0
+     */
+    int nextInt(int bound);
+
+    /**
+     * Gets a random boolean.
+     * @return Random boolean.
+     */
+    boolean nextBoolean();
+
+    /**
+     * Gets a random long.
+     * @return Random long.
+     */
+    long nextLong();
+
+    /**
+     * Gets the seed this source was created with.
+     * @return Seed of this source.
+     * @throws UnsupportedOperationException if the source wasn't made from a
+     * seed, like ScriptedRandomSource
+     */
+    long getSeed();
+
+    /**
+     * Creates a new independent stream of the same kind from this source's seed.
+     * Deriving the same stream id twice gives two sources with identical output.
+     * @param streamId Id of the stream, e.g. the index of a player or pet.
+     * @return New random source.
+     */
+    RandomSource derive(long streamId);
+
+    /**
+     * Creates the default kind of random source.
+     * @param seed Seed for the source.
+     * @return New random source.
+     */
+    static RandomSource fromSeed(long seed) {
+        return new SplittableRandomSource(seed);
+    }
+
+    /**
+     * Creates a random source of the kind named.
+     * @param kind Either "splittable" or "xoshiro".
+     * @param seed Seed for the source.
+     * @return New random source.
+     * @throws IllegalArgumentException if the kind is not known
+     */
+    static RandomSource fromSeed(String kind, long seed) {
+        switch (kind.toLowerCase()) {
+        case "splittable":
+            return new SplittableRandomSource(seed);
+        case "xoshiro":
+            return new XoshiroRandomSource(seed);
+        default:
+            throw new IllegalArgumentException("Unknown random source: " + kind);
+        }
+    }
+
+    /**
+     * Mixes a seed and a stream id into the seed of a derived stream.
+     * Uses the SplitMix64 finaliser so that neighbouring ids give unrelated seeds.
+     * @param seed Seed of the parent stream.
+     * @param streamId Id of the derived stream.
+     * @return Seed of the derived stream.
+     */
+    static long mixSeed(long seed, long streamId) {
+        long z = seed + (streamId + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the RandomSource implementations.
+ *
+ */
+public class RandomSourceTest {
+
+	private String[] kinds = {"splittable", "xoshiro"};
+
+	@Test
+	public void testSameSeedSameNumbers() {
+		for (String kind : kinds) {
+			RandomSource first = RandomSource.fromSeed(kind, 42);
+			RandomSource second = RandomSource.fromSeed(kind, 42);
+			for (int i = 0; i < 100; i++) {
+				assertEquals(first.nextLong(), second.nextLong());
+			}
+		}
+	}
+
+	@Test
+	public void testNextIntBounds() {
+		for (String kind : kinds) {
+			RandomSource source = RandomSource.fromSeed(kind, 7);
+			boolean[] seen = new boolean[100];
+			for (int i = 0; i < 10000; i++) {
+				int number = source.nextInt(100);
+				assertTrue(number >= 0 && number < 100);
+				seen[number] = true;
+			}
+			for (boolean wasSeen : seen) {
+				assertTrue(wasSeen);
+			}
+
+			try {
+				source.nextInt(0);
+				fail("Accepts a bound of 0.");
+			} catch (IllegalArgumentException e) {}
+		}
+	}
+
+	@Test
+	public void testDeriveIgnoresConsumption() {
+		for (String kind : kinds) {
+			RandomSource parent = RandomSource.fromSeed(kind, 1234);
+			RandomSource before = parent.derive(3);
+			parent.nextLong();
+			parent.nextInt(10);
+			RandomSource after = parent.derive(3);
+			for (int i = 0; i < 100; i++) {
+				assertEquals(before.nextInt(100), after.nextInt(100));
+			}
+		}
+	}
+
+	@Test
+	public void testDerivedStreamsDiffer() {
+		for (String kind : kinds) {
+			RandomSource parent = RandomSource.fromSeed(kind, 1234);
+			RandomSource first = parent.derive(0);
+			RandomSource second = parent.derive(1);
+			assertNotEquals(first.getSeed(), second.getSeed());
+			assertNotEquals(first.nextLong(), second.nextLong());
+		}
+	}
+
+	@Test
+	public void testUnknownKind() {
+		try {
+			RandomSource.fromSeed("dice", 1);
+			fail("Accepts unknown kind of random source.");
+		} catch (IllegalArgumentException e) {}
+	}
+
+}
@@ -0,0 +1,86 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures round trip time and throughput of stepping games through a
+ * RingEnvServer. The server runs on another thread here, but talks to the
+ * client only through the mapped file, as it would from another process.
+ *
+ * Usage: java RingEnvBenchmark [number of games] [steps] [requests in flight]
+ *
+ */
+public class RingEnvBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of games, steps and requests in flight, all optional.
+     * @throws Exception if the ring file can't be used
+     */
+    public static void main(String[] args) throws Exception {
+        int games = 1024;
+        int steps = 20000;
+        int inFlight = 4;
+        if (args.length >= 1) {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            steps = Integer.parseInt(args[1]);
+        }
+        if (args.length >= 3) {
+            inFlight = Integer.parseInt(args[2]);
+        }
+
+        Pet cat = new Cat();
+        String[] species = {cat.getSpecies()};
+        Food food = new Food("Fish", "", 5, 20);
+        food.setHealthIncrease(species, new String[] {"2"});
+        Toy toy = new Toy("Ball", "", 5, 3);
+        toy.setHappinessIncrease(species, new String[] {"15"});
+        VectorPetEnv env = new VectorPetEnv(games, cat, food, toy, Integer.MAX_VALUE, 10,
+                new AutomatedPetEventHandler());
+
+        Path file = Files.createTempFile("petenv", ".ring");
+        Thread server = new Thread(new RingEnvServer(file, env, 8));
+        server.start();
+        try (RingEnvClient client = new RingEnvClient(file, 5000)) {
+            float[] observations = new float[games * client.getObservationSize()];
+            float[] rewards = new float[games];
+            boolean[] done = new boolean[games];
+            int[] actions = new int[games];
+            for (int i = 0; i < games; i++) {
+                actions[i] = i % PetGymEnv.NUMBER_OF_ACTIONS;
+            }
+            client.reset(1, observations);
+            for (int i = 0; i < 1000; i++) {
+                client.step(actions, observations, rewards, done);
+            }
+
+            //one step at a time: round trip time
+            long start = System.nanoTime();
+            for (int i = 0; i < steps; i++) {
+                client.step(actions, observations, rewards, done);
+            }
+            long roundTrips = System.nanoTime() - start;
+
+            //several steps on the way at once: throughput
+            start = System.nanoTime();
+            for (int i = 0; i < inFlight; i++) {
+                client.send(RingEnvServer.STEP, i, actions);
+            }
+            for (int i = inFlight; i < steps + inFlight; i++) {
+                client.receive(observations, rewards, done);
+                if (i < steps) {
+                    client.send(RingEnvServer.STEP, i, actions);
+                }
+            }
+            long pipelined = System.nanoTime() - start;
+
+            System.out.println(games + " games, " + steps + " steps");
+            System.out.printf("round trip: %.1f us per step%n", roundTrips / 1e3 / steps);
+            System.out.printf("%d in flight: %.1f us per step, %.1f million game steps/s%n",
+                    inFlight, pipelined / 1e3 / steps, (double) games * steps / (pipelined / 1e3));
+        }
+        server.join();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The trainer's side of a RingEnvServer, in Java. Other languages can do the
+ * same thing by following the layout described in RingEnvServer.
+ *
+ * Requests can be sent and answers received separately, so several steps can
+ * be on the way at once, or together with step and reset. A client must only
+ * be used by one thread, and a file must only have one client.
+ *
+ */
+public class RingEnvClient implements AutoCloseable {
+
+    /**
+     * The mapped file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Requests to the server.
+     */
+    private final SpscRing requests;
+    /**
+     * Answers from the server.
+     */
+    private final SpscRing answers;
+    /**
+     * Number of games.
+     */
+    private final int games;
+    /**
+     * Floats in each observation.
+     */
+    private final int observationSize;
+    /**
+     * Where each answer's done flags start, from the start of the slot.
+     */
+    private final int doneOffset;
+    /**
+     * Where each answer's observations start, from the start of the slot.
+     */
+    private final int observationOffset;
+
+    /**
+     * Attaches to a server's file, waiting for the server to make it.
+     * @param file The server's file.
+     * @param timeoutMillis How long to wait for the file to be ready.
+     * @throws IOException if the file can't be read
+     * @throws TimeoutException if the file isn't ready in time
+     * @throws IllegalArgumentException if the file isn't a version this client knows
+     */
+    public RingEnvClient(Path file, long timeoutMillis) throws IOException, TimeoutException {
+        long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+        while (!Files.exists(file) || Files.size(file) < RingEnvServer.FILE_HEADER_SIZE) {
+            waitUntil(deadline);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            buffer = mapped;
+        }
+        while ((int) RingEnvServer.INTS.getAcquire(buffer, 0) != RingEnvServer.MAGIC) {
+            waitUntil(deadline);
+        }
+        if (buffer.getInt(4) != RingEnvServer.VERSION) {
+            throw new IllegalArgumentException("Unknown ring file version " + buffer.getInt(4));
+        }
+        games = buffer.getInt(8);
+        observationSize = buffer.getInt(12);
+        int slots = buffer.getInt(16);
+        int requestSize = buffer.getInt(20);
+        int answerSize = buffer.getInt(24);
+        int answerBase = RingEnvServer.FILE_HEADER_SIZE
+                + RingEnvServer.roundUp(SpscRing.sizeFor(slots, requestSize), 64);
+        requests = new SpscRing(buffer, RingEnvServer.FILE_HEADER_SIZE, slots, requestSize);
+        answers = new SpscRing(buffer, answerBase, slots, answerSize);
+        doneOffset = RingEnvServer.SLOT_HEADER_SIZE + 4 * games;
+        observationOffset = doneOffset + RingEnvServer.roundUp(games, 4);
+    }
+
+    /**
+     * Gets the number of games.
+     * @return Number of games.
+     */
+    public int getNumberOfGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of floats in each observation.
+     * @return Floats per observation.
+     */
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    /**
+     * Resets every game and waits for the first observations.
+     * @param seed Seed for the games.
+     * @param observations Where to write the observations.
+     */
+    public void reset(long seed, float[] observations) {
+        send(RingEnvServer.RESET, seed, null);
+        receive(observations, null, null);
+    }
+
+    /**
+     * Steps every game and waits for the answer.
+     * @param actions One action per game.
+     * @param observations Where to write the observations.
+     * @param rewards Where to write the rewards.
+     * @param done Where to write whether each game is over.
+     * @return Id of the step.
+     */
+    public long step(int[] actions, float[] observations, float[] rewards, boolean[] done) {
+        send(RingEnvServer.STEP, 0, actions);
+        return receive(observations, rewards, done);
+    }
+
+    /**
+     * Sends a request, waiting if the ring is full.
+     * @param command STEP, RESET or SHUTDOWN.
+     * @param id The id, or the seed for RESET.
+     * @param actions One action per game, for STEP.
+     */
+    public void send(int command, long id, int[] actions) {
+        int slot = requests.claim();
+        for (int tries = 0; slot < 0; tries++) {
+            SpscRing.idle(tries);
+            slot = requests.claim();
+        }
+        buffer.putLong(slot, id);
+        buffer.putInt(slot + 8, command);
+        if (actions != null) {
+            for (int i = 0; i < games; i++) {
+                buffer.putInt(slot + RingEnvServer.SLOT_HEADER_SIZE + 4 * i, actions[i]);
+            }
+        }
+        requests.publish();
+    }
+
+    /**
+     * Waits for the next answer and reads it.
+     * @param observations Where to write the observations, or null.
+     * @param rewards Where to write the rewards, or null.
+     * @param done Where to write whether each game is over, or null.
+     * @return Id of the request answered.
+     */
+    public long receive(float[] observations, float[] rewards, boolean[] done) {
+        int slot = answers.poll();
+        for (int tries = 0; slot < 0; tries++) {
+            SpscRing.idle(tries);
+            slot = answers.poll();
+        }
+        long id = buffer.getLong(slot);
+        for (int i = 0; i < games; i++) {
+            if (rewards != null) {
+                rewards[i] = buffer.getFloat(slot + RingEnvServer.SLOT_HEADER_SIZE + 4 * i);
+            }
+            if (done != null) {
+                done[i] = buffer.get(slot + doneOffset + i) != 0;
+            }
+        }
+        if (observations != null && buffer.getInt(slot + 8) != RingEnvServer.SHUTDOWN) {
+            int start = slot + observationOffset;
+            for (int i = 0; i < games * observationSize; i++) {
+                observations[i] = buffer.getFloat(start + 4 * i);
+            }
+        }
+        answers.release();
+        return id;
+    }
+
+    /**
+     * Tells the server to stop and waits for it to answer.
+     */
+    @Override
+    public void close() {
+        send(RingEnvServer.SHUTDOWN, 0, null);
+        receive(null, null, null);
+    }
+
+    /**
+     * Waits a moment, unless it is past the deadline.
+     * @param deadline When to give up, from System.nanoTime.
+     * @throws TimeoutException if it is past the deadline
+     */
+    private static void waitUntil(long deadline) throws TimeoutException {
+        if (System.nanoTime() > deadline) {
+            throw new TimeoutException("Ring file not ready");
+        }
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for the ring file");
+        }
+    }
+}
@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+/**
+ * Runs a VectorPetEnv for a trainer in another process, talking through a
+ * memory-mapped file instead of a socket.
+ *
+ * The trainer puts requests in one SpscRing and the server puts answers in
+ * another, so nothing is copied or converted on the way. The file is laid out
+ * as below; all numbers are little-endian, and floats are IEEE 754.
+ *
+ * <pre>
+ * File header, 64 bytes:
+ *   0   int   MAGIC, written last, once everything else is ready
+ *   4   int   VERSION
+ *   8   int   number of games, n
+ *   12  int   floats per observation, m (VectorPetEnv.OBSERVATION_SIZE)
+ *   16  int   slots in each ring
+ *   20  int   bytes in each request slot
+ *   24  int   bytes in each answer slot
+ *
+ * Request ring, at 64 (see SpscRing for its header):
+ *   0   long  id: a number the trainer chooses, or the seed for RESET
+ *   8   int   command: STEP, RESET or SHUTDOWN
+ *   12  int   unused
+ *   16  int[n] actions, for STEP
+ *
+ * Answer ring, straight after the request ring:
+ *   0   long  id of the request answered
+ *   8   int   command of the request answered
+ *   12  int   unused
+ *   16  float[n]   rewards
+ *   16 + 4n       byte[n] 1 if the game is over, padded to a multiple of 4
+ *   after that    float[n * m] observations, one game after another
+ * </pre>
+ *
+ * Slots are padded to a multiple of 8 bytes. Every request gets exactly one
+ * answer, in order, so a trainer can have up to the number of slots of
+ * requests on the way at once.
+ *
+ * Usage: java RingEnvServer [file] [number of games] [days per game]
+ *
+ */
+public class RingEnvServer implements Runnable {
+
+    /**
+     * Written at the start of the file once it is ready ("PETR").
+     */
+    public static final int MAGIC = 0x50455452;
+    /**
+     * Version of the layout.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Bytes in the file header.
+     */
+    public static final int FILE_HEADER_SIZE = 64;
+    /**
+     * Offset of the fields at the start of each slot.
+     */
+    public static final int SLOT_HEADER_SIZE = 16;
+    /**
+     * Command: step every game.
+     */
+    public static final int STEP = 0;
+    /**
+     * Command: reset every game with the seed given as the id.
+     */
+    public static final int RESET = 1;
+    /**
+     * Command: stop the server.
+     */
+    public static final int SHUTDOWN = 2;
+
+    /**
+     * Reads and writes ints in the buffer with memory ordering.
+     */
+    static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The games.
+     */
+    private final VectorPetEnv env;
+    /**
+     * The mapped file, for writing answers.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Requests from the trainer.
+     */
+    private final SpscRing requests;
+    /**
+     * Answers to the trainer.
+     */
+    private final SpscRing answers;
+    /**
+     * Where each answer's done flags start, from the start of the slot.
+     */
+    private final int doneOffset;
+    /**
+     * Where each answer's observations start, from the start of the slot.
+     */
+    private final int observationOffset;
+    /**
+     * Actions read from a request.
+     */
+    private final int[] actions;
+    /**
+     * Rewards from a step.
+     */
+    private final float[] rewards;
+    /**
+     * Whether each game is over after a step.
+     */
+    private final boolean[] done;
+
+    /**
+     * Creates the file and gets ready to serve the games.
+     * @param file The file to create; anything already there is overwritten.
+     * @param env The games.
+     * @param slots Number of slots in each ring, a power of two.
+     * @throws IOException if the file can't be made
+     */
+    public RingEnvServer(Path file, VectorPetEnv env, int slots) throws IOException {
+        this.env = env;
+        int games = env.size();
+        int requestSize = requestSlotSize(games);
+        int answerSize = answerSlotSize(games);
+        doneOffset = SLOT_HEADER_SIZE + 4 * games;
+        observationOffset = doneOffset + roundUp(games, 4);
+        int answerBase = FILE_HEADER_SIZE + roundUp(SpscRing.sizeFor(slots, requestSize), 64);
+        int length = answerBase + SpscRing.sizeFor(slots, answerSize);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                FileChannel channel = raf.getChannel()) {
+            raf.setLength(0); //so the rings start empty
+            raf.setLength(length);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            buffer = mapped;
+        }
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, games);
+        buffer.putInt(12, VectorPetEnv.OBSERVATION_SIZE);
+        buffer.putInt(16, slots);
+        buffer.putInt(20, requestSize);
+        buffer.putInt(24, answerSize);
+        requests = new SpscRing(buffer, FILE_HEADER_SIZE, slots, requestSize);
+        answers = new SpscRing(buffer, answerBase, slots, answerSize);
+        actions = new int[games];
+        rewards = new float[games];
+        done = new boolean[games];
+        INTS.setRelease(buffer, 0, MAGIC);
+    }
+
+    /**
+     * Gets the size of a request slot.
+     * @param games Number of games.
+     * @return Bytes in a request slot.
+     */
+    static int requestSlotSize(int games) {
+        return roundUp(SLOT_HEADER_SIZE + 4 * games, 8);
+    }
+
+    /**
+     * Gets the size of an answer slot.
+     * @param games Number of games.
+     * @return Bytes in an answer slot.
+     */
+    static int answerSlotSize(int games) {
+        return roundUp(SLOT_HEADER_SIZE + 4 * games + roundUp(games, 4)
+                + 4 * games * VectorPetEnv.OBSERVATION_SIZE, 8);
+    }
+
+    /**
+     * Rounds a number up to a multiple of another.
+     * @param value The number.
+     * @param multiple The multiple.
+     * @return The rounded number.
+     */
+    static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+
+    /**
+     * Answers requests until told to shut down or interrupted.
+     */
+    @Override
+    public void run() {
+        boolean running = true;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            int request = requests.poll();
+            for (int tries = 0; request < 0; tries++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                SpscRing.idle(tries);
+                request = requests.poll();
+            }
+            long id = buffer.getLong(request);
+            int command = buffer.getInt(request + 8);
+            if (command == STEP) {
+                for (int i = 0; i < actions.length; i++) {
+                    actions[i] = buffer.getInt(request + SLOT_HEADER_SIZE + 4 * i);
+                }
+            }
+            requests.release();
+
+            int answer = answers.claim();
+            for (int tries = 0; answer < 0; tries++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                SpscRing.idle(tries);
+                answer = answers.claim();
+            }
+            if (command == STEP) {
+                env.step(actions, rewards, done);
+            } else if (command == RESET) {
+                env.reset(id);
+                for (int i = 0; i < rewards.length; i++) {
+                    rewards[i] = 0;
+                    done[i] = false;
+                }
+            } else {
+                running = false;
+            }
+            buffer.putLong(answer, id);
+            buffer.putInt(answer + 8, command);
+            for (int i = 0; i < rewards.length; i++) {
+                buffer.putFloat(answer + SLOT_HEADER_SIZE + 4 * i, rewards[i]);
+                buffer.put(answer + doneOffset + i, (byte) (done[i] ? 1 : 0));
+            }
+            if (command != SHUTDOWN) {
+                buffer.position(answer + observationOffset);
+                env.observe(buffer);
+                buffer.position(0);
+            }
+            answers.publish();
+        }
+    }
+
+    /**
+     * Serves cats fed their favourite food and played with with their
+     * favourite toy, until a trainer shuts the server down.
+     * @param args The file, number of games and days per game, all optional.
+     * @throws IOException if the file can't be made
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length >= 1 ? args[0] : "petenv.ring");
+        int games = args.length >= 2 ? Integer.parseInt(args[1]) : 1024;
+        int days = args.length >= 3 ? Integer.parseInt(args[2]) : 100;
+
+        GameEnvironment game = new GameEnvironment();
+        game.generateFoodPrototypes();
+        game.generateToyPrototypes();
+        HashMap<String, Food> foods = game.getFoodPrototypes();
+        HashMap<String, Toy> toys = game.getToyPrototypes();
+        Pet cat = new Cat();
+        VectorPetEnv env = new VectorPetEnv(games, cat, foods.get(cat.getFavouriteFood()),
+                toys.get(cat.getFavouriteToy()), days, 10, new AutomatedPetEventHandler());
+
+        System.out.println("Serving " + games + " games on " + file.toAbsolutePath());
+        new RingEnvServer(file, env, 8).run();
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the SpscRing, RingEnvServer and RingEnvClient classes.
+ *
+ */
+public class RingEnvTest {
+
+	private Pet cat;
+	private Food food;
+	private Toy toy;
+	private Path file;
+
+	@Before
+	public void setUp() throws Exception {
+		cat = new Cat();
+		String[] species = {cat.getSpecies()};
+		food = new Food("Fish", "", 5, 20);
+		food.setHealthIncrease(species, new String[] {"2"});
+		toy = new Toy("Ball", "", 5, 3);
+		toy.setHappinessIncrease(species, new String[] {"15"});
+		file = Files.createTempFile("petenv", ".ring");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void testRingOrderAndFull() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(SpscRing.sizeFor(4, 8));
+		SpscRing writer = new SpscRing(buffer, 0, 4, 8);
+		SpscRing reader = new SpscRing(buffer, 0, 4, 8);
+		assertEquals(-1, reader.poll());
+		for (int i = 0; i < 4; i++) {
+			int slot = writer.claim();
+			buffer.putLong(slot, i);
+			writer.publish();
+		}
+		assertEquals(-1, writer.claim());
+		for (int i = 0; i < 4; i++) {
+			int slot = reader.poll();
+			assertEquals(i, buffer.getLong(slot));
+			reader.release();
+		}
+		assertEquals(-1, reader.poll());
+		assertTrue(writer.claim() >= 0);
+	}
+
+	@Test
+	public void testMatchesVectorEnv() throws Exception {
+		int games = 7;
+		VectorPetEnv served = new VectorPetEnv(games, cat, food, toy, 10, 10,
+				new AutomatedPetEventHandler());
+		VectorPetEnv local = new VectorPetEnv(games, cat, food, toy, 10, 10,
+				new AutomatedPetEventHandler());
+		Thread server = new Thread(new RingEnvServer(file, served, 4));
+		server.start();
+
+		try (RingEnvClient client = new RingEnvClient(file, 5000)) {
+			assertEquals(games, client.getNumberOfGames());
+			int size = client.getObservationSize();
+			float[] observations = new float[games * size];
+			float[] expected = new float[games * size];
+			float[] rewards = new float[games];
+			float[] expectedRewards = new float[games];
+			boolean[] done = new boolean[games];
+			boolean[] expectedDone = new boolean[games];
+			int[] actions = new int[games];
+
+			client.reset(3, observations);
+			local.reset(3);
+			local.observe(expected);
+			assertArrayEquals(expected, observations, 0);
+
+			for (int day = 0; day < 10; day++) {
+				for (int i = 0; i < games; i++) {
+					actions[i] = (day + i) % PetGymEnv.NUMBER_OF_ACTIONS;
+				}
+				client.step(actions, observations, rewards, done);
+				local.step(actions, expected, expectedRewards, expectedDone);
+				assertArrayEquals(expected, observations, 0);
+				assertArrayEquals(expectedRewards, rewards, 0);
+				for (int i = 0; i < games; i++) {
+					assertEquals(expectedDone[i], done[i]);
+				}
+			}
+
+			//several requests on the way at once come back in order
+			for (long id = 10; id < 14; id++) {
+				client.send(RingEnvServer.STEP, id, actions);
+			}
+			for (long id = 10; id < 14; id++) {
+				assertEquals(id, client.receive(null, null, null));
+			}
+		}
+		server.join(5000);
+		assertFalse(server.isAlive());
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Builds up a screen of output and sends it on in one write when flushed,
+ * instead of one write per line. On a remote terminal that is one packet
+ * per screen rather than dozens.
+ *
+ * The buffer is kept and reused, so drawing a screen doesn't make a new one
+ * each time. Output for a NullOutputSink isn't built up at all.
+ *
+ */
+public class ScreenBuffer implements OutputSink {
+
+    /**
+     * What ends a line.
+     */
+    private static final String NEWLINE = System.lineSeparator();
+
+    /**
+     * Where each screen is sent.
+     */
+    private final OutputSink target;
+    /**
+     * Whether output is being thrown away anyway.
+     */
+    private final boolean discard;
+    /**
+     * The screen so far.
+     */
+    private final StringBuilder screen = new StringBuilder(1024);
+
+    /**
+     * Creates a buffer that sends screens to a sink.
+     * @param target Where each screen is sent.
+     */
+    public ScreenBuffer(OutputSink target) {
+        this.target = target;
+        discard = target instanceof NullOutputSink;
+    }
+
+    @Override
+    public void print(String text) {
+        if (!discard) {
+            screen.append(text);
+        }
+    }
+
+    @Override
+    public void println(String text) {
+        if (!discard) {
+            screen.append(text).append(NEWLINE);
+        }
+    }
+
+    /**
+     * Sends the screen so far on in one write and empties the buffer.
+     */
+    @Override
+    public void flush() {
+        if (screen.length() > 0) {
+            target.print(screen.toString());
+            screen.setLength(0);
+        }
+        target.flush();
+    }
+
+    /**
+     * Gets the number of characters waiting to be sent.
+     * @return Characters in the buffer.
+     */
+    public int length() {
+        return screen.length();
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Plays a whole game from a script of answers instead of the keyboard, as
+ * fast as it can with the output thrown away, and reports how long each
+ * phase took. Used to load test the game against recorded sessions.
+ *
+ * A script has one answer per line, in the order the game asks for them:
+ * the tutorial, the number of days, players, their names and pets, and then
+ * each menu choice and purchase. Lines starting with # are comments and
+ * are skipped. If the script runs out before the game is over, the run stops
+ * there and the report says so.
+ *
+ * Usage: java ScriptedGameRunner [script file] [seed]
+ *
+ */
+public class ScriptedGameRunner implements GamePhaseListener {
+
+    /**
+     * Gives the script's answers and counts them.
+     */
+    private final class CountingInputSource implements InputSource {
+
+        /**
+         * The answers.
+         */
+        private final InputSource answers;
+
+        /**
+         * Creates a source that counts another source's lines.
+         * @param answers The answers.
+         */
+        CountingInputSource(InputSource answers) {
+            this.answers = answers;
+        }
+
+        @Override
+        public String nextLine() {
+            String line = answers.nextLine();
+            commands++;
+            return line;
+        }
+
+        @Override
+        public void close() {
+            answers.close();
+        }
+    }
+
+    /**
+     * The game's answers.
+     */
+    private final InputSource script;
+    /**
+     * Where the game's output goes.
+     */
+    private final OutputSink output;
+    /**
+     * Seed for the game's random numbers.
+     */
+    private final long seed;
+    /**
+     * How long each phase took, in nanoseconds, in the order they ran.
+     */
+    private final LinkedHashMap<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+    /**
+     * Name of the phase running.
+     */
+    private String currentPhase;
+    /**
+     * When the phase running started, from System.nanoTime.
+     */
+    private long phaseStart;
+    /**
+     * When the game started, from System.nanoTime.
+     */
+    private long gameStart;
+    /**
+     * When the game finished, from System.nanoTime.
+     */
+    private long gameEnd;
+    /**
+     * Number of answers read.
+     */
+    private int commands;
+    /**
+     * Whether the script ran out before the game was over.
+     */
+    private boolean truncated;
+    /**
+     * The phase that was running when the game finished.
+     */
+    private String lastPhase;
+
+    /**
+     * Creates a runner that throws the game's output away.
+     * @param script The answers, with comments already taken out.
+     * @param seed Seed for the game's random numbers.
+     */
+    public ScriptedGameRunner(List<String> script, long seed) {
+        this(new MemoryInputSource(script), NullOutputSink.INSTANCE, seed);
+    }
+
+    /**
+     * Creates a runner.
+     * @param script The answers.
+     * @param output Where the game's output goes.
+     * @param seed Seed for the game's random numbers.
+     */
+    public ScriptedGameRunner(InputSource script, OutputSink output, long seed) {
+        this.script = script;
+        this.output = output;
+        this.seed = seed;
+    }
+
+    /**
+     * Reads a script file, leaving out comments.
+     * @param fileName The file.
+     * @return The answers.
+     * @throws IOException if the file can't be read
+     */
+    public static List<String> readScript(String fileName) throws IOException {
+        List<String> answers = new ArrayList<String>();
+        for (String line : Files.readAllLines(Paths.get(fileName), StandardCharsets.UTF_8)) {
+            if (!line.startsWith("#")) {
+                answers.add(line);
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Plays the game, stopping early if the script runs out.
+     * @throws IOException if the game's data files can't be read
+     */
+    public void run() throws IOException {
+        GameEnvironment game = new GameEnvironment(new CommandLineInterface(
+                new CountingInputSource(script), output));
+        game.initialiseNumGenerator(new String[] {Long.toString(seed)});
+        game.setPhaseListener(this);
+        gameStart = System.nanoTime();
+        try {
+            game.play();
+        } catch (NoSuchElementException e) {
+            truncated = true;
+        }
+    }
+
+    @Override
+    public void phaseStarted(String phase) {
+        long now = System.nanoTime();
+        if (currentPhase != null) {
+            phaseTimes.merge(currentPhase, now - phaseStart, Long::sum);
+        }
+        if (phase.equals("finished")) {
+            gameEnd = now;
+            lastPhase = currentPhase;
+            currentPhase = null;
+        } else {
+            currentPhase = phase;
+            phaseStart = now;
+        }
+    }
+
+    /**
+     * Gets how long each phase took.
+     * @return Nanoseconds for each phase, in the order they ran.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return phaseTimes;
+    }
+
+    /**
+     * Gets the number of answers read from the script.
+     * @return Number of answers.
+     */
+    public int getCommands() {
+        return commands;
+    }
+
+    /**
+     * Gets whether the script ran out before the game was over, so the
+     * timings are for part of a game.
+     * @return Whether the script was too short.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets how long the whole game took.
+     * @return Nanoseconds from start to finish.
+     */
+    public long getTotalTime() {
+        return gameEnd - gameStart;
+    }
+
+    /**
+     * Gets the timings as text.
+     * @return A line for each phase, then the total and answers per second.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phaseTimes.entrySet()) {
+            report.append(String.format("%-12s %10.3f ms%n", phase.getKey(),
+                    phase.getValue() / 1e6));
+        }
+        double seconds = getTotalTime() / 1e9;
+        report.append(String.format("%-12s %10.3f ms%n", "total", seconds * 1e3));
+        report.append(String.format("%d actions, %.0f actions per second%n", commands,
+                commands / seconds));
+        if (truncated) {
+            report.append("The script ran out during " + lastPhase
+                    + ", so the game was not finished.").append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Plays a script and prints the timings.
+     * @param args The script file and the seed, which is 0 if not given.
+     * @throws IOException if a file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ScriptedGameRunner [script file] [seed]");
+            return;
+        }
+        long seed = args.length >= 2 ? Long.parseLong(args[1]) : 0;
+        ScriptedGameRunner runner = new ScriptedGameRunner(readScript(args[0]), seed);
+        runner.run();
+        System.out.print(runner.report());
+    }
+}
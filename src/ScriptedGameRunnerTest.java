@@ -0,0 +1,57 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the ScriptedGameRunner class.
+ *
+ */
+public class ScriptedGameRunnerTest {
+
+	@Test
+	public void testRunsScriptAndTimesPhases() throws Exception {
+		List<String> script = Arrays.asList(
+				"n", "2", "1", "Ann", "1", "cat", "Tom",
+				//day 1: buy the first food, feed it, then sleep
+				"2", "1", "1", "3", "3", "1", "5",
+				//day 2
+				"5", "6");
+		ScriptedGameRunner runner = new ScriptedGameRunner(script, 1);
+		runner.run();
+		assertEquals(script.size(), runner.getCommands());
+		assertEquals(Arrays.asList("setup", "catalog", "day 1", "day 2", "post-game"),
+				Arrays.asList(runner.getPhaseTimes().keySet().toArray()));
+		long phases = 0;
+		for (long time : runner.getPhaseTimes().values()) {
+			assertTrue(time >= 0);
+			phases += time;
+		}
+		assertTrue(phases <= runner.getTotalTime());
+		assertTrue(runner.report().contains("actions per second"));
+		assertFalse(runner.isTruncated());
+	}
+
+	@Test
+	public void testScriptRunsOutDuringSetup() throws Exception {
+		ScriptedGameRunner runner = new ScriptedGameRunner(Arrays.asList("n", "2", "1"), 1);
+		runner.run();
+		assertTrue(runner.isTruncated());
+		assertEquals(3, runner.getCommands());
+		assertTrue(runner.getTotalTime() >= 0);
+		assertEquals(Arrays.asList("setup"),
+				Arrays.asList(runner.getPhaseTimes().keySet().toArray()));
+		assertTrue(runner.report().contains("ran out during setup"));
+	}
+
+	@Test
+	public void testScriptRunsOutDuringDay() throws Exception {
+		ScriptedGameRunner runner = new ScriptedGameRunner(
+				Arrays.asList("n", "2", "1", "Ann", "1", "cat", "Tom", "5"), 1);
+		runner.run();
+		assertTrue(runner.isTruncated());
+		assertTrue(runner.report().contains("ran out during day 1"));
+	}
+}
@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random source that gives back numbers it was told to, in order.
+ *
+ * Used to run the day's rules with a chosen result for each roll, for example
+ * to work out every outcome of a day instead of sampling one.
+ *
+ * Derived streams have their own scripts, set with setStreamValues by the
+ * stream ids used to derive them, so code that derives a stream for each
+ * player and then each pet, such as GameState.advanceDay, can be scripted
+ * too. As the RandomSource contract asks, deriving the same stream id twice
+ * gives two sources that give back the same numbers from the start of that
+ * script, however many numbers have been taken from this source. A stream
+ * with no script set gives back no numbers.
+ *
+ * A script isn't made from a seed, so getSeed is not supported.
+ *
+ */
+public class ScriptedRandomSource implements RandomSource {
+
+    /**
+     * No numbers, for streams with no script.
+     */
+    private static final int[] NONE = new int[0];
+
+    /**
+     * The numbers to give back.
+     */
+    private int[] values;
+    /**
+     * Index of the next number to give back.
+     */
+    private int next;
+    /**
+     * The scripts of derived streams, by the stream ids from the first
+     * source down; shared by every source derived from it.
+     */
+    private final Map<List<Long>, int[]> streams;
+    /**
+     * The stream ids used to derive this source from the first one.
+     */
+    private final List<Long> path;
+
+    /**
+     * Creates a random source that gives back the numbers given.
+     * @param values The numbers, in order.
+     */
+    public ScriptedRandomSource(int... values) {
+        this(values, new HashMap<List<Long>, int[]>(), new ArrayList<Long>());
+    }
+
+    /**
+     * Creates a derived stream.
+     * @param values The numbers, in order.
+     * @param streams The scripts of derived streams.
+     * @param path The stream ids used to derive this source.
+     */
+    private ScriptedRandomSource(int[] values, Map<List<Long>, int[]> streams, List<Long> path) {
+        this.streams = streams;
+        this.path = path;
+        setValues(values);
+    }
+
+    /**
+     * Starts giving back a new list of numbers.
+     * @param newValues The numbers, in order.
+     */
+    public void setValues(int... newValues) {
+        values = newValues;
+        next = 0;
+    }
+
+    /**
+     * Sets the numbers a derived stream gives back. Streams already derived
+     * keep the numbers they had.
+     * @param newValues The numbers, in order.
+     * @param streamIds The ids the stream is derived with, one for each
+     * derive, such as a player's index and then a pet's.
+     * @throws IllegalArgumentException if no stream ids are given
+     */
+    public void setStreamValues(int[] newValues, long... streamIds) {
+        if (streamIds.length == 0) {
+            throw new IllegalArgumentException("need at least one stream id");
+        }
+        List<Long> key = new ArrayList<Long>(path);
+        for (long streamId : streamIds) {
+            key.add(streamId);
+        }
+        streams.put(key, newValues.clone());
+    }
+
+    /**
+     * Gets how many of the numbers have been given back.
+     * @return Number of numbers used.
+     */
+    public int getNumberUsed() {
+        return next;
+    }
+
+    /**
+     * Gives back the next number.
+     * @param bound Upper bound of the number. Must be greater than 0.
+     * @return The next number.
+     * @throws IllegalArgumentException if the next number isn't between 0 and bound
+     * @throws IllegalStateException if there are no numbers left
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (next >= values.length) {
+            throw new IllegalStateException("No scripted numbers left");
+        }
+        int value = values[next];
+        if (value < 0 || value >= bound) {
+            throw new IllegalArgumentException("Scripted number " + value
+                    + " is not less than " + bound);
+        }
+        next++;
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextInt(2) == 1;
+    }
+
+    @Override
+    public long nextLong() {
+        if (next >= values.length) {
+            throw new IllegalStateException("No scripted numbers left");
+        }
+        return values[next++];
+    }
+
+    /**
+     * Not supported; a script isn't made from a seed.
+     * @return Never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public long getSeed() {
+        throw new UnsupportedOperationException("Scripted random sources have no seed");
+    }
+
+    /**
+     * Gets a stream that gives back the numbers set for it with
+     * setStreamValues, from the start, or none if none were set.
+     * @param streamId Id of the stream.
+     * @return The stream.
+     */
+    @Override
+    public RandomSource derive(long streamId) {
+        List<Long> streamPath = new ArrayList<Long>(path);
+        streamPath.add(streamId);
+        int[] script = streams.get(streamPath);
+        return new ScriptedRandomSource(script == null ? NONE : script, streams, streamPath);
+    }
+}
@@ -0,0 +1,494 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Works out what a player should buy from the store to help their pets the
+ * most over the next few days without spending more than they have.
+ *
+ * Each food is worth the health and happiness it gives a pet of a species
+ * (Pet.feed adds the health increase to health, and the health increase
+ * times the portion size to happiness). A pet eats at most once a day, so
+ * the pets of a species get no more meals in total than their number times
+ * the days, and a food only counts for the species it helps. Each toy is
+ * worth the most happiness it gives a pet over all the times that pet can
+ * play with it before it breaks, which is the toy's durability over the
+ * pet's harshness, rounded up, but no more than the number of days. Only
+ * enough toys to last each pet the whole time are bought.
+ *
+ * For each species the best meals are worked out for every number of meals
+ * up to what its pets can eat and every budget, choosing each meal from the
+ * best for one fewer, and then the money is shared out between the species.
+ * Of foods with the same price only the best for the species is needed.
+ * Toys are a bounded knapsack on top of that: each toy that may be bought up
+ * to c times is split into bundles of 1, 2, 4, ... of it, so any number up
+ * to c can be made from the bundles, and the bundles are packed with the
+ * usual 0/1 knapsack over every budget up to the balance. Toys with the same
+ * price are only kept while the budget could still buy them, which leaves
+ * few bundles even in a store with thousands of items. The table for one
+ * set of pets and one number of days answers every balance up to the
+ * largest asked for, so it is kept and only worked out again when someone
+ * has more money than before.
+ *
+ */
+public class ShoppingOptimizer {
+
+    /**
+     * What to buy.
+     */
+    public static final class Basket {
+
+        /**
+         * How many of each item to buy.
+         */
+        private final Map<Item, Integer> items;
+        /**
+         * What the basket costs.
+         */
+        private final int cost;
+        /**
+         * How much health and happiness the basket should give.
+         */
+        private final long value;
+
+        /**
+         * Creates a basket.
+         * @param items How many of each item to buy.
+         * @param cost What the basket costs.
+         * @param value How much health and happiness the basket should give.
+         */
+        Basket(Map<Item, Integer> items, int cost, long value) {
+            this.items = Collections.unmodifiableMap(items);
+            this.cost = cost;
+            this.value = value;
+        }
+
+        /**
+         * Gets how many of each item to buy.
+         * @return Number of each item, cheapest first.
+         */
+        public Map<Item, Integer> getItems() {
+            return items;
+        }
+
+        /**
+         * Gets what the basket costs.
+         * @return Cost of the basket.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Gets how much health and happiness the basket should give.
+         * @return Value of the basket.
+         */
+        public long getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            if (items.isEmpty()) {
+                return "Nothing in the store would help your pets.";
+            }
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<Item, Integer> entry : items.entrySet()) {
+                text.append(entry.getValue()).append(" x ").append(entry.getKey().getName())
+                    .append(" ($").append(entry.getKey().getPrice()).append(" each)\n");
+            }
+            text.append("Total: $").append(cost);
+            return text.toString();
+        }
+    }
+
+    /**
+     * The knapsack worked out for one set of pets and number of days.
+     */
+    private static final class Table {
+
+        /**
+         * Largest budget the table covers.
+         */
+        private final int budget;
+        /**
+         * For each species, the foods that help it, one per price.
+         */
+        private final Food[][] groupFoods;
+        /**
+         * For each species, the food eaten as the k-th meal when spending at
+         * most m on k meals, by k then m, as an index into its groupFoods, or
+         * -1 if that meal isn't bought.
+         */
+        private final int[][][] mealChoice;
+        /**
+         * For each species, the money given to its food at each budget.
+         */
+        private final int[][] groupSpend;
+        /**
+         * The toy each bundle is made of.
+         */
+        private final Item[] bundleItem;
+        /**
+         * How many of the toy are in each bundle.
+         */
+        private final int[] bundleCount;
+        /**
+         * Best value for each budget.
+         */
+        private final long[] best;
+        /**
+         * For each bundle, the budgets at which it is taken.
+         */
+        private final BitSet[] taken;
+
+        /**
+         * Creates a table.
+         * @param budget Largest budget the table covers.
+         * @param groupFoods For each species, the foods that help it.
+         * @param mealChoice For each species, the food of each meal.
+         * @param groupSpend For each species, the money given to its food.
+         * @param bundleItem The toy each bundle is made of.
+         * @param bundleCount How many of the toy are in each bundle.
+         * @param best Best value for each budget.
+         * @param taken For each bundle, the budgets at which it is taken.
+         */
+        Table(int budget, Food[][] groupFoods, int[][][] mealChoice, int[][] groupSpend,
+                Item[] bundleItem, int[] bundleCount, long[] best, BitSet[] taken) {
+            this.budget = budget;
+            this.groupFoods = groupFoods;
+            this.mealChoice = mealChoice;
+            this.groupSpend = groupSpend;
+            this.bundleItem = bundleItem;
+            this.bundleCount = bundleCount;
+            this.best = best;
+            this.taken = taken;
+        }
+    }
+
+    /**
+     * Food for sale.
+     */
+    private final List<Food> foods;
+    /**
+     * Toys for sale.
+     */
+    private final List<Toy> toys;
+    /**
+     * Tables already worked out, by the pets' species and the number of days.
+     */
+    private final Map<String, Table> tables = new HashMap<String, Table>();
+
+    /**
+     * Creates an optimizer for a store.
+     * @param foodPrototypes Food for sale.
+     * @param toyPrototypes Toys for sale.
+     */
+    public ShoppingOptimizer(Map<String, Food> foodPrototypes, Map<String, Toy> toyPrototypes) {
+        //sorted, so the same store always gives the same basket
+        foods = new ArrayList<Food>(new TreeMap<String, Food>(foodPrototypes).values());
+        toys = new ArrayList<Toy>(new TreeMap<String, Toy>(toyPrototypes).values());
+    }
+
+    /**
+     * Works out the best basket for a player's live pets.
+     * @param balance How much the player can spend.
+     * @param pets The player's pets.
+     * @param days How many days the items should help for.
+     * @return The best basket.
+     * @throws IllegalArgumentException if days is less than one or balance is negative
+     */
+    public synchronized Basket optimise(int balance, List<Pet> pets, int days) {
+        if (days < 1 || balance < 0) {
+            throw new IllegalArgumentException("days must be at least one and balance "
+                    + "can't be negative");
+        }
+        List<Pet> livePets = new ArrayList<Pet>();
+        TreeMap<String, Integer> speciesCount = new TreeMap<String, Integer>();
+        for (Pet pet : pets) {
+            if (!pet.getIsDead()) {
+                livePets.add(pet);
+                speciesCount.merge(pet.getSpecies(), 1, Integer::sum);
+            }
+        }
+        String key = speciesCount + "/" + days;
+        Table table = tables.get(key);
+        if (table == null || table.budget < balance) {
+            //leave room so a slightly richer player doesn't need a new table
+            int budget = table == null ? balance : Math.max(balance, table.budget * 2);
+            table = buildTable(speciesCount, livePets, days, budget);
+            tables.put(key, table);
+        }
+        return readBasket(table, balance);
+    }
+
+    /**
+     * Works out the best value for every budget up to the one given.
+     * @param speciesCount Number of live pets of each species.
+     * @param pets The player's live pets.
+     * @param days How many days the items should help for.
+     * @param budget Largest budget.
+     * @return The table.
+     */
+    private Table buildTable(Map<String, Integer> speciesCount, List<Pet> pets, int days,
+            int budget) {
+        //the food for each species, packed into meals, then shared out
+        int groups = speciesCount.size();
+        Food[][] groupFoods = new Food[groups][];
+        int[][][] mealChoice = new int[groups][][];
+        int[][] groupSpend = new int[groups][];
+        long[] best = new long[budget + 1];
+        int group = 0;
+        for (Map.Entry<String, Integer> entry : speciesCount.entrySet()) {
+            groupFoods[group] = foodsFor(entry.getKey());
+            long[] byMoney = packMeals(entry.getKey(), groupFoods[group],
+                    entry.getValue() * days, budget, mealChoice, group);
+            groupSpend[group] = new int[budget + 1];
+            best = share(best, byMoney, groupSpend[group]);
+            group++;
+        }
+
+        List<Item> items = new ArrayList<Item>();
+        List<Long> values = new ArrayList<Long>();
+        List<Integer> limits = new ArrayList<Integer>();
+        for (Toy toy : toys) {
+            long value = 0;
+            int needed = 0;
+            for (Pet pet : pets) {
+                int happinessIncrease;
+                try {
+                    happinessIncrease = toy.getHappinessIncrease(pet.getSpecies());
+                } catch (IllegalArgumentException e) {
+                    continue; //this pet can't play with it
+                }
+                int harshness = Math.max(1, pet.getHarshness());
+                int uses = Math.min((toy.getDurability() + harshness - 1) / harshness, days);
+                long petValue = (long) happinessIncrease * uses;
+                if (petValue > 0) {
+                    value = Math.max(value, petValue);
+                    needed += (days + uses - 1) / uses;
+                }
+            }
+            if (value > 0) {
+                items.add(toy);
+                values.add(value);
+                limits.add(needed);
+            }
+        }
+
+        //toys with the same price can swap for each other, so of those only
+        //the best ones, up to as many as the budget could ever buy, are needed
+        Integer[] order = new Integer[items.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> items.get(a).getPrice() != items.get(b).getPrice()
+                ? Integer.compare(items.get(a).getPrice(), items.get(b).getPrice())
+                : Long.compare(values.get(b), values.get(a)));
+        int room = 0;
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k];
+            int price = items.get(i).getPrice();
+            if (k == 0 || price != items.get(order[k - 1]).getPrice()) {
+                room = price == 0 ? Integer.MAX_VALUE : budget / price;
+            }
+            int limit = Math.min(limits.get(i), room);
+            limits.set(i, limit);
+            room -= limit;
+        }
+
+        //split each toy into bundles of 1, 2, 4, ... and whatever is left
+        List<Item> bundleItems = new ArrayList<Item>();
+        List<Integer> bundleCounts = new ArrayList<Integer>();
+        for (int i = 0; i < items.size(); i++) {
+            int left = limits.get(i);
+            for (int count = 1; left > 0; count *= 2) {
+                int bundle = Math.min(count, left);
+                bundleItems.add(items.get(i));
+                bundleCounts.add(bundle);
+                left -= bundle;
+            }
+        }
+
+        int bundles = bundleItems.size();
+        Item[] bundleItem = bundleItems.toArray(new Item[bundles]);
+        int[] bundleCount = new int[bundles];
+        BitSet[] taken = new BitSet[bundles];
+        Map<Item, Long> valueOf = new HashMap<Item, Long>();
+        for (int i = 0; i < items.size(); i++) {
+            valueOf.put(items.get(i), values.get(i));
+        }
+        for (int b = 0; b < bundles; b++) {
+            bundleCount[b] = bundleCounts.get(b);
+            long cost = (long) bundleItem[b].getPrice() * bundleCount[b];
+            long value = valueOf.get(bundleItem[b]) * bundleCount[b];
+            taken[b] = new BitSet(budget + 1);
+            //downwards, so each bundle is used at most once
+            for (int money = budget; money >= cost; money--) {
+                long withBundle = best[money - (int) cost] + value;
+                if (withBundle > best[money]) {
+                    best[money] = withBundle;
+                    taken[b].set(money);
+                }
+            }
+        }
+        return new Table(budget, groupFoods, mealChoice, groupSpend, bundleItem, bundleCount,
+                best, taken);
+    }
+
+    /**
+     * Gets the foods that help a species, keeping only the best of those
+     * with the same price, since any meal can be either of them.
+     * @param species The species.
+     * @return The foods, cheapest first.
+     */
+    private Food[] foodsFor(String species) {
+        TreeMap<Integer, Food> byPrice = new TreeMap<Integer, Food>();
+        for (Food food : foods) {
+            long value = foodValue(food, species);
+            Food other = byPrice.get(food.getPrice());
+            if (value > 0 && (other == null || value > foodValue(other, species))) {
+                byPrice.put(food.getPrice(), food);
+            }
+        }
+        return byPrice.values().toArray(new Food[0]);
+    }
+
+    /**
+     * Gets how much health and happiness a food gives a pet of a species.
+     * @param food The food.
+     * @param species The species.
+     * @return The value, or 0 if the species can't eat it.
+     */
+    private static long foodValue(Food food, String species) {
+        try {
+            return (long) food.getHealthIncrease(species) * (1 + food.getPortionSize());
+        } catch (IllegalArgumentException e) {
+            return 0; //this species can't eat it
+        }
+    }
+
+    /**
+     * Works out the best meals for the pets of a species for every budget,
+     * with no more meals than they can eat. Each meal can be any food, so
+     * the k-th meal is chosen from the best for k - 1 meals.
+     * @param species The species.
+     * @param groupFoods The foods that help it.
+     * @param meals Most meals the pets can eat: the number of pets times days.
+     * @param budget Largest budget.
+     * @param mealChoice Where the food of each meal is recorded.
+     * @param group The species' place in mealChoice.
+     * @return Best value for spending at most each budget on the species.
+     */
+    private static long[] packMeals(String species, Food[] groupFoods, int meals, int budget,
+            int[][][] mealChoice, int group) {
+        long[] foodValues = new long[groupFoods.length];
+        for (int j = 0; j < groupFoods.length; j++) {
+            foodValues[j] = foodValue(groupFoods[j], species);
+        }
+        if (groupFoods.length == 0) {
+            meals = 0;
+        }
+        mealChoice[group] = new int[meals + 1][];
+        long[] previous = new long[budget + 1];
+        for (int k = 1; k <= meals; k++) {
+            long[] current = previous.clone();
+            int[] chosen = new int[budget + 1];
+            Arrays.fill(chosen, -1);
+            for (int j = 0; j < groupFoods.length; j++) {
+                int price = groupFoods[j].getPrice();
+                for (int money = price; money <= budget; money++) {
+                    long withMeal = previous[money - price] + foodValues[j];
+                    if (withMeal > current[money]) {
+                        current[money] = withMeal;
+                        chosen[money] = j;
+                    }
+                }
+            }
+            mealChoice[group][k] = chosen;
+            previous = current;
+        }
+        return previous;
+    }
+
+    /**
+     * Shares money between what is already packed and one more species'
+     * food, for every budget. Both go up with the money, so only amounts at
+     * which the species' food gets better need to be tried.
+     * @param best Best value for each budget so far.
+     * @param byMoney Best value of the species' food for each budget.
+     * @param spend Where the money given to the species is recorded.
+     * @return Best value for each budget with the species' food.
+     */
+    private static long[] share(long[] best, long[] byMoney, int[] spend) {
+        List<Integer> steps = new ArrayList<Integer>();
+        steps.add(0);
+        for (int money = 1; money < byMoney.length; money++) {
+            if (byMoney[money] > byMoney[money - 1]) {
+                steps.add(money);
+            }
+        }
+        long[] shared = new long[best.length];
+        for (int money = 0; money < best.length; money++) {
+            for (int step : steps) {
+                if (step > money) {
+                    break;
+                }
+                long value = best[money - step] + byMoney[step];
+                if (value > shared[money]) {
+                    shared[money] = value;
+                    spend[money] = step;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Reads the basket for one budget out of a table.
+     * @param table The table.
+     * @param balance The budget.
+     * @return The basket.
+     */
+    private static Basket readBasket(Table table, int balance) {
+        Map<Item, Integer> counts = new HashMap<Item, Integer>();
+        int money = balance;
+        int cost = 0;
+        for (int b = table.bundleItem.length - 1; b >= 0; b--) {
+            if (table.taken[b].get(money)) {
+                Item item = table.bundleItem[b];
+                counts.merge(item, table.bundleCount[b], Integer::sum);
+                int bundleCost = item.getPrice() * table.bundleCount[b];
+                money -= bundleCost;
+                cost += bundleCost;
+            }
+        }
+        for (int group = table.groupSpend.length - 1; group >= 0; group--) {
+            int spend = table.groupSpend[group][money];
+            money -= spend;
+            for (int k = table.mealChoice[group].length - 1; k > 0; k--) {
+                int food = table.mealChoice[group][k][spend];
+                if (food >= 0) {
+                    Food meal = table.groupFoods[group][food];
+                    counts.merge(meal, 1, Integer::sum);
+                    spend -= meal.getPrice();
+                    cost += meal.getPrice();
+                }
+            }
+        }
+        List<Item> bought = new ArrayList<Item>(counts.keySet());
+        Collections.sort(bought, (a, b) -> a.getPrice() != b.getPrice()
+                ? Integer.compare(a.getPrice(), b.getPrice()) : a.getName().compareTo(b.getName()));
+        Map<Item, Integer> items = new LinkedHashMap<Item, Integer>();
+        for (Item item : bought) {
+            items.put(item, counts.get(item));
+        }
+        return new Basket(items, cost, table.best[balance]);
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long the shopping optimizer takes for a large store, both the
+ * first time and once its table has been kept.
+ *
+ * Usage: java ShoppingOptimizerBenchmark [number of items] [balance]
+ *
+ */
+public class ShoppingOptimizerBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of items of each kind and balance, both optional.
+     */
+    public static void main(String[] args) {
+        int numItems = 2000;
+        int balance = 1000;
+        if (args.length >= 1) {
+            numItems = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            balance = Integer.parseInt(args[1]);
+        }
+
+        List<Pet> pets = new ArrayList<Pet>();
+        pets.add(new Cat());
+        pets.add(new Dog());
+        pets.add(new Goat());
+        String[] species = new String[pets.size()];
+        for (int i = 0; i < species.length; i++) {
+            species[i] = pets.get(i).getSpecies();
+        }
+
+        Random random = new Random(1);
+        HashMap<String, Food> foods = new HashMap<String, Food>();
+        HashMap<String, Toy> toys = new HashMap<String, Toy>();
+        for (int i = 0; i < numItems; i++) {
+            String[] increases = new String[species.length];
+            for (int s = 0; s < species.length; s++) {
+                increases[s] = "" + (random.nextInt(21) - 5);
+            }
+            Food food = new Food("Food " + i, "", 1 + random.nextInt(40), 1 + random.nextInt(30));
+            food.setHealthIncrease(species, increases);
+            foods.put(food.getName(), food);
+            Toy toy = new Toy("Toy " + i, "", 1 + random.nextInt(60), 1 + random.nextInt(50));
+            toy.setHappinessIncrease(species, increases);
+            toys.put(toy.getName(), toy);
+        }
+
+        //warm up on a different optimizer, so the first time below isn't mostly the JIT
+        for (int i = 0; i < 5; i++) {
+            new ShoppingOptimizer(foods, toys).optimise(balance, pets, 5);
+        }
+
+        ShoppingOptimizer optimizer = new ShoppingOptimizer(foods, toys);
+        long start = System.nanoTime();
+        ShoppingOptimizer.Basket basket = optimizer.optimise(balance, pets, 5);
+        long first = System.nanoTime() - start;
+
+        int queries = 10000;
+        long check = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            check += optimizer.optimise(random.nextInt(balance + 1), pets, 5).getValue();
+        }
+        long kept = System.nanoTime() - start;
+
+        System.out.println(2 * numItems + " items, balance $" + balance + ", "
+                + pets.size() + " pets");
+        System.out.printf("first basket: %.2f ms%n", first / 1e6);
+        System.out.printf("later baskets: %.1f us%n", kept / 1e3 / queries);
+        System.out.println("best basket costs $" + basket.getCost() + " for value "
+                + basket.getValue() + " (check " + check + ")");
+    }
+}
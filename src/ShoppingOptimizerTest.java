@@ -0,0 +1,179 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the ShoppingOptimizer class.
+ *
+ */
+public class ShoppingOptimizerTest {
+
+	private HashMap<String, Food> foods;
+	private HashMap<String, Toy> toys;
+	private List<Pet> pets;
+
+	@Before
+	public void setUp() throws Exception {
+		pets = new ArrayList<Pet>();
+		pets.add(new Cat());
+		String[] species = {pets.get(0).getSpecies()};
+		foods = new HashMap<String, Food>();
+		toys = new HashMap<String, Toy>();
+
+		Food fish = new Food("Fish", "", 5, 3);
+		fish.setHealthIncrease(species, new String[] {"4"}); //worth 16
+		Food cake = new Food("Cake", "", 12, 9);
+		cake.setHealthIncrease(species, new String[] {"5"}); //worth 50
+		Food poison = new Food("Poison", "", 1, 3);
+		poison.setHealthIncrease(species, new String[] {"-5"});
+		foods.put(fish.getName(), fish);
+		foods.put(cake.getName(), cake);
+		foods.put(poison.getName(), poison);
+
+		Toy ball = new Toy("Ball", "", 8, 100);
+		ball.setHappinessIncrease(species, new String[] {"6"}); //lasts all 3 days, worth 18
+		toys.put(ball.getName(), ball);
+	}
+
+	@Test
+	public void testBestBasket() {
+		ShoppingOptimizer optimizer = new ShoppingOptimizer(foods, toys);
+		//one cat, three days: up to three meals and one ball
+		ShoppingOptimizer.Basket basket = optimizer.optimise(44, pets, 3);
+		assertEquals(3, (int) basket.getItems().get(foods.get("Cake")));
+		assertEquals(1, (int) basket.getItems().get(toys.get("Ball")));
+		assertEquals(44, basket.getCost());
+		assertEquals(168, basket.getValue());
+		assertNull(basket.getItems().get(foods.get("Poison")));
+	}
+
+	@Test
+	public void testSmallBudget() {
+		ShoppingOptimizer optimizer = new ShoppingOptimizer(foods, toys);
+		ShoppingOptimizer.Basket basket = optimizer.optimise(10, pets, 3);
+		assertEquals(2, (int) basket.getItems().get(foods.get("Fish")));
+		assertEquals(32, basket.getValue());
+		assertTrue(optimizer.optimise(0, pets, 3).getItems().isEmpty());
+	}
+
+	@Test
+	public void testKeptTableGivesSameAnswer() {
+		Random random = new Random(3);
+		ShoppingOptimizer kept = new ShoppingOptimizer(foods, toys);
+		kept.optimise(500, pets, 3);
+		for (int i = 0; i < 50; i++) {
+			int balance = random.nextInt(500);
+			ShoppingOptimizer fresh = new ShoppingOptimizer(foods, toys);
+			assertEquals(fresh.optimise(balance, pets, 3).getValue(),
+					kept.optimise(balance, pets, 3).getValue());
+		}
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		Random random = new Random(7);
+		String[] species = {pets.get(0).getSpecies()};
+		HashMap<String, Food> manyFoods = new HashMap<String, Food>();
+		for (int i = 0; i < 4; i++) {
+			Food food = new Food("Food " + i, "", 1 + random.nextInt(9), 1 + random.nextInt(5));
+			food.setHealthIncrease(species, new String[] {"" + random.nextInt(6)});
+			manyFoods.put(food.getName(), food);
+		}
+		ShoppingOptimizer optimizer = new ShoppingOptimizer(manyFoods, new HashMap<String, Toy>());
+		List<Food> list = new ArrayList<Food>(manyFoods.values());
+		for (int balance = 0; balance < 60; balance += 7) {
+			//one pet over 2 days eats at most 2 meals of any of the foods
+			long best = 0;
+			for (int choice = 0; choice < 81; choice++) {
+				int cost = 0;
+				long value = 0;
+				int meals = 0;
+				int c = choice;
+				for (Food food : list) {
+					int count = c % 3;
+					c /= 3;
+					meals += count;
+					cost += count * food.getPrice();
+					value += (long) count * food.getHealthIncrease(species[0])
+							* (1 + food.getPortionSize());
+				}
+				if (cost <= balance && meals <= 2) {
+					best = Math.max(best, value);
+				}
+			}
+			ShoppingOptimizer.Basket basket = optimizer.optimise(balance, pets, 2);
+			assertEquals(best, basket.getValue());
+			assertTrue(basket.getCost() <= balance);
+			int total = 0;
+			for (Map.Entry<Item, Integer> entry : basket.getItems().entrySet()) {
+				total += entry.getKey().getPrice() * entry.getValue();
+			}
+			assertEquals(total, basket.getCost());
+		}
+	}
+
+	@Test
+	public void testNoMoreMealsThanPetsCanEat() {
+		Random random = new Random(5);
+		Pet dog = new Dog();
+		String[] both = {pets.get(0).getSpecies(), dog.getSpecies()};
+		HashMap<String, Food> manyFoods = new HashMap<String, Food>();
+		for (int i = 0; i < 20; i++) {
+			Food food = new Food("Food " + i, "", 1 + random.nextInt(12), 1 + random.nextInt(5));
+			if (i % 2 == 0) {
+				//only cats like the even foods
+				food.setHealthIncrease(both, new String[] {"" + (1 + random.nextInt(8)), "-2"});
+			} else {
+				food.setHealthIncrease(both, new String[] {"" + (1 + random.nextInt(8)),
+						"" + (1 + random.nextInt(8))});
+			}
+			manyFoods.put(food.getName(), food);
+		}
+		List<Pet> catAndDog = new ArrayList<Pet>(pets);
+		catAndDog.add(dog);
+		ShoppingOptimizer optimizer = new ShoppingOptimizer(manyFoods, new HashMap<String, Toy>());
+		for (int days = 1; days <= 4; days++) {
+			for (int balance : new int[] {20, 100, 200, 1000}) {
+				assertTrue(meals(optimizer.optimise(balance, pets, days)) <= days);
+				ShoppingOptimizer.Basket basket = optimizer.optimise(balance, catAndDog, days);
+				assertTrue(meals(basket) <= 2 * days);
+				//the dog can't eat the even foods, so only the cat's meals can be those
+				int catOnly = 0;
+				for (Map.Entry<Item, Integer> entry : basket.getItems().entrySet()) {
+					if (Integer.parseInt(entry.getKey().getName().substring(5)) % 2 == 0) {
+						catOnly += entry.getValue();
+					}
+				}
+				assertTrue(catOnly <= days);
+			}
+		}
+		//plenty of money buys exactly one meal per pet per day
+		assertEquals(6, meals(optimizer.optimise(1000, catAndDog, 3)));
+	}
+
+	/**
+	 * Counts the meals in a basket.
+	 */
+	private static int meals(ShoppingOptimizer.Basket basket) {
+		int meals = 0;
+		for (Map.Entry<Item, Integer> entry : basket.getItems().entrySet()) {
+			if (entry.getKey() instanceof Food) {
+				meals += entry.getValue();
+			}
+		}
+		return meals;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadDays() {
+		new ShoppingOptimizer(foods, toys).optimise(10, pets, 0);
+	}
+
+}
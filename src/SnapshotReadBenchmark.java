@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how fast snapshots can be read while another thread keeps
+ * changing the player and publishing new snapshots.
+ *
+ * The writer feeds the cat in pairs of actions that keep its hunger and
+ * bladder in step, so a reader that ever saw half of an action would notice.
+ *
+ * Usage: java SnapshotReadBenchmark [number of pets] [reader threads] [seconds]
+ *
+ */
+public class SnapshotReadBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of pets, reader threads and seconds, all optional.
+     * @throws InterruptedException if interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int numPets = 1000;
+        int readers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int seconds = 5;
+        if (args.length >= 1) {
+            numPets = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            readers = Integer.parseInt(args[1]);
+        }
+        if (args.length >= 3) {
+            seconds = Integer.parseInt(args[2]);
+        }
+
+        Player player = new Player();
+        player.setName("Harry");
+        for (int i = 0; i < numPets; i++) {
+            Pet pet = new Cat();
+            pet.setName("Pet " + i);
+            player.getPetList().add(pet);
+        }
+        player.publishSnapshot();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        final int pets = numPets;
+
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                int petIndex = i % pets;
+                Pet pet = player.getPetList().get(petIndex);
+                //both stats move together, so a snapshot should always show them equal
+                int change = pet.getFatigue() == 0 ? 50 : -50;
+                pet.increaseFatigue(change);
+                pet.increaseHunger(change);
+                player.publishSnapshot(petIndex);
+                writes.incrementAndGet();
+                i++;
+            }
+        });
+
+        Thread[] readerThreads = new Thread[readers];
+        for (int r = 0; r < readers; r++) {
+            readerThreads[r] = new Thread(() -> {
+                long count = 0;
+                long bad = 0;
+                int i = 0;
+                while (running.get()) {
+                    PetSnapshot pet = player.getSnapshot().getPet(i % pets);
+                    if (pet.getFatigue() != pet.getHunger()) {
+                        bad++;
+                    }
+                    count++;
+                    i += 7;
+                }
+                reads.addAndGet(count);
+                torn.addAndGet(bad);
+            });
+        }
+
+        writer.start();
+        for (Thread reader : readerThreads) {
+            reader.start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        writer.join();
+        for (Thread reader : readerThreads) {
+            reader.join();
+        }
+
+        System.out.println(numPets + " pets, " + readers + " readers, 1 writer, "
+                + seconds + " s");
+        System.out.printf("reads: %.0f/s, writes: %.0f/s, torn reads: %d%n",
+                reads.get() / (double) seconds, writes.get() / (double) seconds, torn.get());
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random source backed by java.util.SplittableRandom.
+ *
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    /**
+     * The seed this source was created with.
+     */
+    private final long seed;
+    /**
+     * The generator numbers are taken from.
+     */
+    private final SplittableRandom generator;
+
+    /**
+     * Creates a random source from a seed.
+     * @param seed Seed for the generator.
+     */
+    public SplittableRandomSource(long seed) {
+        this.seed = seed;
+        generator = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return generator.nextInt(bound);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return generator.nextBoolean();
+    }
+
+    @Override
+    public long nextLong() {
+        return generator.nextLong();
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public RandomSource derive(long streamId) {
+        return new SplittableRandomSource(RandomSource.mixSeed(seed, streamId));
+    }
+}
@@ -0,0 +1,194 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A queue of fixed size slots in a byte buffer, for one thread (or process)
+ * writing and one reading, without locks.
+ *
+ * The buffer is usually a memory-mapped file, so the two sides can be in
+ * different processes. The ring is laid out from its base offset as:
+ *
+ * <pre>
+ *   0   long  tail: number of slots ever published by the writer
+ *   64  long  head: number of slots ever released by the reader
+ *   128       slots, each slotSize bytes; slot i is used for entries
+ *             whose number modulo the number of slots is i
+ * </pre>
+ *
+ * All numbers are little-endian. The tail and head are on their own 64 byte
+ * cache lines so the two sides don't slow each other down. The writer fills
+ * a slot and then stores the tail with release ordering; the reader loads the
+ * tail with acquire ordering before reading the slot, so it always sees the
+ * whole slot. Freeing slots works the same way the other way round. Each side
+ * keeps the last index it read from the other side and only reads it again
+ * when the ring looks full (or empty).
+ *
+ */
+public final class SpscRing {
+
+    /**
+     * Bytes before the first slot.
+     */
+    public static final int HEADER_SIZE = 128;
+    /**
+     * Offset of the tail from the base of the ring.
+     */
+    private static final int TAIL = 0;
+    /**
+     * Offset of the head from the base of the ring.
+     */
+    private static final int HEAD = 64;
+    /**
+     * Reads and writes longs in the buffer with memory ordering.
+     */
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * How many times to spin before giving the processor to another thread.
+     */
+    private static final int SPINS_BEFORE_YIELD = 100;
+
+    /**
+     * The buffer the ring is in.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Offset of the ring in the buffer.
+     */
+    private final int base;
+    /**
+     * Number of slots, a power of two.
+     */
+    private final int slots;
+    /**
+     * Bytes in each slot.
+     */
+    private final int slotSize;
+    /**
+     * The writer's tail.
+     */
+    private long tail;
+    /**
+     * The writer's last look at the head.
+     */
+    private long cachedHead;
+    /**
+     * The reader's head.
+     */
+    private long head;
+    /**
+     * The reader's last look at the tail.
+     */
+    private long cachedTail;
+
+    /**
+     * Attaches to a ring in a buffer. Both sides attach to the same ring;
+     * each side must then only use its own methods.
+     * @param buffer The buffer; must be direct.
+     * @param base Offset of the ring in the buffer, a multiple of 64.
+     * @param slots Number of slots, a power of two.
+     * @param slotSize Bytes in each slot, a multiple of 8.
+     * @throws IllegalArgumentException if the ring doesn't fit or is badly aligned
+     */
+    public SpscRing(ByteBuffer buffer, int base, int slots, int slotSize) {
+        if (!buffer.isDirect() || base % 64 != 0 || slotSize % 8 != 0 || slotSize <= 0
+                || slots <= 0 || Integer.bitCount(slots) != 1
+                || base + sizeFor(slots, slotSize) > buffer.capacity()) {
+            throw new IllegalArgumentException("ring doesn't fit in the buffer");
+        }
+        this.buffer = buffer;
+        this.base = base;
+        this.slots = slots;
+        this.slotSize = slotSize;
+        tail = (long) LONGS.getVolatile(buffer, base + TAIL);
+        head = (long) LONGS.getVolatile(buffer, base + HEAD);
+        cachedHead = head;
+        cachedTail = tail;
+    }
+
+    /**
+     * Gets how many bytes a ring takes.
+     * @param slots Number of slots.
+     * @param slotSize Bytes in each slot.
+     * @return Bytes taken.
+     */
+    public static int sizeFor(int slots, int slotSize) {
+        return HEADER_SIZE + slots * slotSize;
+    }
+
+    /**
+     * Writer: gets the next free slot to fill.
+     * @return Offset of the slot in the buffer, or -1 if the ring is full.
+     */
+    public int claim() {
+        if (tail - cachedHead >= slots) {
+            cachedHead = (long) LONGS.getAcquire(buffer, base + HEAD);
+            if (tail - cachedHead >= slots) {
+                return -1;
+            }
+        }
+        return slotOffset(tail);
+    }
+
+    /**
+     * Writer: makes the slot got from claim visible to the reader.
+     */
+    public void publish() {
+        tail++;
+        LONGS.setRelease(buffer, base + TAIL, tail);
+    }
+
+    /**
+     * Reader: gets the next slot to read.
+     * @return Offset of the slot in the buffer, or -1 if the ring is empty.
+     */
+    public int poll() {
+        if (head >= cachedTail) {
+            cachedTail = (long) LONGS.getAcquire(buffer, base + TAIL);
+            if (head >= cachedTail) {
+                return -1;
+            }
+        }
+        return slotOffset(head);
+    }
+
+    /**
+     * Reader: gives the slot got from poll back to the writer.
+     */
+    public void release() {
+        head++;
+        LONGS.setRelease(buffer, base + HEAD, head);
+    }
+
+    /**
+     * Gets the buffer the ring is in.
+     * @return The buffer.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Waits a little, for loops waiting on the other side. Spins at first,
+     * then lets other threads run so one processor is enough for both sides.
+     * @param tries How many times the caller has waited so far.
+     */
+    public static void idle(int tries) {
+        if (tries < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Gets the offset of a slot in the buffer.
+     * @param index Number of the entry.
+     * @return Offset of its slot.
+     */
+    private int slotOffset(long index) {
+        return base + HEADER_SIZE + (int) (index & (slots - 1)) * slotSize;
+    }
+}
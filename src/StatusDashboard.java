@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A table of pets' status, one row per pet, that can be drawn again and
+ * again as the pets change.
+ *
+ * On a terminal that understands ANSI escape codes, the first frame draws
+ * the whole table at the top of the screen and keeps those lines for it by
+ * making only the lines below scroll, so other text written afterwards
+ * doesn't move the table. Later frames save the cursor, move it to the
+ * cells whose values changed, write those and put the cursor back, so each
+ * frame costs in proportion to what changed rather than to the number of
+ * pets, and text below carries on where it was. If the number of pets
+ * changes, the whole table is drawn again. close gives the whole screen
+ * back. Without ANSI every frame is the whole table as plain text.
+ *
+ * Each frame is sent to the sink in one write.
+ *
+ */
+public class StatusDashboard {
+
+    /**
+     * Starts an ANSI escape code.
+     */
+    private static final String ESCAPE = "\u001b[";
+    /**
+     * Saves the cursor position.
+     */
+    private static final String SAVE_CURSOR = "\u001b7";
+    /**
+     * Moves the cursor back to where it was saved.
+     */
+    private static final String RESTORE_CURSOR = "\u001b8";
+    /**
+     * Column headings.
+     */
+    private static final String[] HEADINGS = {"Name", "Species", "Health", "Happy", "Hunger",
+        "Tired", "Mischief", "Bladder", "Weight", "Status"};
+    /**
+     * Width of each column.
+     */
+    private static final int[] WIDTHS = {12, 10, 6, 6, 6, 6, 8, 7, 8, 11};
+    /**
+     * Number of columns holding text rather than numbers; they come first.
+     */
+    private static final int TEXT_COLUMNS = 2;
+    /**
+     * Status column value: alive and well.
+     */
+    private static final int OK = 0;
+    /**
+     * Status column value: misbehaving.
+     */
+    private static final int MISBEHAVING = 1;
+    /**
+     * Status column value: sick.
+     */
+    private static final int SICK = 2;
+    /**
+     * Status column value: dead.
+     */
+    private static final int DEAD = 3;
+    /**
+     * Words for each status.
+     */
+    private static final String[] STATUS_NAMES = {"ok", "misbehaving", "sick", "dead"};
+
+    /**
+     * Screen column where each column starts, from 1.
+     */
+    private static final int[] STARTS = new int[WIDTHS.length];
+
+    static {
+        int start = 1;
+        for (int i = 0; i < WIDTHS.length; i++) {
+            STARTS[i] = start;
+            start += WIDTHS[i] + 1;
+        }
+    }
+
+    /**
+     * Where frames are built up and sent.
+     */
+    private final ScreenBuffer out;
+    /**
+     * Whether to use ANSI escape codes.
+     */
+    private final boolean ansi;
+    /**
+     * Text cells drawn last frame, by row then column.
+     */
+    private String[][] drawnText;
+    /**
+     * Number cells drawn last frame, by row then column less TEXT_COLUMNS.
+     */
+    private int[][] drawnNumbers;
+    /**
+     * Number of cells written last frame.
+     */
+    private int cellsWritten;
+
+    /**
+     * Creates a dashboard.
+     * @param out Where to draw it.
+     * @param ansi Whether the terminal understands ANSI escape codes.
+     */
+    public StatusDashboard(OutputSink out, boolean ansi) {
+        this.out = new ScreenBuffer(out);
+        this.ansi = ansi;
+    }
+
+    /**
+     * Guesses whether standard output is a terminal that understands ANSI
+     * escape codes.
+     * @return Whether it probably is.
+     */
+    public static boolean isAnsiTerminal() {
+        String term = System.getenv("TERM");
+        return System.console() != null && term != null && !term.equals("dumb");
+    }
+
+    /**
+     * Draws the status of a player's pets.
+     * @param player Snapshot of the player.
+     */
+    public void render(PlayerSnapshot player) {
+        List<PetSnapshot> pets = new ArrayList<PetSnapshot>(player.getNumberOfPets());
+        for (int i = 0; i < player.getNumberOfPets(); i++) {
+            pets.add(player.getPet(i));
+        }
+        render(pets);
+    }
+
+    /**
+     * Draws the status of some pets, only changing what is different from
+     * the last frame if possible.
+     * @param pets Snapshots of the pets, one row each, in the same order
+     * every frame.
+     */
+    public void render(List<PetSnapshot> pets) {
+        cellsWritten = 0;
+        if (!ansi || drawnText == null || drawnText.length != pets.size()) {
+            drawAll(pets);
+        } else {
+            for (int row = 0; row < pets.size(); row++) {
+                PetSnapshot pet = pets.get(row);
+                for (int column = 0; column < TEXT_COLUMNS; column++) {
+                    String text = text(pet, column);
+                    if (!text.equals(drawnText[row][column])) {
+                        drawnText[row][column] = text;
+                        moveTo(row, column);
+                        cell(text, column);
+                    }
+                }
+                for (int column = TEXT_COLUMNS; column < WIDTHS.length; column++) {
+                    int number = number(pet, column);
+                    if (number != drawnNumbers[row][column - TEXT_COLUMNS]) {
+                        drawnNumbers[row][column - TEXT_COLUMNS] = number;
+                        moveTo(row, column);
+                        cell(format(number, column), column);
+                    }
+                }
+            }
+            if (cellsWritten > 0) {
+                out.print(RESTORE_CURSOR);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Gets the number of cells written by the last frame.
+     * @return Cells written.
+     */
+    public int getCellsWritten() {
+        return cellsWritten;
+    }
+
+    /**
+     * Draws the whole table and remembers what was drawn.
+     * @param pets Snapshots of the pets.
+     */
+    private void drawAll(List<PetSnapshot> pets) {
+        if (ansi) {
+            //give the whole screen back, clear it and go to the top
+            out.print(ESCAPE + "r" + ESCAPE + "2J" + ESCAPE + "H");
+        }
+        for (int column = 0; column < HEADINGS.length; column++) {
+            cell(HEADINGS[column], column);
+        }
+        out.println("");
+        drawnText = new String[pets.size()][TEXT_COLUMNS];
+        drawnNumbers = new int[pets.size()][WIDTHS.length - TEXT_COLUMNS];
+        for (int row = 0; row < pets.size(); row++) {
+            PetSnapshot pet = pets.get(row);
+            for (int column = 0; column < TEXT_COLUMNS; column++) {
+                drawnText[row][column] = text(pet, column);
+                cell(drawnText[row][column], column);
+            }
+            for (int column = TEXT_COLUMNS; column < WIDTHS.length; column++) {
+                drawnNumbers[row][column - TEXT_COLUMNS] = number(pet, column);
+                cell(format(drawnNumbers[row][column - TEXT_COLUMNS], column), column);
+            }
+            out.println("");
+        }
+        if (ansi) {
+            //only the lines under the table scroll; setting that moves the cursor
+            out.print(ESCAPE + (pets.size() + 2) + "r" + ESCAPE + (pets.size() + 2) + ";1H");
+        }
+    }
+
+    /**
+     * Lets the whole screen scroll again, for when the table is no longer
+     * wanted. The next frame draws the whole table.
+     */
+    public void close() {
+        if (ansi && drawnText != null) {
+            //setting that moves the cursor to the top, so go to the bottom
+            out.print(ESCAPE + "r" + ESCAPE + "999;1H");
+            out.flush();
+        }
+        drawnText = null;
+        drawnNumbers = null;
+    }
+
+    /**
+     * Moves the cursor to a cell. The headings are on the first line.
+     * @param row Row of the cell.
+     * @param column Column of the cell.
+     */
+    private void moveTo(int row, int column) {
+        if (cellsWritten == 0) {
+            out.print(SAVE_CURSOR); //the first change this frame
+        }
+        out.print(ESCAPE + (row + 2) + ";" + STARTS[column] + "H");
+    }
+
+    /**
+     * Writes a cell, cut or padded to the column's width, then a space.
+     * @param text What goes in the cell.
+     * @param column The column.
+     */
+    private void cell(String text, int column) {
+        StringBuilder padded = new StringBuilder(WIDTHS[column] + 1);
+        padded.append(text, 0, Math.min(text.length(), WIDTHS[column]));
+        while (padded.length() <= WIDTHS[column]) {
+            padded.append(' ');
+        }
+        out.print(padded.toString());
+        cellsWritten++;
+    }
+
+    /**
+     * Gets a text cell of a pet.
+     * @param pet Snapshot of the pet.
+     * @param column The column.
+     * @return The text.
+     */
+    private static String text(PetSnapshot pet, int column) {
+        String text = column == 0 ? pet.getName() : pet.getSpecies();
+        return text == null ? "" : text;
+    }
+
+    /**
+     * Gets a number cell of a pet.
+     * @param pet Snapshot of the pet.
+     * @param column The column.
+     * @return The number; weight is in grams and status is OK, MISBEHAVING,
+     * SICK or DEAD.
+     */
+    private static int number(PetSnapshot pet, int column) {
+        switch (column) {
+        case 2:
+            return pet.getHealth();
+        case 3:
+            return pet.getHappiness();
+        case 4:
+            return pet.getHunger();
+        case 5:
+            return pet.getFatigue();
+        case 6:
+            return pet.getMischievousness();
+        case 7:
+            return pet.getPercentBladderFull();
+        case 8:
+            return pet.getWeightGrams();
+        default:
+            if (pet.getIsDead()) {
+                return DEAD;
+            } else if (pet.getIsSick()) {
+                return SICK;
+            } else if (pet.getIsMisbehaving()) {
+                return MISBEHAVING;
+            }
+            return OK;
+        }
+    }
+
+    /**
+     * Turns a number cell into text.
+     * @param number The number.
+     * @param column The column.
+     * @return The text.
+     */
+    private static String format(int number, int column) {
+        if (column == 8) {
+            return (double) number / Pet.GRAMS_PER_KG + "kg";
+        } else if (column == WIDTHS.length - 1) {
+            return STATUS_NAMES[number];
+        }
+        return Integer.toString(number);
+    }
+}
@@ -0,0 +1,97 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the StatusDashboard class.
+ *
+ */
+public class StatusDashboardTest {
+
+	/**
+	 * Keeps the last write sent to it.
+	 */
+	private static class LastWriteSink implements OutputSink {
+		String last = "";
+
+		@Override
+		public void print(String text) {
+			last = text;
+		}
+
+		@Override
+		public void println(String text) {
+			last = text + "\n";
+		}
+
+		@Override
+		public void flush() {
+		}
+	}
+
+	/**
+	 * Makes snapshots of some pets.
+	 */
+	private List<PetSnapshot> snapshots(List<Pet> pets) {
+		List<PetSnapshot> snapshots = new ArrayList<PetSnapshot>();
+		for (Pet pet : pets) {
+			snapshots.add(new PetSnapshot(pet));
+		}
+		return snapshots;
+	}
+
+	@Test
+	public void testOnlyChangedCellsRedrawn() {
+		List<Pet> pets = new ArrayList<Pet>();
+		for (int i = 0; i < 50; i++) {
+			Pet pet = new Cat();
+			pet.setName("Cat " + i);
+			pets.add(pet);
+		}
+		LastWriteSink sink = new LastWriteSink();
+		StatusDashboard dashboard = new StatusDashboard(sink, true);
+		dashboard.render(snapshots(pets));
+		assertTrue(sink.last.contains("Cat 49"));
+		//the table keeps the top 52 lines, and the cursor goes under it
+		assertTrue(sink.last.endsWith("\u001b[52r\u001b[52;1H"));
+
+		pets.get(7).increaseHealth(-30);
+		dashboard.render(snapshots(pets));
+		assertEquals(1, dashboard.getCellsWritten());
+		//row 8 of the pets is line 9, and health is the third column; the
+		//cursor is put back where it was
+		assertTrue(sink.last.startsWith("\u001b7\u001b[9;25H70 "));
+		assertTrue(sink.last.endsWith("\u001b8"));
+
+		pets.get(3).beSick();
+		dashboard.render(snapshots(pets));
+		//happiness and status
+		assertEquals(2, dashboard.getCellsWritten());
+		assertTrue(sink.last.contains("sick"));
+
+		dashboard.render(snapshots(pets));
+		assertEquals(0, dashboard.getCellsWritten());
+
+		dashboard.close();
+		assertTrue(sink.last.startsWith("\u001b[r"));
+		dashboard.render(snapshots(pets));
+		assertEquals(10 * 51, dashboard.getCellsWritten());
+		assertTrue(sink.last.contains("Cat 49"));
+	}
+
+	@Test
+	public void testPlainOutput() {
+		List<Pet> pets = new ArrayList<Pet>();
+		pets.add(new Dog());
+		LastWriteSink sink = new LastWriteSink();
+		StatusDashboard dashboard = new StatusDashboard(sink, false);
+		dashboard.render(snapshots(pets));
+		dashboard.render(snapshots(pets));
+		assertFalse(sink.last.contains("\u001b"));
+		assertTrue(sink.last.startsWith("Name"));
+		assertTrue(sink.last.contains("dog"));
+	}
+}
@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The store's items in a fixed order, split into pages.
+ *
+ * Foods come first, then toys, each sorted by name, so an item's number only
+ * depends on which items there are, not on the order a HashMap happens to
+ * keep them in. The order is worked out once. Each item's line is only made
+ * when a page with it on is first shown, then kept, so showing a page of a
+ * very large catalog only costs that page.
+ *
+ */
+public class StoreCatalog {
+
+    /**
+     * Heading before the foods.
+     */
+    private static final String FOOD_HEADING = "----------- Food -----------";
+    /**
+     * Heading before the toys.
+     */
+    private static final String TOY_HEADING = "----------- Toys -----------";
+
+    /**
+     * The items in order.
+     */
+    private final Item[] items;
+    /**
+     * Number of foods; they come first.
+     */
+    private final int numberOfFoods;
+    /**
+     * Items on each page.
+     */
+    private final int pageSize;
+    /**
+     * Each page's text, made when first shown.
+     */
+    private final String[] pages;
+
+    /**
+     * Creates a catalog.
+     * @param foodPrototypes The foods, mapped from their names.
+     * @param toyPrototypes The toys, mapped from their names.
+     * @param pageSize Items on each page.
+     * @throws IllegalArgumentException if pageSize is less than one
+     */
+    public StoreCatalog(Map<String, Food> foodPrototypes, Map<String, Toy> toyPrototypes,
+            int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least one");
+        }
+        List<String> foodNames = new ArrayList<String>(foodPrototypes.keySet());
+        List<String> toyNames = new ArrayList<String>(toyPrototypes.keySet());
+        Collections.sort(foodNames);
+        Collections.sort(toyNames);
+        items = new Item[foodNames.size() + toyNames.size()];
+        numberOfFoods = foodNames.size();
+        for (int i = 0; i < foodNames.size(); i++) {
+            items[i] = foodPrototypes.get(foodNames.get(i));
+        }
+        for (int i = 0; i < toyNames.size(); i++) {
+            items[numberOfFoods + i] = toyPrototypes.get(toyNames.get(i));
+        }
+        this.pageSize = pageSize;
+        pages = new String[getNumberOfPages()];
+    }
+
+    /**
+     * Gets the number of items.
+     * @return Number of items.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Gets an item by its number in the catalog.
+     * @param number The number, from 1.
+     * @return The item; a Food or a Toy.
+     * @throws IllegalArgumentException if there is no item with that number
+     */
+    public Item getItem(int number) {
+        if (number < 1 || number > items.length) {
+            throw new IllegalArgumentException("No item number " + number);
+        }
+        return items[number - 1];
+    }
+
+    /**
+     * Gets the number of pages.
+     * @return Number of pages; at least one, even with no items.
+     */
+    public int getNumberOfPages() {
+        return Math.max(1, (items.length + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Gets the page an item is on.
+     * @param number The item's number, from 1.
+     * @return The page, from 0.
+     */
+    public int getPageOf(int number) {
+        return (number - 1) / pageSize;
+    }
+
+    /**
+     * Gets the text of a page: a line for each item, with its number, name,
+     * description and price, and a heading where the foods or toys start.
+     * @param page The page, from 0.
+     * @return The page's text, each line ending with a line separator.
+     * @throws IllegalArgumentException if there is no such page
+     */
+    public String getPage(int page) {
+        if (page < 0 || page >= pages.length) {
+            throw new IllegalArgumentException("No page " + page);
+        }
+        if (pages[page] == null) {
+            StringBuilder text = new StringBuilder();
+            int end = Math.min(items.length, (page + 1) * pageSize);
+            for (int i = page * pageSize; i < end; i++) {
+                if (i == 0 && numberOfFoods > 0) {
+                    text.append(FOOD_HEADING).append(System.lineSeparator());
+                }
+                if (i == numberOfFoods) {
+                    text.append(TOY_HEADING).append(System.lineSeparator());
+                }
+                text.append(i + 1).append(". ").append(items[i])
+                        .append(" Cost: $").append(items[i].getPrice())
+                        .append(System.lineSeparator());
+            }
+            pages[page] = text.toString();
+        }
+        return pages[page];
+    }
+}
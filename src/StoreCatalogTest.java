@@ -0,0 +1,63 @@
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for the StoreCatalog class.
+ *
+ */
+public class StoreCatalogTest {
+
+	@Test
+	public void testStableOrder() {
+		Map<String, Food> foods = new LinkedHashMap<String, Food>();
+		foods.put("Hay", new Food("Hay", "dry grass", 2, 3));
+		foods.put("Apple", new Food("Apple", "crunchy", 1, 1));
+		Map<String, Toy> toys = new LinkedHashMap<String, Toy>();
+		toys.put("Ball", new Toy("Ball", "bouncy", 5, 10));
+		StoreCatalog catalog = new StoreCatalog(foods, toys, 20);
+
+		Map<String, Food> reversed = new LinkedHashMap<String, Food>();
+		reversed.put("Apple", foods.get("Apple"));
+		reversed.put("Hay", foods.get("Hay"));
+		StoreCatalog other = new StoreCatalog(reversed, toys, 20);
+
+		assertEquals(3, catalog.size());
+		for (int i = 1; i <= 3; i++) {
+			assertSame(catalog.getItem(i), other.getItem(i));
+		}
+		assertEquals("Apple", catalog.getItem(1).getName());
+		assertEquals("Ball", catalog.getItem(3).getName());
+		String page = catalog.getPage(0);
+		assertTrue(page.indexOf("Food") < page.indexOf("1. "));
+		assertTrue(page.indexOf("Toys") < page.indexOf("3. "));
+		assertTrue(page.contains("Cost: $5"));
+		try {
+			catalog.getItem(4);
+			fail("Got an item past the end.");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	@Test
+	public void testPaging() {
+		Map<String, Food> foods = new HashMap<String, Food>();
+		for (int i = 0; i < 100000; i++) {
+			String name = String.format("Food %06d", i);
+			foods.put(name, new Food(name, "food", 1, 1));
+		}
+		StoreCatalog catalog = new StoreCatalog(foods, new HashMap<String, Toy>(), 20);
+		assertEquals(5000, catalog.getNumberOfPages());
+		String page = catalog.getPage(4999);
+		assertTrue(page.startsWith("99981. Food 099980"));
+		assertTrue(page.contains("100000. Food 099999"));
+		assertFalse(page.contains("Food -"));
+		assertSame(page, catalog.getPage(4999));
+		assertEquals(4999, catalog.getPageOf(100000));
+		assertEquals(0, catalog.getPageOf(20));
+		assertEquals(1, catalog.getPageOf(21));
+	}
+}
@@ -0,0 +1,59 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads input lines from a stream, such as System.in or a file.
+ *
+ */
+public class StreamInputSource implements InputSource {
+
+    /**
+     * The stream, buffered.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Creates a source reading from a stream.
+     * @param stream The stream.
+     */
+    public StreamInputSource(InputStream stream) {
+        this(new InputStreamReader(stream));
+    }
+
+    /**
+     * Creates a source reading from a reader.
+     * @param reader The reader.
+     */
+    public StreamInputSource(Reader reader) {
+        this.reader = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public String nextLine() {
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (line == null) {
+            throw new NoSuchElementException("No line found");
+        }
+        return line;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
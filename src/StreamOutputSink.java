@@ -0,0 +1,36 @@
+import java.io.PrintStream;
+
+/**
+ * Writes output to a stream, such as System.out.
+ *
+ */
+public class StreamOutputSink implements OutputSink {
+
+    /**
+     * The stream.
+     */
+    private final PrintStream stream;
+
+    /**
+     * Creates a sink writing to a stream.
+     * @param stream The stream.
+     */
+    public StreamOutputSink(PrintStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void print(String text) {
+        stream.print(text);
+    }
+
+    @Override
+    public void println(String text) {
+        stream.println(text);
+    }
+
+    @Override
+    public void flush() {
+        stream.flush();
+    }
+}
@@ -1,4 +1,6 @@
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * Toy class implementation for Virtual Pets.
@@ -40,6 +42,21 @@ public class Toy extends Item {
         }
     }
 
+    /**
+     * Creates a new toy the same as a prototype, with the prototype's
+     * current durability. The table of happiness increases is shared with the
+     * prototype rather than copied, as it doesn't change once the toy is loaded.
+     * @param prototype Toy to copy.
+     */
+    public Toy(Toy prototype) {
+        super();
+        super.setName(prototype.getName());
+        super.setDescription(prototype.getDescription());
+        super.setPrice(prototype.getPrice());
+        this.durability = prototype.durability;
+        this.happinessIncrease = prototype.happinessIncrease;
+    }
+
     /**
      * Gets the item's remaining durability.
      * @return item's durability.
@@ -63,6 +80,14 @@ public class Toy extends Item {
         }
     }
 
+    /**
+     * Gets the species this toy has a happiness increase for.
+     * @return Names of the species.
+     */
+    public Set<String> getKnownSpecies() {
+        return Collections.unmodifiableSet(this.happinessIncrease.keySet());
+    }
+
     /**
      * Decrements the objects durability; the new durability must be greater than 0.
      *
@@ -96,4 +96,18 @@ public class ToyTest {
 			assertEquals(myOtherToy.getHappinessIncrease(species[i]), Integer.parseInt(myOtherToyValues[i]));
 		}
 	}
+
+	@Test
+	public void testCopy() {
+		Toy copy = new Toy(myToy);
+		assertEquals(copy.getName(), myToy.getName());
+		assertEquals(copy.getPrice(), myToy.getPrice());
+		assertEquals(copy.getDurability(), myToy.getDurability());
+		assertEquals(copy.getHappinessIncrease(species[0]), myToy.getHappinessIncrease(species[0]));
+
+		copy.decrementDurability(5);
+		assertEquals(copy.getDurability(), 10);
+		assertEquals(myToy.getDurability(), 15);
+	}
+
 }
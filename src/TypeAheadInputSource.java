@@ -0,0 +1,158 @@
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Lets the user type several commands on one line, such as "2 1 5 3 3 1",
+ * and reads ahead on its own thread so commands typed early are waiting when
+ * the game asks for them.
+ *
+ * A line is split into separate commands only if every word on it is a
+ * number or Y or N, so names and species with spaces, like "polar bear",
+ * stay whole. While commands are waiting, hasQueued is true, so the
+ * interface can skip drawing menus the user has already answered.
+ *
+ */
+public class TypeAheadInputSource implements InputSource {
+
+    /**
+     * Put on the queue when the input runs out. Compared by identity.
+     */
+    private static final String END = new String("end of input");
+
+    /**
+     * Where lines are read from.
+     */
+    private final InputSource source;
+    /**
+     * Commands read but not yet used.
+     */
+    private final LinkedBlockingQueue<String> commands = new LinkedBlockingQueue<String>();
+    /**
+     * The thread reading ahead.
+     */
+    private final Thread reader;
+    /**
+     * Whether close has been called.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a source that reads ahead from another source.
+     * @param source Where lines are read from.
+     */
+    public TypeAheadInputSource(InputSource source) {
+        this.source = source;
+        reader = new Thread(this::readAhead, "type-ahead");
+        reader.setDaemon(true); //so a game waiting for input doesn't stop the program ending
+        reader.start();
+    }
+
+    /**
+     * Reads lines and queues their commands until the input runs out.
+     */
+    private void readAhead() {
+        try {
+            while (!closed) {
+                for (String command : split(source.nextLine())) {
+                    commands.put(command);
+                }
+            }
+        } catch (NoSuchElementException | UncheckedIOException e) {
+            //no more input
+        } catch (InterruptedException e) {
+            //closed
+        } finally {
+            commands.offer(END);
+        }
+    }
+
+    /**
+     * Splits a line into commands.
+     * @param line The line.
+     * @return Each word if they are all numbers or Y or N, otherwise just the line.
+     */
+    static List<String> split(String line) {
+        List<String> words = new ArrayList<String>();
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length > 1) {
+            for (String part : parts) {
+                if (!isShortAnswer(part)) {
+                    words.clear();
+                    break;
+                }
+                words.add(part);
+            }
+        }
+        if (words.isEmpty()) {
+            words.add(line);
+        }
+        return words;
+    }
+
+    /**
+     * Gets whether a word is a menu number or a yes or no.
+     * @param word The word.
+     * @return Whether it is.
+     */
+    private static boolean isShortAnswer(String word) {
+        if (word.equalsIgnoreCase("y") || word.equalsIgnoreCase("n")) {
+            return true;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String nextLine() {
+        String command;
+        try {
+            command = commands.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NoSuchElementException("Interrupted while waiting for input");
+        }
+        if (command == END) {
+            commands.offer(END); //so later calls fail too
+            throw new NoSuchElementException("No line found");
+        }
+        return command;
+    }
+
+    @Override
+    public boolean hasQueued() {
+        String command = commands.peek();
+        return command != null && command != END;
+    }
+
+    /**
+     * Waits for the source to run out, so everything it had is queued.
+     * @param millis Most time to wait, in milliseconds.
+     * @return Whether the source ran out in time.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean awaitEndOfInput(long millis) throws InterruptedException {
+        reader.join(millis);
+        return !reader.isAlive();
+    }
+
+    /**
+     * Stops reading ahead. The source is closed if the reading thread has
+     * finished; otherwise it may be blocked reading, and is left to end
+     * with the program.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+        if (!reader.isAlive()) {
+            source.close();
+        }
+    }
+}
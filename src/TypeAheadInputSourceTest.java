@@ -0,0 +1,75 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Tests for the TypeAheadInputSource class.
+ *
+ */
+public class TypeAheadInputSourceTest {
+
+	@Test
+	public void testSplit() {
+		assertEquals(Arrays.asList("2", "1", "5", "3", "3", "1"),
+				TypeAheadInputSource.split("2 1 5  3 3 1"));
+		assertEquals(Arrays.asList("y", "4"), TypeAheadInputSource.split("y 4"));
+		assertEquals(Arrays.asList("polar bear"), TypeAheadInputSource.split("polar bear"));
+		assertEquals(Arrays.asList("Reginald Fitzallen"),
+				TypeAheadInputSource.split("Reginald Fitzallen"));
+		assertEquals(Arrays.asList("7"), TypeAheadInputSource.split("7"));
+		assertEquals(Arrays.asList(""), TypeAheadInputSource.split(""));
+	}
+
+	@Test
+	public void testReadsAhead() throws Exception {
+		TypeAheadInputSource input = new TypeAheadInputSource(
+				new MemoryInputSource("2 1", "Rex"));
+		assertEquals("2", input.nextLine());
+		assertEquals("1", input.nextLine());
+		assertEquals("Rex", input.nextLine());
+		assertFalse(input.hasQueued());
+		try {
+			input.nextLine();
+			fail("Read past the end of the input.");
+		} catch (NoSuchElementException e) {}
+		input.close();
+	}
+
+	@Test
+	public void testMenusSkippedWhenTypedAhead() throws Exception {
+		StringBuilder text = new StringBuilder();
+		OutputSink sink = new OutputSink() {
+			@Override
+			public void print(String line) {
+				text.append(line);
+			}
+
+			@Override
+			public void println(String line) {
+				text.append(line).append('\n');
+			}
+
+			@Override
+			public void flush() {
+			}
+		};
+		TypeAheadInputSource input = new TypeAheadInputSource(new MemoryInputSource("5 6"));
+		assertTrue("Input not read ahead in time.", input.awaitEndOfInput(5000));
+		CommandLineInterface cli = new CommandLineInterface(input, sink);
+		Player player = new Player();
+		player.setName("Ann");
+		Pet pet = new Cat();
+		pet.setName("Tom");
+		player.getPetList().add(pet);
+		cli.interact(player, pet, new HashMap<String, Food>(),
+				new HashMap<String, Toy>());
+		cli.tearDown();
+		assertFalse(text.toString().contains("What would you like to do?"));
+		assertTrue(text.toString().contains("Your pet slept."));
+		assertTrue(text.toString().contains("Your pet went to the toilet."));
+	}
+}
@@ -0,0 +1,523 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Many PetGymEnv games stepped together in one call, without making any
+ * objects.
+ *
+ * Instead of a Pet and a Player per game, each stat is kept in its own array
+ * with one entry per game, and each game's xoshiro256** state is kept in a
+ * long array. A step goes along the arrays doing the same thing as
+ * PetGymEnv.step for every game, with the rules of Pet, PetDayActions and
+ * AutomatedPetEventHandler written out on the arrays. Game i after reset(seed)
+ * plays exactly like a PetGymEnv reset with RandomSource.mixSeed(seed, i) and
+ * given the same actions; VectorPetEnvTest checks this.
+ *
+ * Observations and rewards are written into arrays or buffers the caller
+ * gives, OBSERVATION_SIZE floats per game in the layout described in
+ * PetGymEnv. Nothing is allocated after the environment is made, so stepping
+ * a hundred thousand games doesn't make garbage.
+ *
+ * A game that is over stays over, with a reward of 0, until it is reset.
+ *
+ */
+public class VectorPetEnv {
+
+    /**
+     * Number of floats in an observation.
+     */
+    public static final int OBSERVATION_SIZE = PetGymEnv.OBSERVATION_SIZE;
+
+    /**
+     * Number of games.
+     */
+    private final int size;
+    /**
+     * Number of days in a game.
+     */
+    private final int maxDays;
+    /**
+     * How much the player gets each day for the pet.
+     */
+    private final int dailyPetAllowance;
+    /**
+     * Whether misbehaving pets are disciplined.
+     */
+    private final boolean discipline;
+    /**
+     * Whether sick pets are treated when the player can afford it.
+     */
+    private final boolean treat;
+    /**
+     * Whether dead pets are revived when they can be.
+     */
+    private final boolean revive;
+
+    /**
+     * The pet each game starts with.
+     */
+    private final Pet template;
+    /**
+     * How much the food changes the pet's health.
+     */
+    private final int foodHealthIncrease;
+    /**
+     * The food's portion size.
+     */
+    private final int portionSize;
+    /**
+     * How much the toy changes the pet's happiness.
+     */
+    private final int toyHappinessIncrease;
+    /**
+     * The pet's bladder size.
+     */
+    private final int bladderSize;
+    /**
+     * How tired the pet gets when it plays.
+     */
+    private final int fatigueIncrease;
+    /**
+     * The pet's normal weight, in grams.
+     */
+    private final int defaultWeight;
+    /**
+     * The player's balance at the start of a game.
+     */
+    private final int startingBalance;
+
+    /**
+     * Each pet's health.
+     */
+    private final int[] health;
+    /**
+     * Each pet's mischievousness.
+     */
+    private final int[] mischievousness;
+    /**
+     * Each pet's happiness.
+     */
+    private final int[] happiness;
+    /**
+     * Each pet's hunger.
+     */
+    private final int[] hunger;
+    /**
+     * How full each pet's bladder is.
+     */
+    private final int[] percentBladderFull;
+    /**
+     * Each pet's fatigue.
+     */
+    private final int[] fatigue;
+    /**
+     * Each pet's weight, in grams.
+     */
+    private final int[] weight;
+    /**
+     * Whether each pet is sick.
+     */
+    private final boolean[] isSick;
+    /**
+     * Whether each pet is revivable.
+     */
+    private final boolean[] isRevivable;
+    /**
+     * Whether each pet is misbehaving.
+     */
+    private final boolean[] isMisbehaving;
+    /**
+     * Whether each pet is dead.
+     */
+    private final boolean[] isDead;
+    /**
+     * Each player's balance.
+     */
+    private final int[] balance;
+    /**
+     * Number of days gone in each game.
+     */
+    private final int[] day;
+    /**
+     * Each game's xoshiro256** state, four longs per game.
+     */
+    private final long[] randomState;
+
+    /**
+     * Creates the games. They must be reset before they are stepped.
+     * @param size Number of games.
+     * @param template The pet each game starts with.
+     * @param food The food the player feeds the pet.
+     * @param toy The toy the player plays with the pet with.
+     * @param maxDays Number of days in a game.
+     * @param dailyPetAllowance How much the player gets each day for the pet.
+     * @param handler Decides what happens on random events, as an
+     * AutomatedPetEventHandler would.
+     * @throws IllegalArgumentException if size or maxDays is less than one,
+     * or the food or toy isn't known to the pet's species
+     */
+    public VectorPetEnv(int size, Pet template, Food food, Toy toy, int maxDays,
+            int dailyPetAllowance, AutomatedPetEventHandler handler) {
+        if (size < 1 || maxDays < 1) {
+            throw new IllegalArgumentException("size and maxDays must be at least one");
+        }
+        this.size = size;
+        this.maxDays = maxDays;
+        this.dailyPetAllowance = dailyPetAllowance;
+        this.template = new Pet(template);
+        //ask the handler with a pet that can be revived and a player who can pay
+        Pet testPet = new Pet(template);
+        testPet.setIsRevivable(true);
+        Player testPlayer = new Player(null, PetDayActions.TREATMENT_COST);
+        discipline = handler.disciplinePet(testPlayer, testPet);
+        treat = handler.treatPet(testPlayer, testPet);
+        revive = handler.revivePet(testPlayer, testPet);
+
+        foodHealthIncrease = food.getHealthIncrease(template.getSpecies());
+        portionSize = food.getPortionSize();
+        toyHappinessIncrease = toy.getHappinessIncrease(template.getSpecies());
+        bladderSize = template.getBladderSize();
+        fatigueIncrease = template.getFatigueIncrease();
+        defaultWeight = template.getDefaultWeightGrams();
+        startingBalance = new Player().getBalance();
+
+        health = new int[size];
+        mischievousness = new int[size];
+        happiness = new int[size];
+        hunger = new int[size];
+        percentBladderFull = new int[size];
+        fatigue = new int[size];
+        weight = new int[size];
+        isSick = new boolean[size];
+        isRevivable = new boolean[size];
+        isMisbehaving = new boolean[size];
+        isDead = new boolean[size];
+        balance = new int[size];
+        day = new int[size];
+        randomState = new long[size * 4];
+    }
+
+    /**
+     * Gets the number of games.
+     * @return Number of games.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Starts a new game in every slot. Game i gets the seed
+     * RandomSource.mixSeed(seed, i).
+     * @param seed Seed for the games.
+     */
+    public void reset(long seed) {
+        for (int i = 0; i < size; i++) {
+            reset(i, RandomSource.mixSeed(seed, i));
+        }
+    }
+
+    /**
+     * Starts a new game in one slot.
+     * @param i Index of the game.
+     * @param seed Seed for the game, as for PetGymEnv.reset.
+     */
+    public void reset(int i, long seed) {
+        health[i] = template.getHealth();
+        mischievousness[i] = template.getMischievousness();
+        happiness[i] = template.getHappiness();
+        hunger[i] = template.getHunger();
+        percentBladderFull[i] = template.getPercentBladderFull();
+        fatigue[i] = template.getFatigue();
+        weight[i] = template.getWeightGrams();
+        isSick[i] = template.getIsSick();
+        isRevivable[i] = template.getIsRevivable();
+        isMisbehaving[i] = template.getIsMisbehaving();
+        isDead[i] = template.getIsDead();
+        balance[i] = startingBalance;
+        day[i] = 0;
+
+        //the same seeding as XoshiroRandomSource
+        int r = i * 4;
+        randomState[r] = RandomSource.mixSeed(seed, 0);
+        randomState[r + 1] = RandomSource.mixSeed(seed, 1);
+        randomState[r + 2] = RandomSource.mixSeed(seed, 2);
+        randomState[r + 3] = RandomSource.mixSeed(seed, 3);
+        if ((randomState[r] | randomState[r + 1] | randomState[r + 2] | randomState[r + 3]) == 0) {
+            randomState[r] = 1;
+        }
+    }
+
+    /**
+     * Steps every game that isn't over.
+     * @param actions One action per game, as in PetGymEnv.
+     * @param rewards Where to write each game's reward.
+     * @param done Where to write whether each game is over.
+     * @throws IllegalArgumentException if an action isn't known
+     */
+    public void step(int[] actions, float[] rewards, boolean[] done) {
+        for (int i = 0; i < size; i++) {
+            if (isDone(i)) {
+                rewards[i] = 0;
+            } else {
+                act(i, actions[i]);
+                rewards[i] = endDay(i);
+            }
+            done[i] = isDone(i);
+        }
+    }
+
+    /**
+     * Steps every game and writes the observations into an array.
+     * @param actions One action per game, as in PetGymEnv.
+     * @param observations Where to write the observations, OBSERVATION_SIZE per game.
+     * @param rewards Where to write each game's reward.
+     * @param done Where to write whether each game is over.
+     * @throws IllegalArgumentException if an action isn't known
+     */
+    public void step(int[] actions, float[] observations, float[] rewards, boolean[] done) {
+        step(actions, rewards, done);
+        observe(observations);
+    }
+
+    /**
+     * Steps every game and writes the observations into a buffer, starting at
+     * the buffer's position, in the buffer's byte order. The position isn't moved.
+     * @param actions One action per game, as in PetGymEnv.
+     * @param observations Where to write the observations, OBSERVATION_SIZE
+     * floats per game.
+     * @param rewards Where to write each game's reward.
+     * @param done Where to write whether each game is over.
+     * @throws IllegalArgumentException if an action isn't known
+     */
+    public void step(int[] actions, ByteBuffer observations, float[] rewards, boolean[] done) {
+        step(actions, rewards, done);
+        observe(observations);
+    }
+
+    /**
+     * Writes every game's observation into an array.
+     * @param out Where to write them, OBSERVATION_SIZE per game.
+     */
+    public void observe(float[] out) {
+        for (int i = 0; i < size; i++) {
+            int o = i * OBSERVATION_SIZE;
+            out[o] = health[i] / 100f;
+            out[o + 1] = happiness[i] / 100f;
+            out[o + 2] = hunger[i] / 100f;
+            out[o + 3] = fatigue[i] / 100f;
+            out[o + 4] = mischievousness[i] / 100f;
+            out[o + 5] = percentBladderFull[i] / 100f;
+            out[o + 6] = (weight[i] - defaultWeight) / (float) defaultWeight;
+            out[o + 7] = isSick[i] ? 1 : 0;
+            out[o + 8] = isMisbehaving[i] ? 1 : 0;
+            out[o + 9] = isRevivable[i] ? 1 : 0;
+            out[o + 10] = isDead[i] ? 1 : 0;
+            out[o + 11] = balance[i] / 100f;
+            out[o + 12] = day[i] / (float) maxDays;
+        }
+    }
+
+    /**
+     * Writes every game's observation into a buffer, starting at the buffer's
+     * position. The position isn't moved.
+     * @param out Where to write them, OBSERVATION_SIZE floats per game.
+     */
+    public void observe(ByteBuffer out) {
+        int base = out.position();
+        for (int i = 0; i < size; i++) {
+            int o = base + i * OBSERVATION_SIZE * 4;
+            out.putFloat(o, health[i] / 100f);
+            out.putFloat(o + 4, happiness[i] / 100f);
+            out.putFloat(o + 8, hunger[i] / 100f);
+            out.putFloat(o + 12, fatigue[i] / 100f);
+            out.putFloat(o + 16, mischievousness[i] / 100f);
+            out.putFloat(o + 20, percentBladderFull[i] / 100f);
+            out.putFloat(o + 24, (weight[i] - defaultWeight) / (float) defaultWeight);
+            out.putFloat(o + 28, isSick[i] ? 1 : 0);
+            out.putFloat(o + 32, isMisbehaving[i] ? 1 : 0);
+            out.putFloat(o + 36, isRevivable[i] ? 1 : 0);
+            out.putFloat(o + 40, isDead[i] ? 1 : 0);
+            out.putFloat(o + 44, balance[i] / 100f);
+            out.putFloat(o + 48, day[i] / (float) maxDays);
+        }
+    }
+
+    /**
+     * Gets whether a game is over.
+     * @param i Index of the game.
+     * @return Whether the pet is dead or the last day has been reached.
+     */
+    public boolean isDone(int i) {
+        return isDead[i] || day[i] >= maxDays;
+    }
+
+    /**
+     * Does an action with a pet, as Pet's feed, play, sleep and goToilet do.
+     * @param i Index of the game.
+     * @param action The action.
+     * @throws IllegalArgumentException if the action isn't known
+     */
+    private void act(int i, int action) {
+        switch (action) {
+        case PetGymEnv.SKIP:
+            break;
+        case PetGymEnv.FEED:
+            hunger[i] = clamp(hunger[i] - portionSize);
+            weight[i] += portionSize * Pet.GRAMS_PER_KG;
+            percentBladderFull[i] = clamp(percentBladderFull[i] + portionSize / bladderSize + 1);
+            happiness[i] = clamp(happiness[i] + foodHealthIncrease * portionSize);
+            health[i] = clamp(health[i] + foodHealthIncrease);
+            break;
+        case PetGymEnv.PLAY:
+            happiness[i] = clamp(happiness[i] + toyHappinessIncrease);
+            fatigue[i] = clamp(fatigue[i] + fatigueIncrease);
+            mischievousness[i] = clamp(mischievousness[i] - toyHappinessIncrease);
+            hunger[i] = clamp(hunger[i] + fatigueIncrease);
+            break;
+        case PetGymEnv.SLEEP:
+            fatigue[i] = clamp(fatigue[i] - 80);
+            break;
+        case PetGymEnv.TOILET:
+            percentBladderFull[i] = clamp(percentBladderFull[i] - 100);
+            weight[i] = defaultWeight;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+    }
+
+    /**
+     * Pays the player, runs the start of the next day as PetDayActions.newDay
+     * does, and scores the pet as Player.calculatePetScore does.
+     * @param i Index of the game.
+     * @return The pet's score for the day.
+     */
+    private float endDay(int i) {
+        if (!isDead[i]) {
+            balance[i] += dailyPetAllowance;
+
+            //daily decay
+            fatigue[i] = clamp(fatigue[i] + 30);
+            happiness[i] = clamp(happiness[i] - 10);
+            hunger[i] = clamp(hunger[i] + 30);
+            mischievousness[i] = clamp(mischievousness[i] + 5);
+            if (fatigue[i] > 80) {
+                health[i] = clamp(health[i] - 10);
+            }
+
+            //misbehaving
+            int randomNumber = nextInt100(i);
+            int wellness = (happiness[i] * 3 + health[i] + (100 - mischievousness[i]) * 5
+                    + (100 - hunger[i])) / 10;
+            if (wellness < 25 && randomNumber < 75
+                    || wellness < 50 && randomNumber < 50
+                    || wellness < 75 && randomNumber < 25) {
+                if (discipline) {
+                    isMisbehaving[i] = false;
+                    happiness[i] = clamp(happiness[i] - 5);
+                    mischievousness[i] = 0;
+                } else {
+                    happiness[i] = clamp(happiness[i] - 10);
+                    isMisbehaving[i] = true;
+                }
+            }
+
+            //sickness
+            int healthBeforeTreatment = health[i];
+            randomNumber = nextInt100(i);
+            if (isSick[i] || health[i] < 5
+                    || health[i] < 25 && randomNumber < 75
+                    || health[i] < 50 && randomNumber < 50
+                    || health[i] < 75 && randomNumber < 25) {
+                if (treat && balance[i] >= PetDayActions.TREATMENT_COST) {
+                    isSick[i] = false;
+                    health[i] = 100;
+                    hunger[i] = clamp(hunger[i] - 50);
+                    fatigue[i] = clamp(fatigue[i] + 10);
+                    mischievousness[i] = clamp(mischievousness[i] - 5);
+                    balance[i] -= PetDayActions.TREATMENT_COST;
+                } else {
+                    happiness[i] = clamp(happiness[i] - 10);
+                    isSick[i] = true;
+                }
+            }
+
+            //death
+            randomNumber = nextInt100(i);
+            if (isSick[i] && happiness[i] < 50 || healthBeforeTreatment < 5 || randomNumber < 2) {
+                if (revive && isRevivable[i]) {
+                    isRevivable[i] = false;
+                } else {
+                    isDead[i] = true;
+                }
+            }
+        }
+        day[i]++;
+
+        if (isDead[i]) {
+            return 0;
+        }
+        double total = happiness[i] + (100 - fatigue[i]) + (100 - mischievousness[i])
+                + (100 - hunger[i]) + (100 - percentBladderFull[i])
+                + (100 - Math.abs(weight[i] - defaultWeight) / (double) Pet.GRAMS_PER_KG)
+                + health[i];
+        int score = (int) total;
+        if (isSick[i]) {
+            score -= 150;
+        }
+        if (isMisbehaving[i]) {
+            score -= 50;
+        }
+        return score;
+    }
+
+    /**
+     * Gets a random number from 0 to 99 from a game's generator, as
+     * XoshiroRandomSource.nextInt does.
+     * @param i Index of the game.
+     * @return The number.
+     */
+    private int nextInt100(int i) {
+        int bits = (int) (nextLong(i) >>> 33);
+        int value = bits % 100;
+        while (bits - value + 99 < 0) {
+            bits = (int) (nextLong(i) >>> 33);
+            value = bits % 100;
+        }
+        return value;
+    }
+
+    /**
+     * Steps a game's xoshiro256** generator.
+     * @param i Index of the game.
+     * @return The next random long.
+     */
+    private long nextLong(int i) {
+        int r = i * 4;
+        long s0 = randomState[r];
+        long s1 = randomState[r + 1];
+        long s2 = randomState[r + 2];
+        long s3 = randomState[r + 3];
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        randomState[r] = s0;
+        randomState[r + 1] = s1;
+        randomState[r + 2] = s2;
+        randomState[r + 3] = s3;
+        return result;
+    }
+
+    /**
+     * Keeps a stat between 0 and 100, as Pet does.
+     * @param value The stat.
+     * @return The stat, between 0 and 100.
+     */
+    private static int clamp(int value) {
+        return value < 0 ? 0 : value > 100 ? 100 : value;
+    }
+}
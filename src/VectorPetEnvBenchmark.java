@@ -0,0 +1,72 @@
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Measures how fast VectorPetEnv steps many games, and checks that stepping
+ * doesn't allocate anything.
+ *
+ * Usage: java VectorPetEnvBenchmark [number of games] [steps]
+ *
+ */
+public class VectorPetEnvBenchmark {
+
+    /**
+     * Runs the benchmark.
+     * @param args Number of games and steps, both optional.
+     */
+    public static void main(String[] args) {
+        int games = 100000;
+        int steps = 200;
+        if (args.length >= 1) {
+            games = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            steps = Integer.parseInt(args[1]);
+        }
+
+        Pet cat = new Cat();
+        String[] species = {cat.getSpecies()};
+        Food food = new Food("Fish", "", 5, 20);
+        food.setHealthIncrease(species, new String[] {"2"});
+        Toy toy = new Toy("Ball", "", 5, 3);
+        toy.setHappinessIncrease(species, new String[] {"15"});
+
+        //long games, so few of them are over before the benchmark ends
+        VectorPetEnv env = new VectorPetEnv(games, cat, food, toy, Integer.MAX_VALUE, 10,
+                new AutomatedPetEventHandler());
+        env.reset(1);
+        int[] actions = new int[games];
+        for (int i = 0; i < games; i++) {
+            actions[i] = i % PetGymEnv.NUMBER_OF_ACTIONS;
+        }
+        float[] rewards = new float[games];
+        boolean[] done = new boolean[games];
+        ByteBuffer observations = ByteBuffer.allocateDirect(
+                games * VectorPetEnv.OBSERVATION_SIZE * 4).order(ByteOrder.nativeOrder());
+
+        for (int i = 0; i < 20; i++) {
+            env.step(actions, observations, rewards, done);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            env.step(actions, observations, rewards, done);
+        }
+        long time = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        int alive = 0;
+        for (int i = 0; i < games; i++) {
+            alive += done[i] ? 0 : 1;
+        }
+        System.out.println(games + " games, " + steps + " steps, " + alive + " still going");
+        System.out.printf("%.2f ms per step, %.1f million game days/s%n",
+                time / 1e6 / steps, (double) games * steps / (time / 1e3));
+        System.out.println("bytes allocated while stepping: " + allocated);
+    }
+}
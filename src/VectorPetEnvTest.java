@@ -0,0 +1,113 @@
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the PetGymEnv and VectorPetEnv classes.
+ *
+ */
+public class VectorPetEnvTest {
+
+	private Pet cat;
+	private Food food;
+	private Toy toy;
+
+	@Before
+	public void setUp() throws Exception {
+		cat = new Cat();
+		String[] species = {cat.getSpecies()};
+		food = new Food("Fish", "", 5, 20);
+		food.setHealthIncrease(species, new String[] {"2"});
+		toy = new Toy("Ball", "", 5, 3);
+		toy.setHappinessIncrease(species, new String[] {"15"});
+	}
+
+	@Test
+	public void testSingleGame() {
+		PetGymEnv env = new PetGymEnv(cat, food, toy, 5, 10, new AutomatedPetEventHandler());
+		float[] observation = env.reset(1);
+		assertEquals(PetGymEnv.OBSERVATION_SIZE, observation.length);
+		assertEquals(1f, observation[0], 0);
+		int steps = 0;
+		double totalReward = 0;
+		PetGymEnv.StepResult result;
+		do {
+			result = env.step(PetGymEnv.SLEEP);
+			totalReward += result.getReward();
+			steps++;
+		} while (!result.isDone());
+		assertTrue(steps <= 5);
+		assertEquals(env.getPlayer().getScore(), totalReward, 0);
+		try {
+			env.step(PetGymEnv.SKIP);
+			fail("Stepped a game that was over.");
+		} catch (IllegalStateException e) {}
+	}
+
+	@Test
+	public void testMatchesSingleGames() {
+		int games = 40;
+		int days = 30;
+		long seed = 99;
+		AutomatedPetEventHandler[] handlers = {new AutomatedPetEventHandler(),
+				new AutomatedPetEventHandler(false, true, false),
+				new AutomatedPetEventHandler(true, false, true)};
+		for (AutomatedPetEventHandler handler : handlers) {
+			VectorPetEnv vector = new VectorPetEnv(games, cat, food, toy, days, 10, handler);
+			PetGymEnv[] single = new PetGymEnv[games];
+			vector.reset(seed);
+			for (int i = 0; i < games; i++) {
+				single[i] = new PetGymEnv(cat, food, toy, days, 10, handler);
+				single[i].reset(RandomSource.mixSeed(seed, i));
+			}
+
+			Random random = new Random(5);
+			int[] actions = new int[games];
+			float[] observations = new float[games * VectorPetEnv.OBSERVATION_SIZE];
+			float[] rewards = new float[games];
+			boolean[] done = new boolean[games];
+			float[] expected = new float[PetGymEnv.OBSERVATION_SIZE];
+			for (int day = 0; day < days; day++) {
+				for (int i = 0; i < games; i++) {
+					actions[i] = random.nextInt(PetGymEnv.NUMBER_OF_ACTIONS);
+				}
+				vector.step(actions, observations, rewards, done);
+				for (int i = 0; i < games; i++) {
+					if (single[i].isDone()) {
+						assertEquals(0f, rewards[i], 0);
+						assertTrue(done[i]);
+						continue;
+					}
+					PetGymEnv.StepResult result = single[i].step(actions[i]);
+					assertEquals(result.getReward(), rewards[i], 0);
+					assertEquals(result.isDone(), done[i]);
+					single[i].observe(expected, 0);
+					for (int o = 0; o < expected.length; o++) {
+						assertEquals(expected[o], observations[i * expected.length + o], 0);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testByteBufferObservations() {
+		VectorPetEnv env = new VectorPetEnv(3, cat, food, toy, 5, 10,
+				new AutomatedPetEventHandler());
+		env.reset(4);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(3 * VectorPetEnv.OBSERVATION_SIZE * 4)
+				.order(ByteOrder.nativeOrder());
+		float[] array = new float[3 * VectorPetEnv.OBSERVATION_SIZE];
+		env.step(new int[] {1, 2, 3}, buffer, new float[3], new boolean[3]);
+		env.observe(array);
+		for (int i = 0; i < array.length; i++) {
+			assertEquals(array[i], buffer.getFloat(i * 4), 0);
+		}
+	}
+
+}
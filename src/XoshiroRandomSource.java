@@ -0,0 +1,88 @@
+/**
+ * Random source using the xoshiro256** generator.
+ *
+ * The four words of state are filled from the seed with SplitMix64, as
+ * recommended by the generator's authors.
+ *
+ */
+public class XoshiroRandomSource implements RandomSource {
+
+    /**
+     * The seed this source was created with.
+     */
+    private final long seed;
+    /**
+     * The generator's state.
+     */
+    private long s0;
+    /**
+     * The generator's state.
+     */
+    private long s1;
+    /**
+     * The generator's state.
+     */
+    private long s2;
+    /**
+     * The generator's state.
+     */
+    private long s3;
+
+    /**
+     * Creates a random source from a seed.
+     * @param seed Seed for the generator.
+     */
+    public XoshiroRandomSource(long seed) {
+        this.seed = seed;
+        s0 = RandomSource.mixSeed(seed, 0);
+        s1 = RandomSource.mixSeed(seed, 1);
+        s2 = RandomSource.mixSeed(seed, 2);
+        s3 = RandomSource.mixSeed(seed, 3);
+        if ((s0 | s1 | s2 | s3) == 0) { //all zero state never leaves zero
+            s0 = 1;
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        //Take the top 31 bits and reject the values that would bias the result
+        int bits = (int) (nextLong() >>> 33);
+        int value = bits % bound;
+        while (bits - value + (bound - 1) < 0) {
+            bits = (int) (nextLong() >>> 33);
+            value = bits % bound;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public RandomSource derive(long streamId) {
+        return new XoshiroRandomSource(RandomSource.mixSeed(seed, streamId));
+    }
+}